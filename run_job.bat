@@ -5,6 +5,7 @@ rem   run_job.bat compile
 rem   run_job.bat test
 rem   run_job.bat exec       (runs the Flink job via exec:exec)
 rem   run_job.bat exec-git   (runs TruffleJobGit with GitPythonSource)
+rem   run_job.bat exec-streaming (runs the Flink job with the file connector and FileSink)
 rem   run_job.bat package    (fat JAR, skips tests)
 rem   run_job.bat <any mvn goal/args>
 
@@ -19,6 +20,11 @@ if "%~1"=="exec-git" (
     exit /b %errorlevel%
 )
 
+if "%~1"=="exec-streaming" (
+    "%MVN%" exec:exec@exec-streaming
+    exit /b %errorlevel%
+)
+
 if "%~1"=="exec" (
     "%MVN%" exec:exec
     exit /b %errorlevel%
@@ -0,0 +1,235 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.common.eventtime.Watermark;
+import org.apache.flink.api.common.eventtime.WatermarkGenerator;
+import org.apache.flink.api.common.eventtime.WatermarkOutput;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.connector.source.util.ratelimit.RateLimiterStrategy;
+import org.apache.flink.connector.datagen.source.DataGeneratorSource;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
+import org.apache.flink.streaming.api.datastream.BroadcastStream;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.functions.co.BroadcastProcessFunction;
+import org.apache.flink.util.Collector;
+import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
+import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
+import org.csa.truffle.interpreter.polyglot.TruffleLanguage;
+import org.csa.truffle.source.FileSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Broadcast variant of {@link ProcessFunctionPython}: instead of every subtask polling the source
+ * with its own {@code ScheduledReloader}, a single {@link ScriptSnapshotGenerator} loads the scripts
+ * and broadcasts each new {@link ScriptSnapshot} to all subtasks (see {@link #process}).
+ *
+ * <p>One remote fetch per poll for the whole job, and all subtasks switch versions at the same
+ * position of the broadcast stream. The latest snapshot is kept in broadcast state, so it is part
+ * of every checkpoint: after a restore each subtask rebuilds exactly the version that was current
+ * at the checkpoint, before the next snapshot arrives.
+ *
+ * <p>Records that arrive before the first snapshot are buffered (in operator state, so they
+ * survive a checkpoint) and processed as soon as it arrives. The buffer holds at most
+ * {@code maxPending} records; one more fails the task, e.g. when the source cannot be loaded at all.
+ * If a snapshot fails to evaluate, the previous interpreter keeps running; without one the task fails.
+ */
+public class BroadcastProcessFunctionPython extends BroadcastProcessFunction<String, ScriptSnapshot, String>
+        implements CheckpointedFunction {
+
+    private static final Logger log = LoggerFactory.getLogger(BroadcastProcessFunctionPython.class);
+
+    /** Broadcast state holding the current {@link ScriptSnapshot} under {@link #CURRENT}. */
+    public static final MapStateDescriptor<String, ScriptSnapshot> SNAPSHOT_STATE = new MapStateDescriptor<>(
+            "script-snapshot", Types.STRING, TypeInformation.of(ScriptSnapshot.class));
+
+    private static final String CURRENT = "current";
+
+    /** Records buffered before the first snapshot at most, by default. */
+    public static final int DEFAULT_MAX_PENDING = 100_000;
+
+    private final PolyglotAccessConfig accessConfig;
+    private final int maxPending;
+
+    private transient PolyglotInterpreter interpreter;
+    private transient String interpreterVersion;
+    private transient String failedVersion;
+    private transient ListState<String> pendingState;
+    private transient List<String> pending;
+
+    public BroadcastProcessFunctionPython() {
+        this(PolyglotAccessConfig.HOST);
+    }
+
+    public BroadcastProcessFunctionPython(PolyglotAccessConfig accessConfig) {
+        this(accessConfig, DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * @param maxPending records buffered before the first snapshot at most; one more fails the task
+     */
+    public BroadcastProcessFunctionPython(PolyglotAccessConfig accessConfig, int maxPending) {
+        this.accessConfig = accessConfig;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Wires {@code input} to a broadcast script stream with {@link PolyglotAccessConfig#HOST} access;
+     * see {@link #process(DataStream, FileSourceConfig, Duration, PolyglotAccessConfig)}.
+     */
+    public static DataStream<String> process(DataStream<String> input, FileSourceConfig sourceConfig,
+                                             Duration interval) {
+        return process(input, sourceConfig, interval, PolyglotAccessConfig.HOST);
+    }
+
+    /**
+     * Wires {@code input} to a broadcast script stream: a parallelism-1 {@link DataGeneratorSource}
+     * loads {@code sourceConfig} every {@code interval} and only new versions are broadcast. Each
+     * subtask evaluates them with {@code accessConfig}.
+     *
+     * <p>The script stream carries the maximum watermark, so event time on the output follows
+     * {@code input} alone. It never ends, though: a job reading bounded input keeps running after
+     * the input is processed and has to be cancelled (or collected with a limit). Use
+     * {@link ProcessFunctionPython} for bounded jobs.
+     */
+    public static DataStream<String> process(DataStream<String> input, FileSourceConfig sourceConfig,
+                                             Duration interval, PolyglotAccessConfig accessConfig) {
+        DataGeneratorSource<ScriptSnapshot> generator = new DataGeneratorSource<>(
+                new ScriptSnapshotGenerator(sourceConfig),
+                Long.MAX_VALUE,
+                RateLimiterStrategy.perSecond(1000.0 / Math.max(1, interval.toMillis())),
+                TypeInformation.of(ScriptSnapshot.class));
+
+        BroadcastStream<ScriptSnapshot> scripts = input.getExecutionEnvironment()
+                .fromSource(generator, maxWatermark(), "script-snapshots")
+                .setParallelism(1)
+                .filter(ScriptSnapshot::hasContents)
+                .setParallelism(1)
+                .name("changed-script-snapshots")
+                .broadcast(SNAPSHOT_STATE);
+
+        return input.connect(scripts).process(new BroadcastProcessFunctionPython(accessConfig));
+    }
+
+    /**
+     * Emits {@link Watermark#MAX_WATERMARK} for the script stream, which has no event time: the
+     * broadcast operator forwards the minimum of both inputs' watermarks, so without one the output
+     * watermark would never advance.
+     */
+    private static WatermarkStrategy<ScriptSnapshot> maxWatermark() {
+        return WatermarkStrategy.<ScriptSnapshot>forGenerator(context -> new WatermarkGenerator<>() {
+            @Override
+            public void onEvent(ScriptSnapshot snapshot, long timestamp, WatermarkOutput output) {
+                output.emitWatermark(Watermark.MAX_WATERMARK);
+            }
+
+            @Override
+            public void onPeriodicEmit(WatermarkOutput output) {
+                output.emitWatermark(Watermark.MAX_WATERMARK);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    // State
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        pendingState = context.getOperatorStateStore()
+                .getListState(new ListStateDescriptor<>("pending-lines", Types.STRING));
+        pending = new ArrayList<>();
+        if (context.isRestored()) {
+            pendingState.get().forEach(pending::add);
+        }
+    }
+
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        pendingState.update(pending);
+    }
+
+    // -------------------------------------------------------------------------
+    // Processing
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void processElement(String line, ReadOnlyContext ctx, Collector<String> out) throws Exception {
+        ScriptSnapshot snapshot = ctx.getBroadcastState(SNAPSHOT_STATE).get(CURRENT);
+        if (snapshot == null) {
+            if (pending.size() >= maxPending) {
+                throw new Exception("No script snapshot after " + pending.size() + " buffered record(s)");
+            }
+            pending.add(line);
+            return;
+        }
+        apply(snapshot); // no-op unless restored from a checkpoint
+        ProcessFunctionPython.execute(interpreter, line, out);
+    }
+
+    @Override
+    public void processBroadcastElement(ScriptSnapshot snapshot, Context ctx, Collector<String> out)
+            throws Exception {
+        ctx.getBroadcastState(SNAPSHOT_STATE).put(CURRENT, snapshot);
+        apply(snapshot);
+
+        if (!pending.isEmpty()) {
+            log.info("Processing {} record(s) buffered before the first script snapshot", pending.size());
+            for (String line : pending) {
+                ProcessFunctionPython.execute(interpreter, line, out);
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Builds an interpreter for {@code snapshot} unless it is the one running (or failed before).
+     */
+    private void apply(ScriptSnapshot snapshot) throws Exception {
+        String version = snapshot.version();
+        if (version.equals(interpreterVersion) || version.equals(failedVersion)) {
+            return;
+        }
+
+        PolyglotInterpreter next = new PolyglotInterpreter(accessConfig);
+        try {
+            for (Map.Entry<String, String> entry : snapshot.contents().entrySet()) {
+                next.addContext(TruffleLanguage.PYTHON, entry.getKey(), entry.getValue());
+            }
+        } catch (Exception e) {
+            next.close();
+            if (interpreter == null) {
+                throw new Exception("Script version " + version + " failed to evaluate", e);
+            }
+            failedVersion = version;
+            log.error("Script version {} failed to evaluate; keeping version {}", version, interpreterVersion, e);
+            return;
+        }
+
+        PolyglotInterpreter previous = interpreter;
+        interpreter = next;
+        interpreterVersion = version;
+        log.info("Switched to script version {} (loaded at {})", version, snapshot.loadedAt());
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (interpreter != null) {
+            interpreter.close();
+        }
+    }
+}
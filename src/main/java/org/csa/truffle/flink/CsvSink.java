@@ -0,0 +1,103 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.common.serialization.BulkWriter;
+import org.apache.flink.connector.file.sink.FileSink;
+import org.apache.flink.core.fs.FSDataOutputStream;
+import org.apache.flink.streaming.api.functions.sink.filesystem.OutputFileConfig;
+import org.apache.flink.streaming.api.functions.sink.filesystem.PartFileInfo;
+import org.apache.flink.streaming.api.functions.sink.filesystem.bucketassigners.BasePathBucketAssigner;
+import org.apache.flink.streaming.api.functions.sink.filesystem.rollingpolicies.CheckpointRollingPolicy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * {@link FileSink} writing CSV lines to part files {@code part-<uid>-<subtask>-<n>.csv} in one
+ * directory, each subtask to its own files.
+ * <p>
+ * Every part file starts with the configured header. A row format cannot write per-file content, so
+ * the lines go through a {@link BulkWriter} instead; that makes part files roll on every checkpoint
+ * (see {@link CsvSinkConfig} for the other triggers). Files are committed when the checkpoint after
+ * they were rolled completes, so checkpointing must be enabled: with it, every line is written to a
+ * committed file exactly once, also across failures.
+ */
+public final class CsvSink {
+
+    private CsvSink() {
+    }
+
+    /**
+     * Creates a sink writing to the directory {@code dir}.
+     */
+    public static FileSink<String> create(Path dir, CsvSinkConfig config) {
+        return FileSink
+                .forBulkFormat(new org.apache.flink.core.fs.Path(dir.toUri()), new HeaderWriterFactory(config.header()))
+                .withBucketAssigner(new BasePathBucketAssigner<>())
+                .withRollingPolicy(new SizeOrTimeRollingPolicy(config.maxPartBytes(), config.rolloverInterval()))
+                .withBucketCheckInterval(Math.min(config.rolloverInterval().toMillis(), Duration.ofMinutes(1).toMillis()))
+                .withOutputFileConfig(OutputFileConfig.builder().withPartPrefix("part").withPartSuffix(".csv").build())
+                .build();
+    }
+
+    /**
+     * Writes the header to every new part file, then one line per element.
+     */
+    static final class HeaderWriterFactory implements BulkWriter.Factory<String> {
+
+        private final String header;
+
+        HeaderWriterFactory(String header) {
+            this.header = header;
+        }
+
+        @Override
+        public BulkWriter<String> create(FSDataOutputStream out) throws IOException {
+            if (header != null) {
+                out.write((header + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return new BulkWriter<>() {
+                @Override
+                public void addElement(String line) throws IOException {
+                    out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                @Override
+                public void finish() throws IOException {
+                    out.flush(); // the sink closes the stream
+                }
+            };
+        }
+    }
+
+    /**
+     * Rolls on every checkpoint, and when a part file reaches {@code maxPartBytes} or has been open
+     * for {@code rolloverInterval}.
+     */
+    static final class SizeOrTimeRollingPolicy extends CheckpointRollingPolicy<String, String> {
+
+        private final long maxPartBytes;
+        private final long rolloverMillis;
+
+        SizeOrTimeRollingPolicy(long maxPartBytes, Duration rolloverInterval) {
+            this.maxPartBytes = maxPartBytes;
+            this.rolloverMillis = rolloverInterval.toMillis();
+        }
+
+        @Override
+        public boolean shouldRollOnEvent(PartFileInfo<String> partFileState, String element) throws IOException {
+            return partFileState.getSize() >= maxPartBytes;
+        }
+
+        @Override
+        public boolean shouldRollOnProcessingTime(PartFileInfo<String> partFileState, long currentTime) {
+            return currentTime - partFileState.getCreationTime() >= rolloverMillis;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.csa.truffle.flink;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Part-file settings of {@link CsvSink}. A part file is rolled (closed and, on the next checkpoint,
+ * committed) once it reaches {@code maxPartBytes} or has been open for {@code rolloverInterval},
+ * and on every checkpoint.
+ *
+ * @param header           first line of every part file; {@code null} for none
+ * @param maxPartBytes     size at which a part file is rolled
+ * @param rolloverInterval time after which an open part file is rolled
+ */
+public record CsvSinkConfig(String header, long maxPartBytes, Duration rolloverInterval) implements Serializable {
+
+    /** 128 MiB parts, rolled at least every 15 minutes. */
+    public CsvSinkConfig(String header) {
+        this(header, 128L * 1024 * 1024, Duration.ofMinutes(15));
+    }
+
+    public CsvSinkConfig withMaxPartBytes(long maxPartBytes) {
+        return new CsvSinkConfig(header, maxPartBytes, rolloverInterval);
+    }
+
+    public CsvSinkConfig withRolloverInterval(Duration rolloverInterval) {
+        return new CsvSinkConfig(header, maxPartBytes, rolloverInterval);
+    }
+}
@@ -0,0 +1,209 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.common.functions.OpenContext;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.csa.truffle.interpreter.groovy.GroovyCallable;
+import org.csa.truffle.interpreter.groovy.GroovyClassCache;
+import org.csa.truffle.interpreter.groovy.GroovyClassCacheConfig;
+import org.csa.truffle.interpreter.groovy.GroovyInterpreter;
+import org.csa.truffle.scheduler.ScheduledReloader;
+import org.csa.truffle.scheduler.SchedulerConfig;
+import org.csa.truffle.source.FileSourceConfig;
+import org.csa.truffle.source.resource.ResourceSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Groovy variant of {@link ProcessFunctionPython}.
+ * <p>
+ * Parses raw sales CSV lines and emits enriched records with a computed
+ * totalPrice and a size category (small / medium / large).
+ * <p>
+ * Input  fields (6): transactionId, customerId, product, quantity, unitPrice, date
+ * Output fields (8): transactionId, customerId, product, quantity, unitPrice,
+ * totalPrice, category, date
+ * <p>
+ * Scripts are loaded and reloaded by a {@link ScheduledReloader}, like the Python scripts, and every
+ * script's {@code processElement(String line, Collector<String> out)} is called for each record. With
+ * {@code compileStatic}, scripts are compiled with {@code @CompileStatic} (see {@link GroovyInterpreter}),
+ * which brings them close to {@link ProcessFunctionJava} while keeping hot reload. One interpreter lives
+ * as long as the operator: a reload compiles only new and changed scripts and removes deleted ones, while
+ * unchanged scripts keep their classes and JIT-compiled code.
+ * <p>
+ * With a {@link GroovyClassCacheConfig}, compiled scripts are kept on local disk, so after a restart
+ * unchanged scripts are loaded without compiling them.
+ */
+public class ProcessFunctionGroovy extends ProcessFunction<String, String> {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessFunctionGroovy.class);
+
+    private static final String MEMBER = "processElement";
+
+    private final FileSourceConfig sourceConfig;
+    private final SchedulerConfig schedulerConfig;
+    private final boolean compileStatic;
+    private final GroovyClassCacheConfig classCacheConfig; // null = no class cache
+
+    private transient GroovyClassCache classCache;
+    private transient GroovyInterpreter interpreter; // only touched by the reload callback and close()
+    private transient ScheduledReloader scheduler;
+    private transient volatile Generation generation;
+    private transient volatile Map<String, Duration> compileTimes = Map.of();
+
+    /**
+     * The {@code processElement} methods of the interpreter's current scripts, in index order; scripts
+     * without one are skipped.
+     */
+    private record Generation(Map<String, GroovyCallable> members) {
+
+        static Generation of(GroovyInterpreter interpreter) {
+            Map<String, GroovyCallable> members = new LinkedHashMap<>();
+            for (String file : interpreter.getContexts()) {
+                if (interpreter.hasMember(file, MEMBER)) {
+                    members.put(file, interpreter.getMember(file, MEMBER));
+                }
+            }
+            return new Generation(members);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------------------
+
+    /**
+     * Primary constructor.
+     *
+     * @param classCacheConfig on-disk cache of compiled scripts; {@code null} compiles on every start
+     */
+    public ProcessFunctionGroovy(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig, boolean compileStatic,
+                                 GroovyClassCacheConfig classCacheConfig) {
+        this.sourceConfig = sourceConfig;
+        this.schedulerConfig = schedulerConfig;
+        this.compileStatic = compileStatic;
+        this.classCacheConfig = classCacheConfig;
+    }
+
+    /**
+     * Without class cache.
+     */
+    public ProcessFunctionGroovy(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig, boolean compileStatic) {
+        this(sourceConfig, schedulerConfig, compileStatic, null);
+    }
+
+    /**
+     * Uses classpath {@code groovy/} directory, 5-minute reload interval.
+     */
+    public ProcessFunctionGroovy(boolean compileStatic) {
+        this(new ResourceSourceConfig("groovy", new String[]{"*.groovy"}, new String[]{}),
+                new SchedulerConfig(Duration.ofMinutes(5)), compileStatic);
+    }
+
+    /**
+     * Uses classpath {@code groovy/} directory, 5-minute reload interval, dynamic compilation.
+     */
+    public ProcessFunctionGroovy() {
+        this(false);
+    }
+
+    // -------------------------------------------------------------------------
+    // Flink lifecycle
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void open(OpenContext openContext) throws Exception {
+
+        log.info("Opening: loading Groovy scripts{}", compileStatic ? " (static compilation)" : "");
+
+        if (classCacheConfig != null) {
+            classCache = new GroovyClassCache(classCacheConfig);
+        }
+
+        interpreter = new GroovyInterpreter(compileStatic, classCache);
+
+        scheduler = new ScheduledReloader(sourceConfig, schedulerConfig, (status, contents) -> {
+            if (contents == null) {
+                this.generation = null;
+                return;
+            }
+            // update methods (called from scheduler thread)
+            try {
+                // compiles new and changed scripts only; throws on compile errors → reload fails,
+                // previous scripts stay
+                Map<String, Duration> compiled = interpreter.applyContents(contents);
+                if (!compiled.isEmpty()) {
+                    log.info("Compiled {} Groovy script(s): {}", compiled.size(), formatTimes(compiled));
+                    this.compileTimes = Collections.unmodifiableMap(compiled);
+                }
+            } finally {
+                this.generation = Generation.of(interpreter);
+            }
+        });
+
+        // fires callback synchronously → generation is set
+        scheduler.start();
+
+        log.debug("Loaded {} processElement method(s)", generation.members().size());
+    }
+
+    private static String formatTimes(Map<String, Duration> times) {
+        StringJoiner joined = new StringJoiner(", ");
+        times.forEach((file, time) -> joined.add(file + " " + time.toMillis() + " ms"));
+        return joined.toString();
+    }
+
+    /**
+     * Returns the compile time of each script compiled by the latest reload that compiled any, in index
+     * order (time to define it from the class cache for cached scripts); empty before the first one.
+     */
+    public Map<String, Duration> getCompileTimes() {
+        return compileTimes;
+    }
+
+    @Override
+    public void close() throws Exception {
+        log.debug("Closing interpreter");
+
+        if (scheduler != null) {
+            scheduler.close();
+        }
+
+        if (interpreter != null) {
+            interpreter.close();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Processing
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void processElement(String line, Context ctx, Collector<String> out) {
+
+        // check for exception in scheduler
+        try {
+            scheduler.checkForFatalError();
+        } catch (Throwable e) {
+            log.error("Aborting job due to fatal scheduler error");
+            throw e;
+        }
+
+        // fixed-arity call: no argument array, direct method handle invocation
+        for (Map.Entry<String, GroovyCallable> member : generation.members().entrySet()) {
+            try {
+                member.getValue().call2(line, out);
+            } catch (Exception e) {
+                Exception wrapped = new Exception(
+                        "Groovy error in '" + member.getKey() + "' processing line: " + line, e);
+                log.error("Groovy execution failed in file '{}': {}", member.getKey(), e.getMessage(), wrapped);
+            }
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package org.csa.truffle.flink;
 
 import org.apache.flink.api.common.functions.OpenContext;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.runtime.state.FunctionInitializationContext;
+import org.apache.flink.runtime.state.FunctionSnapshotContext;
+import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.util.Collector;
 import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
 import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
+import org.csa.truffle.interpreter.polyglot.PolyglotPipeline;
+import org.csa.truffle.scheduler.CanaryRollout;
 import org.csa.truffle.scheduler.ScheduledReloader;
 import org.csa.truffle.scheduler.SchedulerConfig;
 import org.csa.truffle.source.FileSourceConfig;
@@ -13,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 
 /**
  * V2 variant of {@link ProcessFunctionJava}.
@@ -23,16 +33,46 @@ import java.time.Duration;
  * Input  fields (6): transactionId, customerId, product, quantity, unitPrice, date
  * Output fields (8): transactionId, customerId, product, quantity, unitPrice,
  * totalPrice, category, date
+ * <p>
+ * With {@link SchedulerConfig#rollout()} set, reloaded scripts are not switched to at once: each new
+ * interpreter generation runs in shadow on a sample of records and is promoted or rolled back by a
+ * {@link CanaryRollout}. A rolled-back snapshot is not offered again; the next change to the scripts
+ * starts a new comparison.
+ * <p>
+ * The scripts of the active generation are written to operator state on every checkpoint. After a
+ * failover the function starts from exactly those scripts, without fetching from the source, so
+ * replayed records are processed by the version that processed them before; the scheduler catches
+ * up with the source from the next poll on. The state is union list state written by subtask 0 only,
+ * so after rescaling, up or down, every subtask restores the same snapshot; should it hold several
+ * generations, the most recently activated one is used.
+ * <p>
+ * Created via {@link #pipeline}, the scripts run as consecutive stages of a {@link PolyglotPipeline}
+ * instead of each on the raw line: in {@code FileSource.listFiles()} order, every value a script
+ * collects is passed to the next script's {@code process_element} as is, within one shared context,
+ * and only the last script's output is emitted.
  */
-public class ProcessFunctionPython extends ProcessFunction<String, String> {
+public class ProcessFunctionPython extends ProcessFunction<String, String> implements CheckpointedFunction {
 
     private static final Logger log = LoggerFactory.getLogger(ProcessFunctionPython.class);
 
     private final FileSourceConfig sourceConfig;
     private final SchedulerConfig schedulerConfig;
+    private final boolean pipeline;
 
     private transient ScheduledReloader scheduler;
-    private transient PolyglotInterpreter interpreter;
+    private transient volatile PolyglotInterpreter interpreter;
+    private transient volatile ScriptSnapshot activeScripts; // scripts of interpreter
+    private transient CanaryRollout<Generation> rollout; // null unless staged rollout is configured
+    private transient ListState<ScriptSnapshot> scriptState;
+    private transient ScriptSnapshot restoredScripts; // null unless restored from a checkpoint
+
+    /** An interpreter with the scripts it was built from, as rolled out by {@link CanaryRollout}. */
+    private record Generation(PolyglotInterpreter interpreter, ScriptSnapshot scripts) implements AutoCloseable {
+        @Override
+        public void close() {
+            interpreter.close();
+        }
+    }
 
     // -------------------------------------------------------------------------
     // Constructors
@@ -42,8 +82,20 @@ public class ProcessFunctionPython extends ProcessFunction<String, String> {
      * Primary constructor.
      */
     public ProcessFunctionPython(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig) {
+        this(sourceConfig, schedulerConfig, false);
+    }
+
+    private ProcessFunctionPython(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig, boolean pipeline) {
         this.sourceConfig = sourceConfig;
         this.schedulerConfig = schedulerConfig;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Pipeline mode: the scripts run as consecutive stages, each fed with the previous one's output.
+     */
+    public static ProcessFunctionPython pipeline(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig) {
+        return new ProcessFunctionPython(sourceConfig, schedulerConfig, true);
     }
 
     /**
@@ -73,25 +125,69 @@ public class ProcessFunctionPython extends ProcessFunction<String, String> {
     // Flink lifecycle
     // -------------------------------------------------------------------------
 
+    @Override
+    public void initializeState(FunctionInitializationContext context) throws Exception {
+        // union: every subtask restores every snapshot, also subtasks added by scaling up
+        scriptState = context.getOperatorStateStore().getUnionListState(
+                new ListStateDescriptor<>("active-scripts", TypeInformation.of(ScriptSnapshot.class)));
+        if (context.isRestored()) {
+            for (ScriptSnapshot snapshot : scriptState.get()) {
+                if (restoredScripts == null || snapshot.loadedAt().isAfter(restoredScripts.loadedAt())) {
+                    restoredScripts = snapshot;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void snapshotState(FunctionSnapshotContext context) throws Exception {
+        if (getRuntimeContext().getTaskInfo().getIndexOfThisSubtask() != 0) {
+            // all subtasks run the same scripts; one copy keeps the union from growing with parallelism
+            scriptState.update(List.of());
+            return;
+        }
+        ScriptSnapshot active = rollout != null ? rollout.current().scripts() : activeScripts;
+        scriptState.update(active != null ? List.of(active) : List.of());
+    }
+
     @Override
     public void open(OpenContext openContext) throws Exception {
 
-        log.info("Opening: loading Python scripts");
+        if (restoredScripts != null) {
+            log.info("Opening: restoring Python scripts version {} from checkpoint", restoredScripts.version());
+        } else {
+            log.info("Opening: loading Python scripts");
+        }
 
-        scheduler = new ScheduledReloader(sourceConfig, schedulerConfig, PolyglotAccessConfig.HOST,
+        PolyglotAccessConfig accessConfig = PolyglotAccessConfig.HOST.withSharedContext(pipeline);
+        scheduler = new ScheduledReloader(sourceConfig, schedulerConfig, accessConfig,
                 (status, newInterpreter) -> {
+                    ScriptSnapshot scripts = newInterpreter != null
+                            ? ScriptSnapshot.of(scheduler.getAppliedContents(), Instant.now()) : null;
+                    if (schedulerConfig.rollout() != null && newInterpreter != null) {
+                        // initial load (open() thread) creates the rollout; later generations go through it
+                        Generation generation = new Generation(newInterpreter, scripts);
+                        if (rollout == null) {
+                            rollout = new CanaryRollout<>(schedulerConfig.rollout(), generation);
+                        } else {
+                            rollout.offer(generation);
+                        }
+                        return;
+                    }
                     // update interpreter (called from scheduler thread)
                     PolyglotInterpreter oldInterpreter = this.interpreter;
                     this.interpreter = newInterpreter;
+                    this.activeScripts = scripts;
                     if (oldInterpreter != null) {
                         oldInterpreter.close();
                     }
                 });
 
         // fires callback synchronously → interpreter is set
-        scheduler.start();
+        scheduler.start(restoredScripts != null ? restoredScripts.contents() : null);
 
-        log.debug("Loaded {} process_element function(s)", interpreter.getContexts().size());
+        PolyglotInterpreter loaded = rollout != null ? rollout.current().interpreter() : interpreter;
+        log.debug("Loaded {} process_element function(s)", loaded.getContexts().size());
     }
 
     @Override
@@ -106,6 +202,10 @@ public class ProcessFunctionPython extends ProcessFunction<String, String> {
         if (interpreter != null) {
             interpreter.close();
         }
+
+        if (rollout != null) {
+            rollout.close();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -123,14 +223,76 @@ public class ProcessFunctionPython extends ProcessFunction<String, String> {
             throw e;
         }
 
-        for (String file : interpreter.getContexts()) {
+        if (rollout != null) {
+            rollout.process((generation, shadow) -> run(generation.interpreter(), line, shadow ? null : out));
+        } else {
+            run(interpreter, line, out);
+        }
+    }
+
+    private CanaryRollout.Outcome run(PolyglotInterpreter generation, String line, Collector<String> out) {
+        return pipeline ? executePipeline(generation, line, out) : execute(generation, line, out);
+    }
+
+    /**
+     * Runs {@code process_element} of every script on {@code line}; outputs are counted and, unless
+     * {@code out} is {@code null}, emitted.
+     */
+    static CanaryRollout.Outcome execute(PolyglotInterpreter generation, String line, Collector<String> out) {
+        CountingCollector counting = new CountingCollector(out);
+        int errors = 0;
+        for (String file : generation.getContexts()) {
             try {
-                interpreter.execute(file, "process_element", line, out);
+                generation.execute(file, "process_element", line, counting);
             } catch (Exception e) {
+                errors++;
+                if (out == null) continue; // shadow run: counted, not logged per record
                 Exception wrapped = new Exception(
                         "Python error in '" + file + "' processing line: " + line, e);
                 log.error("Python execution failed in file '{}': {}", file, e.getMessage(), wrapped);
             }
         }
+        return new CanaryRollout.Outcome(counting.count, errors);
+    }
+
+    /**
+     * Runs {@code line} through the {@code process_element} pipeline of {@code generation}; outputs of
+     * the last stage are counted and, unless {@code out} is {@code null}, emitted. A failure in any stage
+     * counts as one error for the record.
+     */
+    static CanaryRollout.Outcome executePipeline(PolyglotInterpreter generation, String line, Collector<String> out) {
+        CountingCollector counting = new CountingCollector(out);
+        try {
+            generation.pipeline("process_element").process(line, counting);
+        } catch (Exception e) {
+            if (out != null) {
+                Exception wrapped = new Exception("Python pipeline error processing line: " + line, e);
+                log.error("Python pipeline failed: {}", e.getMessage(), wrapped);
+            }
+            return new CanaryRollout.Outcome(counting.count, 1);
+        }
+        return new CanaryRollout.Outcome(counting.count, 0);
+    }
+
+    /**
+     * Counts collected records and forwards them to {@code target} unless it is {@code null}.
+     */
+    private static final class CountingCollector implements Collector<String> {
+        private final Collector<String> target;
+        int count;
+
+        CountingCollector(Collector<String> target) {
+            this.target = target;
+        }
+
+        @Override
+        public void collect(String record) {
+            count++;
+            if (target != null) target.collect(record);
+        }
+
+        @Override
+        public void close() {
+        }
     }
 }
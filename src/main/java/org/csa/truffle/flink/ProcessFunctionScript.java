@@ -0,0 +1,209 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.common.functions.OpenContext;
+import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.util.Collector;
+import org.csa.truffle.interpreter.ScriptEngine;
+import org.csa.truffle.interpreter.ScriptFunction;
+import org.csa.truffle.interpreter.ScriptInterpreter;
+import org.csa.truffle.interpreter.groovy.GroovyCallable;
+import org.csa.truffle.interpreter.groovy.GroovyEngine;
+import org.csa.truffle.interpreter.polyglot.PolyglotEngine;
+import org.csa.truffle.interpreter.polyglot.PolyglotFunction;
+import org.csa.truffle.interpreter.polyglot.TruffleLanguage;
+import org.csa.truffle.scheduler.ScheduledReloader;
+import org.csa.truffle.scheduler.SchedulerConfig;
+import org.csa.truffle.source.FileSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine-agnostic variant of {@link ProcessFunctionPython} and {@link ProcessFunctionGroovy}: every script
+ * is loaded by the {@link ScriptEngine} of its file extension, so one job can run each transform on the
+ * engine that suits it best, e.g. a latency-critical one as statically compiled Groovy next to Python ones.
+ * <p>
+ * Every script's {@code process_element(line, out)} or, if it has none, {@code processElement(line, out)}
+ * is called for each record, in index order; scripts with neither are skipped. The functions are resolved
+ * once per reload, and each call goes through a call site per engine type (see {@link #call}), so no
+ * call site sees more than one engine's function type. A reload only loads new and changed scripts; the
+ * others keep their compiled code.
+ * <p>
+ * WebAssembly modules ({@code .wasm}) only take numbers: their export is called as a kernel (see
+ * {@link #callKernel}) with the record's comma-separated fields as arguments, and its result is emitted.
+ */
+public class ProcessFunctionScript extends ProcessFunction<String, String> {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessFunctionScript.class);
+
+    /** Python / JS naming first, then Groovy / Java naming. */
+    private static final List<String> MEMBERS = List.of("process_element", "processElement");
+
+    private final FileSourceConfig sourceConfig;
+    private final SchedulerConfig schedulerConfig;
+    private final List<ScriptEngine> engines;
+
+    private transient ScheduledReloader scheduler;
+    private transient volatile Generation generation;
+
+    /**
+     * The per-record functions of the interpreter's current scripts, in index order; {@code kernels} marks
+     * the WebAssembly exports.
+     */
+    private record Generation(String[] names, ScriptFunction[] functions, boolean[] kernels) {
+
+        static Generation of(ScriptInterpreter interpreter) {
+            List<String> names = new ArrayList<>();
+            List<ScriptFunction> functions = new ArrayList<>();
+            for (String file : interpreter.getContexts()) {
+                for (String member : MEMBERS) {
+                    if (interpreter.hasMember(file, member)) {
+                        names.add(file);
+                        functions.add(interpreter.getFunction(file, member));
+                        break;
+                    }
+                }
+            }
+            boolean[] kernels = new boolean[names.size()];
+            for (int i = 0; i < kernels.length; i++) {
+                kernels[i] = TruffleLanguage.forFileName(names.get(i)).orElse(null) == TruffleLanguage.WASM;
+            }
+            return new Generation(names.toArray(new String[0]), functions.toArray(new ScriptFunction[0]), kernels);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Constructors
+    // -------------------------------------------------------------------------
+
+    /**
+     * Primary constructor.
+     *
+     * @param engines engines to load scripts with, by file extension; for an extension claimed by
+     *                several, the first wins
+     */
+    public ProcessFunctionScript(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig,
+                                 List<ScriptEngine> engines) {
+        this.sourceConfig = sourceConfig;
+        this.schedulerConfig = schedulerConfig;
+        this.engines = List.copyOf(engines);
+    }
+
+    /**
+     * Loads Truffle languages with host access and Groovy with dynamic compilation.
+     */
+    public ProcessFunctionScript(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig) {
+        this(sourceConfig, schedulerConfig, List.of(new PolyglotEngine(), new GroovyEngine()));
+    }
+
+    // -------------------------------------------------------------------------
+    // Flink lifecycle
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void open(OpenContext openContext) throws Exception {
+
+        log.info("Opening: loading scripts with {} engine(s)", engines.size());
+
+        // the reloader keeps one interpreter, applies every snapshot to it and closes it on close()
+        scheduler = new ScheduledReloader(sourceConfig, schedulerConfig, engines, (status, interpreter) -> {
+            // update functions (called from scheduler thread)
+            this.generation = interpreter != null ? Generation.of(interpreter) : null;
+        });
+
+        // fires callback synchronously → generation is set
+        scheduler.start();
+
+        log.debug("Loaded {} per-record function(s)", generation.functions().length);
+    }
+
+    @Override
+    public void close() throws Exception {
+        log.debug("Closing interpreter");
+
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Processing
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void processElement(String line, Context ctx, Collector<String> out) {
+
+        // check for exception in scheduler
+        try {
+            scheduler.checkForFatalError();
+        } catch (Throwable e) {
+            log.error("Aborting job due to fatal scheduler error");
+            throw e;
+        }
+
+        Generation current = generation;
+        ScriptFunction[] functions = current.functions();
+        boolean[] kernels = current.kernels();
+        for (int i = 0; i < functions.length; i++) {
+            try {
+                if (kernels[i]) {
+                    callKernel((PolyglotFunction) functions[i], line, out);
+                } else {
+                    call(functions[i], line, out);
+                }
+            } catch (Exception e) {
+                Exception wrapped = new Exception(
+                        "Script error in '" + current.names()[i] + "' processing line: " + line, e);
+                log.error("Script execution failed in file '{}': {}", current.names()[i], e.getMessage(), wrapped);
+            }
+        }
+    }
+
+    /**
+     * Calls {@code function} with {@code (line, out)}. The built-in engines' function types are tested
+     * first, each with its own call: {@link PolyglotFunction} is final and
+     * {@link GroovyCallable#call2} skips the argument array. Only other engines go through the interface.
+     */
+    static void call(ScriptFunction function, String line, Collector<String> out) {
+        if (function instanceof PolyglotFunction polyglot) {
+            polyglot.value().executeVoid(line, out);
+        } else if (function instanceof GroovyCallable groovy) {
+            groovy.call2(line, out);
+        } else {
+            function.callVoid(line, out);
+        }
+    }
+
+    /**
+     * Calls the numeric {@code kernel} with the comma-separated fields of {@code line} and emits its result.
+     * Integral fields are passed as {@code long}, others as {@code double}; the module converts them to its
+     * parameter types ({@code i32}, {@code i64}, {@code f32}, {@code f64}) where they fit.
+     *
+     * @throws NumberFormatException if a field is not a number
+     */
+    static void callKernel(PolyglotFunction kernel, String line, Collector<String> out) {
+        out.collect(kernel.call(numericArgs(line)).toString());
+    }
+
+    /**
+     * Parses the comma-separated fields of {@code line}; a blank line has none.
+     */
+    static Object[] numericArgs(String line) {
+        if (line.isBlank()) {
+            return new Object[0];
+        }
+        String[] fields = line.split(",");
+        Object[] args = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            try {
+                args[i] = Long.parseLong(field);
+            } catch (NumberFormatException e) {
+                args[i] = Double.parseDouble(field);
+            }
+        }
+        return args;
+    }
+}
@@ -0,0 +1,60 @@
+package org.csa.truffle.flink;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A versioned set of scripts, as broadcast by {@link ScriptSnapshotGenerator} to every
+ * {@link BroadcastProcessFunctionPython} subtask and checkpointed by {@link ProcessFunctionPython}.
+ *
+ * @param version  SHA-256 over file names and contents, in order; equal versions mean equal scripts
+ * @param loadedAt when the snapshot was loaded from the source (or activated, when checkpointed)
+ * @param contents file name to content, in load order; {@code null} for a heartbeat that only
+ *                 confirms {@code version} is still current and is not broadcast
+ */
+public record ScriptSnapshot(String version, Instant loadedAt, Map<String, String> contents)
+        implements Serializable {
+
+    /**
+     * Creates a snapshot of {@code contents}, versioned by their hash.
+     */
+    public static ScriptSnapshot of(Map<String, String> contents, Instant loadedAt) {
+        return new ScriptSnapshot(hash(contents), loadedAt, new LinkedHashMap<>(contents));
+    }
+
+    /**
+     * Creates a heartbeat for {@code version} (which may be {@code null} before the first successful load).
+     */
+    public static ScriptSnapshot heartbeat(String version, Instant checkedAt) {
+        return new ScriptSnapshot(version, checkedAt, null);
+    }
+
+    /**
+     * Returns {@code false} for heartbeats.
+     */
+    public boolean hasContents() {
+        return contents != null;
+    }
+
+    private static String hash(Map<String, String> contents) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
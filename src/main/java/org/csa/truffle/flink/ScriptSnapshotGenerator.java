@@ -0,0 +1,65 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.connector.datagen.source.GeneratorFunction;
+import org.csa.truffle.loader.FileLoader;
+import org.csa.truffle.loader.result.LoadResult;
+import org.csa.truffle.source.FileSourceConfig;
+import org.csa.truffle.source.FileSourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+
+/**
+ * Generator for a {@code DataGeneratorSource} that loads scripts once per tick and emits a
+ * {@link ScriptSnapshot}: the full snapshot when the scripts changed since the previous tick
+ * (or for the first tick after a (re)start), otherwise a heartbeat without contents.
+ *
+ * <p>Runs with parallelism 1, so there is one {@link FileLoader} and one remote fetch per poll for
+ * the whole job; see {@link BroadcastProcessFunctionPython#process}. Load failures are logged and
+ * answered with a heartbeat, so subtasks keep running the last broadcast scripts.
+ */
+public class ScriptSnapshotGenerator implements GeneratorFunction<Long, ScriptSnapshot> {
+
+    private static final Logger log = LoggerFactory.getLogger(ScriptSnapshotGenerator.class);
+
+    private final FileSourceConfig sourceConfig;
+
+    private transient FileLoader loader;
+    private transient String emittedVersion;
+
+    public ScriptSnapshotGenerator(FileSourceConfig sourceConfig) {
+        this.sourceConfig = sourceConfig;
+    }
+
+    @Override
+    public void open(SourceReaderContext readerContext) {
+        loader = new FileLoader(FileSourceFactory.create(sourceConfig));
+    }
+
+    @Override
+    public ScriptSnapshot map(Long tick) {
+        Instant now = Instant.now();
+        LoadResult result = loader.load();
+        if (!result.success()) {
+            log.warn("Script load failed; subtasks keep version {}: {}",
+                    emittedVersion, result.error().getMessage());
+            return ScriptSnapshot.heartbeat(emittedVersion, now);
+        }
+        ScriptSnapshot snapshot = ScriptSnapshot.of(result.contents(), now);
+        if (snapshot.version().equals(emittedVersion)) {
+            return ScriptSnapshot.heartbeat(emittedVersion, now);
+        }
+        log.info("Broadcasting script version {} ({} file(s))", snapshot.version(), snapshot.contents().size());
+        emittedVersion = snapshot.version();
+        return snapshot;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (loader != null) {
+            loader.close();
+        }
+    }
+}
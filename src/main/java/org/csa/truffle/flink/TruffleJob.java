@@ -1,19 +1,27 @@
 package org.csa.truffle.flink;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.connector.file.src.FileSource;
+import org.apache.flink.connector.file.src.reader.TextLineInputFormat;
+import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.streaming.api.functions.ProcessFunction;
 import org.apache.flink.util.CloseableIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.InputStream;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -24,8 +32,15 @@ import java.util.List;
  * to enrich each record, then writes the results to separate subdirectories
  * under {@code output/}.
  * <p>
+ * With {@code --streaming [parallelism]} the CSV files are read by Flink's file connector instead of
+ * being loaded into memory first: each file is a split, read in parallel. The output goes to a
+ * {@link CsvSink} instead of through the client: every subtask writes its own part files, each with
+ * the header, committed exactly once on checkpoints. Input and output size are then bounded by disk
+ * rather than heap, and output rows are in no particular order.
+ * <p>
  * Run locally:
  * mvn exec:java
+ * mvn exec:exec@exec-streaming
  */
 public class TruffleJob {
 
@@ -37,7 +52,25 @@ public class TruffleJob {
             "data/sales_q3.csv"
     };
 
+    /**
+     * Streaming-mode parallelism if none is given: one reader per CSV file.
+     */
+    static final int DEFAULT_PARALLELISM = CSV_RESOURCES.length;
+
+    static final String OUTPUT_HEADER = "transactionId,customerId,product,quantity,unitPrice,totalPrice,category,date";
+
+    /**
+     * Checkpoint interval of the streaming mode; {@link CsvSink} commits part files on checkpoints.
+     */
+    static final Duration CHECKPOINT_INTERVAL = Duration.ofSeconds(10);
+
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--streaming")) {
+            int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PARALLELISM;
+            mainStreaming(parallelism);
+            return;
+        }
+
         log.info("Loading CSV resources: {}", Arrays.toString(CSV_RESOURCES));
         List<String> allLines = loadCsvLines();
         log.info("Loaded {} lines from {} CSV files", allLines.size(), CSV_RESOURCES.length);
@@ -55,6 +88,25 @@ public class TruffleJob {
         log.info("Done. Output written to output/java/ and output/python/");
     }
 
+    private static void mainStreaming(int parallelism) throws Exception {
+        List<Path> files = csvResourcePaths();
+        log.info("Streaming {} CSV files with parallelism {}", files.size(), parallelism);
+
+        CsvSinkConfig sinkConfig = new CsvSinkConfig(OUTPUT_HEADER);
+
+        log.info("Running V1 (Java) transform");
+        runTransform(files, new ProcessFunctionJava(), parallelism,
+                Paths.get("output", "java", "sales_transformed"), sinkConfig);
+        log.info("V1 complete");
+
+        log.info("Running V2 (Python) transform");
+        runTransform(files, new ProcessFunctionPython(), parallelism,
+                Paths.get("output", "python", "sales_transformed"), sinkConfig);
+        log.info("V2 complete");
+
+        log.info("Done. Part files written to output/java/sales_transformed/ and output/python/sales_transformed/");
+    }
+
     static List<String> loadCsvLines() throws Exception {
         List<String> lines = new ArrayList<>();
         for (String resource : CSV_RESOURCES) {
@@ -76,10 +128,93 @@ public class TruffleJob {
         return result;
     }
 
+    /**
+     * Returns the files of {@link #CSV_RESOURCES} on the local file system.
+     *
+     * @throws IllegalStateException if a resource is not a plain file, e.g. when packaged in a JAR
+     */
+    static List<Path> csvResourcePaths() throws Exception {
+        List<Path> files = new ArrayList<>();
+        for (String resource : CSV_RESOURCES) {
+            URL url = TruffleJob.class.getClassLoader().getResource(resource);
+            if (url == null || !"file".equals(url.getProtocol())) {
+                throw new IllegalStateException("CSV resource is not a local file: " + resource + " (" + url + ")");
+            }
+            files.add(Paths.get(url.toURI()));
+        }
+        return files;
+    }
+
+    /**
+     * Reads the lines of {@code files} with Flink's file connector, one split per file, at the given
+     * parallelism. Lines of one file stay in order; lines of different files interleave.
+     */
+    static DataStream<String> streamCsvLines(StreamExecutionEnvironment env, List<Path> files, int parallelism) {
+        org.apache.flink.core.fs.Path[] paths = files.stream()
+                .map(file -> new org.apache.flink.core.fs.Path(file.toUri()))
+                .toArray(org.apache.flink.core.fs.Path[]::new);
+        FileSource<String> source = FileSource
+                .forRecordStreamFormat(new TextLineInputFormat(StandardCharsets.UTF_8.name()), paths)
+                .build();
+        return env.fromSource(source, WatermarkStrategy.noWatermarks(), "csv-files")
+                .setParallelism(parallelism);
+    }
+
+    /**
+     * Reads {@code files} with {@link #streamCsvLines}, runs {@code fn} at the same parallelism and
+     * writes the output rows to part files in {@code outputDir} through a {@link CsvSink}. Nothing
+     * passes through the client.
+     */
+    static void runTransform(List<Path> files, ProcessFunction<String, String> fn, int parallelism, Path outputDir,
+                             CsvSinkConfig sinkConfig) throws Exception {
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(parallelism);
+        env.enableCheckpointing(CHECKPOINT_INTERVAL.toMillis());
+        streamCsvLines(env, files, parallelism)
+                .process(fn)
+                .sinkTo(CsvSink.create(outputDir, sinkConfig));
+        env.execute("truffle-" + fn.getClass().getSimpleName());
+    }
+
+    /**
+     * Like {@link #runTransform(List, ProcessFunction, int, Path, CsvSinkConfig)}, but collects the
+     * output rows through the client and writes them to the single file {@code output} as they arrive.
+     * Kept for tests.
+     *
+     * @return the number of output rows
+     */
+    static long runTransform(List<Path> files, ProcessFunction<String, String> fn, int parallelism, Path output)
+            throws Exception {
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(parallelism);
+        try (CloseableIterator<String> it = streamCsvLines(env, files, parallelism).process(fn).executeAndCollect()) {
+            return writeOutput(output, it);
+        }
+    }
+
     static void writeOutput(Path file, List<String> lines) throws Exception {
-        List<String> output = new ArrayList<>();
-        output.add("transactionId,customerId,product,quantity,unitPrice,totalPrice,category,date");
-        output.addAll(lines);
-        FileUtils.writeLines(file.toFile(), StandardCharsets.UTF_8.name(), output);
+        writeOutput(file, lines.iterator());
+    }
+
+    /**
+     * Writes the header and {@code lines} to {@code file}, one at a time.
+     *
+     * @return the number of lines written, without the header
+     */
+    static long writeOutput(Path file, Iterator<String> lines) throws Exception {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        long count = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(OUTPUT_HEADER);
+            writer.newLine();
+            while (lines.hasNext()) {
+                writer.write(lines.next());
+                writer.newLine();
+                count++;
+            }
+        }
+        return count;
     }
 }
@@ -0,0 +1,194 @@
+package org.csa.truffle.interpreter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link ScriptInterpreter} that loads every file with the {@link ScriptEngine} of its extension.
+ * <p>
+ * Each engine gets one interpreter, created on its first file; the contexts of all engines are kept in
+ * one index order. {@link #addContexts} hands every engine its files in one batch, so engines that
+ * compile in parallel still do.
+ */
+public class CompositeInterpreter implements ScriptInterpreter {
+
+    private static final Logger log = LoggerFactory.getLogger(CompositeInterpreter.class);
+
+    private final List<ScriptEngine> engines;
+    private final Map<ScriptEngine, ScriptInterpreter> interpreters = new HashMap<>();
+
+    /**
+     * Maps context name to the interpreter holding it, in index order.
+     */
+    private final LinkedHashMap<String, ScriptInterpreter> contexts = new LinkedHashMap<>();
+
+    /**
+     * @param engines engines to load files with; for an extension claimed by several, the first wins
+     */
+    public CompositeInterpreter(List<ScriptEngine> engines) {
+        this.engines = List.copyOf(engines);
+    }
+
+    /**
+     * Returns the engine for {@code name} by its extension (case-insensitive).
+     *
+     * @throws IllegalArgumentException if no engine handles the extension
+     */
+    public ScriptEngine engineFor(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (ScriptEngine engine : engines) {
+            for (String extension : engine.extensions()) {
+                if (lower.endsWith(extension)) {
+                    return engine;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No script engine for '" + name + "'");
+    }
+
+    /**
+     * Returns the interpreter holding the named context.
+     *
+     * @throws NoSuchElementException if the context is not loaded
+     */
+    public ScriptInterpreter getInterpreter(String name) {
+        ScriptInterpreter interpreter = contexts.get(name);
+        if (interpreter == null) {
+            throw new NoSuchElementException("Context '" + name + "' is not loaded");
+        }
+        return interpreter;
+    }
+
+    private ScriptInterpreter interpreterFor(String name) {
+        return interpreters.computeIfAbsent(engineFor(name), ScriptEngine::newInterpreter);
+    }
+
+    /**
+     * Loads {@code content} with the engine of {@code name}'s extension.
+     *
+     * @throws IllegalArgumentException if no engine handles the extension
+     */
+    @Override
+    public void addContext(String name, String content) throws Exception {
+        ScriptInterpreter interpreter = interpreterFor(name);
+        interpreter.addContext(name, content);
+        contexts.put(name, interpreter);
+    }
+
+    /**
+     * Groups {@code contents} by engine and adds each group in one call, engine by engine in order of
+     * their first file.
+     *
+     * @throws IllegalArgumentException if no engine handles an extension; nothing is loaded then
+     */
+    @Override
+    public Map<String, Duration> addContexts(Map<String, String> contents) throws Exception {
+
+        Map<ScriptInterpreter, Map<String, String>> batches = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            engineFor(entry.getKey()); // fail before loading anything
+        }
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            batches.computeIfAbsent(interpreterFor(entry.getKey()), i -> new LinkedHashMap<>())
+                    .put(entry.getKey(), entry.getValue());
+        }
+
+        Map<String, Duration> byName = new HashMap<>();
+        for (Map.Entry<ScriptInterpreter, Map<String, String>> batch : batches.entrySet()) {
+            try {
+                byName.putAll(batch.getKey().addContexts(batch.getValue()));
+            } finally {
+                // register whatever the engine loaded, even if a later file failed
+                for (String name : batch.getValue().keySet()) {
+                    if (batch.getKey().hasContext(name)) contexts.put(name, batch.getKey());
+                }
+            }
+        }
+
+        Map<String, Duration> loadTimes = new LinkedHashMap<>();
+        for (String name : contents.keySet()) {
+            Duration time = byName.get(name);
+            if (time != null) loadTimes.put(name, time);
+        }
+        log.debug("Loaded {} context(s) with {} engine(s)", contents.size(), batches.size());
+        return loadTimes;
+    }
+
+    @Override
+    public void removeContext(String name) {
+        getInterpreter(name).removeContext(name);
+        contexts.remove(name);
+    }
+
+    @Override
+    public void closeReplaced() {
+        interpreters.values().forEach(ScriptInterpreter::closeReplaced);
+    }
+
+    /**
+     * Orders the contexts of all engines as one index; each engine's interpreter is ordered the same way.
+     */
+    @Override
+    public void orderContexts(List<String> names) {
+        LinkedHashMap<String, ScriptInterpreter> ordered = new LinkedHashMap<>();
+        for (String name : names) {
+            ScriptInterpreter interpreter = contexts.get(name);
+            if (interpreter != null) ordered.put(name, interpreter);
+        }
+        ordered.putAll(contexts); // existing keys keep their position
+        contexts.clear();
+        contexts.putAll(ordered);
+        for (ScriptInterpreter interpreter : interpreters.values()) {
+            interpreter.orderContexts(names);
+        }
+    }
+
+    @Override
+    public boolean hasContext(String name) {
+        return contexts.containsKey(name);
+    }
+
+    @Override
+    public List<String> getContexts() {
+        return List.copyOf(contexts.keySet());
+    }
+
+    @Override
+    public boolean hasMember(String context, String member) {
+        return getInterpreter(context).hasMember(context, member);
+    }
+
+    @Override
+    public Set<String> getMemberNames(String context) {
+        return getInterpreter(context).getMemberNames(context);
+    }
+
+    @Override
+    public ScriptFunction getFunction(String context, String member) {
+        return getInterpreter(context).getFunction(context, member);
+    }
+
+    @Override
+    public void close() {
+        log.debug("Closing {} engine interpreter(s)", interpreters.size());
+        List<ScriptInterpreter> open = new ArrayList<>(interpreters.values());
+        interpreters.clear();
+        contexts.clear();
+        for (ScriptInterpreter interpreter : open) {
+            try {
+                interpreter.close();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+}
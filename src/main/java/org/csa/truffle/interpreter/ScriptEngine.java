@@ -0,0 +1,24 @@
+package org.csa.truffle.interpreter;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A script engine: the file extensions it handles and how to create its interpreters.
+ * <p>
+ * Engines are configuration, serialized with the Flink functions that use them; interpreters are
+ * created on the task managers. See {@code PolyglotEngine} and {@code GroovyEngine}; other engines
+ * plug in by implementing this interface.
+ */
+public interface ScriptEngine extends Serializable {
+
+    /**
+     * Returns the file extensions this engine loads, lower case and including the dot (e.g. {@code .py}).
+     */
+    Set<String> extensions();
+
+    /**
+     * Creates an empty interpreter.
+     */
+    ScriptInterpreter newInterpreter();
+}
@@ -0,0 +1,24 @@
+package org.csa.truffle.interpreter;
+
+/**
+ * A script function resolved once by {@link ScriptInterpreter#getFunction} and then called per record.
+ * <p>
+ * Every engine returns its own implementation, so a call through this interface is polymorphic as soon
+ * as one job mixes engines. Hot paths should therefore test for the engine types they know and call
+ * those directly, leaving the interface call for other engines (see
+ * {@code org.csa.truffle.flink.ProcessFunctionScript}).
+ */
+public interface ScriptFunction {
+
+    /**
+     * Calls the function; the result is the engine's own representation of the return value.
+     */
+    Object call(Object... args);
+
+    /**
+     * Calls the function, ignoring the return value.
+     */
+    default void callVoid(Object... args) {
+        call(args);
+    }
+}
@@ -0,0 +1,125 @@
+package org.csa.truffle.interpreter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Named script contexts of one engine, loaded and called the same way whatever the language.
+ * <p>
+ * Implemented by {@code PolyglotInterpreter} and {@code GroovyInterpreter}; {@link CompositeInterpreter}
+ * routes every file to the {@link ScriptEngine} of its extension, so one set of scripts can mix engines.
+ * Contexts are kept in index order (the order they were added). Implementations are not thread-safe.
+ */
+public interface ScriptInterpreter extends AutoCloseable {
+
+    /**
+     * Loads {@code content} as the context {@code name}; unchanged content is skipped and changed content
+     * replaces the previous version.
+     *
+     * @param name    unique identifier for this context (e.g. filename)
+     * @param content source code
+     * @throws Exception if the source fails to load or evaluate; a previous version stays loaded
+     */
+    void addContext(String name, String content) throws Exception;
+
+    /**
+     * Adds every entry of {@code contents} like {@link #addContext}, in order. Engines may compile in
+     * parallel.
+     *
+     * @param contents context name to source code, in index order
+     * @return load time per loaded context, in index order; unchanged contexts may be left out
+     * @throws Exception if a source fails to load or evaluate
+     */
+    default Map<String, Duration> addContexts(Map<String, String> contents) throws Exception {
+        Map<String, Duration> loadTimes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            long start = System.nanoTime();
+            addContext(entry.getKey(), entry.getValue());
+            loadTimes.put(entry.getKey(), Duration.ofNanos(System.nanoTime() - start));
+        }
+        return loadTimes;
+    }
+
+    /**
+     * Makes the loaded contexts those of {@code contents}, a full snapshot of the scripts: new and changed
+     * ones are loaded like {@link #addContexts}, contexts missing from it are removed, and all are put in
+     * its order. Unchanged contexts stay loaded as they are, so one interpreter can follow every snapshot
+     * of a source without reloading what did not change. Contexts replaced or removed by the previous
+     * call are closed first (see {@link #closeReplaced}).
+     *
+     * @param contents context name to source code, in index order
+     * @return load time per loaded context, in index order; unchanged contexts may be left out
+     * @throws Exception if a source fails to load or evaluate; no context is removed then, and a
+     *                   context whose new version failed keeps its previous one
+     */
+    default Map<String, Duration> applyContents(Map<String, String> contents) throws Exception {
+        closeReplaced();
+        Map<String, Duration> loadTimes = addContexts(contents);
+        for (String name : getContexts()) {
+            if (!contents.containsKey(name)) {
+                removeContext(name);
+            }
+        }
+        orderContexts(List.copyOf(contents.keySet()));
+        return loadTimes;
+    }
+
+    /**
+     * Closes the contexts replaced or removed since the previous call. An interpreter whose contexts
+     * another thread may still be running keeps them open until then, so a function taken from the
+     * previous snapshot can finish. The default does nothing, for interpreters that close them at once.
+     */
+    default void closeReplaced() {
+    }
+
+    /**
+     * Puts the loaded contexts in the order of {@code names}. Names that are not loaded are ignored;
+     * loaded contexts not named follow in their current order.
+     */
+    void orderContexts(List<String> names);
+
+    /**
+     * Closes and removes the named context.
+     *
+     * @throws NoSuchElementException if the context is not loaded
+     */
+    void removeContext(String name);
+
+    boolean hasContext(String name);
+
+    /**
+     * Returns the names of all loaded contexts, in index order.
+     */
+    List<String> getContexts();
+
+    /**
+     * Returns whether the named context defines {@code member}.
+     *
+     * @throws NoSuchElementException if the context is not loaded
+     */
+    boolean hasMember(String context, String member);
+
+    /**
+     * Returns all member names of the named context.
+     *
+     * @throws NoSuchElementException if the context is not loaded
+     */
+    Set<String> getMemberNames(String context);
+
+    /**
+     * Returns {@code member} of the named context, resolved for repeated calls.
+     *
+     * @throws NoSuchElementException if the context is not loaded or does not define the member
+     */
+    ScriptFunction getFunction(String context, String member);
+
+    /**
+     * Closes all contexts.
+     */
+    @Override
+    void close();
+}
@@ -1,7 +1,32 @@
 package org.csa.truffle.interpreter.groovy;
 
-/** Callable wrapper around a named Groovy script method; returned by getMember() and cached. */
+import org.csa.truffle.interpreter.ScriptFunction;
+
+/**
+ * Callable wrapper around a named Groovy script method; returned by getMember() and cached.
+ * <p>
+ * The fixed-arity variants let callers on a hot path skip the argument array; callables resolved by
+ * {@link GroovyScriptContext} implement them without allocating.
+ */
 @FunctionalInterface
-public interface GroovyCallable {
+public interface GroovyCallable extends ScriptFunction {
+
+    @Override
     Object call(Object... args);
+
+    default Object call0() {
+        return call();
+    }
+
+    default Object call1(Object a) {
+        return call(a);
+    }
+
+    default Object call2(Object a, Object b) {
+        return call(a, b);
+    }
+
+    default Object call3(Object a, Object b, Object c) {
+        return call(a, b, c);
+    }
 }
@@ -0,0 +1,356 @@
+package org.csa.truffle.interpreter.groovy;
+
+import groovy.lang.GroovySystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * On-disk cache of compiled Groovy scripts, so a restarted {@link GroovyInterpreter} defines script
+ * classes from their bytecode instead of compiling them again.
+ *
+ * <p><b>Keys.</b> An entry holds every class compiled from one script and is keyed by a hash of the
+ * script's content hash and name (class names derive from it), static or dynamic compilation, the
+ * Groovy version, the Java feature version and a fingerprint of the classpath the script is compiled
+ * against (see {@link #classpathFingerprint}). Upgrading Groovy or Java, or deploying other jars,
+ * therefore misses instead of loading bytecode compiled against other classes.
+ *
+ * <p><b>Layout.</b> Entries are stored under {@code <cacheDir>/ab/abcdef....classes}, with a SHA-256 of
+ * their payload that is verified on every read; corrupt entries are deleted and recompiled. Entries are
+ * written to a temporary file and atomically moved into place, so several processes on one host (e.g.
+ * TaskManagers) can share a directory: a reader sees either no entry or a complete one, and concurrent
+ * writers of one key write identical bytes.
+ *
+ * <p><b>Eviction.</b> When entries exceed {@code maxBytes}, the least recently used entries (by file
+ * modification time, refreshed on every read) are deleted. An entry deleted by another process is
+ * simply compiled and stored again.
+ */
+public class GroovyClassCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GroovyClassCache.class);
+    private static final int MAGIC = 0x47434331; // "GCC1"
+
+    /** A compiled class: its binary name and bytecode. */
+    record ClassBytes(String name, byte[] bytes) {}
+
+    private final Path dir;
+    private final long maxBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public GroovyClassCache(GroovyClassCacheConfig config) {
+        this.dir = Path.of(config.cacheDir());
+        this.maxBytes = config.maxBytes();
+    }
+
+    /**
+     * Returns the number of scripts loaded from this cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of scripts that had to be compiled, including those with corrupt entries.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the cache key of a script.
+     *
+     * @param classpath fingerprint of the loader the script is compiled in, see {@link #classpathFingerprint}
+     */
+    static String key(String name, String contentHash, boolean compileStatic, String classpath) {
+        return sha256(String.join("\0", GroovySystem.getVersion(), String.valueOf(Runtime.version().feature()),
+                compileStatic ? "static" : "dynamic", classpath, name, contentHash).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a hash of the classpath visible to {@code loader}: the content hash of every entry of it
+     * and its parent {@link URLClassLoader}s and of {@code java.class.path}, in order. Contents rather
+     * than names or modification times are used, so a jar uploaded again under another name (e.g. by a
+     * blob cache) still hits. JDK classes are covered by the Java version in the key.
+     */
+    static String classpathFingerprint(ClassLoader loader) {
+        List<Path> entries = new ArrayList<>();
+        for (ClassLoader l = loader; l != null; l = l.getParent()) {
+            if (l instanceof URLClassLoader urls) {
+                for (URL url : urls.getURLs()) {
+                    if (!"file".equals(url.getProtocol())) continue;
+                    try {
+                        entries.add(Path.of(url.toURI()));
+                    } catch (URISyntaxException | IllegalArgumentException e) {
+                        log.debug("Leaving classpath entry {} out of the fingerprint: {}", url, e.getMessage());
+                    }
+                }
+            }
+        }
+        for (String element : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!element.isEmpty()) entries.add(Path.of(element));
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path entry : entries) {
+            fingerprint.append(contentHash(entry)).append('\n');
+        }
+        return sha256(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Content hash of a classpath entry, with the size and modification time it was computed at. */
+    private record EntryHash(long size, long modified, String hash) {}
+
+    /** Content hashes computed in this JVM, by absolute entry path. */
+    private static final Map<Path, EntryHash> ENTRY_HASHES = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the content hash of a classpath entry. A jar is hashed once per JVM and again only when
+     * its size or modification time changes; a directory (relative file names and contents) is hashed
+     * once per JVM, as walking it for every interpreter would be slow.
+     */
+    private static String contentHash(Path entry) {
+        Path key = entry.toAbsolutePath().normalize();
+        try {
+            if (Files.isDirectory(key)) {
+                EntryHash cached = ENTRY_HASHES.get(key);
+                if (cached != null) return cached.hash();
+                String hash = hashDirectory(key);
+                ENTRY_HASHES.put(key, new EntryHash(-1, -1, hash));
+                return hash;
+            }
+            BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class);
+            long modified = attrs.lastModifiedTime().toMillis();
+            EntryHash cached = ENTRY_HASHES.get(key);
+            if (cached != null && cached.size() == attrs.size() && cached.modified() == modified) {
+                return cached.hash();
+            }
+            String hash = HexFormat.of().formatHex(hashFile(key));
+            ENTRY_HASHES.put(key, new EntryHash(attrs.size(), modified, hash));
+            return hash;
+        } catch (IOException | UncheckedIOException e) {
+            return "missing";
+        }
+    }
+
+    private static String hashDirectory(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        MessageDigest md = newDigest();
+        for (Path file : files) {
+            md.update(dir.relativize(file).toString().replace(File.separatorChar, '/').getBytes(StandardCharsets.UTF_8));
+            md.update((byte) 0);
+            md.update(hashFile(file));
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    /** Streams {@code file} through SHA-256 without reading it into memory. */
+    private static byte[] hashFile(Path file) throws IOException {
+        MessageDigest md = newDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), md)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return md.digest();
+    }
+
+    /**
+     * Returns the classes stored under {@code key}, script class first, or {@code null} if there is no
+     * valid entry.
+     */
+    List<ClassBytes> load(String key) {
+        Path path = entryPath(key);
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            List<ClassBytes> classes = decode(bytes);
+            if (classes == null) {
+                log.warn("Deleting corrupt class cache entry {}", path);
+                Files.deleteIfExists(path);
+                misses.incrementAndGet();
+                return null;
+            }
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            hits.incrementAndGet();
+            return classes;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read class cache entry {}: {}", path, e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code classes} under {@code key}, then evicts old entries. Failures are logged, not thrown:
+     * the script is loaded either way.
+     */
+    void store(String key, List<ClassBytes> classes) {
+        Path path = entryPath(key);
+        try {
+            writeAtomically(path, encode(classes));
+        } catch (IOException e) {
+            log.warn("Could not write class cache entry {}: {}", path, e.getMessage());
+            return;
+        }
+        evict();
+    }
+
+    private Path entryPath(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + ".classes");
+    }
+
+    /**
+     * Entry format: magic, SHA-256 of the payload, payload. The payload is the class count followed by
+     * name, length and bytecode of each class.
+     */
+    private static byte[] encode(List<ClassBytes> classes) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeInt(classes.size());
+        for (ClassBytes c : classes) {
+            out.writeUTF(c.name());
+            out.writeInt(c.bytes().length);
+            out.write(c.bytes());
+        }
+        byte[] body = payload.toByteArray();
+
+        ByteArrayOutputStream entry = new ByteArrayOutputStream(body.length + 36);
+        DataOutputStream header = new DataOutputStream(entry);
+        header.writeInt(MAGIC);
+        header.write(digest(body));
+        header.write(body);
+        return entry.toByteArray();
+    }
+
+    /**
+     * Returns the classes of an entry, or {@code null} if it is truncated or does not match its hash.
+     */
+    private static List<ClassBytes> decode(byte[] entry) {
+        if (entry.length < 36) return null;
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(entry));
+            if (in.readInt() != MAGIC) return null;
+            byte[] expected = in.readNBytes(32);
+            if (!Arrays.equals(expected, digest(Arrays.copyOfRange(entry, 36, entry.length)))) return null;
+
+            int count = in.readInt();
+            if (count <= 0) return null;
+            List<ClassBytes> classes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.add(new ClassBytes(name, bytes));
+            }
+            return classes;
+        } catch (IOException | NegativeArraySizeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temporary file next to {@code target} and atomically moves it into place.
+     */
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until their total size is at most {@code maxBytes}.
+     * Runs unlocked: another process evicting at the same time at worst deletes more than needed.
+     */
+    private void evict() {
+        if (maxBytes <= 0 || !Files.isDirectory(dir)) return;
+        record Entry(Path path, long size, FileTime lastUsed) {}
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (!path.getFileName().toString().endsWith(".classes")) continue;
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attrs.isRegularFile()) entries.add(new Entry(path, attrs.size(), attrs.lastModifiedTime()));
+                } catch (NoSuchFileException e) {
+                    // evicted by another process meanwhile
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not scan class cache directory {}: {}", dir, e.getMessage());
+            return;
+        }
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        if (total <= maxBytes) return;
+
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+        int evicted = 0;
+        for (Entry entry : entries) {
+            if (total <= maxBytes) break;
+            try {
+                Files.deleteIfExists(entry.path());
+                total -= entry.size();
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict class cache entry {}: {}", entry.path(), e.getMessage());
+            }
+        }
+        log.debug("Evicted {} class cache entr(y/ies); {} byte(s) remain", evicted, total);
+    }
+
+    private static byte[] digest(byte[] bytes) {
+        return newDigest().digest(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(digest(bytes));
+    }
+}
@@ -0,0 +1,20 @@
+package org.csa.truffle.interpreter.groovy;
+
+import java.io.Serializable;
+
+/**
+ * Config record for {@link GroovyClassCache}.
+ *
+ * @param cacheDir local directory holding compiled scripts; may be shared by several processes on the host
+ * @param maxBytes total size of cached entries above which least recently used entries are evicted;
+ *                 {@code 0} or negative disables eviction
+ */
+public record GroovyClassCacheConfig(String cacheDir, long maxBytes) implements Serializable {
+
+    /**
+     * Caches in {@code cacheDir}, evicting above 64 MiB.
+     */
+    public GroovyClassCacheConfig(String cacheDir) {
+        this(cacheDir, 64L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,40 @@
+package org.csa.truffle.interpreter.groovy;
+
+import org.csa.truffle.interpreter.ScriptEngine;
+import org.csa.truffle.interpreter.ScriptInterpreter;
+
+import java.util.Set;
+
+/**
+ * {@link ScriptEngine} for {@code .groovy} files: creates {@link GroovyInterpreter}s.
+ *
+ * @param compileStatic    compile every script with {@code @CompileStatic}
+ * @param classCacheConfig on-disk cache of compiled scripts; {@code null} compiles every script
+ */
+public record GroovyEngine(boolean compileStatic, GroovyClassCacheConfig classCacheConfig) implements ScriptEngine {
+
+    /**
+     * Without class cache.
+     */
+    public GroovyEngine(boolean compileStatic) {
+        this(compileStatic, null);
+    }
+
+    /**
+     * Dynamic compilation, without class cache.
+     */
+    public GroovyEngine() {
+        this(false);
+    }
+
+    @Override
+    public Set<String> extensions() {
+        return Set.of(".groovy");
+    }
+
+    @Override
+    public ScriptInterpreter newInterpreter() {
+        return new GroovyInterpreter(compileStatic,
+                classCacheConfig != null ? new GroovyClassCache(classCacheConfig) : null);
+    }
+}
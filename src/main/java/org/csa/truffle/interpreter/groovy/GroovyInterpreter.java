@@ -1,58 +1,383 @@
 package org.csa.truffle.interpreter.groovy;
 
 import groovy.lang.Binding;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyShell;
 import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.csa.truffle.interpreter.ScriptInterpreter;
 import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages the lifecycle of named, isolated Groovy script execution contexts.
  * <p>
  * Parallel to {@link PolyglotInterpreter}, adapted for Groovy's JVM embedding model.
  * Use the no-arg constructor and call {@link #addContext(String, String)} to load contexts.
+ * <p>
+ * Every script is compiled by its own {@link GroovyClassLoader}, a child of one parent loader shared
+ * by the interpreter. Replacing or removing a script closes its loader
+ * so its classes can be unloaded, while the other scripts keep their classes (and their JIT-compiled
+ * code). Scripts share one {@link Binding}.
+ * <p>
+ * With {@code compileStatic}, every script is compiled as if annotated with {@link CompileStatic}:
+ * method calls are bound at compile time and run as plain JVM bytecode instead of through Groovy's
+ * dynamic dispatch. Scripts must then be fully typed; type errors fail {@link #addContext}.
+ * <p>
+ * With a {@link GroovyClassCache}, the bytecode of every compiled script is stored on disk, and a script
+ * found there is defined from it without running the compiler, e.g. after a TaskManager restart.
  */
-public class GroovyInterpreter implements AutoCloseable {
+public class GroovyInterpreter implements ScriptInterpreter {
 
     private static final Logger log = LoggerFactory.getLogger(GroovyInterpreter.class);
 
-    private GroovyShell shell;
+    private static final Duration COMPILE_THREAD_IDLE = Duration.ofSeconds(30);
+
+    private final boolean compileStatic;
+    private final GroovyClassCache classCache; // null = always compile
+    private final ClassLoader parentLoader;
+    private final String classpath; // fingerprint of parentLoader for cache keys; null without cache
+    private final Binding binding = new Binding();
     private final LinkedHashMap<String, GroovyScriptContext> contexts = new LinkedHashMap<>();
+    private ExecutorService compilePool; // created by the first parallel compilation
 
     /**
-     * Creates an empty interpreter. Use {@link #addContext} to load contexts.
+     * Creates an empty interpreter with dynamic compilation. Use {@link #addContext} to load contexts.
      */
     public GroovyInterpreter() {
-        shell = new GroovyShell(new Binding());
+        this(false);
+    }
+
+    /**
+     * Creates an empty interpreter, compiling scripts statically if {@code compileStatic} is set.
+     * Use {@link #addContext} to load contexts.
+     */
+    public GroovyInterpreter(boolean compileStatic) {
+        this(compileStatic, null);
+    }
+
+    /**
+     * Creates an empty interpreter that loads compiled scripts from {@code classCache} when it can and
+     * stores the ones it compiles there. Use {@link #addContext} to load contexts.
+     *
+     * @param classCache cache of compiled scripts; {@code null} compiles every script
+     */
+    public GroovyInterpreter(boolean compileStatic, GroovyClassCache classCache) {
+        this.compileStatic = compileStatic;
+        this.classCache = classCache;
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        this.parentLoader = contextLoader != null ? contextLoader : GroovyInterpreter.class.getClassLoader();
+        this.classpath = classCache != null ? GroovyClassCache.classpathFingerprint(parentLoader) : null;
+    }
+
+    public boolean isCompileStatic() {
+        return compileStatic;
+    }
+
+    /**
+     * Returns a new configuration per compilation: AST transformation customizers keep per-compilation
+     * state, so one instance must not be used by concurrent compilations.
+     */
+    private CompilerConfiguration newConfig() {
+        CompilerConfiguration config = new CompilerConfiguration();
+        if (compileStatic) {
+            config.addCompilationCustomizers(new ASTTransformationCustomizer(CompileStatic.class));
+        }
+        return config;
     }
 
     /**
      * Compiles and evaluates {@code content} as a Groovy script identified by {@code name}.
+     * <ul>
+     *   <li>If the context does not exist, it is created.</li>
+     *   <li>If the context exists and the content hash matches, nothing happens.</li>
+     *   <li>If the context exists and the content hash differs, the new content is compiled first; only
+     *       if that succeeds is the old context closed (unloading its classes) and replaced.</li>
+     * </ul>
      *
      * @param name    unique identifier for this context (e.g. filename)
      * @param content Groovy source code
-     * @throws IllegalArgumentException  if a context with this name is already loaded
      * @throws groovy.lang.GroovyRuntimeException if the source fails to parse or evaluate
      */
+    @Override
     public void addContext(String name, String content) {
-        if (contexts.containsKey(name)) {
-            throw new IllegalArgumentException("Context already loaded: '" + name + "'");
+        String hash = sha256(content);
+        if (isUnchanged(name, hash)) {
+            log.debug("Context '{}' unchanged, skipping reload", name);
+            return;
+        }
+        install(compile(name, content, hash));
+    }
+
+    /**
+     * Adds every entry of {@code contents} like {@link #addContext}, but compiles the new and changed
+     * scripts in parallel, on a pool owned by this interpreter and bounded by the number of cores. Its
+     * threads end when idle and the pool is shut down by {@link #close()}. Script bodies then run one at
+     * a time, in {@code contents} order.
+     * <p>
+     * If any script fails to compile, none of them is installed and the first failure, in
+     * {@code contents} order, is thrown. If a script body fails, the scripts before it stay installed.
+     *
+     * @param contents context name to Groovy source, in index order
+     * @return compile time per compiled script (or time to define it from the class cache), in index
+     *         order; unchanged scripts are not included
+     * @throws groovy.lang.GroovyRuntimeException if a source fails to parse or evaluate
+     */
+    @Override
+    public Map<String, Duration> addContexts(Map<String, String> contents) {
+
+        List<Compilation> pending = new ArrayList<>();
+        for (Map.Entry<String, String> entry : contents.entrySet()) {
+            String hash = sha256(entry.getValue());
+            if (isUnchanged(entry.getKey(), hash)) {
+                log.debug("Context '{}' unchanged, skipping reload", entry.getKey());
+                continue;
+            }
+            pending.add(new Compilation(entry.getKey(), entry.getValue(), hash));
+        }
+
+        long start = System.nanoTime();
+        List<Compiled> compiled = pending.size() <= 1
+                ? pending.stream().map(c -> compile(c.name(), c.content(), c.hash())).toList()
+                : compileAll(pending);
+        Duration wall = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<String, Duration> compileTimes = new LinkedHashMap<>();
+        for (int i = 0; i < compiled.size(); i++) {
+            Compiled c = compiled.get(i);
+            compileTimes.put(c.name(), c.compileTime());
+            log.debug("Compiled '{}' in {} ms", c.name(), c.compileTime().toMillis());
+            try {
+                install(c);
+            } catch (RuntimeException | Error e) {
+                compiled.subList(i + 1, compiled.size()).forEach(rest -> GroovyScriptContext.unload(rest.loader()));
+                throw e;
+            }
+        }
+        if (!compiled.isEmpty()) {
+            log.info("Compiled {} Groovy script(s) in {} ms", compiled.size(), wall.toMillis());
+        }
+        return compileTimes;
+    }
+
+    private boolean isUnchanged(String name, String hash) {
+        GroovyScriptContext existing = contexts.get(name);
+        return existing != null && hash.equals(existing.contentHash());
+    }
+
+    private record Compilation(String name, String content, String hash) {
+    }
+
+    /**
+     * A compiled script class, not yet run; owns {@code loader} until installed.
+     */
+    private record Compiled(String name, String hash, GroovyClassLoader loader, Class<?> scriptClass,
+                            Duration compileTime) {
+    }
+
+    /**
+     * Defines the classes of {@code content} from the class cache or else compiles it, in a new loader;
+     * on failure the loader is closed.
+     */
+    private Compiled compile(String name, String content, String hash) {
+        long start = System.nanoTime();
+        String key = classCache != null ? GroovyClassCache.key(name, hash, compileStatic, classpath) : null;
+        Compiled cached = key != null ? defineCached(name, hash, key, start) : null;
+        if (cached != null) {
+            return cached;
+        }
+        ScriptClassLoader loader = new ScriptClassLoader(parentLoader, newConfig());
+        try {
+            Class<?> scriptClass = loader.parseClass(
+                    new GroovyCodeSource(content, name, GroovyShell.DEFAULT_CODE_BASE), false);
+            if (key != null) {
+                classCache.store(key, scriptClassFirst(loader.getCompiledClasses(), scriptClass.getName()));
+            }
+            return new Compiled(name, hash, loader, scriptClass, Duration.ofNanos(System.nanoTime() - start));
+        } catch (RuntimeException | Error e) {
+            GroovyScriptContext.unload(loader);
+            throw e;
+        }
+    }
+
+    /**
+     * Defines the classes cached under {@code key} in a new loader; returns {@code null} on a miss or if
+     * the cached classes cannot be defined.
+     */
+    private Compiled defineCached(String name, String hash, String key, long start) {
+        List<GroovyClassCache.ClassBytes> classes = classCache.load(key);
+        if (classes == null) {
+            return null;
         }
-        Script script = shell.parse(content, name);
-        script.run();
-        contexts.put(name, new GroovyScriptContext(name, script));
-        log.debug("Loaded context '{}'", name);
+        ScriptClassLoader loader = new ScriptClassLoader(parentLoader, newConfig());
+        try {
+            Class<?> scriptClass = loader.defineClasses(classes);
+            log.debug("Context '{}' defined from class cache", name);
+            return new Compiled(name, hash, loader, scriptClass, Duration.ofNanos(System.nanoTime() - start));
+        } catch (ClassNotFoundException | LinkageError e) {
+            // a classpath change the fingerprint cannot see, e.g. classes not loaded from a file; compile instead
+            log.warn("Could not define cached classes of '{}', compiling: {}", name, e.toString());
+            GroovyScriptContext.unload(loader);
+            return null;
+        }
+    }
+
+    private static List<GroovyClassCache.ClassBytes> scriptClassFirst(
+            List<GroovyClassCache.ClassBytes> classes, String scriptClass) {
+        List<GroovyClassCache.ClassBytes> ordered = new ArrayList<>(classes.size());
+        for (GroovyClassCache.ClassBytes c : classes) {
+            if (c.name().equals(scriptClass)) ordered.add(0, c);
+            else ordered.add(c);
+        }
+        return ordered;
+    }
+
+    /**
+     * Compiles all of {@code pending} on the compile pool; returns them in order or, after closing every
+     * loader, throws the first failure in order.
+     */
+    private List<Compiled> compileAll(List<Compilation> pending) {
+
+        List<Future<Compiled>> futures = new ArrayList<>();
+        for (Compilation c : pending) {
+            futures.add(compilePool().submit(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(parentLoader);
+                try {
+                    return compile(c.name(), c.content(), c.hash());
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            }));
+        }
+
+        List<Compiled> compiled = new ArrayList<>();
+        Throwable failure = null;
+        for (Future<Compiled> future : futures) {
+            try {
+                if (failure == null) {
+                    compiled.add(future.get());
+                } else {
+                    // still wait, so no loader is left open behind our back
+                    GroovyScriptContext.unload(future.get().loader());
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) failure = e.getCause();
+            } catch (InterruptedException e) {
+                if (failure == null) failure = e;
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+            } catch (CancellationException e) {
+                // cancelled after an interrupt
+            }
+        }
+
+        if (failure == null) {
+            return compiled;
+        }
+        compiled.forEach(c -> GroovyScriptContext.unload(c.loader()));
+        if (failure instanceof RuntimeException re) throw re;
+        if (failure instanceof Error err) throw err;
+        throw new IllegalStateException("Groovy compilation interrupted", failure);
+    }
+
+    /**
+     * Runs the script body of {@code compiled} and puts it in place of any previous version;
+     * on failure the new loader is closed and the previous version kept.
+     */
+    private void install(Compiled compiled) {
+        GroovyScriptContext loaded;
+        try {
+            Script script = InvokerHelper.createScript(compiled.scriptClass(), binding);
+            script.run();
+            loaded = new GroovyScriptContext(compiled.name(), script, compiled.hash(), compiled.loader());
+        } catch (RuntimeException | Error e) {
+            GroovyScriptContext.unload(compiled.loader());
+            throw e;
+        }
+
+        GroovyScriptContext existing = contexts.get(compiled.name());
+        if (existing != null) {
+            log.debug("Context '{}' changed, reloading", compiled.name());
+            existing.close();
+        }
+        contexts.put(compiled.name(), loaded);
+        log.debug("Loaded context '{}'", compiled.name());
+    }
+
+    /**
+     * Returns the pool for {@link #addContexts}, created on first use: daemon threads, one per core,
+     * that end after {@link #COMPILE_THREAD_IDLE} without work, so an idle interpreter holds none.
+     */
+    private ExecutorService compilePool() {
+        if (compilePool == null) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(cores, cores,
+                    COMPILE_THREAD_IDLE.toMillis(), TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "GroovyInterpreter-compile");
+                t.setDaemon(true);
+                return t;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            compilePool = pool;
+        }
+        return compilePool;
     }
 
     /**
-     * Closes all contexts, clears the map, and recreates the shell to avoid classloader bloat.
+     * Closes and removes the named context, unloading its classes.
+     *
+     * @throws NoSuchElementException if the context is not loaded
+     */
+    @Override
+    public void removeContext(String name) {
+        GroovyScriptContext existing = contexts.remove(name);
+        if (existing == null) {
+            throw new NoSuchElementException("Context '" + name + "' is not loaded");
+        }
+        existing.close();
+        log.debug("Removed context '{}'", name);
+    }
+
+    @Override
+    public void orderContexts(List<String> names) {
+        LinkedHashMap<String, GroovyScriptContext> ordered = new LinkedHashMap<>();
+        for (String name : names) {
+            GroovyScriptContext ctx = contexts.get(name);
+            if (ctx != null) ordered.put(name, ctx);
+        }
+        ordered.putAll(contexts); // existing keys keep their position
+        contexts.clear();
+        contexts.putAll(ordered);
+    }
+
+    /**
+     * Closes all contexts, unloading their classes, and clears the map.
      * The interpreter remains usable after this call; new contexts may be added via {@link #addContext}.
      */
     public void reset() {
@@ -64,9 +389,20 @@ public class GroovyInterpreter implements AutoCloseable {
             }
         });
         contexts.clear();
-        shell = new GroovyShell(new Binding());
+        binding.getVariables().clear();
+    }
+
+    private static String sha256(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
+    @Override
     public boolean hasContext(String context) {
         return contexts.containsKey(context);
     }
@@ -74,6 +410,7 @@ public class GroovyInterpreter implements AutoCloseable {
     /**
      * Returns the names of all loaded contexts, in index order.
      */
+    @Override
     public List<String> getContexts() {
         return List.copyOf(contexts.keySet());
     }
@@ -95,6 +432,7 @@ public class GroovyInterpreter implements AutoCloseable {
      *
      * @throws NoSuchElementException if the context is not loaded
      */
+    @Override
     public boolean hasMember(String context, String member) {
         return getContext(context).hasMember(member);
     }
@@ -104,6 +442,7 @@ public class GroovyInterpreter implements AutoCloseable {
      *
      * @throws NoSuchElementException if the context is not loaded
      */
+    @Override
     public Set<String> getMemberNames(String context) {
         return getContext(context).getMembers();
     }
@@ -117,6 +456,17 @@ public class GroovyInterpreter implements AutoCloseable {
         return getContext(context).getMember(member);
     }
 
+    /**
+     * Returns the cached {@link GroovyCallable} for {@code member} in the named context; same as
+     * {@link #getMember}.
+     *
+     * @throws NoSuchElementException if the context is not loaded or does not define the member
+     */
+    @Override
+    public GroovyCallable getFunction(String context, String member) {
+        return getMember(context, member);
+    }
+
     /**
      * Returns one {@link GroovyCallable} per context in index order.
      *
@@ -212,5 +562,10 @@ public class GroovyInterpreter implements AutoCloseable {
     @Override
     public void close() {
         reset();
+        if (compilePool != null) {
+            // idle threads keep the user class loader as their context loader until they end
+            compilePool.shutdown();
+            compilePool = null;
+        }
     }
 }
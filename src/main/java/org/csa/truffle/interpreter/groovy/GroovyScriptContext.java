@@ -1,27 +1,69 @@
 package org.csa.truffle.interpreter.groovy;
 
+import groovy.lang.GroovyClassLoader;
 import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.csa.truffle.interpreter.polyglot.PolyglotContext;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-/** Wraps a compiled Groovy {@link Script} with a member cache. Parallel to {@link PolyglotContext}. */
+/**
+ * Wraps a compiled Groovy {@link Script} with a member cache. Parallel to {@link PolyglotContext}.
+ * <p>
+ * User methods are resolved once, when the context is created. A method with a unique name and fixed
+ * arity is called through a {@link MethodHandle} bound to the script instance, so a call is a direct
+ * JVM invocation the JIT can inline rather than a dispatch through Groovy's meta-object protocol;
+ * arguments are cast and unboxed. A call whose arguments do not convert that way (a {@code GString}
+ * for a {@code String} parameter, {@code null} for a primitive) is retried through
+ * {@link Script#invokeMethod}, so Groovy coerces them as it would. Overloaded methods (including
+ * those Groovy generates for default parameter values), varargs methods and calls with a different
+ * argument count always go through {@link Script#invokeMethod}.
+ * <p>
+ * A context created with its own {@link GroovyClassLoader} closes that loader on {@link #close()} and
+ * drops Groovy's metaclass entries for its classes, so they can be unloaded once no longer referenced.
+ */
 public class GroovyScriptContext implements AutoCloseable {
 
     private final Script script;
     private final String name;
+    private final String contentHash;
+    private final GroovyClassLoader loader;
     private final Map<String, GroovyCallable> memberCache = new HashMap<>();
 
     public GroovyScriptContext(String name, Script script) {
+        this(name, script, null, null);
+    }
+
+    /**
+     * @param contentHash hash of the source, used to skip unchanged reloads; may be {@code null}
+     * @param loader      the loader that compiled {@code script} and is owned by this context; may be {@code null}
+     */
+    public GroovyScriptContext(String name, Script script, String contentHash, GroovyClassLoader loader) {
         this.name = name;
         this.script = script;
+        this.contentHash = contentHash;
+        this.loader = loader;
+
+        Map<String, List<Method>> methods = new HashMap<>();
+        for (Method m : script.getClass().getDeclaredMethods()) {
+            if (isUserDefined(m)) {
+                methods.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+            }
+        }
+        methods.forEach((member, overloads) -> memberCache.put(member, resolve(member, overloads)));
     }
 
     public Script script() {
@@ -32,38 +74,47 @@ public class GroovyScriptContext implements AutoCloseable {
         return name;
     }
 
+    public String contentHash() {
+        return contentHash;
+    }
+
     /**
-     * Returns the names of all user-defined methods in this script, excluding compiler-generated
-     * helpers, the {@code run} body method, and synthetic/bridge methods.
+     * Returns whether {@code m} is a user-defined method, excluding compiler-generated helpers,
+     * the {@code run} body method, and synthetic/bridge methods.
      */
-    public Set<String> getMembers() {
-        return Arrays.stream(script.getClass().getDeclaredMethods())
-                .filter(m -> Modifier.isPublic(m.getModifiers()))
-                .filter(m -> !m.isSynthetic())
-                .filter(m -> !m.isBridge())
-                .filter(m -> !m.getName().equals("run"))
-                .filter(m -> !m.getName().contains("$"))
-                .map(Method::getName)
-                .collect(Collectors.toSet());
+    private static boolean isUserDefined(Method m) {
+        return Modifier.isPublic(m.getModifiers())
+                && !m.isSynthetic()
+                && !m.isBridge()
+                && !m.getName().equals("run")
+                && !m.getName().contains("$");
     }
 
-    private boolean isUserDefinedMethod(String memberName) {
-        return Arrays.stream(script.getClass().getDeclaredMethods())
-                .filter(m -> Modifier.isPublic(m.getModifiers()))
-                .filter(m -> !m.isSynthetic())
-                .filter(m -> !m.isBridge())
-                .filter(m -> !m.getName().equals("run"))
-                .filter(m -> !m.getName().contains("$"))
-                .anyMatch(m -> m.getName().equals(memberName));
+    private GroovyCallable resolve(String member, List<Method> overloads) {
+        Method method = overloads.get(0);
+        if (overloads.size() > 1 || method.isVarArgs()) {
+            return args -> script.invokeMethod(member, args);
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().unreflect(method);
+            if (!Modifier.isStatic(method.getModifiers())) {
+                handle = handle.bindTo(script);
+            }
+            return new BoundCallable(member, handle);
+        } catch (IllegalAccessException e) {
+            return args -> script.invokeMethod(member, args);
+        }
+    }
+
+    /**
+     * Returns the names of all user-defined methods in this script.
+     */
+    public Set<String> getMembers() {
+        return Collections.unmodifiableSet(memberCache.keySet());
     }
 
     public boolean hasMember(String memberName) {
-        if (memberCache.containsKey(memberName)) return true;
-        if (isUserDefinedMethod(memberName)) {
-            memberCache.put(memberName, args -> script.invokeMethod(memberName, args));
-            return true;
-        }
-        return false;
+        return memberCache.containsKey(memberName);
     }
 
     /**
@@ -73,20 +124,165 @@ public class GroovyScriptContext implements AutoCloseable {
      */
     public GroovyCallable getMember(String memberName) {
         GroovyCallable cached = memberCache.get(memberName);
-        if (cached != null) {
-            return cached;
-        }
-        if (!isUserDefinedMethod(memberName)) {
+        if (cached == null) {
             throw new NoSuchElementException(
                     "Member '" + memberName + "' not defined in '" + name + "'");
         }
-        GroovyCallable callable = args -> script.invokeMethod(memberName, args);
-        memberCache.put(memberName, callable);
-        return callable;
+        return cached;
     }
 
     @Override
     public void close() {
         memberCache.clear();
+        if (loader != null) {
+            unload(loader);
+        }
+    }
+
+    /**
+     * Removes the metaclasses of every class {@code loader} compiled, clears its cache and closes it.
+     */
+    static void unload(GroovyClassLoader loader) {
+        for (Class<?> c : loader.getLoadedClasses()) {
+            InvokerHelper.removeClass(c);
+        }
+        loader.clearCache();
+        try {
+            loader.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Calls a fixed-arity method through {@code exact}, a handle of type {@code (Object...)Object}
+     * with one parameter per method parameter; argument counts other than the method's go through
+     * {@link Script#invokeMethod} so Groovy reports them as it would. So do arguments the handle
+     * cannot convert to the parameter types, which Groovy may still coerce.
+     */
+    private final class BoundCallable implements GroovyCallable {
+
+        private final String member;
+        private final int arity;
+        private final Class<?>[] parameterTypes;
+        private final MethodHandle exact;
+        private final MethodHandle spread;
+
+        BoundCallable(String member, MethodHandle handle) {
+            this.member = member;
+            this.arity = handle.type().parameterCount();
+            this.parameterTypes = handle.type().parameterArray();
+            this.exact = handle.asType(MethodType.genericMethodType(arity));
+            this.spread = exact.asSpreader(Object[].class, arity);
+        }
+
+        @Override
+        public Object call(Object... args) {
+            if (args.length != arity) {
+                return script.invokeMethod(member, args);
+            }
+            try {
+                return spread.invokeExact(args);
+            } catch (ClassCastException | NullPointerException e) {
+                return coerce(e, args);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public Object call0() {
+            if (arity != 0) {
+                return call();
+            }
+            try {
+                return exact.invokeExact();
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public Object call1(Object a) {
+            if (arity != 1) {
+                return call(a);
+            }
+            try {
+                return exact.invokeExact(a);
+            } catch (ClassCastException | NullPointerException e) {
+                return coerce(e, a);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public Object call2(Object a, Object b) {
+            if (arity != 2) {
+                return call(a, b);
+            }
+            try {
+                return exact.invokeExact(a, b);
+            } catch (ClassCastException | NullPointerException e) {
+                return coerce(e, a, b);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        @Override
+        public Object call3(Object a, Object b, Object c) {
+            if (arity != 3) {
+                return call(a, b, c);
+            }
+            try {
+                return exact.invokeExact(a, b, c);
+            } catch (ClassCastException | NullPointerException e) {
+                return coerce(e, a, b, c);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        /**
+         * Handles {@code e} thrown by a handle call: if an argument does not convert to its parameter
+         * type, the method was never entered and the call is retried through {@link Script#invokeMethod};
+         * otherwise the method itself threw {@code e}, which is rethrown.
+         */
+        private Object coerce(RuntimeException e, Object... args) {
+            for (int i = 0; i < arity; i++) {
+                if (!converts(args[i], parameterTypes[i])) {
+                    return script.invokeMethod(member, args);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns whether the handle conversion from {@code Object} to {@code type} accepts {@code arg}:
+     * a cast for reference types, unboxing and primitive widening for primitive ones.
+     */
+    private static boolean converts(Object arg, Class<?> type) {
+        if (arg == null) {
+            return !type.isPrimitive();
+        }
+        if (!type.isPrimitive()) {
+            return type.isInstance(arg);
+        }
+        try {
+            MethodHandles.identity(type).asType(MethodType.methodType(type, arg.getClass()));
+            return true;
+        } catch (WrongMethodTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rethrows {@code t} unchanged, as {@link Script#invokeMethod} would; Groovy methods may throw
+     * checked exceptions without declaring them.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> RuntimeException rethrow(Throwable t) throws T {
+        throw (T) t;
     }
 }
@@ -0,0 +1,79 @@
+package org.csa.truffle.interpreter.groovy;
+
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-script {@link GroovyClassLoader} of {@link GroovyInterpreter}, which can also skip the compiler.
+ * <p>
+ * While compiling, it records the bytecode of every class it generates (see {@link #getCompiledClasses()}),
+ * so it can be stored in a {@link GroovyClassCache}. {@link #defineClasses} defines previously recorded
+ * classes directly instead.
+ */
+class ScriptClassLoader extends GroovyClassLoader {
+
+    private final List<GroovyClassCache.ClassBytes> compiled = new ArrayList<>();
+    private final Map<String, byte[]> pending = new HashMap<>();
+
+    ScriptClassLoader(ClassLoader parent, CompilerConfiguration config) {
+        super(parent, config);
+    }
+
+    /**
+     * Returns the classes generated by {@link #parseClass}, in generation order.
+     */
+    List<GroovyClassCache.ClassBytes> getCompiledClasses() {
+        synchronized (compiled) {
+            return List.copyOf(compiled);
+        }
+    }
+
+    /**
+     * Defines {@code classes} without compiling and returns the first, the script class. Classes refer
+     * to each other (closures, superclasses declared later in the script), so each is defined when first
+     * needed rather than in list order.
+     */
+    synchronized Class<?> defineClasses(List<GroovyClassCache.ClassBytes> classes) throws ClassNotFoundException {
+        for (GroovyClassCache.ClassBytes c : classes) {
+            pending.put(c.name(), c.bytes());
+        }
+        Class<?> scriptClass = null;
+        for (GroovyClassCache.ClassBytes c : classes) {
+            Class<?> defined = loadClass(c.name(), false, true, false);
+            if (scriptClass == null) scriptClass = defined;
+        }
+        return scriptClass;
+    }
+
+    @Override
+    protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = pending.remove(name);
+        if (bytes == null) {
+            return super.findClass(name);
+        }
+        Class<?> c = defineClass(name, bytes);
+        setClassCacheEntry(c);
+        return c;
+    }
+
+    @Override
+    protected ClassCollector createCollector(CompilationUnit unit, SourceUnit su) {
+        return new ClassCollector(new InnerLoader(this), unit, su) {
+            @Override
+            protected Class createClass(byte[] code, ClassNode classNode) {
+                synchronized (compiled) {
+                    compiled.add(new GroovyClassCache.ClassBytes(classNode.getName(), code));
+                }
+                return super.createClass(code, classNode);
+            }
+        };
+    }
+}
@@ -12,6 +12,11 @@ import java.io.Serializable;
  * <p>
  * Use one of the predefined constants ({@link #HOST}, {@link #FULL}, {@link #SANDBOXED})
  * or construct a custom instance. Pass to {@link PolyglotInterpreter#PolyglotInterpreter(PolyglotAccessConfig)}.
+ *
+ * @param sharedContext if {@code true}, all sources of one language in an interpreter are evaluated in a
+ *                      single context instead of one context per source, so values can be passed between
+ *                      them without conversion (required by {@link PolyglotPipeline}); Python sources
+ *                      still run in a module each
  */
 public record PolyglotAccessConfig(
         HostAccessMode hostAccess,
@@ -19,7 +24,8 @@ public record PolyglotAccessConfig(
         IOAccessMode ioAccess,
         boolean allowNativeAccess,
         boolean allowCreateThread,
-        PolyglotAccessMode polyglotAccess
+        PolyglotAccessMode polyglotAccess,
+        boolean sharedContext
 ) implements Serializable {
 
     /** Minimal: host objects only (out.collect()), deny class lookup / IO / native / threads / polyglot. */
@@ -34,6 +40,21 @@ public record PolyglotAccessConfig(
     public static final PolyglotAccessConfig SANDBOXED = new PolyglotAccessConfig(
             HostAccessMode.NONE, false, IOAccessMode.NONE, false, false, PolyglotAccessMode.NONE);
 
+    /** One context per source. */
+    public PolyglotAccessConfig(HostAccessMode hostAccess, boolean allowHostClassLookup, IOAccessMode ioAccess,
+                                boolean allowNativeAccess, boolean allowCreateThread,
+                                PolyglotAccessMode polyglotAccess) {
+        this(hostAccess, allowHostClassLookup, ioAccess, allowNativeAccess, allowCreateThread, polyglotAccess, false);
+    }
+
+    /**
+     * Returns a copy of this config with {@code sharedContext} set.
+     */
+    public PolyglotAccessConfig withSharedContext(boolean sharedContext) {
+        return new PolyglotAccessConfig(hostAccess, allowHostClassLookup, ioAccess, allowNativeAccess,
+                allowCreateThread, polyglotAccess, sharedContext);
+    }
+
     /**
      * Applies this configuration to a {@link Context.Builder} and returns it.
      */
@@ -5,6 +5,18 @@ import org.graalvm.polyglot.Value;
 
 import java.util.*;
 
+/**
+ * A source loaded by {@link PolyglotInterpreter} and the context it was evaluated in.
+ * <p>
+ * A source evaluated in a shared context (see {@link PolyglotAccessConfig#sharedContext()}) does not own
+ * that context, and {@link #close()} leaves the context open. A Python source runs in a module of its own
+ * (see {@link #ofNamespace}), whose attributes are its members. In other languages the sources share the
+ * global scope: the members are only the names this source defined or rebound, resolved when it is created,
+ * so later sources that redefine a name do not change what this one sees.
+ * <p>
+ * A WebAssembly module (see {@link #ofModule}) is instantiated in a context of its own; its members are the
+ * instance's exports.
+ */
 public class PolyglotContext implements AutoCloseable {
 
     private final TruffleLanguage language;
@@ -12,15 +24,68 @@ public class PolyglotContext implements AutoCloseable {
     private final Context context;
     private final String contentHash;
     private final Value bindings;
+    private final boolean shared;
     private final Map<String, Value> memberCache = new HashMap<>();
 
     public PolyglotContext(TruffleLanguage language, String name, Context context, String contentHash) {
+        this(language, name, context, contentHash, null);
+    }
+
+    /**
+     * @param inherited for a shared context, its members before this source was evaluated
+     *                  (see {@link #snapshotMembers}); {@code null} if the context is owned
+     */
+    public PolyglotContext(TruffleLanguage language, String name, Context context, String contentHash,
+                           Map<String, Value> inherited) {
+        this(language, name, context, contentHash, context.getBindings(language.getId()), inherited != null,
+                inherited);
+    }
+
+    private PolyglotContext(TruffleLanguage language, String name, Context context, String contentHash,
+                            Value bindings, boolean shared, Map<String, Value> inherited) {
         this.language = language;
         this.name = name;
         this.context = context;
         this.contentHash = contentHash;
-        this.bindings = context.getBindings(language.getId());
-        context.getBindings(language.getId()).getMemberKeys().forEach(m -> memberCache.put(m, null));
+        this.shared = shared;
+        this.bindings = bindings;
+        if (inherited != null) {
+            snapshotMembers(context, language).forEach((m, value) -> {
+                if (!value.equals(inherited.get(m))) {
+                    memberCache.put(m, value);
+                }
+            });
+        } else {
+            bindings.getMemberKeys().forEach(m -> memberCache.put(m, null));
+        }
+    }
+
+    /**
+     * Creates the context of a WebAssembly module instance, with the instance's {@code exports} as members.
+     *
+     * @param context the context owning the instance; closed with this
+     */
+    public static PolyglotContext ofModule(String name, Context context, String contentHash, Value exports) {
+        return new PolyglotContext(TruffleLanguage.WASM, name, context, contentHash, exports, false, null);
+    }
+
+    /**
+     * Creates a source evaluated in its own {@code namespace} (e.g. a Python module) within the shared
+     * {@code context}; the namespace's members are the source's members.
+     */
+    public static PolyglotContext ofNamespace(TruffleLanguage language, String name, Context context,
+                                              String contentHash, Value namespace) {
+        return new PolyglotContext(language, name, context, contentHash, namespace, true, null);
+    }
+
+    /**
+     * Returns the current members of {@code context}'s bindings for {@code language}.
+     */
+    public static Map<String, Value> snapshotMembers(Context context, TruffleLanguage language) {
+        Value bindings = context.getBindings(language.getId());
+        Map<String, Value> members = new HashMap<>();
+        bindings.getMemberKeys().forEach(m -> members.put(m, bindings.getMember(m)));
+        return members;
     }
 
     public TruffleLanguage language() {
@@ -39,6 +104,13 @@ public class PolyglotContext implements AutoCloseable {
         return contentHash;
     }
 
+    /**
+     * Returns whether the context is shared with other sources of the same interpreter.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
     public Value getBindings() {
         return bindings;
     }
@@ -78,6 +150,8 @@ public class PolyglotContext implements AutoCloseable {
     @Override
     public void close() {
         memberCache.clear();
-        context.close();
+        if (!shared) {
+            context.close();
+        }
     }
 }
@@ -0,0 +1,50 @@
+package org.csa.truffle.interpreter.polyglot;
+
+import org.csa.truffle.interpreter.ScriptEngine;
+import org.csa.truffle.interpreter.ScriptInterpreter;
+
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * {@link ScriptEngine} for Truffle languages: creates {@link PolyglotInterpreter}s, which pick each
+ * file's language by its extension (see {@link TruffleLanguage#forFileName}).
+ *
+ * @param accessConfig context permissions of the interpreters
+ * @param languages    languages to claim the extensions of
+ */
+public record PolyglotEngine(PolyglotAccessConfig accessConfig, Set<TruffleLanguage> languages) implements ScriptEngine {
+
+    public PolyglotEngine {
+        languages = Set.copyOf(languages);
+    }
+
+    /**
+     * Claims the extensions of all {@link TruffleLanguage}s.
+     */
+    public PolyglotEngine(PolyglotAccessConfig accessConfig) {
+        this(accessConfig, EnumSet.allOf(TruffleLanguage.class));
+    }
+
+    /**
+     * Claims the extensions of all {@link TruffleLanguage}s, with {@link PolyglotAccessConfig#HOST} permissions.
+     */
+    public PolyglotEngine() {
+        this(PolyglotAccessConfig.HOST);
+    }
+
+    @Override
+    public Set<String> extensions() {
+        Set<String> extensions = new LinkedHashSet<>();
+        for (TruffleLanguage language : languages) {
+            extensions.add(language.getExtension());
+        }
+        return extensions;
+    }
+
+    @Override
+    public ScriptInterpreter newInterpreter() {
+        return new PolyglotInterpreter(accessConfig);
+    }
+}
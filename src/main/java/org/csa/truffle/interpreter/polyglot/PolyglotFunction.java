@@ -0,0 +1,64 @@
+package org.csa.truffle.interpreter.polyglot;
+
+import org.csa.truffle.interpreter.ScriptFunction;
+import org.graalvm.polyglot.Value;
+
+/**
+ * {@link ScriptFunction} of a polyglot member. Final, so a hot path that tests for it calls
+ * {@link Value#executeVoid} on the member directly.
+ */
+public final class PolyglotFunction implements ScriptFunction {
+
+    private final Value value;
+
+    public PolyglotFunction(Value value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the executable member.
+     */
+    public Value value() {
+        return value;
+    }
+
+    /**
+     * Executes the member; returns the result as a {@link Value}.
+     */
+    @Override
+    public Value call(Object... args) {
+        return value.execute(args);
+    }
+
+    @Override
+    public void callVoid(Object... args) {
+        value.executeVoid(args);
+    }
+
+    /**
+     * Executes the member and returns its result as an {@code int}, e.g. for a WebAssembly {@code i32} export.
+     *
+     * @throws ClassCastException if the result does not fit an {@code int}
+     */
+    public int callInt(Object... args) {
+        return value.execute(args).asInt();
+    }
+
+    /**
+     * Executes the member and returns its result as a {@code long}, e.g. for a WebAssembly {@code i64} export.
+     *
+     * @throws ClassCastException if the result does not fit a {@code long}
+     */
+    public long callLong(Object... args) {
+        return value.execute(args).asLong();
+    }
+
+    /**
+     * Executes the member and returns its result as a {@code double}, e.g. for a WebAssembly {@code f64} export.
+     *
+     * @throws ClassCastException if the result does not fit a {@code double}
+     */
+    public double callDouble(Object... args) {
+        return value.execute(args).asDouble();
+    }
+}
@@ -1,9 +1,12 @@
 package org.csa.truffle.interpreter.polyglot;
 
+import org.csa.truffle.interpreter.ScriptInterpreter;
+import org.csa.truffle.source.BinaryContent;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,8 +22,23 @@ import java.util.concurrent.ConcurrentHashMap;
  * Use the no-arg constructor and then call {@link #addContext(TruffleLanguage, String, String)}
  * to load contexts. All contexts share a per-language static {@link Engine} so compiled ASTs
  * are cached across contexts.
+ * <p>
+ * With {@link PolyglotAccessConfig#sharedContext()} set, all sources of a language are evaluated in one
+ * context, in index order. This is what lets {@link #pipeline(String)} pass values between sources. Each
+ * Python source still gets a namespace of its own: it runs as a module named after its file (without
+ * extension, {@code /} as {@code .}), registered in {@code sys.modules}, so two sources may define the
+ * same helper name, and a source uses another's helpers with e.g. {@code from helpers import shout}.
+ * Sources of other languages share the context's global scope, so each sees what the sources before
+ * it defined.
+ * <p>
+ * As a {@link ScriptInterpreter}, {@link #addContext(String, String)} picks the language by file extension.
+ * <p>
+ * {@link TruffleLanguage#WASM} content is a binary module as loaded by {@code FileLoader} (see
+ * {@link BinaryContent}). Each module is instantiated in a context of its own, also with a shared context
+ * configured, and its exports are the context's members; call them with numeric arguments, e.g. through
+ * {@link PolyglotFunction#callInt}.
  */
-public class PolyglotInterpreter implements AutoCloseable {
+public class PolyglotInterpreter implements ScriptInterpreter {
 
     private static final Logger log = LoggerFactory.getLogger(PolyglotInterpreter.class);
 
@@ -46,6 +64,47 @@ public class PolyglotInterpreter implements AutoCloseable {
 
     private final PolyglotAccessConfig accessConfig;
 
+    /**
+     * Per-language context shared by all sources; only used with {@link PolyglotAccessConfig#sharedContext()}.
+     */
+    private final Map<TruffleLanguage, Context> sharedContexts = new EnumMap<>(TruffleLanguage.class);
+
+    /**
+     * Pipelines by member, built on first use; dropped whenever the contexts change.
+     */
+    private final Map<String, PolyglotPipeline> pipelines = new HashMap<>();
+
+    /**
+     * Contexts replaced or removed since the last {@link #closeReplaced}; another thread may still be
+     * running them, so they are closed then rather than at once.
+     */
+    private final List<PolyglotContext> retired = new ArrayList<>();
+
+    /**
+     * Loads and unloads Python sources as modules of the shared Python context; created with it.
+     */
+    private Value pythonModules;
+
+    private static final String PYTHON_MODULES = """
+            def _source_modules():
+                import sys, types
+
+                class SourceModules:
+                    def load(self, module_name, file_name, code):
+                        module = types.ModuleType(module_name)
+                        module.__file__ = file_name
+                        exec(compile(code, file_name, 'exec'), module.__dict__)
+                        sys.modules[module_name] = module
+                        return module
+
+                    def unload(self, module_name):
+                        sys.modules.pop(module_name, None)
+
+                return SourceModules()
+
+            _source_modules()
+            """;
+
     /**
      * Creates an empty interpreter using {@link PolyglotAccessConfig#HOST} permissions.
      * Use {@link #addContext} to load contexts.
@@ -67,55 +126,166 @@ public class PolyglotInterpreter implements AutoCloseable {
      * <ul>
      *   <li>If the context does not exist, it is created.</li>
      *   <li>If the context exists and the content hash matches, nothing happens.</li>
-     *   <li>If the context exists and the content hash differs, the old context is disposed and a new one is created.</li>
+     *   <li>If the context exists and the content hash differs, the new content is evaluated and, once
+     *       it succeeded, replaces the old context, which is retired (see {@link #closeReplaced}).</li>
      * </ul>
      *
      * @param language the language of the source
      * @param context  unique identifier for this context (e.g. filename)
      * @param content  source code
-     * @throws Exception if the source fails to evaluate
+     * @throws Exception if the source fails to evaluate; a previous version stays loaded
      */
     public void addContext(TruffleLanguage language, String context, String content) throws Exception {
 
         String hash = sha256(content);
 
         PolyglotContext existing = contexts.get(context);
+        if (existing != null && existing.contentHash().equals(hash)) {
+            log.debug("Context '{}' unchanged, skipping reload", context);
+            return;
+        }
 
+        PolyglotContext loaded = load(language, context, content, hash);
+        contexts.put(context, loaded);
+        pipelines.clear();
         if (existing != null) {
-            if (existing.contentHash().equals(hash)) {
-                log.debug("Context '{}' unchanged, skipping reload", context);
-                return;
-            }
-
-            log.debug("Context '{}' changed, reloading", context);
-            existing.close();
-            contexts.remove(context);
+            log.debug("Context '{}' changed, reloaded", context);
+            retired.add(existing);
         }
+        log.debug("Loaded context '{}' ({})", context, language.getId());
+    }
 
+    /**
+     * Evaluates {@code content} as a new context without touching the loaded ones; a context created
+     * for it is closed if evaluation fails.
+     */
+    private PolyglotContext load(TruffleLanguage language, String context, String content, String hash)
+            throws Exception {
+        if (language == TruffleLanguage.WASM) {
+            return instantiate(context, content, hash);
+        }
+        if (accessConfig.sharedContext()) {
+            Context ctx = sharedContexts.computeIfAbsent(language, this::createContext);
+            if (language == TruffleLanguage.PYTHON) {
+                // registered in sys.modules only once its body ran, so a failure keeps the old module
+                Value module = pythonModules(ctx).invokeMember("load", moduleName(context), context, content);
+                return PolyglotContext.ofNamespace(language, context, ctx, hash, module);
+            }
+            Map<String, Value> inherited = PolyglotContext.snapshotMembers(ctx, language);
+            ctx.eval(Source.newBuilder(language.getId(), content, context).build());
+            return new PolyglotContext(language, context, ctx, hash, inherited);
+        }
         Context ctx = createContext(language);
-        ctx.eval(Source.newBuilder(language.getId(), content, context).build());
-        contexts.put(context, new PolyglotContext(language, context, ctx, hash));
+        try {
+            ctx.eval(Source.newBuilder(language.getId(), content, context).build());
+            return new PolyglotContext(language, context, ctx, hash, null);
+        } catch (Exception e) {
+            ctx.close();
+            throw e;
+        }
+    }
 
-        log.debug("Loaded context '{}' ({})", context, language.getId());
+    /**
+     * Loads {@code content} in the language of {@code context}'s extension (see {@link TruffleLanguage#forFileName}).
+     *
+     * @throws IllegalArgumentException if the extension is not a known language
+     * @throws Exception                if the source fails to evaluate
+     */
+    @Override
+    public void addContext(String context, String content) throws Exception {
+        TruffleLanguage language = TruffleLanguage.forFileName(context)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown language of '" + context + "'"));
+        addContext(language, context, content);
     }
 
     /**
-     * Disposes and removes the named context.
+     * Removes the named context and retires it (see {@link #closeReplaced}).
      *
      * @throws NoSuchElementException if the context is not loaded
      */
+    @Override
     public void removeContext(String context) {
         PolyglotContext existing = contexts.remove(context);
         if (existing == null) {
             throw new NoSuchElementException("Context '" + context + "' is not loaded");
         }
-        try {
-            existing.close();
-        } catch (Exception ignored) {
+        pipelines.clear();
+        if (existing.isShared() && existing.language() == TruffleLanguage.PYTHON && pythonModules != null) {
+            pythonModules.invokeMember("unload", moduleName(context));
         }
+        retired.add(existing);
         log.debug("Removed context '{}'", context);
     }
 
+    /**
+     * Closes the contexts replaced by {@link #addContext} or removed by {@link #removeContext} since the
+     * previous call. One still executing on another thread stays retired until the next call.
+     */
+    @Override
+    public void closeReplaced() {
+        retired.removeIf(ctx -> {
+            try {
+                ctx.close();
+                return true;
+            } catch (IllegalStateException e) {
+                log.debug("Context '{}' still executing, closing it later", ctx.name());
+                return false;
+            } catch (Exception e) {
+                return true;
+            }
+        });
+    }
+
+    private Value pythonModules(Context shared) {
+        if (pythonModules == null) {
+            pythonModules = shared.eval(Source.create(TruffleLanguage.PYTHON.getId(), PYTHON_MODULES));
+        }
+        return pythonModules;
+    }
+
+    /**
+     * Returns the module name of a Python source: its file name without extension, {@code /} as {@code .}.
+     */
+    static String moduleName(String context) {
+        String path = context.replace('\\', '/');
+        int dot = path.lastIndexOf('.');
+        if (dot > path.lastIndexOf('/')) {
+            path = path.substring(0, dot);
+        }
+        return path.replace('/', '.');
+    }
+
+    @Override
+    public void orderContexts(List<String> names) {
+        LinkedHashMap<String, PolyglotContext> ordered = new LinkedHashMap<>();
+        for (String name : names) {
+            PolyglotContext ctx = contexts.get(name);
+            if (ctx != null) ordered.put(name, ctx);
+        }
+        ordered.putAll(contexts); // existing keys keep their position
+        if (!List.copyOf(ordered.keySet()).equals(getContexts())) {
+            contexts.clear();
+            contexts.putAll(ordered);
+            pipelines.clear();
+        }
+    }
+
+    /**
+     * Compiles the binary module {@code content} and instantiates it in a new context.
+     */
+    private PolyglotContext instantiate(String context, String content, String hash) {
+        Source source = Source.newBuilder(TruffleLanguage.WASM.getId(),
+                ByteSequence.create(BinaryContent.decode(content)), context).buildLiteral();
+        Context ctx = createContext(TruffleLanguage.WASM);
+        try {
+            Value exports = ctx.eval(source).newInstance().getMember("exports");
+            return PolyglotContext.ofModule(context, ctx, hash, exports);
+        } catch (RuntimeException e) {
+            ctx.close();
+            throw e;
+        }
+    }
+
     private Context createContext(TruffleLanguage language) {
 
         Engine engine = SHARED_ENGINES.computeIfAbsent(
@@ -135,6 +305,7 @@ public class PolyglotInterpreter implements AutoCloseable {
         }
     }
 
+    @Override
     public boolean hasContext(String context) {
         return contexts.containsKey(context);
     }
@@ -142,6 +313,7 @@ public class PolyglotInterpreter implements AutoCloseable {
     /**
      * Returns the names of all loaded contexts, in index order.
      */
+    @Override
     public List<String> getContexts() {
         return List.copyOf(contexts.keySet());
     }
@@ -167,14 +339,36 @@ public class PolyglotInterpreter implements AutoCloseable {
     public void clear() {
         log.debug("Resetting interpreter: {} context(s)", contexts.size());
 
-        contexts.values().forEach(fc -> {
+        retired.addAll(contexts.values());
+        retired.forEach(fc -> {
             try {
                 fc.close();
             } catch (Exception ignored) {
             }
         });
 
+        retired.clear();
         contexts.clear();
+        pipelines.clear();
+
+        sharedContexts.values().forEach(ctx -> {
+            try {
+                ctx.close();
+            } catch (Exception ignored) {
+            }
+        });
+        sharedContexts.clear();
+        pythonModules = null;
+    }
+
+    /**
+     * Returns the {@link PolyglotPipeline} that runs every context defining {@code member} as one stage,
+     * in index order. Built on first use and cached until contexts are added or removed.
+     *
+     * @throws IllegalArgumentException if the stages do not share one context
+     */
+    public PolyglotPipeline pipeline(String member) {
+        return pipelines.computeIfAbsent(member, m -> new PolyglotPipeline(this, m));
     }
 
     /**
@@ -182,6 +376,7 @@ public class PolyglotInterpreter implements AutoCloseable {
      *
      * @throws NoSuchElementException if the context is not loaded.
      */
+    @Override
     public boolean hasMember(String context, String member) throws NoSuchElementException {
         return getContext(context).hasMember(member);
     }
@@ -191,6 +386,7 @@ public class PolyglotInterpreter implements AutoCloseable {
      *
      * @throws NoSuchElementException if the context is not loaded
      */
+    @Override
     public Set<String> getMemberNames(String context) throws NoSuchElementException {
         return getContext(context).getMembers();
     }
@@ -204,6 +400,16 @@ public class PolyglotInterpreter implements AutoCloseable {
         return getContext(context).getMember(member);
     }
 
+    /**
+     * Returns {@code member} of the named context as a {@link PolyglotFunction}.
+     *
+     * @throws NoSuchElementException if the context is not loaded or does not define the member
+     */
+    @Override
+    public PolyglotFunction getFunction(String context, String member) throws NoSuchElementException {
+        return new PolyglotFunction(getMember(context, member));
+    }
+
     /**
      * Returns one {@link Value} per context that defines {@code member}, in index order.
      *
@@ -0,0 +1,103 @@
+package org.csa.truffle.interpreter.polyglot;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the sources of a {@link PolyglotInterpreter} as consecutive stages of one pipeline.
+ * <p>
+ * Every source that defines {@code member} is a stage, in index order (the order the sources were
+ * added, i.e. {@code FileSource.listFiles()} order). The member is called as {@code member(value, out)}:
+ * the first stage receives the input, and every value a stage passes to {@code out.collect()} is handed
+ * straight to the next stage, as the language value it is. Only the last stage's {@code out} is the
+ * caller's collector.
+ * <p>
+ * Stages must share one context (see {@link PolyglotAccessConfig#sharedContext()}), since language
+ * values cannot cross contexts. Python stages still each run in a module of their own, so their helper
+ * names do not collide. An exception raised by a stage propagates through the {@code collect}
+ * calls of the stages before it, which may catch it.
+ * <p>
+ * Not thread-safe: a pipeline holds the collector of the record in flight.
+ * Obtain one via {@link PolyglotInterpreter#pipeline(String)}.
+ */
+public class PolyglotPipeline {
+
+    private final List<String> stages = new ArrayList<>();
+    private final Value[] functions;
+    private final StageCollector[] collectors; // collectors[i] feeds stage i + 1
+    private Object out;
+
+    PolyglotPipeline(PolyglotInterpreter interpreter, String member) {
+
+        List<Value> found = new ArrayList<>();
+        Context shared = null;
+
+        for (String name : interpreter.getContexts()) {
+            PolyglotContext context = interpreter.getContext(name);
+            if (!context.hasMember(member)) {
+                continue;
+            }
+            if (!context.isShared() || (shared != null && shared != context.context())) {
+                throw new IllegalArgumentException("Pipeline stages must share one context, but '" + name
+                        + "' does not; enable PolyglotAccessConfig.sharedContext and use a single language");
+            }
+            shared = context.context();
+            stages.add(name);
+            found.add(context.getMember(member));
+        }
+
+        functions = found.toArray(new Value[0]);
+        collectors = new StageCollector[Math.max(0, functions.length - 1)];
+        for (int i = 0; i < collectors.length; i++) {
+            collectors[i] = new StageCollector(i + 1);
+        }
+    }
+
+    /**
+     * Returns the stage names, in execution order.
+     */
+    public List<String> getStages() {
+        return List.copyOf(stages);
+    }
+
+    /**
+     * Feeds {@code input} to the first stage; whatever the last stage collects goes to {@code out}.
+     * Does nothing when there are no stages.
+     */
+    public void process(Object input, Object out) {
+        if (functions.length == 0) {
+            return;
+        }
+        this.out = out;
+        try {
+            functions[0].executeVoid(input, next(0));
+        } finally {
+            this.out = null;
+        }
+    }
+
+    private Object next(int stage) {
+        return stage < collectors.length ? collectors[stage] : out;
+    }
+
+    /**
+     * The {@code out} passed to every stage but the last: calls the next stage with each collected value.
+     */
+    public final class StageCollector {
+
+        private final int stage;
+
+        private StageCollector(int stage) {
+            this.stage = stage;
+        }
+
+        @HostAccess.Export
+        public void collect(Value value) {
+            functions[stage].executeVoid(value, next(stage));
+        }
+    }
+}
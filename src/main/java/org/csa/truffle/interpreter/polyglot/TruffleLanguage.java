@@ -1,19 +1,44 @@
 package org.csa.truffle.interpreter.polyglot;
 
+import java.util.Locale;
+import java.util.Optional;
+
 public enum TruffleLanguage {
-    PYTHON("python"),
-    JS("js"),
-    RUBY("ruby"),
-    WASM("wasm"),
-    LLVM("llvm");
+    PYTHON("python", ".py"),
+    JS("js", ".js"),
+    RUBY("ruby", ".rb"),
+    WASM("wasm", ".wasm"),
+    LLVM("llvm", ".bc");
 
     private final String id;
+    private final String extension;
 
-    TruffleLanguage(String id) {
+    TruffleLanguage(String id, String extension) {
         this.id = id;
+        this.extension = extension;
     }
 
     public String getId() {
         return id;
     }
+
+    /**
+     * Returns the file extension of sources in this language, including the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the language of {@code fileName} by its extension (case-insensitive), if known.
+     */
+    public static Optional<TruffleLanguage> forFileName(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (TruffleLanguage language : values()) {
+            if (lower.endsWith(language.extension)) {
+                return Optional.of(language);
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -4,14 +4,20 @@ import org.apache.commons.lang3.StringUtils;
 import org.csa.truffle.loader.result.FileInfo;
 import org.csa.truffle.loader.result.ChangeStatus;
 import org.csa.truffle.loader.result.LoadResult;
+import org.csa.truffle.source.BinaryContent;
+import org.csa.truffle.source.FileChangeListener;
 import org.csa.truffle.source.FileSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Loads and caches the contents of files from a {@link FileSource},
@@ -24,7 +30,13 @@ import java.util.*;
  * disappear are evicted from the cache.
  *
  * <p>An optional {@link ReloadCallback} supplied at construction time is invoked
- * after every {@link #load()} attempt.
+ * after every {@link #load()} attempt, followed by any callbacks registered via
+ * {@link #addReloadCallback}. This includes loads triggered by the source's change listener.
+ * When the source reports which paths changed, only those are stat'ed and read
+ * (see {@link #load(Set)}); otherwise the whole source is listed again.
+ *
+ * <p>While nothing changes, successive successful {@link LoadResult}s share the same
+ * {@link LoadResult#contents()} instance, so consumers can detect a new snapshot by identity.
  *
  * <p>Operational state is tracked in a {@link FileLoaderStatus} instance;
  * obtain it via {@link #getStatus()}.
@@ -48,6 +60,11 @@ public class FileLoader implements Closeable {
      */
     private final ReloadCallback callback;
 
+    /**
+     * Additional callbacks registered after construction; invoked after {@link #callback}.
+     */
+    private final List<ReloadCallback> reloadCallbacks = new CopyOnWriteArrayList<>();
+
     /**
      * Ordered cache: filename → current content. Preserved across calls.
      */
@@ -58,6 +75,12 @@ public class FileLoader implements Closeable {
      */
     private final Map<String, Instant> modTimes = new HashMap<>();
 
+    /**
+     * Immutable, ordered snapshot of {@link #fileContents} handed out in {@link LoadResult}s;
+     * replaced only when a load detects a change.
+     */
+    private Map<String, String> contentsSnapshot;
+
     private final FileLoaderStatus status = new FileLoaderStatus();
 
     // -------------------------------------------------------------------------
@@ -81,8 +104,8 @@ public class FileLoader implements Closeable {
         this.source = source;
         this.callback = callback;
 
-        // source may provide a callback when input files
-        source.setChangeListener(this::load);
+        // push sources notify on change, with the changed paths when they know them
+        source.setChangeListener((Set<String> changedPaths) -> load(changedPaths));
     }
 
     // -------------------------------------------------------------------------
@@ -104,7 +127,11 @@ public class FileLoader implements Closeable {
      *   <li>If {@code force} is {@code false} and a modification time is present
      *       and has not advanced since the last load, the cached content is reused
      *       without an I/O call.</li>
-     *   <li>Otherwise the file is re-read via {@link FileSource#readFile}.</li>
+     *   <li>Otherwise the file is re-read; all such files are requested in a single
+     *       {@link FileSource#readFiles} call so remote sources can fetch them concurrently.
+     *       A cached binary file (see {@link BinaryContent}) is first only hashed while streamed with
+     *       {@link FileSource#openStream}; if the hash is unchanged the cached content is kept, otherwise
+     *       the file is read with {@link FileSource#readFileBytes}.</li>
      * </ul>
      * Files no longer listed by the source are evicted from the cache.
      *
@@ -126,44 +153,35 @@ public class FileLoader implements Closeable {
             Map<String, Optional<Instant>> fileList = source.listFiles();
             log.debug("load() started; source lists {} file(s)", fileList.size());
 
-            boolean changed = false;
-
-            List<FileInfo> changes = new ArrayList<>();
-            Map<String, String> newFileContents = new LinkedHashMap<>();
             Map<String, Instant> newModTimes = new HashMap<>();
 
+            // first pass: decide which files need to be (re)read
+            List<String> toRead = new ArrayList<>();
             for (Map.Entry<String, Optional<Instant>> entry : fileList.entrySet()) {
                 String filePath = entry.getKey();
                 Optional<Instant> modTime = entry.getValue();
-
-                // file needs to be (re)read if forced, newer, or has no modification time
-                boolean needsRead;
-                if (modTime.isPresent()) {
-                    Instant lastKnown = modTimes.get(filePath);
-                    needsRead = force || lastKnown == null || modTime.get().isAfter(lastKnown);
-                    newModTimes.put(filePath, modTime.get());
-                } else {
-                    needsRead = true; // no timestamp available — always re-read
+                modTime.ifPresent(t -> newModTimes.put(filePath, t));
+                if (needsRead(filePath, modTime, force)) {
+                    toRead.add(filePath);
                 }
+            }
+
+            // read all files in one call so remote sources can fetch them concurrently
+            Map<String, String> read = toRead.isEmpty() ? Map.of() : read(toRead);
+
+            // second pass: classify and collect contents in listing order
+            boolean changed = false;
+            List<FileInfo> changes = new ArrayList<>();
+            Map<String, String> newFileContents = new LinkedHashMap<>();
+            for (Map.Entry<String, Optional<Instant>> entry : fileList.entrySet()) {
+                String filePath = entry.getKey();
 
-                // read file (if necessary) and get contents
                 ChangeStatus changeStatus;
                 String content;
-                if (needsRead) {
-                    content = source.readFile(filePath);
-                    String previous = fileContents.get(filePath);
-                    if (previous == null) {
-                        changeStatus = ChangeStatus.ADDED;
-                        log.info("New file loaded: {}", filePath);
-                        changed = true;
-                    } else if (!StringUtils.equals(content, previous)) {
-                        changeStatus = ChangeStatus.MODIFIED;
-                        log.info("File content updated: {}", filePath);
-                        changed = true;
-                    } else {
-                        changeStatus = ChangeStatus.UNMODIFIED;
-                        log.debug("File re-read but unchanged: {}", filePath);
-                    }
+                if (read.containsKey(filePath)) {
+                    content = read.get(filePath);
+                    changeStatus = classify(filePath, content);
+                    changed |= changeStatus != ChangeStatus.UNMODIFIED;
                 } else {
                     content = fileContents.get(filePath); // reuse from cache
                     changeStatus = ChangeStatus.UNMODIFIED;
@@ -171,7 +189,7 @@ public class FileLoader implements Closeable {
                 }
 
                 newFileContents.put(filePath, content);
-                changes.add(new FileInfo(filePath, modTime, changeStatus));
+                changes.add(new FileInfo(filePath, entry.getValue(), changeStatus));
             }
 
             // Detect removed files
@@ -183,46 +201,244 @@ public class FileLoader implements Closeable {
                 }
             }
 
-            // update current file contents/mod times
-            fileContents.clear();
-            fileContents.putAll(newFileContents);
-            modTimes.clear();
-            modTimes.putAll(newModTimes);
-
-            Optional<Instant> maxDataAge = fileList.values().stream()
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .max(Comparator.naturalOrder());
-
-            // update status
-            if (changed) {
-                status.lastChangedAt = checkedAt;
-                log.debug("load() complete: change(s) detected");
-            } else {
-                log.debug("load() complete: no files");
+            result = commit(checkedAt, changed, changes, newFileContents, newModTimes);
+
+        } catch (Exception e) {
+            result = fail(checkedAt, e);
+        }
+
+        notifyCallbacks(result);
+        return result;
+    }
+
+    /**
+     * Refreshes only the given files, for sources that know which paths changed
+     * (see {@link FileChangeListener}). The paths are checked with {@link FileSource#statFiles}
+     * instead of a full {@link FileSource#listFiles()}: paths the source no longer reports are
+     * evicted, the other paths are re-read even if their modification time did not advance, and every
+     * other cached file is kept as is.
+     *
+     * <p>Falls back to a full {@link #load()} when {@code changedPaths} is {@code null} (changes
+     * unknown), nothing has been loaded yet, or the source reports a file that is not cached: only a
+     * listing tells where a new file goes in the index order. Status and callbacks behave as for
+     * {@link #load(boolean)}.
+     *
+     * @param changedPaths relative paths reported as changed by the source; {@code null} if unknown
+     * @return a {@link LoadResult} covering all cached files
+     */
+    public synchronized LoadResult load(Set<String> changedPaths) {
+        if (changedPaths == null || contentsSnapshot == null) {
+            return load(false);
+        }
+
+        Instant checkedAt = Instant.now();
+        status.lastCheckedAt = checkedAt;
+        LoadResult result;
+
+        try {
+            Map<String, Optional<Instant>> stats = source.statFiles(changedPaths);
+            log.debug("load() started for {} changed path(s); source reports {} file(s)",
+                    changedPaths.size(), stats.size());
+            for (String filePath : stats.keySet()) {
+                if (!fileContents.containsKey(filePath)) {
+                    log.debug("New file {} reported; listing the source to place it", filePath);
+                    return load(false);
+                }
             }
 
-            status.lastSuccessAt = checkedAt;
-            status.lastDataAge = maxDataAge.orElse(null);
-            status.loadedFiles = Set.copyOf(newFileContents.keySet());
-            status.firstErrorAt = null;  // clear error streak on success
+            Map<String, Instant> newModTimes = new HashMap<>(modTimes);
+            List<String> toRead = new ArrayList<>();
+            for (Map.Entry<String, Optional<Instant>> entry : stats.entrySet()) {
+                String filePath = entry.getKey();
+                Optional<Instant> modTime = entry.getValue();
+                if (modTime.isPresent()) {
+                    newModTimes.put(filePath, modTime.get());
+                } else {
+                    newModTimes.remove(filePath);
+                }
+                // the source reported the path as changed: read it even if the modification time did
+                // not advance (coarse timestamps, or several writes within one tick)
+                if (needsRead(filePath, modTime, true)) {
+                    toRead.add(filePath);
+                }
+            }
+
+            Map<String, String> read = toRead.isEmpty() ? Map.of() : read(toRead);
+
+            boolean changed = false;
+            Map<String, ChangeStatus> statuses = new HashMap<>();
+            Map<String, String> newFileContents = new LinkedHashMap<>(fileContents);
+            for (String filePath : changedPaths) {
+                if (!stats.containsKey(filePath)) {
+                    if (newFileContents.remove(filePath) != null) {
+                        log.info("File removed from index: {}", filePath);
+                        newModTimes.remove(filePath);
+                        statuses.put(filePath, ChangeStatus.REMOVED);
+                        changed = true;
+                    }
+                } else if (read.containsKey(filePath)) {
+                    String content = read.get(filePath);
+                    ChangeStatus changeStatus = classify(filePath, content);
+                    changed |= changeStatus != ChangeStatus.UNMODIFIED;
+                    statuses.put(filePath, changeStatus);
+                    newFileContents.put(filePath, content);
+                }
+            }
+            List<FileInfo> changes = new ArrayList<>();
+            for (String filePath : newFileContents.keySet()) {
+                changes.add(new FileInfo(filePath, Optional.ofNullable(newModTimes.get(filePath)),
+                        statuses.getOrDefault(filePath, ChangeStatus.UNMODIFIED)));
+            }
+            statuses.forEach((filePath, changeStatus) -> {
+                if (changeStatus == ChangeStatus.REMOVED) {
+                    changes.add(new FileInfo(filePath, Optional.empty(), ChangeStatus.REMOVED));
+                }
+            });
 
-            result = LoadResult.forSuccess(status, changed, List.copyOf(changes), Map.copyOf(newFileContents));
+            result = commit(checkedAt, changed, changes, newFileContents, newModTimes);
 
         } catch (Exception e) {
+            result = fail(checkedAt, e);
+        }
 
-            log.error("load() failed", e);
+        notifyCallbacks(result);
+        return result;
+    }
 
-            // update status
-            status.lastErrorAt = checkedAt;
-            status.lastError = e;
-            if (status.firstErrorAt == null) {
-                status.firstErrorAt = checkedAt;
+    /**
+     * Reads {@code names}: text files in one {@link FileSource#readFiles} call so remote sources can
+     * fetch them concurrently, binary files (see {@link BinaryContent}) via {@link #readBinary}.
+     */
+    private Map<String, String> read(List<String> names) throws IOException {
+        List<String> text = new ArrayList<>();
+        Map<String, String> read = new HashMap<>();
+        for (String name : names) {
+            if (BinaryContent.isBinary(name)) {
+                read.put(name, readBinary(name));
+            } else {
+                text.add(name);
             }
+        }
+        if (read.isEmpty()) {
+            return source.readFiles(text);
+        }
+        if (!text.isEmpty()) {
+            read.putAll(source.readFiles(text));
+        }
+        return read;
+    }
+
+    /**
+     * Reads a binary file. A cached one is streamed with {@link FileSource#openStream} and compared with
+     * the cached content as it arrives, without buffering: if all bytes match, the cached content is
+     * returned. At the first differing byte the matching prefix is taken from the cache and the rest of
+     * the stream is read, so a changed file is downloaded once. New files are read with
+     * {@link FileSource#readFileBytes}.
+     */
+    private String readBinary(String name) throws IOException {
+        String cached = fileContents.get(name);
+        if (cached == null) {
+            return BinaryContent.encode(source.readFileBytes(name));
+        }
+        try (InputStream in = source.openStream(name)) {
+            byte[] chunk = new byte[8192];
+            int matched = 0;
+            int n;
+            while ((n = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                int same = 0;
+                while (same < n && matched + same < cached.length()
+                        && (byte) cached.charAt(matched + same) == chunk[same]) {
+                    same++;
+                }
+                if (same < n) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(cached.length(), matched + n));
+                    bytes.write(BinaryContent.decode(cached.substring(0, matched)));
+                    bytes.write(chunk, 0, n);
+                    in.transferTo(bytes);
+                    return BinaryContent.encode(bytes.toByteArray());
+                }
+                matched += n;
+            }
+            return matched == cached.length() ? cached : cached.substring(0, matched); // unchanged or truncated
+        }
+    }
+
+    /**
+     * A file needs to be (re)read if forced, newer than last seen, or has no modification time.
+     */
+    private boolean needsRead(String filePath, Optional<Instant> modTime, boolean force) {
+        if (modTime.isEmpty()) {
+            return true; // no timestamp available — always re-read
+        }
+        Instant lastKnown = modTimes.get(filePath);
+        return force || lastKnown == null || modTime.get().isAfter(lastKnown);
+    }
+
+    /**
+     * Compares freshly read content against the cache and logs the outcome.
+     */
+    private ChangeStatus classify(String filePath, String content) {
+        String previous = fileContents.get(filePath);
+        if (previous == null) {
+            log.info("New file loaded: {}", filePath);
+            return ChangeStatus.ADDED;
+        }
+        if (!StringUtils.equals(content, previous)) {
+            log.info("File content updated: {}", filePath);
+            return ChangeStatus.MODIFIED;
+        }
+        log.debug("File re-read but unchanged: {}", filePath);
+        return ChangeStatus.UNMODIFIED;
+    }
+
+    /**
+     * Replaces the cache with the outcome of a successful load and updates the status.
+     */
+    private LoadResult commit(Instant checkedAt, boolean changed, List<FileInfo> changes,
+                              Map<String, String> newFileContents, Map<String, Instant> newModTimes) {
+        // update current file contents/mod times
+        fileContents.clear();
+        fileContents.putAll(newFileContents);
+        modTimes.clear();
+        modTimes.putAll(newModTimes);
+
+        Optional<Instant> maxDataAge = newModTimes.values().stream()
+                .max(Comparator.naturalOrder());
+
+        // update status
+        if (changed) {
+            status.lastChangedAt = checkedAt;
+            log.debug("load() complete: change(s) detected");
+        } else {
+            log.debug("load() complete: no files");
+        }
 
-            result = LoadResult.forError(status, e);
+        status.lastSuccessAt = checkedAt;
+        status.lastDataAge = maxDataAge.orElse(null);
+        status.loadedFiles = Set.copyOf(newFileContents.keySet());
+        status.firstErrorAt = null;  // clear error streak on success
+
+        if (changed || contentsSnapshot == null) {
+            contentsSnapshot = Collections.unmodifiableMap(new LinkedHashMap<>(newFileContents));
         }
 
+        return LoadResult.forSuccess(status, changed, List.copyOf(changes), contentsSnapshot);
+    }
+
+    private LoadResult fail(Instant checkedAt, Exception e) {
+        log.error("load() failed", e);
+
+        // update status
+        status.lastErrorAt = checkedAt;
+        status.lastError = e;
+        if (status.firstErrorAt == null) {
+            status.firstErrorAt = checkedAt;
+        }
+
+        return LoadResult.forError(status, e);
+    }
+
+    private void notifyCallbacks(LoadResult result) {
         if (callback != null) {
             try {
                 callback.onReload(result);
@@ -231,7 +447,50 @@ public class FileLoader implements Closeable {
             }
         }
 
-        return result;
+        for (ReloadCallback reloadCallback : reloadCallbacks) {
+            try {
+                reloadCallback.onReload(result);
+            } catch (Exception e) {
+                log.warn("error notifying callback", e);
+            }
+        }
+    }
+
+    /**
+     * Seeds the cache with contents restored from elsewhere (e.g. a checkpoint) instead of loading
+     * them from the source. The next {@link #load()} re-reads every file, since no modification
+     * times are known, but reports a change only where the source differs from {@code contents}.
+     * Until then, and afterwards while nothing changes, results carry the returned snapshot.
+     *
+     * @return the contents snapshot now held, or {@code null} if the loader had already loaded
+     * (the cache is then left as is)
+     */
+    public synchronized Map<String, String> prime(Map<String, String> contents) {
+        if (contentsSnapshot != null) {
+            return null;
+        }
+        fileContents.clear();
+        fileContents.putAll(contents);
+        modTimes.clear();
+        contentsSnapshot = Collections.unmodifiableMap(new LinkedHashMap<>(contents));
+        status.loadedFiles = Set.copyOf(contents.keySet());
+        log.info("Primed with {} restored file(s)", contents.size());
+        return contentsSnapshot;
+    }
+
+    /**
+     * Registers an additional callback invoked after every {@link #load()} attempt,
+     * including loads triggered by the source's change listener.
+     */
+    public void addReloadCallback(ReloadCallback reloadCallback) {
+        reloadCallbacks.add(reloadCallback);
+    }
+
+    /**
+     * Removes a callback registered via {@link #addReloadCallback}; no-op if it is not registered.
+     */
+    public void removeReloadCallback(ReloadCallback reloadCallback) {
+        reloadCallbacks.remove(reloadCallback);
     }
 
     /**
@@ -250,6 +509,17 @@ public class FileLoader implements Closeable {
         return status;
     }
 
+    /**
+     * Records the schedule of the poller driving this loader in its {@link FileLoaderStatus}.
+     *
+     * @param interval   interval the next poll is based on, before jitter
+     * @param nextPollAt when the next poll is due, or {@code null} if polling is not running
+     */
+    public void recordPollSchedule(Duration interval, Instant nextPollAt) {
+        status.pollInterval = interval;
+        status.nextPollAt = nextPollAt;
+    }
+
     @Override
     public void close() throws IOException {
         source.close();
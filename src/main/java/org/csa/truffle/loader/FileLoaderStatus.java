@@ -1,5 +1,6 @@
 package org.csa.truffle.loader;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Set;
 
@@ -7,7 +8,8 @@ import java.util.Set;
  * Observable status for a {@link FileLoader}.
  *
  * <p>Fields are written by {@link FileLoader} (package-private access)
- * after every {@link FileLoader#load()} call.
+ * after every {@link FileLoader#load()} call; the poll schedule is recorded by whatever polls the
+ * loader, via {@link FileLoader#recordPollSchedule}.
  * All getters are public for external observation.
  */
 public class FileLoaderStatus {
@@ -53,6 +55,16 @@ public class FileLoaderStatus {
      */
     Set<String> loadedFiles = Set.of();
 
+    /**
+     * Interval the next background poll is based on, before jitter; {@code null} if the loader is not polled.
+     */
+    volatile Duration pollInterval;
+
+    /**
+     * Wall-clock time the next background poll is due; {@code null} while polling is not running.
+     */
+    volatile Instant nextPollAt;
+
     public Instant getLastCheckedAt() {
         return lastCheckedAt;
     }
@@ -81,4 +93,12 @@ public class FileLoaderStatus {
         return loadedFiles;
     }
 
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public Instant getNextPollAt() {
+        return nextPollAt;
+    }
+
 }
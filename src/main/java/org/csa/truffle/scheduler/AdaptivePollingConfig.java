@@ -0,0 +1,25 @@
+package org.csa.truffle.scheduler;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Adaptive polling for {@link ScheduledReloader}: instead of polling at the fixed
+ * {@link SchedulerConfig#interval()}, the poller drops to {@code minInterval} after a load that
+ * detected a change or recovered from errors, then doubles the interval with every quiet (or failing)
+ * poll until it is back at {@link SchedulerConfig#interval()}. Changes therefore propagate quickly
+ * while a source is being edited, and an idle source is polled at the slow rate.
+ *
+ * <p>Every delay is randomly lengthened or shortened by up to {@code jitter} of itself, so parallel
+ * subtasks that started together do not hit the source in lockstep.
+ *
+ * @param minInterval interval right after a detected change or error recovery
+ * @param jitter      fraction in {@code [0, 1)} of each delay that is randomized; {@code 0} disables jitter
+ */
+public record AdaptivePollingConfig(Duration minInterval, double jitter) implements Serializable {
+
+    /** 20% jitter. */
+    public AdaptivePollingConfig(Duration minInterval) {
+        this(minInterval, 0.2);
+    }
+}
@@ -0,0 +1,294 @@
+package org.csa.truffle.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Staged rollout of interpreter generations inside one operator subtask.
+ *
+ * <p>New generations are {@linkplain #offer offered} by the reload thread and picked up by the
+ * processing thread at the next record. A picked-up generation becomes the <em>candidate</em>: it
+ * runs in shadow on a random sample of records (see {@link RolloutConfig}) with its output discarded,
+ * while the <em>current</em> generation keeps emitting. Once enough records were shadowed, the
+ * candidate is promoted if its error rate, output count and latency are within the configured
+ * limits of the current generation's on the same records, and closed otherwise. Latency is only
+ * compared after the candidate's {@linkplain RolloutConfig#latencyWarmup() warm-up}, so JIT
+ * compilation of a fresh generation does not count against it. A candidate that
+ * is still in shadow when a newer generation arrives is closed and the comparison restarts.
+ *
+ * <p>On promotion the replaced generation is kept as the <em>last known good</em> one, so
+ * {@link #rollback()} can switch back without reloading or re-evaluating scripts.
+ *
+ * <p>Thread-safety: {@link #offer} may be called from any thread. All other methods must be called
+ * from the processing thread; generations are only switched and closed there, so a generation is
+ * never closed while a record is running through it.
+ *
+ * @param <T> the generation type, e.g. {@code PolyglotInterpreter}
+ */
+public final class CanaryRollout<T extends AutoCloseable> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CanaryRollout.class);
+
+    /** Mean latencies below this are compared as this value, so sub-microsecond noise never rejects. */
+    private static final double LATENCY_FLOOR_NANOS = 1_000;
+
+    /**
+     * Outcome of running one record through one generation.
+     *
+     * @param outputs records emitted (or, in shadow, that would have been emitted)
+     * @param errors  errors raised while processing the record
+     */
+    public record Outcome(int outputs, int errors) {
+    }
+
+    /**
+     * Runs the current record through a generation.
+     */
+    @FunctionalInterface
+    public interface RecordRunner<T> {
+        /**
+         * @param generation the generation to run
+         * @param shadow     {@code true} if outputs must be counted but not emitted
+         */
+        Outcome run(T generation, boolean shadow);
+    }
+
+    private final RolloutConfig config;
+    private final AtomicReference<T> pending = new AtomicReference<>();
+
+    private T current;
+    private T lastKnownGood; // nullable
+    private T candidate;     // nullable
+    private Stats currentStats;
+    private Stats candidateStats;
+    private int promotions;
+    private int rejections;
+
+    public CanaryRollout(RolloutConfig config, T initial) {
+        this.config = config;
+        this.current = initial;
+    }
+
+    /**
+     * Hands over a newly loaded generation; it becomes the candidate at the next record.
+     * A generation offered earlier that was not picked up yet is closed.
+     */
+    public void offer(T generation) {
+        T superseded = pending.getAndSet(generation);
+        if (superseded != null) {
+            closeQuietly(superseded);
+        }
+    }
+
+    /**
+     * Runs one record through the current generation and, if a candidate is in shadow and the record
+     * is sampled, through the candidate as well. Exceptions from the current generation propagate;
+     * exceptions from the candidate count as an error of the candidate.
+     */
+    public void process(RecordRunner<T> runner) {
+        T next = pending.getAndSet(null);
+        if (next != null) {
+            startCanary(next);
+        }
+
+        if (candidate == null || ThreadLocalRandom.current().nextDouble() >= config.sampleFraction()) {
+            runner.run(current, false);
+            return;
+        }
+
+        long start = System.nanoTime();
+        Outcome live = runner.run(current, false);
+        long liveDone = System.nanoTime();
+        Outcome shadow;
+        try {
+            shadow = runner.run(candidate, true);
+        } catch (RuntimeException e) {
+            shadow = new Outcome(0, 1);
+        }
+        long shadowDone = System.nanoTime();
+
+        boolean timed = candidateStats.records >= config.latencyWarmup();
+        currentStats.add(live, liveDone - start, timed);
+        candidateStats.add(shadow, shadowDone - liveDone, timed);
+        if (candidateStats.timedRecords >= config.minSamples()) {
+            decide();
+        }
+    }
+
+    /**
+     * Switches back to the last known good generation and closes the current one.
+     * A candidate in shadow is discarded as well.
+     *
+     * @return {@code false} if there is no last known good generation
+     */
+    public boolean rollback() {
+        if (lastKnownGood == null) return false;
+        discardCandidate();
+        T bad = current;
+        current = lastKnownGood;
+        lastKnownGood = null;
+        closeQuietly(bad);
+        log.warn("Rolled back to the last known good generation");
+        return true;
+    }
+
+    /**
+     * Returns the generation that currently emits outputs.
+     */
+    public T current() {
+        return current;
+    }
+
+    /**
+     * Returns whether a candidate is running in shadow.
+     */
+    public boolean hasCandidate() {
+        return candidate != null;
+    }
+
+    /**
+     * Returns whether a last known good generation is available for {@link #rollback()}.
+     */
+    public boolean hasLastKnownGood() {
+        return lastKnownGood != null;
+    }
+
+    public int getPromotions() {
+        return promotions;
+    }
+
+    public int getRejections() {
+        return rejections;
+    }
+
+    // -------------------------------------------------------------------------
+    // Transitions
+    // -------------------------------------------------------------------------
+
+    private void startCanary(T next) {
+        if (candidate != null) {
+            log.info("Newer generation arrived; restarting canary");
+            discardCandidate();
+        }
+        candidate = next;
+        currentStats = new Stats();
+        candidateStats = new Stats();
+        if (config.minSamples() <= 0) {
+            promote();
+        } else {
+            log.info("New generation in shadow on {}% of records", config.sampleFraction() * 100);
+        }
+    }
+
+    private void decide() {
+        String reason = rejectionReason();
+        if (reason == null) {
+            log.info("Promoting new generation after {} shadowed record(s): {} vs current {}",
+                    candidateStats.records, candidateStats, currentStats);
+            promote();
+        } else {
+            log.warn("Rolling back new generation after {} shadowed record(s): {} (new {} vs current {})",
+                    candidateStats.records, reason, candidateStats, currentStats);
+            discardCandidate();
+            rejections++;
+        }
+    }
+
+    /**
+     * Returns why the candidate must not be promoted, or {@code null} if it may be.
+     */
+    private String rejectionReason() {
+        double errorIncrease = candidateStats.errorRate() - currentStats.errorRate();
+        if (errorIncrease > config.maxErrorRateIncrease()) {
+            return String.format("error rate up by %.2f%%", errorIncrease * 100);
+        }
+        double outputDeviation = Math.abs(candidateStats.outputs - currentStats.outputs)
+                / (double) Math.max(1, currentStats.outputs);
+        if (outputDeviation > config.maxOutputDeviation()) {
+            return String.format("output count off by %.1f%%", outputDeviation * 100);
+        }
+        double latencyRatio = Math.max(candidateStats.meanNanos(), LATENCY_FLOOR_NANOS)
+                / Math.max(currentStats.meanNanos(), LATENCY_FLOOR_NANOS);
+        if (latencyRatio > config.maxLatencyRatio()) {
+            return String.format("latency %.1fx", latencyRatio);
+        }
+        return null;
+    }
+
+    private void promote() {
+        if (lastKnownGood != null) {
+            closeQuietly(lastKnownGood);
+        }
+        lastKnownGood = current;
+        current = candidate;
+        candidate = null;
+        promotions++;
+    }
+
+    private void discardCandidate() {
+        if (candidate != null) {
+            closeQuietly(candidate);
+            candidate = null;
+        }
+    }
+
+    /**
+     * Closes every generation held, including one offered but not picked up yet.
+     */
+    @Override
+    public void close() {
+        T next = pending.getAndSet(null);
+        if (next != null) closeQuietly(next);
+        discardCandidate();
+        if (lastKnownGood != null) closeQuietly(lastKnownGood);
+        closeQuietly(current);
+    }
+
+    private static void closeQuietly(AutoCloseable generation) {
+        try {
+            generation.close();
+        } catch (Exception e) {
+            log.warn("Error closing generation: {}", e.getMessage());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Stats
+    // -------------------------------------------------------------------------
+
+    /** Totals over the shadowed records for one generation; latency only over those after the warm-up. */
+    private static final class Stats {
+        long records;
+        long recordsWithErrors;
+        long outputs;
+        long timedRecords;
+        long nanos;
+
+        void add(Outcome outcome, long elapsedNanos, boolean timed) {
+            records++;
+            if (outcome.errors() > 0) recordsWithErrors++;
+            outputs += outcome.outputs();
+            if (timed) {
+                timedRecords++;
+                nanos += elapsedNanos;
+            }
+        }
+
+        double errorRate() {
+            return records == 0 ? 0 : (double) recordsWithErrors / records;
+        }
+
+        double meanNanos() {
+            return timedRecords == 0 ? 0 : (double) nanos / timedRecords;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("errors %.2f%%, %d output(s), %.1f µs/record",
+                    errorRate() * 100, outputs, meanNanos() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.csa.truffle.scheduler;
+
+import org.csa.truffle.loader.FileLoader;
+import org.csa.truffle.loader.result.LoadResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a {@link FileLoader} on a single daemon thread and publishes every {@link LoadResult} to its
+ * subscribers — whether the load was triggered by the poll or by a push notification from the source.
+ *
+ * <p>A poller is either owned by a single {@link ScheduledReloader}, or shared by all reloaders of the
+ * same source via {@link SharedLoaderRegistry}. Subscribers are invoked on the thread that performed
+ * the load, one result at a time.
+ *
+ * <p>Each poll schedules the next one. With {@link AdaptivePollingConfig} the delay adapts to the
+ * results published (see there); otherwise it is the fixed interval.
+ */
+final class ReloadPoller implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadPoller.class);
+
+    private final FileLoader loader;
+    private final Duration interval;
+    private final AdaptivePollingConfig adaptive; // null = fixed interval
+    private final List<FileLoader.ReloadCallback> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Most recent successful result; guarded by {@code this}.
+     */
+    private LoadResult latest;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Delay the next poll is based on, before jitter; guarded by {@code this} and mirrored to the
+     * loader's {@link org.csa.truffle.loader.FileLoaderStatus} with {@link #nextPollAt}.
+     */
+    private Duration currentInterval;
+    private Instant nextPollAt;
+    private boolean failing;
+
+    ReloadPoller(FileLoader loader, Duration interval, AdaptivePollingConfig adaptive) {
+        this.loader = loader;
+        this.interval = interval;
+        this.adaptive = adaptive;
+        this.currentInterval = interval;
+        loader.recordPollSchedule(interval, null);
+        loader.addReloadCallback(this::publish);
+    }
+
+    FileLoader loader() {
+        return loader;
+    }
+
+    /**
+     * Returns the most recent successful result, or performs a synchronous load on the calling
+     * thread if there is none yet. The returned result may be a failure.
+     */
+    LoadResult latestOrLoad() {
+        synchronized (this) {
+            if (latest != null) return latest;
+        }
+        return loader.load();
+    }
+
+    /**
+     * Registers {@code subscriber} and returns the most recent successful result (or {@code null}).
+     * A result published concurrently is delivered to the subscriber, returned, or both.
+     */
+    synchronized LoadResult subscribe(FileLoader.ReloadCallback subscriber) {
+        subscribers.add(subscriber);
+        return latest;
+    }
+
+    void unsubscribe(FileLoader.ReloadCallback subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Starts background polling; no-op if already started.
+     */
+    synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ScheduledReloader");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduleNext(executor);
+    }
+
+    /**
+     * Stops background polling without closing the loader. Safe to call multiple times.
+     */
+    synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+            nextPollAt = null;
+            loader.recordPollSchedule(currentInterval, null);
+        }
+    }
+
+    /**
+     * Returns the interval the next poll is based on, before jitter.
+     */
+    synchronized Duration currentInterval() {
+        return currentInterval;
+    }
+
+    /**
+     * Returns when the next poll is due, or {@code null} if polling is not running.
+     */
+    synchronized Instant nextPollAt() {
+        return nextPollAt;
+    }
+
+    private void poll(ScheduledExecutorService owner) {
+        try {
+            loader.load(); // result reaches subscribers via publish()
+        } catch (Exception e) {
+            // load() never throws; guard the executor against a subscriber bug anyway
+            log.error("Scheduled reload failed", e);
+        } finally {
+            scheduleNext(owner);
+        }
+    }
+
+    /**
+     * Schedules the next poll on {@code owner}, unless polling was stopped (or restarted) meanwhile.
+     */
+    private synchronized void scheduleNext(ScheduledExecutorService owner) {
+        if (executor != owner) return;
+        long delay = currentInterval.toMillis();
+        if (adaptive != null && adaptive.jitter() > 0 && delay > 0) {
+            double spread = Math.min(adaptive.jitter(), 1.0) * delay;
+            delay += (long) ThreadLocalRandom.current().nextDouble(-spread, spread);
+        }
+        delay = Math.max(1, delay);
+        nextPollAt = Instant.now().plusMillis(delay);
+        loader.recordPollSchedule(currentInterval, nextPollAt);
+        owner.schedule(() -> poll(owner), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops to the minimum interval after a change or a recovery from errors; otherwise doubles the
+     * interval, up to the configured one.
+     */
+    private synchronized void adapt(LoadResult result) {
+        if (adaptive == null) return;
+        boolean recovered = result.success() && failing;
+        failing = !result.success();
+        Duration next;
+        if (recovered || (result.success() && result.changed())) {
+            next = adaptive.minInterval();
+        } else {
+            Duration doubled = currentInterval.multipliedBy(2);
+            next = doubled.compareTo(interval) < 0 ? doubled : interval;
+        }
+        if (!next.equals(currentInterval)) {
+            log.debug("Polling interval {} -> {}", currentInterval, next);
+            currentInterval = next;
+            loader.recordPollSchedule(currentInterval, nextPollAt);
+        }
+    }
+
+    private void publish(LoadResult result) {
+        adapt(result);
+        if (result.success()) {
+            synchronized (this) {
+                latest = result;
+            }
+        }
+        for (FileLoader.ReloadCallback subscriber : subscribers) {
+            try {
+                subscriber.onReload(result);
+            } catch (Exception e) {
+                log.error("Reload subscriber failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Stops polling and closes the loader (and with it the source).
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+        subscribers.clear();
+        loader.close();
+    }
+}
@@ -0,0 +1,37 @@
+package org.csa.truffle.scheduler;
+
+import java.io.Serializable;
+
+/**
+ * Staged rollout of newly loaded scripts, see {@link CanaryRollout}.
+ *
+ * <p>A new generation first runs in shadow on a random {@code sampleFraction} of records, next to
+ * the current generation, with its output discarded. After {@code latencyWarmup + minSamples} shadowed
+ * records the two are compared; the new generation is promoted only if it stays within all three
+ * limits, otherwise it is rolled back and the current generation keeps serving.
+ *
+ * <p>The first {@code latencyWarmup} shadowed records count towards errors and outputs but not
+ * towards latency: a fresh generation runs interpreted until the JIT has compiled its hot paths, so
+ * its first calls are much slower than the warmed-up current generation's.
+ *
+ * @param sampleFraction       fraction of records in {@code (0, 1]} that are also run through the new generation
+ * @param minSamples           shadowed records before deciding; {@code 0} promotes without comparing
+ * @param maxErrorRateIncrease largest acceptable increase of the share of records with errors, e.g. {@code 0.01}
+ *                             for one percentage point
+ * @param maxOutputDeviation   largest acceptable relative difference in the number of outputs, e.g. {@code 0.1}
+ * @param maxLatencyRatio      largest acceptable ratio of mean per-record latency, new to current
+ * @param latencyWarmup        shadowed records left out of the latency comparison
+ */
+public record RolloutConfig(double sampleFraction, int minSamples, double maxErrorRateIncrease,
+                            double maxOutputDeviation, double maxLatencyRatio, int latencyWarmup)
+        implements Serializable {
+
+    /** 10% of records, skip 200 for warm-up, decide after 1000 more; at most +1pp errors, ±10% outputs, 2x latency. */
+    public static final RolloutConfig DEFAULT = new RolloutConfig(0.1, 1000, 0.01, 0.1, 2.0, 200);
+
+    /** Compares latency from the first shadowed record on. */
+    public RolloutConfig(double sampleFraction, int minSamples, double maxErrorRateIncrease,
+                         double maxOutputDeviation, double maxLatencyRatio) {
+        this(sampleFraction, minSamples, maxErrorRateIncrease, maxOutputDeviation, maxLatencyRatio, 0);
+    }
+}
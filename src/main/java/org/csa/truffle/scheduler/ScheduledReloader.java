@@ -1,5 +1,8 @@
 package org.csa.truffle.scheduler;
 
+import org.csa.truffle.interpreter.CompositeInterpreter;
+import org.csa.truffle.interpreter.ScriptEngine;
+import org.csa.truffle.interpreter.ScriptInterpreter;
 import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
 import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
 import org.csa.truffle.interpreter.polyglot.TruffleLanguage;
@@ -15,19 +18,30 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Manages loading of files backed by a {@link FileLoader}.
  * Performs an initial synchronous reload then schedules periodic background reloads
- * at the configured interval.
+ * at the configured interval, or at an interval that adapts to how often the source changes
+ * (see {@link AdaptivePollingConfig}).
  *
- * <p>A new {@link PolyglotInterpreter} is built whenever the loader detects content files.
+ * <p>A new {@link PolyglotInterpreter} is built whenever the loader publishes a new content snapshot,
+ * whether from a scheduled poll or a push notification from the source; each file is evaluated in the
+ * language of its extension, Python if unknown. Constructed with a list of {@link ScriptEngine}s, the
+ * reloader keeps one {@link CompositeInterpreter} instead, so the scripts may mix engines, and applies
+ * every snapshot to it: only new and changed files are loaded, deleted ones are removed. Constructed
+ * with a {@link ContentsCallback}, it hands over the contents and leaves building whatever runs them
+ * to the callback.
  * Observable status is accessible via {@link #getStatus()} and backed by {@link FileLoaderStatus}.
  *
+ * <p>With {@link SchedulerConfig#shareLoader()} enabled (and a {@link FileSourceConfig}-based constructor),
+ * the loader and its polling thread are shared with every other reloader of the same source in this JVM
+ * via {@link SharedLoaderRegistry}; otherwise the reloader owns them.
+ *
  * <p>Thread-safety: {@code fatalError} and {@code firstErrorAt} are {@code volatile} — writes
  * from the scheduler thread are immediately visible to any reader.
  */
@@ -44,14 +58,41 @@ public class ScheduledReloader implements AutoCloseable {
         void onReload(FileLoaderStatus status, PolyglotInterpreter interpreter);
     }
 
-    private final FileLoader loader;
+    /**
+     * Like {@link ScheduledReloadCallback}, for reloaders built with {@link ScriptEngine}s. Every call
+     * passes the same interpreter, updated in place; the reloader closes it on {@link #close()}.
+     */
+    @FunctionalInterface
+    public interface InterpreterCallback {
+        void onReload(FileLoaderStatus status, ScriptInterpreter interpreter);
+    }
+
+    /**
+     * Receives every new contents snapshot (including the initial one on {@code start()}) and builds
+     * whatever runs it; throwing marks the reload as failed, like a Python evaluation error does with
+     * {@link ScheduledReloadCallback}. Called with {@code null} contents when the grace period is exceeded.
+     */
+    @FunctionalInterface
+    public interface ContentsCallback {
+        void onContents(FileLoaderStatus status, Map<String, String> contents) throws Exception;
+    }
+
+    private final ReloadPoller poller;
+    private final boolean sharedPoller;
     private final SchedulerConfig schedulerConfig;
     private final PolyglotAccessConfig contextConfig;
     private final ScheduledReloadCallback callback;
-    private ScheduledExecutorService executor;
+    private final ContentsCallback contentsCallback; // replaces contextConfig and callback when set
+    private final FileLoader.ReloadCallback subscriber = this::onLoadResult;
+
+    /**
+     * Contents snapshot the current interpreter was built from; compared by identity.
+     */
+    private volatile Map<String, String> appliedContents;
 
     volatile RuntimeException fatalError;
     private volatile Instant firstErrorAt;
+    private boolean closed;
 
     // -------------------------------------------------------------------------
     // Constructors
@@ -60,7 +101,11 @@ public class ScheduledReloader implements AutoCloseable {
 
     public ScheduledReloader(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig,
                              PolyglotAccessConfig contextConfig, ScheduledReloadCallback callback) {
-        this(FileSourceFactory.create(sourceConfig), schedulerConfig, contextConfig, callback);
+        this(schedulerConfig.shareLoader()
+                        ? SharedLoaderRegistry.acquire(sourceConfig, schedulerConfig.interval(), schedulerConfig.adaptive())
+                        : new ReloadPoller(new FileLoader(FileSourceFactory.create(sourceConfig)),
+                        schedulerConfig.interval(), schedulerConfig.adaptive()),
+                schedulerConfig.shareLoader(), schedulerConfig, contextConfig, callback);
     }
 
     public ScheduledReloader(FileSource source, SchedulerConfig schedulerConfig,
@@ -70,10 +115,93 @@ public class ScheduledReloader implements AutoCloseable {
 
     public ScheduledReloader(FileLoader fileLoader, SchedulerConfig schedulerConfig,
                              PolyglotAccessConfig contextConfig, ScheduledReloadCallback callback) {
-        this.loader = fileLoader;
+        this(new ReloadPoller(fileLoader, schedulerConfig.interval(), schedulerConfig.adaptive()),
+                false, schedulerConfig, contextConfig, callback);
+    }
+
+    public ScheduledReloader(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig,
+                             List<ScriptEngine> engines, InterpreterCallback callback) {
+        this(sourceConfig, schedulerConfig, building(engines, callback));
+    }
+
+    public ScheduledReloader(FileSource source, SchedulerConfig schedulerConfig,
+                             List<ScriptEngine> engines, InterpreterCallback callback) {
+        this(source, schedulerConfig, building(engines, callback));
+    }
+
+    public ScheduledReloader(FileSourceConfig sourceConfig, SchedulerConfig schedulerConfig,
+                             ContentsCallback contentsCallback) {
+        this(schedulerConfig.shareLoader()
+                        ? SharedLoaderRegistry.acquire(sourceConfig, schedulerConfig.interval(), schedulerConfig.adaptive())
+                        : new ReloadPoller(new FileLoader(FileSourceFactory.create(sourceConfig)),
+                        schedulerConfig.interval(), schedulerConfig.adaptive()),
+                schedulerConfig.shareLoader(), schedulerConfig, null, null, contentsCallback);
+    }
+
+    public ScheduledReloader(FileSource source, SchedulerConfig schedulerConfig, ContentsCallback contentsCallback) {
+        this(new ReloadPoller(new FileLoader(source), schedulerConfig.interval(), schedulerConfig.adaptive()),
+                false, schedulerConfig, null, null, contentsCallback);
+    }
+
+    private ScheduledReloader(ReloadPoller poller, boolean sharedPoller, SchedulerConfig schedulerConfig,
+                              PolyglotAccessConfig contextConfig, ScheduledReloadCallback callback) {
+        this(poller, sharedPoller, schedulerConfig, contextConfig, callback, null);
+    }
+
+    private ScheduledReloader(ReloadPoller poller, boolean sharedPoller, SchedulerConfig schedulerConfig,
+                              PolyglotAccessConfig contextConfig, ScheduledReloadCallback callback,
+                              ContentsCallback contentsCallback) {
+        this.poller = poller;
+        this.sharedPoller = sharedPoller;
         this.schedulerConfig = schedulerConfig;
         this.contextConfig = contextConfig;
         this.callback = callback;
+        this.contentsCallback = contentsCallback;
+    }
+
+    /**
+     * Adapts {@code callback} to a {@link ContentsCallback} that applies every snapshot to one
+     * {@link CompositeInterpreter}, owned by this reloader.
+     */
+    private static ContentsCallback building(List<ScriptEngine> engines, InterpreterCallback callback) {
+        return new Building(new CompositeInterpreter(engines), callback);
+    }
+
+    /**
+     * Applies every snapshot to {@code interpreter} (see {@link ScriptInterpreter#applyContents}), so only
+     * new and changed files are loaded and deleted ones are removed, then hands it to {@code callback}.
+     * The callback also runs when a load error fails the reload, as files loaded before the error are
+     * already in place; a file that failed keeps its previous version. Callback errors are logged.
+     */
+    private record Building(CompositeInterpreter interpreter, InterpreterCallback callback)
+            implements ContentsCallback, AutoCloseable {
+
+        @Override
+        public void onContents(FileLoaderStatus status, Map<String, String> contents) throws Exception {
+            if (contents == null) {
+                callback.onReload(status, null);
+                return;
+            }
+            Exception failure = null;
+            try {
+                interpreter.applyContents(contents);
+            } catch (Exception e) {
+                failure = e;
+            }
+            try {
+                callback.onReload(status, interpreter);
+            } catch (Exception e) {
+                log.error("Reload callback failed: {}", e.getMessage(), e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        @Override
+        public void close() {
+            interpreter.close();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -84,65 +212,117 @@ public class ScheduledReloader implements AutoCloseable {
      * Performs the initial reload synchronously on the calling thread
      * (so data is ready before Flink starts calling {@code processElement}),
      * then schedules periodic background reloads at the configured interval.
+     * With a shared loader that has already loaded, its latest snapshot is used
+     * and no remote request is made.
      */
     public void start() throws IOException {
 
-        // synchronous initial load
-        doReload();
+        // synchronous initial load (or the shared loader's latest snapshot)
+        LoadResult initial = poller.latestOrLoad();
+        if (!initial.success()) {
+            throw new IOException("FileLoader failed: " + initial.error().getMessage(), initial.error());
+        }
+        apply(initial);
+
+        // catch up with anything published between the initial load and subscribing
+        LoadResult latest = poller.subscribe(subscriber);
+        if (latest != null) {
+            onLoadResult(latest);
+        }
+
+        poller.start();
 
-        // init scheduler
-        long interval = schedulerConfig.interval().toMillis();
-        executor = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread t = new Thread(r, "ScheduledReloader");
-            t.setDaemon(true);
-            return t;
-        });
+        log.info("ScheduledReloader started{}", sharedPoller ? " (shared loader)" : "");
+    }
 
-        executor.scheduleAtFixedRate(this::doScheduledReload, interval, interval, TimeUnit.MILLISECONDS);
+    /**
+     * Like {@link #start()}, but starts from {@code restoredContents} (e.g. the scripts active at the
+     * last checkpoint) instead of loading the source: the interpreter is built from them and the
+     * loader is primed with them (see {@link FileLoader#prime}), so no remote request is made.
+     * Background reloads then catch up with the source, starting one interval later. With a shared
+     * loader that has already loaded, its latest snapshot is applied at its next publication.
+     *
+     * @param restoredContents file name to content; {@code null} behaves like {@link #start()}
+     */
+    public void start(Map<String, String> restoredContents) throws IOException {
+        if (restoredContents == null) {
+            start();
+            return;
+        }
 
-        log.info("ScheduledReloader started");
+        Map<String, String> primed = poller.loader().prime(restoredContents);
+        apply(primed != null ? primed : Collections.unmodifiableMap(new LinkedHashMap<>(restoredContents)),
+                poller.loader().getStatus());
+
+        poller.subscribe(subscriber);
+        poller.start();
+
+        log.info("ScheduledReloader started from {} restored file(s){}",
+                restoredContents.size(), sharedPoller ? " (shared loader)" : "");
     }
 
     // -------------------------------------------------------------------------
     // Reload helpers
     // -------------------------------------------------------------------------
 
-    private void doReload() throws IOException {
+    /**
+     * Builds a new interpreter when {@code result} carries a snapshot other than the one applied last.
+     */
+    private void apply(LoadResult result) throws IOException {
+        apply(result.contents(), result.status());
+    }
 
-        LoadResult result = loader.load();
+    private void apply(Map<String, String> contents, FileLoaderStatus status) throws IOException {
 
-        if (!result.success()) {
-            throw new IOException("FileLoader failed: " + result.error().getMessage(), result.error());
+        if (contents == appliedContents) {
+            return;
         }
 
-        if (result.changed()) {
-
+        if (contentsCallback != null) {
             try {
-                PolyglotInterpreter interpreter = new PolyglotInterpreter(contextConfig);
+                contentsCallback.onContents(status, contents);
+            } catch (Exception e) {
+                throw new IOException("Script initialization failed: " + e.getMessage(), e);
+            }
+            appliedContents = contents;
+            return;
+        }
 
-                for (Map.Entry<String, String> entry : result.contents().entrySet()) {
-                    interpreter.addContext(TruffleLanguage.PYTHON, entry.getKey(), entry.getValue());
-                }
+        try {
+            PolyglotInterpreter interpreter = new PolyglotInterpreter(contextConfig);
 
-                try {
-                    callback.onReload(result.status(), interpreter);
-                } catch (Exception e) {
-                    log.error("Reload callback failed: {}", e.getMessage(), e);
-                }
+            for (Map.Entry<String, String> entry : contents.entrySet()) {
+                TruffleLanguage language = TruffleLanguage.forFileName(entry.getKey()).orElse(TruffleLanguage.PYTHON);
+                interpreter.addContext(language, entry.getKey(), entry.getValue());
+            }
+
+            appliedContents = contents;
 
+            try {
+                callback.onReload(status, interpreter);
             } catch (Exception e) {
-                throw new IOException("GraalPyInterpreter initialization failed: " + e.getMessage(), e);
+                log.error("Reload callback failed: {}", e.getMessage(), e);
             }
-        }
 
-        // clear error streak on success
-        firstErrorAt = null;
+        } catch (Exception e) {
+            throw new IOException("PolyglotInterpreter initialization failed: " + e.getMessage(), e);
+        }
     }
 
-    private void doScheduledReload() {
+    /**
+     * Handles a result published by the poller (background poll or push notification).
+     */
+    private void onLoadResult(LoadResult result) {
 
         try {
-            doReload();
+            if (!result.success()) {
+                throw new IOException("FileLoader failed: " + result.error().getMessage(), result.error());
+            }
+            apply(result);
+
+            // clear error streak on success
+            firstErrorAt = null;
+
         } catch (IOException e) {
             log.error("Scheduled reload failed", e);
 
@@ -158,14 +338,18 @@ public class ScheduledReloader implements AutoCloseable {
 
                 if (streak.compareTo(grace) >= 0) {
                     String msg = String.format(
-                            "Python script reload grace period exceeded: errors for %ds " +
+                            "Script reload grace period exceeded: errors for %ds " +
                                     "(grace: %ds). Last error: %s",
                             streak.toSeconds(), grace.toSeconds(), e.getMessage());
                     fatalError = new RuntimeException(msg, e);
                     log.error("Grace period exceeded: {}", msg);
 
                     try {
-                        callback.onReload(loader.getStatus(), null);
+                        if (contentsCallback != null) {
+                            contentsCallback.onContents(poller.loader().getStatus(), null);
+                        } else {
+                            callback.onReload(poller.loader().getStatus(), null);
+                        }
                     } catch (Exception callbackEx) {
                         log.error("Grace-period callback failed: {}", callbackEx.getMessage(), callbackEx);
                     }
@@ -179,10 +363,20 @@ public class ScheduledReloader implements AutoCloseable {
     // -------------------------------------------------------------------------
 
     /**
-     * Returns the {@link FileLoaderStatus} of the managed dataset.
+     * Returns the file contents the current interpreter was built from, or {@code null} before the
+     * first one. Set before a {@link ScheduledReloadCallback} is invoked for that interpreter, and after
+     * a {@link ContentsCallback} has accepted them.
+     */
+    public Map<String, String> getAppliedContents() {
+        return appliedContents;
+    }
+
+    /**
+     * Returns the {@link FileLoaderStatus} of the managed dataset, including the current poll
+     * schedule ({@link FileLoaderStatus#getPollInterval()}, {@link FileLoaderStatus#getNextPollAt()}).
      */
     public FileLoaderStatus getStatus() {
-        return loader.getStatus();
+        return poller.loader().getStatus();
     }
 
     public RuntimeException getFatalError() {
@@ -196,6 +390,27 @@ public class ScheduledReloader implements AutoCloseable {
         return firstErrorAt;
     }
 
+    /**
+     * Returns the current polling interval, before jitter. Constant unless adaptive polling is configured.
+     */
+    public Duration getPollInterval() {
+        return poller.currentInterval();
+    }
+
+    /**
+     * Returns when the next background reload is due, or {@code null} if none is scheduled.
+     */
+    public Instant getNextPollAt() {
+        return poller.nextPollAt();
+    }
+
+    /**
+     * Returns whether this reloader uses a loader shared via {@link SharedLoaderRegistry}.
+     */
+    public boolean isSharedLoader() {
+        return sharedPoller;
+    }
+
     // -------------------------------------------------------------------------
     // Fatal-error checks
     // -------------------------------------------------------------------------
@@ -214,22 +429,33 @@ public class ScheduledReloader implements AutoCloseable {
     // -------------------------------------------------------------------------
 
     /**
-     * Stops the background scheduler without closing the underlying {@link FileLoader}.
-     * Safe to call multiple times.
+     * Stops background reloads for this reloader without closing the underlying {@link FileLoader}.
+     * A shared loader keeps polling for its other users. Safe to call multiple times.
      */
     public void stop() {
-        if (executor != null) {
-            executor.shutdownNow();
-            executor = null;
+        poller.unsubscribe(subscriber);
+        if (!sharedPoller) {
+            poller.stop();
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
         stop();
 
+        if (contentsCallback instanceof Building building) {
+            building.close();
+        }
+
+        if (sharedPoller) {
+            SharedLoaderRegistry.release(poller);
+            return;
+        }
+
         try {
-            loader.close();
+            poller.close();
         } catch (Exception ignored) {
         }
     }
@@ -3,10 +3,60 @@ package org.csa.truffle.scheduler;
 import java.io.Serializable;
 import java.time.Duration;
 
-public record SchedulerConfig(Duration interval, Duration gracePeriod) implements Serializable {
+/**
+ * @param interval    time between background reloads; with adaptive polling, the longest interval
+ * @param gracePeriod how long background reloads may fail before the error becomes fatal;
+ *                    {@link Duration#ZERO} means errors are logged but never fatal
+ * @param shareLoader if {@code true}, all {@link ScheduledReloader}s in this JVM that are built from an equal
+ *                    source config and polling settings share one {@code FileLoader} and one polling thread
+ *                    (see {@link SharedLoaderRegistry}); each still builds its own interpreter
+ * @param adaptive    adaptive polling between {@link AdaptivePollingConfig#minInterval()} and {@code interval};
+ *                    {@code null} polls at the fixed {@code interval}
+ * @param rollout     staged rollout of new scripts (see {@link CanaryRollout}); {@code null} switches every
+ *                    subtask to a new generation as soon as it is loaded
+ */
+public record SchedulerConfig(Duration interval, Duration gracePeriod, boolean shareLoader,
+                              AdaptivePollingConfig adaptive, RolloutConfig rollout) implements Serializable {
 
     /** No grace period — reload errors are logged but never fatal. */
     public SchedulerConfig(Duration interval) {
         this(interval, Duration.ZERO);
     }
+
+    /** Per-instance loader. */
+    public SchedulerConfig(Duration interval, Duration gracePeriod) {
+        this(interval, gracePeriod, false);
+    }
+
+    /** Fixed polling interval. */
+    public SchedulerConfig(Duration interval, Duration gracePeriod, boolean shareLoader) {
+        this(interval, gracePeriod, shareLoader, null);
+    }
+
+    /** Without staged rollout. */
+    public SchedulerConfig(Duration interval, Duration gracePeriod, boolean shareLoader,
+                           AdaptivePollingConfig adaptive) {
+        this(interval, gracePeriod, shareLoader, adaptive, null);
+    }
+
+    /**
+     * Returns a copy of this config with {@code shareLoader} set.
+     */
+    public SchedulerConfig withShareLoader(boolean shareLoader) {
+        return new SchedulerConfig(interval, gracePeriod, shareLoader, adaptive, rollout);
+    }
+
+    /**
+     * Returns a copy of this config with adaptive polling set; {@code null} restores the fixed interval.
+     */
+    public SchedulerConfig withAdaptivePolling(AdaptivePollingConfig adaptive) {
+        return new SchedulerConfig(interval, gracePeriod, shareLoader, adaptive, rollout);
+    }
+
+    /**
+     * Returns a copy of this config with staged rollout set; {@code null} disables it.
+     */
+    public SchedulerConfig withRollout(RolloutConfig rollout) {
+        return new SchedulerConfig(interval, gracePeriod, shareLoader, adaptive, rollout);
+    }
 }
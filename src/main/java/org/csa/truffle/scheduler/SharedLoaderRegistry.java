@@ -0,0 +1,92 @@
+package org.csa.truffle.scheduler;
+
+import org.csa.truffle.loader.FileLoader;
+import org.csa.truffle.source.FileSourceConfig;
+import org.csa.truffle.source.FileSourceConfigKey;
+import org.csa.truffle.source.FileSourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM-wide, reference-counted registry of {@link ReloadPoller}s, keyed by source config
+ * (compared by value, see {@link FileSourceConfigKey}) and polling settings.
+ *
+ * <p>All parallel subtasks of a Flink operator that run in the same TaskManager receive equal
+ * source configs. With {@link SchedulerConfig#shareLoader()} enabled they share one
+ * {@link FileLoader}, one copy of the loaded file contents and one polling thread, so remote
+ * requests and scheduler threads stay constant as parallelism grows. The poller is closed when
+ * the last {@link ScheduledReloader} using it is closed.
+ */
+public final class SharedLoaderRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedLoaderRegistry.class);
+
+    private record Key(FileSourceConfigKey source, Duration interval, AdaptivePollingConfig adaptive) {
+    }
+
+    private static final class Entry {
+        final ReloadPoller poller;
+        int refCount;
+
+        Entry(ReloadPoller poller) {
+            this.poller = poller;
+        }
+    }
+
+    private static final Map<Key, Entry> ENTRIES = new HashMap<>();
+
+    private SharedLoaderRegistry() {
+    }
+
+    /**
+     * Returns the shared poller for the given source and polling settings, creating it on first use,
+     * and increments its reference count.
+     */
+    static synchronized ReloadPoller acquire(FileSourceConfig sourceConfig, Duration interval,
+                                             AdaptivePollingConfig adaptive) {
+        Key key = new Key(FileSourceConfigKey.of(sourceConfig), interval, adaptive);
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            FileLoader loader = new FileLoader(FileSourceFactory.create(sourceConfig));
+            entry = new Entry(new ReloadPoller(loader, interval, adaptive));
+            ENTRIES.put(key, entry);
+            log.info("Created shared loader for {} (interval {})", sourceConfig.getClass().getSimpleName(), interval);
+        }
+        entry.refCount++;
+        log.debug("Acquired shared loader; {} user(s)", entry.refCount);
+        return entry.poller;
+    }
+
+    /**
+     * Decrements the reference count of {@code poller}; closes and removes it when no users remain.
+     */
+    static synchronized void release(ReloadPoller poller) {
+        for (Map.Entry<Key, Entry> e : ENTRIES.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.poller != poller) continue;
+            if (--entry.refCount > 0) {
+                log.debug("Released shared loader; {} user(s) remain", entry.refCount);
+                return;
+            }
+            ENTRIES.remove(e.getKey());
+            try {
+                poller.close();
+            } catch (Exception ex) {
+                log.warn("Error closing shared loader: {}", ex.getMessage());
+            }
+            log.info("Closed shared loader; no users remain");
+            return;
+        }
+    }
+
+    /**
+     * Returns the number of shared loaders currently alive in this JVM.
+     */
+    public static synchronized int size() {
+        return ENTRIES.size();
+    }
+}
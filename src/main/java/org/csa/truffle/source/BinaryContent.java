@@ -0,0 +1,50 @@
+package org.csa.truffle.source;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Binary files in the string-based file pipeline.
+ * <p>
+ * Loaders, snapshots and checkpoints carry file contents as strings. Files with a binary extension
+ * are read with {@link FileSource#readFileBytes} and carried as ISO-8859-1 strings, one char per byte,
+ * which round-trips every byte sequence; content hashes and change detection work unchanged. The JVM
+ * stores such a string as one byte per char, so a cached binary takes no more memory than its bytes.
+ * Whatever consumes such a file turns it back into bytes with {@link #decode}.
+ */
+public final class BinaryContent {
+
+    /** Extensions of binary files, lower case and including the dot. */
+    public static final Set<String> EXTENSIONS = Set.of(".wasm");
+
+    private BinaryContent() {
+    }
+
+    /**
+     * Returns whether {@code name} has a binary extension (case-insensitive).
+     */
+    public static boolean isBinary(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code bytes} as a string with one char per byte.
+     */
+    public static String encode(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the bytes of a string made by {@link #encode}.
+     */
+    public static byte[] decode(String content) {
+        return content.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,21 @@
+package org.csa.truffle.source;
+
+import java.util.Set;
+
+/**
+ * Change notification from a push-capable {@link FileSource}.
+ *
+ * @see FileSource#setChangeListener(FileChangeListener)
+ */
+@FunctionalInterface
+public interface FileChangeListener {
+
+    /**
+     * Called when files in the source changed.
+     *
+     * @param changedPaths relative paths that were created, modified or deleted, in the same form
+     *                     as the keys of {@link FileSource#listFiles()}; {@code null} when the source
+     *                     cannot tell which paths changed and the whole source should be re-listed
+     */
+    void onChanged(Set<String> changedPaths);
+}
@@ -2,11 +2,17 @@ package org.csa.truffle.source;
 
 import org.csa.truffle.source.file.FileSystemSource;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Provides the file list and contents from a file source.
@@ -28,6 +34,53 @@ public interface FileSource extends Closeable {
      */
     String readFile(String name) throws IOException;
 
+    /**
+     * Returns the raw content of the named file, for binary files such as WebAssembly modules
+     * (see {@link BinaryContent}). The default encodes {@link #readFile} as UTF-8, which is only
+     * correct for text; sources that can read bytes override it.
+     */
+    default byte[] readFileBytes(String name) throws IOException {
+        return readFile(name).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens the raw content of the named file for reading, so large files can be processed
+     * without holding them in memory; the caller closes the stream. The default wraps
+     * {@link #readFileBytes}; sources that can stream override it.
+     */
+    default InputStream openStream(String name) throws IOException {
+        return new ByteArrayInputStream(readFileBytes(name));
+    }
+
+    /**
+     * Returns the source code of each named file, in the order given.
+     * The default reads the files one at a time via {@link #readFile}; remote sources
+     * override it to fetch several files concurrently.
+     */
+    default Map<String, String> readFiles(Collection<String> names) throws IOException {
+        Map<String, String> contents = new LinkedHashMap<>();
+        for (String name : names) {
+            contents.put(name, readFile(name));
+        }
+        return contents;
+    }
+
+    /**
+     * Returns the modification timestamps of the named files, in the order given, like
+     * {@link #listFiles()} restricted to {@code names}. Files that no longer exist, or that the
+     * source's filters exclude, are absent from the result.
+     * The default lists the whole source; sources that can stat single files override it.
+     */
+    default Map<String, Optional<Instant>> statFiles(Collection<String> names) throws IOException {
+        Map<String, Optional<Instant>> listed = listFiles();
+        Map<String, Optional<Instant>> stats = new LinkedHashMap<>();
+        for (String name : names) {
+            Optional<Instant> modTime = listed.get(name);
+            if (modTime != null) stats.put(name, modTime);
+        }
+        return stats;
+    }
+
     /**
      * Must be called after construction.
      * Implementations that can detect files (e.g. {@link FileSystemSource})
@@ -37,6 +90,15 @@ public interface FileSource extends Closeable {
     default void setChangeListener(Runnable onChanged) {
     }
 
+    /**
+     * Like {@link #setChangeListener(Runnable)}, but the listener also receives the changed paths
+     * when the source knows them, so the caller can reload just those files.
+     * The default registers a {@link Runnable} that reports the changed paths as unknown.
+     */
+    default void setChangeListener(FileChangeListener onChanged) {
+        setChangeListener(() -> onChanged.onChanged(null));
+    }
+
     /**
      * Releases any resources held (e.g. a watcher thread). No-op by default.
      */
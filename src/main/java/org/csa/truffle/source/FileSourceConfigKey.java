@@ -0,0 +1,48 @@
+package org.csa.truffle.source;
+
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Value-equality key for a {@link FileSourceConfig}.
+ *
+ * <p>The config records carry {@code String[]} filemasks, and records compare array components
+ * by reference. Two configs deserialized independently by different Flink subtasks are therefore
+ * never {@code equals}, even when they describe the same source. This key compares record
+ * components by value, with arrays compared element-wise, so it can be used to look up shared
+ * per-source state.
+ *
+ * @param type       the concrete config class
+ * @param components the record component values, arrays converted to lists; or the config itself
+ *                   for non-record configs, which are expected to implement {@code equals}
+ */
+public record FileSourceConfigKey(Class<?> type, List<Object> components) {
+
+    public static FileSourceConfigKey of(FileSourceConfig config) {
+        Class<?> type = config.getClass();
+        if (!type.isRecord()) {
+            return new FileSourceConfigKey(type, List.of(config));
+        }
+        List<Object> values = new ArrayList<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            try {
+                values.add(normalize(component.getAccessor().invoke(config)));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read " + type.getName() + "." + component.getName(), e);
+            }
+        }
+        return new FileSourceConfigKey(type, values);
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Object[] array) {
+            return Arrays.asList(array);
+        }
+        if (value instanceof FileSourceConfig nested) {
+            return of(nested);
+        }
+        return value;
+    }
+}
@@ -1,5 +1,7 @@
 package org.csa.truffle.source;
 
+import org.csa.truffle.source.cache.CachingFileSource;
+import org.csa.truffle.source.cache.CachingFileSourceConfig;
 import org.csa.truffle.source.file.FileSystemSource;
 import org.csa.truffle.source.file.FileSystemSourceConfig;
 import org.csa.truffle.source.git.GitSource;
@@ -24,6 +26,7 @@ public final class FileSourceFactory {
             case FileSystemSourceConfig c -> new FileSystemSource(c);
             case S3SourceConfig c -> new S3Source(c);
             case MapFileSourceConfig c -> new MapFileSource(c);
+            case CachingFileSourceConfig c -> new CachingFileSource(c);
             default -> throw new IllegalArgumentException(
                     "Unknown SourceConfig type: " + config.getClass().getName());
         };
@@ -0,0 +1,182 @@
+package org.csa.truffle.source;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled form of a source's {@code filemasks} and {@code excludeFilemasks}, built once per source.
+ *
+ * <p>A relative path is accepted when none of its components matches an exclude pattern and its
+ * filename (last component) matches one of the masks; no masks means every filename matches.
+ * Paths are split on {@code '/'}; empty components are ignored, as {@link Path} does.
+ *
+ * <p>Patterns are {@linkplain FileSystems#getDefault() default filesystem} globs. The common shapes
+ * are matched with plain string checks: literals ({@code venv}), suffixes ({@code *.py}) and
+ * prefixes ({@code test_*}). Only other patterns fall back to a {@link PathMatcher}, which needs a
+ * {@link Path} per component; filters with such patterns cache their decision per path.
+ */
+public final class PathFilter {
+
+    /** Accepts every path. */
+    public static final PathFilter ACCEPT_ALL = new PathFilter(null, null);
+
+    /** Upper bound of the decision cache; it is cleared when exceeded. */
+    private static final int MAX_CACHED_DECISIONS = 65_536;
+
+    private final Pattern[] masks;    // null = accept every filename
+    private final Pattern[] excludes; // null = exclude nothing
+    private final Map<String, Boolean> decisions; // null when every pattern has a fast path
+
+    private PathFilter(Pattern[] masks, Pattern[] excludes) {
+        this.masks = masks;
+        this.excludes = excludes;
+        this.decisions = needsMatcher(masks) || needsMatcher(excludes) ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * Compiles the given patterns; {@code null} or empty arrays impose no restriction.
+     *
+     * @throws IllegalArgumentException if a pattern is not a valid glob
+     */
+    public static PathFilter of(String[] filemasks, String[] excludeFilemasks) {
+        Pattern[] masks = compile(filemasks);
+        Pattern[] excludes = compile(excludeFilemasks);
+        return masks == null && excludes == null ? ACCEPT_ALL : new PathFilter(masks, excludes);
+    }
+
+    /**
+     * Compiles the filemasks and exclude filemasks of {@code config}.
+     */
+    public static PathFilter of(FileSourceConfig config) {
+        return of(config.filemasks(), config.excludeFilemasks());
+    }
+
+    /**
+     * Returns {@code true} if no component of {@code relativePath} is excluded and its filename
+     * matches the masks.
+     */
+    public boolean accepts(String relativePath) {
+        if (decisions == null) {
+            return decide(relativePath);
+        }
+        Boolean cached = decisions.get(relativePath);
+        if (cached != null) return cached;
+        boolean accepted = decide(relativePath);
+        if (decisions.size() >= MAX_CACHED_DECISIONS) decisions.clear();
+        decisions.put(relativePath, accepted);
+        return accepted;
+    }
+
+    /**
+     * Returns {@code true} if the filename (last component) of {@code relativePath} matches any mask,
+     * or there are no masks.
+     */
+    public boolean matchesMask(String relativePath) {
+        if (masks == null) return true;
+        String filename = lastComponent(relativePath);
+        return filename != null && matchesAny(masks, filename);
+    }
+
+    /**
+     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
+     */
+    public boolean isExcluded(String relativePath) {
+        if (excludes == null) return false;
+        int start = 0;
+        int length = relativePath.length();
+        while (start <= length) {
+            int end = relativePath.indexOf('/', start);
+            if (end < 0) end = length;
+            if (end > start && matchesAny(excludes, relativePath.substring(start, end))) return true;
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private boolean decide(String relativePath) {
+        return !isExcluded(relativePath) && matchesMask(relativePath);
+    }
+
+    private static String lastComponent(String relativePath) {
+        int end = relativePath.length();
+        while (end > 0 && relativePath.charAt(end - 1) == '/') end--;
+        if (end == 0) return null;
+        return relativePath.substring(relativePath.lastIndexOf('/', end - 1) + 1, end);
+    }
+
+    private static boolean matchesAny(Pattern[] patterns, String component) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matches(component)) return true;
+        }
+        return false;
+    }
+
+    // -------------------------------------------------------------------------
+    // Compilation
+    // -------------------------------------------------------------------------
+
+    private enum Kind { LITERAL, SUFFIX, PREFIX, GLOB }
+
+    /** One compiled pattern; {@code matcher} is set for {@link Kind#GLOB} only. */
+    private record Pattern(Kind kind, String text, PathMatcher matcher) {
+
+        boolean matches(String component) {
+            return switch (kind) {
+                case LITERAL -> component.equals(text);
+                case SUFFIX -> component.endsWith(text);
+                case PREFIX -> component.startsWith(text);
+                case GLOB -> matcher.matches(Path.of(component));
+            };
+        }
+    }
+
+    private static Pattern[] compile(String[] globs) {
+        if (globs == null || globs.length == 0) return null;
+        List<Pattern> patterns = new ArrayList<>(globs.length);
+        for (String glob : globs) {
+            patterns.add(compile(glob));
+        }
+        return patterns.toArray(Pattern[]::new);
+    }
+
+    private static Pattern compile(String glob) {
+        if (!hasMeta(glob, 0, glob.length())) {
+            return new Pattern(Kind.LITERAL, glob, null);
+        }
+        // a single '*' that does not have to cross a separator: "*.py" or "test_*"
+        if (glob.length() > 1 && glob.charAt(0) == '*' && !hasMeta(glob, 1, glob.length())) {
+            return new Pattern(Kind.SUFFIX, glob.substring(1), null);
+        }
+        int last = glob.length() - 1;
+        if (glob.length() > 1 && glob.charAt(last) == '*' && !hasMeta(glob, 0, last)) {
+            return new Pattern(Kind.PREFIX, glob.substring(0, last), null);
+        }
+        return new Pattern(Kind.GLOB, glob, FileSystems.getDefault().getPathMatcher("glob:" + glob));
+    }
+
+    private static boolean hasMeta(String glob, int from, int to) {
+        for (int i = from; i < to; i++) {
+            switch (glob.charAt(i)) {
+                case '*', '?', '[', ']', '{', '}', '\\', '/' -> {
+                    return true;
+                }
+                default -> {
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean needsMatcher(Pattern[] patterns) {
+        if (patterns == null) return false;
+        for (Pattern pattern : patterns) {
+            if (pattern.kind() == Kind.GLOB) return true;
+        }
+        return false;
+    }
+}
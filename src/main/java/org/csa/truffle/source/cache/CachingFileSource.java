@@ -0,0 +1,679 @@
+package org.csa.truffle.source.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.csa.truffle.source.BinaryContent;
+import org.csa.truffle.source.FileChangeListener;
+import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.FileSourceConfigKey;
+import org.csa.truffle.source.FileSourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * {@link FileSource} decorator that persists fetched content to a local, content-addressed
+ * directory, so restarts and outages of the remote source do not require re-downloading.
+ *
+ * <p><b>Layout.</b> Contents are stored once per SHA-256 under {@code <cacheDir>/blobs/ab/abcdef...};
+ * identical files of different sources share a blob. Each source keeps a manifest under
+ * {@code <cacheDir>/manifests/<id>.json}, mapping its files to the modification time and blob they
+ * were fetched with. The id is a hash of the delegate config, so equal configs share a manifest
+ * and credentials are not written to disk. Blobs and manifests are written to a temporary file
+ * and atomically moved into place.
+ *
+ * <p><b>Reads.</b> A file is served from its blob when the delegate lists it with the same
+ * modification time it was fetched with; everything else is fetched from the delegate and cached.
+ * Sources that list no modification times (Git, classpath resources) are served from blobs only
+ * while the snapshot is, and until the next listing after the background revalidation verified them.
+ * Binary files (see {@link BinaryContent}) are cached the same way, as their raw bytes; a current
+ * one is streamed straight from its blob. Blobs are verified against their hash and refetched when
+ * corrupt.
+ *
+ * <p><b>Cold start.</b> When a manifest no older than {@code maxStaleness} exists, the first
+ * {@link #listFiles()} is answered from it without contacting the delegate, and a background
+ * thread revalidates against the delegate: it refetches every file whose listed modification time
+ * differs or is missing, and compares content hashes. Until it has recorded the result, reads keep
+ * being served from the snapshot. If it finds changes, it invokes the change listener, triggering
+ * a regular reload.
+ *
+ * <p><b>Offline.</b> When the delegate fails, the cached snapshot is served instead, provided it is
+ * no older than {@code maxStaleness}; otherwise the failure is propagated.
+ *
+ * <p><b>Eviction.</b> When blobs exceed {@code maxBytes}, the least recently used blobs (by file
+ * modification time, refreshed on every read) are deleted, except those referenced by this
+ * source's manifest. Another source's file whose blob was evicted is simply fetched again.
+ */
+public class CachingFileSource implements FileSource {
+
+    private static final Logger log = LoggerFactory.getLogger(CachingFileSource.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    /** Re-persist an unchanged manifest at most this often, to refresh its snapshot time. */
+    private static final Duration MANIFEST_REFRESH = Duration.ofMinutes(1);
+
+    /** On-disk manifest. */
+    record ManifestFile(String savedAt, List<ManifestEntry> files) {}
+
+    /** On-disk manifest entry; {@code modifiedAt} is {@code null} when the source provides no timestamp. */
+    record ManifestEntry(String name, String modifiedAt, String sha256) {}
+
+    /** A cached file version: the modification time it was fetched with and its blob. */
+    private record CachedFile(Optional<Instant> modifiedAt, String sha256) {}
+
+    private final FileSource delegate;
+    private final Path blobDir;
+    private final Path manifestPath;
+    private final long maxBytes;
+    private final Duration maxStaleness;
+
+    /** Guards the fields below. */
+    private final Object lock = new Object();
+    /** Cached files in listing order; mirrors the manifest. */
+    private final Map<String, CachedFile> entries = new LinkedHashMap<>();
+    private Instant savedAt;               // snapshot time of the manifest; null if none
+    private Map<String, Optional<Instant>> liveListing; // last listing from the delegate; null before the first
+    /** Files fetched from the delegate since {@link #liveListing}; current even without a modification time. */
+    private final Set<String> verified = new HashSet<>();
+    private boolean servingSnapshot;       // cold start answered from the manifest, revalidation pending
+    private Thread revalidator;
+
+    private volatile FileChangeListener changeListener;
+    private volatile boolean closed;
+
+    /**
+     * Creates the delegate via {@link FileSourceFactory} and loads the manifest, if any.
+     */
+    public CachingFileSource(CachingFileSourceConfig config) {
+        this(FileSourceFactory.create(config.delegate()), config);
+    }
+
+    /**
+     * Caches a pre-built delegate, which is closed when this instance is closed.
+     * {@code config.delegate()} still identifies the manifest.
+     */
+    public CachingFileSource(FileSource delegate, CachingFileSourceConfig config) {
+        this.delegate = delegate;
+        Path root = Path.of(config.cacheDir());
+        this.blobDir = root.resolve("blobs");
+        this.manifestPath = root.resolve("manifests").resolve(sourceId(config) + ".json");
+        this.maxBytes = config.maxBytes();
+        this.maxStaleness = config.maxStaleness();
+        readManifest();
+        log.info("Initialized: cache={}, {} cached file(s){}", manifestPath, entries.size(),
+                savedAt != null ? " from " + savedAt : "");
+    }
+
+    // -------------------------------------------------------------------------
+    // FileSource
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Map<String, Optional<Instant>> listFiles() throws IOException {
+        synchronized (lock) {
+            if (liveListing == null && (servingSnapshot || revalidator == null) && isSnapshotUsable()) {
+                if (revalidator == null) {
+                    servingSnapshot = true;
+                    startRevalidation();
+                    log.info("Cold start: serving {} file(s) from the local cache, revalidating in the background",
+                            entries.size());
+                }
+                return snapshotListing();
+            }
+        }
+        try {
+            Map<String, Optional<Instant>> listing = delegate.listFiles();
+            onLiveListing(listing);
+            return listing;
+        } catch (IOException e) {
+            synchronized (lock) {
+                if (isSnapshotUsable()) {
+                    log.warn("Source unreachable ({}); serving cached snapshot from {}", e.getMessage(), savedAt);
+                    return snapshotListing();
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Optional<Instant>> statFiles(Collection<String> names) throws IOException {
+        synchronized (lock) {
+            if (liveListing == null && servingSnapshot) {
+                return filter(snapshotListing(), names);
+            }
+        }
+        try {
+            return delegate.statFiles(names);
+        } catch (IOException e) {
+            synchronized (lock) {
+                if (isSnapshotUsable()) return filter(snapshotListing(), names);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public String readFile(String name) throws IOException {
+        return readFiles(List.of(name)).get(name);
+    }
+
+    /**
+     * Serves the file from its blob if its listed modification time matches the cached version,
+     * otherwise reads it from the delegate and caches the bytes. If the delegate fails and the
+     * snapshot may be served, the cached version is used regardless of its modification time.
+     */
+    @Override
+    public byte[] readFileBytes(String name) throws IOException {
+        String sha256 = currentBlob(name);
+        byte[] bytes = sha256 != null ? readBlob(sha256) : null;
+        if (bytes != null) return bytes;
+        try {
+            bytes = delegate.readFileBytes(name);
+        } catch (IOException e) {
+            return readSnapshot(List.of(name), e).get(name);
+        }
+        storeBytes(Map.of(name, bytes));
+        return bytes;
+    }
+
+    /**
+     * Streams the blob of a current cached version from disk; otherwise reads the file as
+     * {@link #readFileBytes} does. A streamed blob is not verified against its hash; a corrupt one
+     * hashes differently for {@code FileLoader}, whose follow-up {@link #readFileBytes} replaces it.
+     */
+    @Override
+    public InputStream openStream(String name) throws IOException {
+        String sha256 = currentBlob(name);
+        InputStream blob = sha256 != null ? openBlob(sha256) : null;
+        return blob != null ? blob : new ByteArrayInputStream(readFileBytes(name));
+    }
+
+    /**
+     * Serves files whose listed modification time matches the cached version from disk and fetches
+     * the rest from the delegate in one {@link FileSource#readFiles} call. If the delegate fails and
+     * the snapshot may be served, cached versions are used regardless of their modification time.
+     */
+    @Override
+    public Map<String, String> readFiles(Collection<String> names) throws IOException {
+        Map<String, String> hits = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String name : names) {
+            String content = readCurrent(name);
+            if (content != null) {
+                hits.put(name, content);
+            } else {
+                misses.add(name);
+            }
+        }
+
+        Map<String, String> fetched = Map.of();
+        if (!misses.isEmpty()) {
+            try {
+                fetched = delegate.readFiles(misses);
+            } catch (IOException e) {
+                fetched = decode(readSnapshot(misses, e));
+            }
+            store(fetched);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String name : names) {
+            result.put(name, hits.containsKey(name) ? hits.get(name) : fetched.get(name));
+        }
+        return result;
+    }
+
+    @Override
+    public void setChangeListener(Runnable onChanged) {
+        setChangeListener((Set<String> changedPaths) -> onChanged.run());
+    }
+
+    /**
+     * Forwards the listener to the delegate, and also invokes it after a background revalidation
+     * found changes.
+     */
+    @Override
+    public void setChangeListener(FileChangeListener onChanged) {
+        this.changeListener = onChanged;
+        delegate.setChangeListener(onChanged);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        Thread thread;
+        synchronized (lock) {
+            thread = revalidator;
+        }
+        if (thread != null) thread.interrupt();
+        delegate.close();
+    }
+
+    // -------------------------------------------------------------------------
+    // Snapshot
+    // -------------------------------------------------------------------------
+
+    /** Caller must hold {@link #lock}. */
+    private boolean isSnapshotUsable() {
+        if (savedAt == null || entries.isEmpty()) return false;
+        return maxStaleness == null || Instant.now().isBefore(savedAt.plus(maxStaleness));
+    }
+
+    /** Caller must hold {@link #lock}. */
+    private Map<String, Optional<Instant>> snapshotListing() {
+        Map<String, Optional<Instant>> listing = new LinkedHashMap<>();
+        entries.forEach((name, file) -> listing.put(name, file.modifiedAt()));
+        return listing;
+    }
+
+    private static Map<String, Optional<Instant>> filter(Map<String, Optional<Instant>> listing,
+                                                         Collection<String> names) {
+        Map<String, Optional<Instant>> result = new LinkedHashMap<>();
+        for (String name : names) {
+            Optional<Instant> modTime = listing.get(name);
+            if (modTime != null) result.put(name, modTime);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached content if the current listing reports the modification time it was
+     * fetched with, otherwise {@code null}.
+     */
+    private String readCurrent(String name) {
+        String sha256 = currentBlob(name);
+        byte[] bytes = sha256 != null ? readBlob(sha256) : null;
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Returns the blob hash of the cached version if the current listing reports the modification
+     * time it was fetched with, otherwise {@code null}. Without a listed modification time, the
+     * cached version is current while the snapshot is served, or once fetched since the last listing.
+     */
+    private String currentBlob(String name) {
+        synchronized (lock) {
+            CachedFile cached = entries.get(name);
+            Map<String, Optional<Instant>> listing = liveListing != null ? liveListing : snapshotListing();
+            Optional<Instant> listed = listing.get(name);
+            if (cached == null || listed == null) {
+                return null;
+            }
+            if (listed.isEmpty()) {
+                return liveListing == null || verified.contains(name) ? cached.sha256() : null;
+            }
+            return listed.equals(cached.modifiedAt()) ? cached.sha256() : null;
+        }
+    }
+
+    private static Map<String, String> decode(Map<String, byte[]> blobs) {
+        Map<String, String> contents = new LinkedHashMap<>();
+        blobs.forEach((name, bytes) -> contents.put(name, new String(bytes, StandardCharsets.UTF_8)));
+        return contents;
+    }
+
+    /**
+     * Offline fallback for {@link #readFiles} and {@link #readFileBytes}: returns the cached bytes of
+     * {@code names}, or rethrows {@code cause} if the snapshot may not be served or lacks one of them.
+     */
+    private Map<String, byte[]> readSnapshot(List<String> names, IOException cause) throws IOException {
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        for (String name : names) {
+            CachedFile cached;
+            synchronized (lock) {
+                if (!isSnapshotUsable()) throw cause;
+                cached = entries.get(name);
+            }
+            byte[] content = cached != null ? readBlob(cached.sha256()) : null;
+            if (content == null) throw cause;
+            contents.put(name, content);
+        }
+        log.warn("Source unreachable ({}); served {} file(s) from the cached snapshot", cause.getMessage(), names.size());
+        return contents;
+    }
+
+    /**
+     * Records a successful listing: forgets files no longer listed, persists the manifest if it
+     * changed or its snapshot time is due for a refresh, and ends a pending cold start.
+     */
+    private void onLiveListing(Map<String, Optional<Instant>> listing) {
+        synchronized (lock) {
+            liveListing = listing;
+            servingSnapshot = false;
+            verified.clear();
+            boolean removed = entries.keySet().retainAll(listing.keySet());
+            if (removed || savedAt == null || Instant.now().isAfter(savedAt.plus(MANIFEST_REFRESH))) {
+                writeManifest();
+            }
+        }
+    }
+
+    /**
+     * Writes fetched text contents to blobs as UTF-8; see {@link #storeBytes}.
+     */
+    private void store(Map<String, String> fetched) {
+        Map<String, byte[]> blobs = new LinkedHashMap<>();
+        fetched.forEach((name, content) -> blobs.put(name, content.getBytes(StandardCharsets.UTF_8)));
+        storeBytes(blobs);
+    }
+
+    /**
+     * Writes fetched contents to blobs, records them with the modification time currently listed,
+     * persists the manifest and evicts old blobs.
+     */
+    private void storeBytes(Map<String, byte[]> fetched) {
+        Map<String, String> hashes = writeBlobs(fetched);
+        synchronized (lock) {
+            record(hashes);
+        }
+        evict();
+    }
+
+    /**
+     * Writes each fetched content to its blob; returns the hash per file, leaving out those that
+     * could not be written.
+     */
+    private Map<String, String> writeBlobs(Map<String, byte[]> fetched) {
+        Map<String, String> hashes = new HashMap<>();
+        for (Map.Entry<String, byte[]> e : fetched.entrySet()) {
+            String sha256 = writeBlob(e.getValue());
+            if (sha256 != null) hashes.put(e.getKey(), sha256);
+        }
+        return hashes;
+    }
+
+    /**
+     * Records fetched blobs with the modification time currently listed and persists the manifest if
+     * that changed anything. Caller must hold {@link #lock}.
+     */
+    private void record(Map<String, String> hashes) {
+        verified.addAll(hashes.keySet());
+        Map<String, Optional<Instant>> listing = liveListing != null ? liveListing : snapshotListing();
+        boolean changed = false;
+        for (Map.Entry<String, String> e : hashes.entrySet()) {
+            CachedFile file = new CachedFile(listing.getOrDefault(e.getKey(), Optional.empty()), e.getValue());
+            changed |= !file.equals(entries.put(e.getKey(), file));
+        }
+        if (changed) {
+            // keep listing order so a cold start lists files as the delegate does
+            if (liveListing != null) {
+                Map<String, CachedFile> ordered = new LinkedHashMap<>();
+                for (String name : liveListing.keySet()) {
+                    CachedFile file = entries.get(name);
+                    if (file != null) ordered.put(name, file);
+                }
+                entries.clear();
+                entries.putAll(ordered);
+            }
+            writeManifest();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Background revalidation
+    // -------------------------------------------------------------------------
+
+    /** Caller must hold {@link #lock}. */
+    private void startRevalidation() {
+        revalidator = new Thread(this::revalidate, "CachingFileSource-revalidate");
+        revalidator.setDaemon(true);
+        revalidator.start();
+    }
+
+    /**
+     * Lists the delegate, prefetches every file whose cached version may be outdated (including every
+     * file listed without a modification time), and invokes the change listener if the listing or any
+     * content hash differs from the snapshot served at cold start.
+     * On failure, the next {@link #listFiles()} goes to the delegate and falls back to the snapshot.
+     */
+    private void revalidate() {
+        try {
+            Map<String, Optional<Instant>> served;
+            Map<String, CachedFile> before;
+            synchronized (lock) {
+                served = snapshotListing();
+                before = new HashMap<>(entries);
+            }
+            Map<String, Optional<Instant>> listing = delegate.listFiles();
+            if (closed) return;
+
+            List<String> stale = new ArrayList<>();
+            List<String> staleText = new ArrayList<>();
+            Map<String, byte[]> fetched = new HashMap<>();
+            for (Map.Entry<String, Optional<Instant>> e : listing.entrySet()) {
+                CachedFile cached = before.get(e.getKey());
+                if (cached == null || e.getValue().isEmpty() || !e.getValue().equals(cached.modifiedAt())) {
+                    stale.add(e.getKey());
+                    if (BinaryContent.isBinary(e.getKey())) {
+                        fetched.put(e.getKey(), delegate.readFileBytes(e.getKey()));
+                    } else {
+                        staleText.add(e.getKey());
+                    }
+                }
+            }
+            if (!staleText.isEmpty()) {
+                delegate.readFiles(staleText).forEach((name, content) ->
+                        fetched.put(name, content.getBytes(StandardCharsets.UTF_8)));
+            }
+            if (closed) return;
+
+            // the snapshot is served until the listing and the refetched files are recorded together
+            Map<String, String> hashes = writeBlobs(fetched);
+            synchronized (lock) {
+                onLiveListing(listing);
+                record(hashes);
+            }
+            evict();
+
+            boolean changed = !listing.keySet().equals(served.keySet());
+            synchronized (lock) {
+                for (String name : stale) {
+                    CachedFile cached = before.get(name);
+                    CachedFile current = entries.get(name);
+                    changed |= cached == null || current == null || !cached.sha256().equals(current.sha256());
+                }
+            }
+            log.info("Background revalidation complete: {} file(s) refetched, {}",
+                    stale.size(), changed ? "changes found" : "snapshot was current");
+            FileChangeListener listener = changeListener;
+            if (changed && listener != null && !closed) listener.onChanged(null);
+        } catch (Exception e) {
+            if (closed) return;
+            log.warn("Background revalidation failed; serving cached snapshot: {}", e.getMessage());
+            synchronized (lock) {
+                servingSnapshot = false;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Disk
+    // -------------------------------------------------------------------------
+
+    private static String sourceId(CachingFileSourceConfig config) {
+        byte[] key = FileSourceConfigKey.of(config.delegate()).toString().getBytes(StandardCharsets.UTF_8);
+        return sha256(key).substring(0, 32);
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Path blobPath(String sha256) {
+        return blobDir.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /**
+     * Returns the blob's bytes and marks it as recently used, or {@code null} if it is missing
+     * or does not match its hash (in which case it is deleted).
+     */
+    private byte[] readBlob(String sha256) {
+        Path path = blobPath(sha256);
+        try {
+            byte[] bytes = Files.readAllBytes(path);
+            if (!sha256.equals(sha256(bytes))) {
+                log.warn("Deleting corrupt cache blob {}", path);
+                Files.deleteIfExists(path);
+                return null;
+            }
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return bytes;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cache blob {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Opens the blob and marks it as recently used, or returns {@code null} if it cannot be opened.
+     */
+    private InputStream openBlob(String sha256) {
+        Path path = blobPath(sha256);
+        try {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            return Files.newInputStream(path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read cache blob {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code bytes} under their hash and returns the hash, or {@code null} if they could not
+     * be written; a cache write failure never fails the read itself.
+     */
+    private String writeBlob(byte[] bytes) {
+        String sha256 = sha256(bytes);
+        Path path = blobPath(sha256);
+        try {
+            if (Files.exists(path)) {
+                Files.setLastModifiedTime(path, FileTime.from(Instant.now()));
+            } else {
+                writeAtomically(path, bytes);
+            }
+            return sha256;
+        } catch (IOException e) {
+            log.warn("Could not write cache blob {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code bytes} to a temporary file next to {@code target} and atomically moves it into place.
+     */
+    static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Caller must hold {@link #lock} or be the constructor. */
+    private void readManifest() {
+        if (!Files.exists(manifestPath)) return;
+        try {
+            ManifestFile manifest = MAPPER.readValue(manifestPath.toFile(), ManifestFile.class);
+            for (ManifestEntry e : manifest.files()) {
+                Optional<Instant> modifiedAt = Optional.ofNullable(e.modifiedAt()).map(Instant::parse);
+                entries.put(e.name(), new CachedFile(modifiedAt, e.sha256()));
+            }
+            savedAt = Instant.parse(manifest.savedAt());
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable cache manifest {}: {}", manifestPath, e.getMessage());
+            entries.clear();
+            savedAt = null;
+        }
+    }
+
+    /** Caller must hold {@link #lock}. */
+    private void writeManifest() {
+        Instant now = Instant.now();
+        List<ManifestEntry> files = new ArrayList<>();
+        entries.forEach((name, file) -> files.add(new ManifestEntry(
+                name, file.modifiedAt().map(Instant::toString).orElse(null), file.sha256())));
+        try {
+            writeAtomically(manifestPath, MAPPER.writeValueAsBytes(new ManifestFile(now.toString(), files)));
+            savedAt = now;
+        } catch (IOException e) {
+            log.warn("Could not write cache manifest {}: {}", manifestPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes least recently used blobs not referenced by this source until the cache fits
+     * {@code maxBytes}.
+     */
+    private void evict() {
+        if (maxBytes <= 0 || !Files.isDirectory(blobDir)) return;
+        Set<String> pinned = new HashSet<>();
+        synchronized (lock) {
+            entries.values().forEach(file -> pinned.add(file.sha256()));
+        }
+        record Blob(Path path, long size, FileTime lastUsed) {}
+        List<Blob> blobs = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(blobDir)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                if (path.getFileName().toString().endsWith(".tmp")) continue;
+                BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attrs.isRegularFile()) blobs.add(new Blob(path, attrs.size(), attrs.lastModifiedTime()));
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan cache directory {}: {}", blobDir, e.getMessage());
+            return;
+        }
+        long total = blobs.stream().mapToLong(Blob::size).sum();
+        if (total <= maxBytes) return;
+
+        blobs.sort(Comparator.comparing(Blob::lastUsed));
+        int evicted = 0;
+        for (Blob blob : blobs) {
+            if (total <= maxBytes) break;
+            if (pinned.contains(blob.path().getFileName().toString())) continue;
+            try {
+                Files.deleteIfExists(blob.path());
+                total -= blob.size();
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict cache blob {}: {}", blob.path(), e.getMessage());
+            }
+        }
+        log.debug("Evicted {} cache blob(s); {} byte(s) remain", evicted, total);
+    }
+}
@@ -0,0 +1,38 @@
+package org.csa.truffle.source.cache;
+
+import org.csa.truffle.source.FileSourceConfig;
+
+import java.time.Duration;
+
+/**
+ * Config record for {@link CachingFileSource}.
+ *
+ * @param delegate     config of the remote source being cached
+ * @param cacheDir     local directory holding blobs and manifests; may be shared by several sources
+ * @param maxBytes     total size of cached blobs above which least recently used blobs are evicted;
+ *                     {@code 0} or negative disables eviction
+ * @param maxStaleness oldest snapshot that may be served when the remote source cannot be reached,
+ *                     or served on a cold start while the remote is revalidated in the background;
+ *                     {@code null} = no limit
+ */
+public record CachingFileSourceConfig(
+        FileSourceConfig delegate, String cacheDir, long maxBytes, Duration maxStaleness
+) implements FileSourceConfig {
+
+    /**
+     * Caches {@code delegate} in {@code cacheDir}, evicting above 256 MiB and serving snapshots up to a day old.
+     */
+    public CachingFileSourceConfig(FileSourceConfig delegate, String cacheDir) {
+        this(delegate, cacheDir, 256L * 1024 * 1024, Duration.ofDays(1));
+    }
+
+    @Override
+    public String[] filemasks() {
+        return delegate.filemasks();
+    }
+
+    @Override
+    public String[] excludeFilemasks() {
+        return delegate.excludeFilemasks();
+    }
+}
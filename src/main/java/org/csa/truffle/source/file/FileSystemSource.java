@@ -1,18 +1,33 @@
 package org.csa.truffle.source.file;
 
+import net.openhft.hashing.LongHashFunction;
+import org.csa.truffle.source.FileChangeListener;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -23,39 +38,63 @@ import java.util.stream.Stream;
  * are excluded. Each of the {@code filemasks} globs is matched against the filename (last path
  * component); a file matches if it matches any pattern. Pass {@code null} or an empty array to
  * include all files.
+ *
+ * <p>The watcher reports the relative paths of changed files to a {@link FileChangeListener},
+ * so {@code FileLoader} only stats and reads those. Changes it cannot pin to files (a new or
+ * deleted directory, or a watch-event overflow) are reported as unknown, triggering a full walk.
+ * Events are coalesced: the listener is called once per burst of changes, after a quiet period
+ * without further events or at the latest after a maximum wait. Subdirectories excluded by
+ * {@code excludeFilemasks} are not watched, and changes to excluded files are ignored.
+ *
+ * <p>With {@link FileSystemSourceConfig#memoryMap()}, {@link #readFile} maps the file and computes
+ * an xxHash over the mapped bytes. When size and hash match the previous read, the previously
+ * decoded {@code String} is returned as is (so {@code FileLoader}'s change check is an identity
+ * comparison); only changed files are decoded. This pays off for large generated scripts and data
+ * files that are touched more often than they change. The mapping is released only when the buffer is
+ * garbage collected; on Windows a mapped file cannot be replaced or deleted until then, so the mode is
+ * not meant for Windows.
  */
 public class FileSystemSource implements FileSource {
 
     private static final Logger log = LoggerFactory.getLogger(FileSystemSource.class);
-    private static final long DEBOUNCE_MS = 100;
+    private static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(100);
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(2);
 
     private final Path directory;
     private final boolean watch;
-    private final String[] filemasks;
-    private final String[] excludeFilemasks;
-    private volatile Runnable changeListener;
+    private final PathFilter filter;
+    private final boolean memoryMap;
+    private final Duration quietPeriod;
+    private final Duration maxWait;
+    private volatile FileChangeListener changeListener;
     private WatchService watchService;
     private Thread watcherThread;
     private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
 
+    private static final LongHashFunction HASH = LongHashFunction.xx3();
+
+    /** Last decoded content per relative path, with the size and hash it was decoded from (memoryMap mode). */
+    private final Map<String, MappedFile> mappedFiles = new ConcurrentHashMap<>();
+
+    private record MappedFile(long size, long hash, String content) {}
+
     public FileSystemSource(FileSystemSourceConfig config) {
         this.directory = Path.of(config.directory());
         this.watch = config.watch();
-        this.filemasks = config.filemasks();
-        this.excludeFilemasks = config.excludeFilemasks();
+        this.filter = PathFilter.of(config);
+        this.memoryMap = config.memoryMap();
+        this.quietPeriod = config.debounceQuietPeriod() != null ? config.debounceQuietPeriod() : DEFAULT_QUIET_PERIOD;
+        this.maxWait = config.debounceMaxWait() != null ? config.debounceMaxWait() : DEFAULT_MAX_WAIT;
     }
 
     @Override
     public Map<String, Optional<Instant>> listFiles() throws IOException {
-        PathMatcher[] matchers = buildMatchers(filemasks);
-        PathMatcher[] excludeMatchers = buildMatchers(excludeFilemasks);
         LinkedHashMap<String, Optional<Instant>> result = new LinkedHashMap<>();
         try (Stream<Path> walk = Files.walk(directory)) {
             walk
                     .filter(Files::isRegularFile)
                     .map(p -> directory.relativize(p).toString().replace('\\', '/'))
-                    .filter(rel -> !matchesAnyExclude(rel, excludeMatchers))
-                    .filter(rel -> matchesMasks(rel, matchers))
+                    .filter(filter::accepts)
                     .sorted(Comparator.naturalOrder())
                     .forEach(rel -> {
                         Instant mtime;
@@ -67,16 +106,96 @@ public class FileSystemSource implements FileSource {
                         result.put(rel, Optional.ofNullable(mtime));
                     });
         }
+        mappedFiles.keySet().retainAll(result.keySet()); // forget deleted files
+        return result;
+    }
+
+    /**
+     * Stats each named file directly instead of walking the directory.
+     */
+    @Override
+    public Map<String, Optional<Instant>> statFiles(Collection<String> names) {
+        Map<String, Optional<Instant>> result = new LinkedHashMap<>();
+        for (String rel : names) {
+            if (!filter.accepts(rel)) continue;
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(directory.resolve(rel), BasicFileAttributes.class);
+                if (attrs.isRegularFile()) {
+                    result.put(rel, Optional.of(attrs.lastModifiedTime().toInstant()));
+                }
+            } catch (NoSuchFileException e) {
+                // deleted: absent from the result
+            } catch (IOException e) {
+                result.put(rel, Optional.empty());
+            }
+        }
         return result;
     }
 
     @Override
     public String readFile(String name) throws IOException {
+        if (memoryMap) {
+            return readMapped(name);
+        }
         return Files.readString(directory.resolve(name), StandardCharsets.UTF_8);
     }
 
     @Override
-    public synchronized void setChangeListener(Runnable onChanged) {
+    public byte[] readFileBytes(String name) throws IOException {
+        return Files.readAllBytes(directory.resolve(name));
+    }
+
+    @Override
+    public InputStream openStream(String name) throws IOException {
+        return Files.newInputStream(directory.resolve(name));
+    }
+
+    /**
+     * Maps the file, hashes the mapped bytes and decodes them only if size or hash differ from the
+     * previous read. Malformed UTF-8 is reported as for {@link Files#readString}. A file truncated
+     * while mapped makes the JVM raise {@link InternalError} on access; it is then read again with
+     * {@link Files#readAllBytes}.
+     */
+    private String readMapped(String name) throws IOException {
+        Path path = directory.resolve(name);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            try {
+                return decodeIfChanged(name, buffer);
+            } catch (InternalError e) {
+                log.debug("{} changed while mapped, reading it instead: {}", path, e.getMessage());
+            }
+        }
+        return decodeIfChanged(name, ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+    private String decodeIfChanged(String name, ByteBuffer bytes) throws CharacterCodingException {
+        long size = bytes.remaining();
+        long hash = HASH.hashBytes(bytes.duplicate());
+        MappedFile previous = mappedFiles.get(name);
+        if (previous != null && previous.size() == size && previous.hash() == hash) {
+            return previous.content();
+        }
+        String content = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(bytes)
+                .toString();
+        mappedFiles.put(name, new MappedFile(size, hash, content));
+        return content;
+    }
+
+    @Override
+    public void setChangeListener(Runnable onChanged) {
+        setChangeListener((Set<String> changedPaths) -> onChanged.run());
+    }
+
+    @Override
+    public synchronized void setChangeListener(FileChangeListener onChanged) {
         if (!watch || watcherThread != null) return; // idempotent
         this.changeListener = onChanged;
         log.info("Starting file watcher on: {}", directory);
@@ -93,36 +212,68 @@ public class FileSystemSource implements FileSource {
         log.debug("Watcher thread started: {}", watcherThread.getName());
     }
 
+    /**
+     * Registers {@code dir} and all its subdirectories, skipping subtrees excluded by
+     * {@code excludeFilemasks}. Failure to register {@code dir} itself is thrown; failures
+     * below it are logged.
+     */
     private void registerTree(Path dir) throws IOException {
+        register(dir);
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdir, BasicFileAttributes attrs) {
+                if (subdir.equals(dir)) return FileVisitResult.CONTINUE;
+                if (isExcluded(subdir)) return FileVisitResult.SKIP_SUBTREE;
+                try {
+                    register(subdir);
+                } catch (IOException e) {
+                    log.warn("Could not register subdirectory for watching: {}", subdir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.warn("Could not walk {} for watching: {}", file, e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path dir) throws IOException {
         WatchKey key = dir.register(watchService,
                 StandardWatchEventKinds.ENTRY_CREATE,
                 StandardWatchEventKinds.ENTRY_MODIFY,
                 StandardWatchEventKinds.ENTRY_DELETE);
         watchedDirs.put(key, dir);
-        // Register all existing subdirectories recursively
-        try (Stream<Path> walk = Files.walk(dir)) {
-            walk.filter(Files::isDirectory)
-                    .filter(p -> !p.equals(dir))
-                    .forEach(subdir -> {
-                        try {
-                            WatchKey k = subdir.register(watchService,
-                                    StandardWatchEventKinds.ENTRY_CREATE,
-                                    StandardWatchEventKinds.ENTRY_MODIFY,
-                                    StandardWatchEventKinds.ENTRY_DELETE);
-                            watchedDirs.put(k, subdir);
-                        } catch (IOException e) {
-                            log.warn("Could not register subdirectory for watching: {}", subdir);
-                        }
-                    });
-        }
     }
 
+    private boolean isExcluded(Path fullPath) {
+        return filter.isExcluded(relativize(fullPath));
+    }
+
+    private String relativize(Path fullPath) {
+        return directory.relativize(fullPath).toString().replace('\\', '/');
+    }
+
+    /**
+     * Waits for watch events and coalesces them into bursts: the first relevant event opens a burst,
+     * which is reported with one listener call once no further relevant event arrived for the quiet
+     * period, or at the latest once the max wait has passed since it opened. Changed paths from all
+     * watch keys are accumulated, so e.g. a {@code git checkout} touching many files in many
+     * directories triggers a single reload.
+     */
     private void watchLoop() {
-        PathMatcher[] matchers = buildMatchers(filemasks);
+        ChangeBurst burst = null;
         while (!Thread.currentThread().isInterrupted()) {
             WatchKey key;
             try {
-                key = watchService.take();
+                if (burst == null) {
+                    key = watchService.take();
+                } else {
+                    long remaining = burst.remainingNanos();
+                    key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return;
@@ -130,92 +281,120 @@ public class FileSystemSource implements FileSource {
                 return;
             }
 
-            Path watchedDir = watchedDirs.get(key);
-            boolean relevant = false;
-
-            for (WatchEvent<?> event : key.pollEvents()) {
-                Object ctx = event.context();
-                if (!(ctx instanceof Path p)) continue;
-
-                Path fullPath = watchedDir != null ? watchedDir.resolve(p) : p;
-
-                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
-                        && Files.isDirectory(fullPath)) {
-                    // New subdirectory: register it for watching
-                    try {
-                        WatchKey k = fullPath.register(watchService,
-                                StandardWatchEventKinds.ENTRY_CREATE,
-                                StandardWatchEventKinds.ENTRY_MODIFY,
-                                StandardWatchEventKinds.ENTRY_DELETE);
-                        watchedDirs.put(k, fullPath);
-                    } catch (IOException e) {
-                        log.warn("Could not register new directory: {}", fullPath);
-                    }
-                    relevant = true;
-                    continue;
+            if (key != null) {
+                KeyChanges changes = collect(key);
+                key.reset();
+                if (changes != null) {
+                    if (burst == null) burst = new ChangeBurst(quietPeriod, maxWait);
+                    burst.add(changes);
                 }
+            }
 
-                String name = p.getFileName().toString();
-                if (matchesMasks(name, matchers)) {
-                    relevant = true;
-                }
+            if (burst != null && burst.remainingNanos() <= 0) {
+                log.info("File system change detected in {} ({} event(s)); invoking reload callback",
+                        directory, burst.events);
+                FileChangeListener listener = changeListener;
+                if (listener != null) listener.onChanged(burst.paths);
+                burst = null;
+            }
+        }
+    }
+
+    /**
+     * Drains the events of one watch key. Returns {@code null} if none of them is relevant.
+     */
+    private KeyChanges collect(WatchKey key) {
+        Path watchedDir = watchedDirs.get(key);
+        boolean relevant = false;
+        int events = 0;
+        Set<String> changedPaths = new HashSet<>(); // null once the change cannot be pinned to files
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+                changedPaths = null;
+                events++;
+                continue;
+            }
+            Object ctx = event.context();
+            if (!(ctx instanceof Path p)) continue;
+
+            Path fullPath = watchedDir != null ? watchedDir.resolve(p) : p;
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE && watchedDirs.containsValue(fullPath)) {
+                // a watched directory went away: the files below it are gone too
+                watchedDirs.values().removeIf(dir -> dir.startsWith(fullPath));
+                relevant = true;
+                changedPaths = null;
+                events++;
+                continue;
             }
-            key.reset();
 
-            if (relevant) {
+            if (isExcluded(fullPath)) continue;
+
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(fullPath)) {
+                // New subdirectory: register it and anything created below it already
                 try {
-                    Thread.sleep(DEBOUNCE_MS);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    return;
+                    registerTree(fullPath);
+                } catch (IOException e) {
+                    log.warn("Could not register new directory: {}", fullPath);
+                }
+                // files may have been written before the watch was registered
+                relevant = true;
+                changedPaths = null;
+                events++;
+                continue;
+            }
+
+            if (filter.matchesMask(p.getFileName().toString())) {
+                relevant = true;
+                events++;
+                if (changedPaths != null) {
+                    changedPaths.add(relativize(fullPath));
                 }
-                log.info("File system change detected in {}; invoking reload callback", directory);
-                Runnable listener = changeListener;
-                if (listener != null) listener.run();
             }
         }
+        return relevant ? new KeyChanges(changedPaths, events) : null;
     }
 
-    @Override
-    public void close() throws IOException {
-        log.debug("Closing file watcher for: {}", directory);
-        if (watcherThread != null) watcherThread.interrupt();
-        if (watchService != null) watchService.close();
-    }
+    /** Relevant changes from one watch key; {@code paths} is {@code null} when unknown. */
+    private record KeyChanges(Set<String> paths, int events) {}
 
-    // -------------------------------------------------------------------------
-    // Shared helpers (duplicated from ResourceSource for package isolation)
-    // -------------------------------------------------------------------------
+    /** Changes accumulated since the first event of a burst. */
+    private static final class ChangeBurst {
+        private final long quietNanos;
+        private final long deadline;
+        private long lastEventAt;
+        private Set<String> paths = new HashSet<>(); // null once any change is unknown
+        private int events;
 
-    static PathMatcher[] buildMatchers(String[] filemasks) {
-        if (filemasks == null || filemasks.length == 0) return null;
-        PathMatcher[] matchers = new PathMatcher[filemasks.length];
-        for (int i = 0; i < filemasks.length; i++) {
-            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + filemasks[i]);
+        ChangeBurst(Duration quietPeriod, Duration maxWait) {
+            this.quietNanos = quietPeriod.toNanos();
+            this.lastEventAt = System.nanoTime();
+            this.deadline = lastEventAt + maxWait.toNanos();
         }
-        return matchers;
-    }
 
-    static boolean matchesMasks(String name, PathMatcher[] matchers) {
-        if (matchers == null) return true;
-        Path filename = Path.of(name).getFileName();
-        if (filename == null) return false;
-        for (PathMatcher matcher : matchers) {
-            if (matcher.matches(filename)) return true;
+        void add(KeyChanges changes) {
+            lastEventAt = System.nanoTime();
+            events += changes.events();
+            if (changes.paths() == null) {
+                paths = null;
+            } else if (paths != null) {
+                paths.addAll(changes.paths());
+            }
         }
-        return false;
-    }
 
-    /**
-     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
-     */
-    static boolean matchesAnyExclude(String relativePath, PathMatcher[] excludeMatchers) {
-        if (excludeMatchers == null) return false;
-        for (Path component : Path.of(relativePath)) {
-            for (PathMatcher matcher : excludeMatchers) {
-                if (matcher.matches(component)) return true;
-            }
+        /** Time left until the burst is reported; zero or negative when due. */
+        long remainingNanos() {
+            return Math.min(lastEventAt + quietNanos, deadline) - System.nanoTime();
         }
-        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.debug("Closing file watcher for: {}", directory);
+        if (watcherThread != null) watcherThread.interrupt();
+        if (watchService != null) watchService.close();
     }
 }
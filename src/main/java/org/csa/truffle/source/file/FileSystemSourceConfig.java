@@ -2,17 +2,52 @@ package org.csa.truffle.source.file;
 
 import org.csa.truffle.source.FileSourceConfig;
 
+import java.time.Duration;
+
 /**
  * @param directory        absolute path to the local directory
  * @param watch            if true, starts a WatchService thread for push-notification hot reload
  * @param filemasks        glob patterns matched against the filename; {@code null} or empty means no filter
  * @param excludeFilemasks glob patterns matched against each path component; a file is excluded if any
  *                         pattern matches any component; {@code null} means no exclusions
+ * @param memoryMap        if true, files are memory-mapped and hashed, and only decoded when their
+ *                         content hash changed since the previous read; not for Windows, where a mapped
+ *                         file cannot be replaced or deleted until the mapping is garbage collected
+ * @param debounceQuietPeriod the watcher reports a burst of changes once no further change arrived for this
+ *                         long; {@code null} = 100ms
+ * @param debounceMaxWait  the watcher reports a burst at the latest this long after its first change, even
+ *                         while changes keep arriving; {@code null} = 2s
  */
-public record FileSystemSourceConfig(String directory, boolean watch, String[] filemasks, String[] excludeFilemasks)
+public record FileSystemSourceConfig(String directory, boolean watch, String[] filemasks, String[] excludeFilemasks,
+                                     boolean memoryMap, Duration debounceQuietPeriod, Duration debounceMaxWait)
         implements FileSourceConfig {
 
+    public FileSystemSourceConfig(String directory, boolean watch, String[] filemasks, String[] excludeFilemasks,
+                                  boolean memoryMap) {
+        this(directory, watch, filemasks, excludeFilemasks, memoryMap, null, null);
+    }
+
+    public FileSystemSourceConfig(String directory, boolean watch, String[] filemasks, String[] excludeFilemasks) {
+        this(directory, watch, filemasks, excludeFilemasks, false);
+    }
+
     public FileSystemSourceConfig(String directory, boolean watch) {
         this(directory, watch, null, null);
     }
+
+    /**
+     * Returns a copy of this config with memory-mapped reads enabled or disabled.
+     */
+    public FileSystemSourceConfig withMemoryMap(boolean memoryMap) {
+        return new FileSystemSourceConfig(directory, watch, filemasks, excludeFilemasks, memoryMap,
+                debounceQuietPeriod, debounceMaxWait);
+    }
+
+    /**
+     * Returns a copy of this config with the given watcher debounce windows.
+     */
+    public FileSystemSourceConfig withDebounce(Duration quietPeriod, Duration maxWait) {
+        return new FileSystemSourceConfig(directory, watch, filemasks, excludeFilemasks, memoryMap,
+                quietPeriod, maxWait);
+    }
 }
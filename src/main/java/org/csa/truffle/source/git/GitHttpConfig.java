@@ -0,0 +1,38 @@
+package org.csa.truffle.source.git;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * HTTP tuning for {@link GitSource}: timeouts, retry/backoff and rate-limit handling,
+ * and the degree of parallelism used when fetching several files at once.
+ *
+ * <p>Transient failures (I/O errors, timeouts, HTTP 5xx, 429, and 403 responses that carry
+ * rate-limit headers) are retried up to {@code maxRetries} times. The n-th retry waits a random
+ * delay in {@code [0, min(maxBackoff, initialBackoff * 2^n)]} ("full jitter"), unless the forge
+ * tells us how long to wait via {@code Retry-After} or {@code X-RateLimit-Reset}.
+ *
+ * @param connectTimeout        TCP/TLS connect timeout
+ * @param requestTimeout        timeout for a single request, until the response headers arrive
+ * @param maxRetries            retries after the first attempt; {@code 0} disables retrying
+ * @param initialBackoff        base delay of the exponential backoff
+ * @param maxBackoff            upper bound of a single backoff delay
+ * @param maxRateLimitWait      longest rate-limit wait that is honoured by sleeping; when the forge asks
+ *                              for a longer wait, requests fail fast until the reset time has passed
+ * @param maxConcurrentRequests raw-content fetches in flight at once in {@link GitSource#readFiles};
+ *                              {@code 1} fetches sequentially
+ * @param http2                 prefer HTTP/2 so concurrent fetches are multiplexed over one connection;
+ *                              the client falls back to HTTP/1.1 if the server does not support it
+ */
+public record GitHttpConfig(
+        Duration connectTimeout, Duration requestTimeout,
+        int maxRetries, Duration initialBackoff, Duration maxBackoff, Duration maxRateLimitWait,
+        int maxConcurrentRequests, boolean http2
+) implements Serializable {
+
+    /** 10s connect, 30s request, 3 retries from 500ms up to 30s, wait up to 60s for rate limits, 8 parallel fetches. */
+    public static final GitHttpConfig DEFAULT = new GitHttpConfig(
+            Duration.ofSeconds(10), Duration.ofSeconds(30),
+            3, Duration.ofMillis(500), Duration.ofSeconds(30), Duration.ofSeconds(60),
+            8, true);
+}
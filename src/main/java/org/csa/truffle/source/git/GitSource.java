@@ -4,21 +4,30 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * {@link FileSource} that auto-discovers files in a Git repository via the
@@ -48,6 +57,13 @@ import java.util.*;
  *
  * <p>Pass {@code null} as the token for public repositories.
  *
+ * <p><b>HTTP behaviour</b> is tuned via {@link GitHttpConfig}: connect and request timeouts,
+ * retries with exponential backoff and jitter, and rate-limit handling. A {@code Retry-After} or
+ * {@code X-RateLimit-Reset} header is honoured by sleeping when the wait is short; when it is longer
+ * than {@link GitHttpConfig#maxRateLimitWait()}, requests fail fast until the reset time so that
+ * polling does not burn the remaining quota. {@link #readFiles} fetches files concurrently over a
+ * single multiplexed HTTP/2 connection.
+ *
  * <p><b>GitLab pagination note:</b> {@code listFiles()} fetches at most 100
  * items per page (one request). Repositories with more than 100 files under
  * the configured directory may not return all files.
@@ -63,25 +79,34 @@ public class GitSource implements FileSource {
     private final String branch;
     private final GitForgeType gitForgeType;
     private final String token;             // nullable
-    private final String[] filemasks;       // nullable
-    private final String[] excludeFilemasks; // nullable
+    private final PathFilter filter;
+    private final GitHttpConfig httpConfig;
+    private ExecutorService fetchExecutor;  // created on first concurrent readFiles()
+
+    /**
+     * Set when the forge reports an exhausted rate limit; requests before this instant wait or fail fast.
+     */
+    private volatile Instant rateLimitedUntil;
 
     public GitSource(GitSourceConfig config) {
         GitForgeType forge = config.forge() != null ? config.forge() : detectForge(config.repoUrl());
         this.directory = config.directory();
         this.token = config.token();
-        this.filemasks = config.filemasks();
-        this.excludeFilemasks = config.excludeFilemasks();
+        this.filter = PathFilter.of(config);
         this.branch = config.branch();
         this.gitForgeType = forge;
         this.rawBaseUrl = buildRawBase(config.repoUrl(), config.branch(), forge);
         this.apiBaseUrl = config.apiBaseUrl() != null
                 ? config.apiBaseUrl()
                 : buildApiBase(config.repoUrl(), config.branch(), forge);
-        this.http = HttpClient.newHttpClient();
-        log.info("Initialized: rawBaseUrl={}, apiBaseUrl={}, directory={}, auth={}, forge={}",
+        this.httpConfig = config.http() != null ? config.http() : GitHttpConfig.DEFAULT;
+        this.http = HttpClient.newBuilder()
+                .version(httpConfig.http2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(httpConfig.connectTimeout())
+                .build();
+        log.info("Initialized: rawBaseUrl={}, apiBaseUrl={}, directory={}, auth={}, forge={}, http={}",
                 rawBaseUrl, apiBaseUrl, directory,
-                StringUtils.isNotBlank(token) ? "token" : "none", gitForgeType);
+                StringUtils.isNotBlank(token) ? "token" : "none", gitForgeType, httpConfig);
     }
 
     /**
@@ -140,12 +165,10 @@ public class GitSource implements FileSource {
 
     @Override
     public Map<String, Optional<Instant>> listFiles() throws IOException {
-        PathMatcher[] matchers = buildMatchers(filemasks);
-        PathMatcher[] excludeMatchers = buildMatchers(excludeFilemasks);
         List<String> paths = switch (gitForgeType) {
-            case GITHUB -> listFilesGitHub(matchers, excludeMatchers);
-            case GITLAB -> listFilesGitLab(matchers, excludeMatchers);
-            case GITEA -> listFilesGitea(matchers, excludeMatchers);
+            case GITHUB -> listFilesGitHub();
+            case GITLAB -> listFilesGitLab();
+            case GITEA -> listFilesGitea();
         };
         LinkedHashMap<String, Optional<Instant>> result = new LinkedHashMap<>();
         for (String p : paths) {
@@ -154,32 +177,31 @@ public class GitSource implements FileSource {
         return result;
     }
 
-    private List<String> listFilesGitHub(PathMatcher[] matchers, PathMatcher[] excludeMatchers) throws IOException {
+    private List<String> listFilesGitHub() throws IOException {
         String url = apiBaseUrl + "/git/trees/" + branch + "?recursive=1";
         String json = fetchApi(url);
-        return parseGitHubTree(json, matchers, excludeMatchers);
+        return parseGitHubTree(json);
     }
 
-    private List<String> listFilesGitLab(PathMatcher[] matchers, PathMatcher[] excludeMatchers) throws IOException {
+    private List<String> listFilesGitLab() throws IOException {
         String encodedDir = URLEncoder.encode(directory, StandardCharsets.UTF_8);
         String url = apiBaseUrl + "/repository/tree?path=" + encodedDir
                 + "&recursive=true&ref=" + branch + "&per_page=100";
         String json = fetchApi(url);
-        return parseGitLabTree(json, matchers, excludeMatchers);
+        return parseGitLabTree(json);
     }
 
-    private List<String> listFilesGitea(PathMatcher[] matchers, PathMatcher[] excludeMatchers) throws IOException {
+    private List<String> listFilesGitea() throws IOException {
         String url = apiBaseUrl + "/git/trees/" + branch + "?recursive=true";
         String json = fetchApi(url);
-        return parseGitHubTree(json, matchers, excludeMatchers); // same JSON structure as GitHub
+        return parseGitHubTree(json); // same JSON structure as GitHub
     }
 
     /**
      * Parses a GitHub/Gitea tree API response.
      * Expected: {@code { "tree": [ { "path": "...", "type": "blob"|"tree" } ], "truncated": bool }}
      */
-    private List<String> parseGitHubTree(String json, PathMatcher[] matchers,
-                                          PathMatcher[] excludeMatchers) throws IOException {
+    private List<String> parseGitHubTree(String json) throws IOException {
         JsonNode root = new ObjectMapper().readTree(json);
         if (root.path("truncated").asBoolean(false)) {
             log.warn("GitHub/Gitea tree response is truncated; some files under '{}' may be missing",
@@ -194,8 +216,7 @@ public class GitSource implements FileSource {
             if (!dirPrefix.isEmpty() && !p.startsWith(dirPrefix)) continue;
             String rel = dirPrefix.isEmpty() ? p : p.substring(dirPrefix.length());
             if (rel.isEmpty()) continue;
-            if (matchesAnyExclude(rel, excludeMatchers)) continue;
-            if (!matchesMasks(rel, matchers)) continue;
+            if (!filter.accepts(rel)) continue;
             paths.add(rel);
         }
         Collections.sort(paths);
@@ -208,8 +229,7 @@ public class GitSource implements FileSource {
      * Paths in the response are relative to the repo root, so the {@code directory}
      * prefix is stripped.
      */
-    private List<String> parseGitLabTree(String json, PathMatcher[] matchers,
-                                          PathMatcher[] excludeMatchers) throws IOException {
+    private List<String> parseGitLabTree(String json) throws IOException {
         JsonNode root = new ObjectMapper().readTree(json);
         String dirPrefix = directory.isEmpty() ? "" : directory + "/";
         List<String> paths = new ArrayList<>();
@@ -219,8 +239,7 @@ public class GitSource implements FileSource {
             if (!dirPrefix.isEmpty() && !p.startsWith(dirPrefix)) continue;
             String rel = dirPrefix.isEmpty() ? p : p.substring(dirPrefix.length());
             if (rel.isEmpty()) continue;
-            if (matchesAnyExclude(rel, excludeMatchers)) continue;
-            if (!matchesMasks(rel, matchers)) continue;
+            if (!filter.accepts(rel)) continue;
             paths.add(rel);
         }
         Collections.sort(paths);
@@ -236,23 +255,94 @@ public class GitSource implements FileSource {
         return fetch(directory + "/" + name);
     }
 
+    @Override
+    public byte[] readFileBytes(String name) throws IOException {
+        return httpGet(rawBaseUrl + "/" + directory + "/" + name, false, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Streams the response body. The request is retried like any other; reading the body is not.
+     */
+    @Override
+    public InputStream openStream(String name) throws IOException {
+        return httpGet(rawBaseUrl + "/" + directory + "/" + name, false, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    /**
+     * Fetches the named files concurrently, at most {@link GitHttpConfig#maxConcurrentRequests()}
+     * at a time. With HTTP/2 the requests share one multiplexed connection.
+     */
+    @Override
+    public Map<String, String> readFiles(Collection<String> names) throws IOException {
+        if (names.size() <= 1 || httpConfig.maxConcurrentRequests() <= 1) {
+            return FileSource.super.readFiles(names);
+        }
+
+        ExecutorService executor = fetchExecutor();
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+        for (String name : names) {
+            futures.put(name, executor.submit(() -> readFile(name)));
+        }
+
+        Map<String, String> contents = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<String>> entry : futures.entrySet()) {
+                contents.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            futures.values().forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching files", e);
+        } catch (ExecutionException e) {
+            futures.values().forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("Fetching files failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return contents;
+    }
+
+    private synchronized ExecutorService fetchExecutor() {
+        if (fetchExecutor == null) {
+            fetchExecutor = Executors.newFixedThreadPool(httpConfig.maxConcurrentRequests(), r -> {
+                Thread t = new Thread(r, "GitSource-fetch");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return fetchExecutor;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdownNow();
+            fetchExecutor = null;
+        }
+    }
+
     // -------------------------------------------------------------------------
     // HTTP helpers
     // -------------------------------------------------------------------------
 
     private String fetch(String relativePath) throws IOException {
         String url = rawBaseUrl + "/" + relativePath;
-        return httpGet(url, false);
+        return new String(httpGet(url, false, HttpResponse.BodyHandlers.ofByteArray()), StandardCharsets.UTF_8);
     }
 
     private String fetchApi(String url) throws IOException {
-        return httpGet(url, true);
+        return new String(httpGet(url, true, HttpResponse.BodyHandlers.ofByteArray()), StandardCharsets.UTF_8);
     }
 
-    private String httpGet(String url, boolean acceptJson) throws IOException {
-        log.debug("GET {}", url);
+    /**
+     * GETs {@code url}, retrying transient failures with exponential backoff and jitter and
+     * honouring rate-limit headers. See {@link GitHttpConfig} for the retry policy.
+     * Bodies of failed attempts are discarded.
+     */
+    private <T> T httpGet(String url, boolean acceptJson, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(url))
+                .timeout(httpConfig.requestTimeout())
                 .GET();
         if (acceptJson) {
             builder.header("Accept", "application/json");
@@ -260,52 +350,136 @@ public class GitSource implements FileSource {
         if (StringUtils.isNotBlank(token)) {
             builder.header("Authorization", "Bearer " + token);
         }
-        HttpResponse<String> response;
-        try {
-            response = http.send(builder.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("HTTP request interrupted: " + url, e);
+        HttpRequest request = builder.build();
+
+        for (int attempt = 0; ; attempt++) {
+            awaitRateLimit(url);
+            log.debug("GET {} (attempt {})", url, attempt + 1);
+
+            HttpResponse<T> response;
+            try {
+                response = http.send(request, bodyHandler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("HTTP request interrupted: " + url, e);
+            } catch (IOException e) {
+                // connect failures, resets and timeouts are transient
+                if (attempt >= httpConfig.maxRetries()) throw e;
+                Duration delay = backoff(attempt);
+                log.warn("GET {} failed ({}); retrying in {} ms", url, e.toString(), delay.toMillis());
+                sleep(delay, url);
+                continue;
+            }
+
+            int status = response.statusCode();
+            Duration rateLimitWait = rateLimitWait(response);
+            if (status >= 200 && status < 300) {
+                if (rateLimitWait != null) {
+                    // quota exhausted by this request: hold off subsequent requests until the reset
+                    rateLimitedUntil = Instant.now().plus(rateLimitWait);
+                }
+                return response.body();
+            }
+            if (response.body() instanceof InputStream body) {
+                body.close(); // release the connection of an unread streamed body
+            }
+
+            boolean retryable = rateLimitWait != null || status == 429 || status >= 500;
+            if (!retryable || attempt >= httpConfig.maxRetries()) {
+                throw new IOException("HTTP " + status + " fetching: " + url);
+            }
+
+            Duration delay = rateLimitWait != null ? rateLimitWait : backoff(attempt);
+            if (rateLimitWait != null && rateLimitWait.compareTo(httpConfig.maxRateLimitWait()) > 0) {
+                // only a wait the forge asked for blocks later requests; a backoff is bounded by maxBackoff
+                rateLimitedUntil = Instant.now().plus(rateLimitWait);
+                throw new IOException("HTTP " + status + " fetching: " + url
+                        + "; rate limited until " + rateLimitedUntil);
+            }
+            log.warn("GET {} returned HTTP {}; retrying in {} ms", url, status, delay.toMillis());
+            sleep(delay, url);
         }
-        if (response.statusCode() < 200 || response.statusCode() >= 300) {
-            throw new IOException("HTTP " + response.statusCode() + " fetching: " + url);
+    }
+
+    /**
+     * Waits out a short rate-limit window, or fails fast when the window is longer than
+     * {@link GitHttpConfig#maxRateLimitWait()}.
+     */
+    private void awaitRateLimit(String url) throws IOException {
+        Instant until = rateLimitedUntil;
+        if (until == null) return;
+        Duration wait = Duration.between(Instant.now(), until);
+        if (wait.isNegative() || wait.isZero()) {
+            rateLimitedUntil = null;
+            return;
         }
-        return response.body();
+        if (wait.compareTo(httpConfig.maxRateLimitWait()) > 0) {
+            throw new IOException("Rate limited until " + until + "; not fetching: " + url);
+        }
+        log.info("Rate limited; waiting {} ms before GET {}", wait.toMillis(), url);
+        sleep(wait, url);
     }
 
-    // -------------------------------------------------------------------------
-    // Shared helpers
-    // -------------------------------------------------------------------------
+    /**
+     * Returns how long the forge asks us to wait, or {@code null} when the response carries no
+     * rate-limit information. Understands {@code Retry-After} (seconds or HTTP date) and an exhausted
+     * {@code X-RateLimit-Remaining} / {@code RateLimit-Remaining} with the matching {@code *-Reset}
+     * header (epoch seconds, as sent by GitHub, GitLab and Gitea).
+     */
+    static Duration rateLimitWait(HttpResponse<?> response) {
+        HttpHeaders headers = response.headers();
 
-    static PathMatcher[] buildMatchers(String[] filemasks) {
-        if (filemasks == null || filemasks.length == 0) return null;
-        PathMatcher[] matchers = new PathMatcher[filemasks.length];
-        for (int i = 0; i < filemasks.length; i++) {
-            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + filemasks[i]);
+        Optional<String> retryAfter = headers.firstValue("Retry-After");
+        if (retryAfter.isPresent() && (response.statusCode() == 429 || response.statusCode() == 403
+                || response.statusCode() == 503)) {
+            String value = retryAfter.get().trim();
+            try {
+                return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+            } catch (NumberFormatException e) {
+                try {
+                    Instant at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                    return nonNegative(Duration.between(Instant.now(), at));
+                } catch (DateTimeParseException ignored) {
+                    // fall through to the rate-limit headers
+                }
+            }
         }
-        return matchers;
-    }
 
-    static boolean matchesMasks(String relativePath, PathMatcher[] matchers) {
-        if (matchers == null) return true;
-        Path filename = Path.of(relativePath).getFileName();
-        if (filename == null) return false;
-        for (PathMatcher matcher : matchers) {
-            if (matcher.matches(filename)) return true;
+        String remaining = headers.firstValue("X-RateLimit-Remaining")
+                .or(() -> headers.firstValue("RateLimit-Remaining")).orElse(null);
+        String reset = headers.firstValue("X-RateLimit-Reset")
+                .or(() -> headers.firstValue("RateLimit-Reset")).orElse(null);
+        if ("0".equals(StringUtils.trim(remaining)) && reset != null) {
+            try {
+                Instant at = Instant.ofEpochSecond(Long.parseLong(reset.trim()));
+                return nonNegative(Duration.between(Instant.now(), at));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring unparseable rate-limit reset header: {}", reset);
+            }
         }
-        return false;
+        return null;
+    }
+
+    private static Duration nonNegative(Duration d) {
+        return d.isNegative() ? Duration.ZERO : d;
     }
 
     /**
-     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
+     * Full-jitter exponential backoff: a random delay in {@code [0, min(maxBackoff, initialBackoff * 2^attempt)]}.
      */
-    static boolean matchesAnyExclude(String relativePath, PathMatcher[] excludeMatchers) {
-        if (excludeMatchers == null) return false;
-        for (Path component : Path.of(relativePath)) {
-            for (PathMatcher matcher : excludeMatchers) {
-                if (matcher.matches(component)) return true;
-            }
+    private Duration backoff(int attempt) {
+        long base = httpConfig.initialBackoff().toMillis();
+        long cap = httpConfig.maxBackoff().toMillis();
+        long ceiling = attempt >= 30 ? cap : Math.min(cap, base << attempt);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    private static void sleep(Duration delay, String url) throws IOException {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("HTTP request interrupted: " + url, e);
         }
-        return false;
     }
 }
@@ -13,16 +13,31 @@ import org.csa.truffle.source.FileSourceConfig;
  *                         pattern matches any component; {@code null} means no exclusions
  * @param apiBaseUrl       override the forge API base URL; {@code null} = auto-derive from {@code repoUrl}
  *                         (intended for test isolation only)
+ * @param http             timeouts, retries and fetch parallelism; {@code null} = {@link GitHttpConfig#DEFAULT}
  */
 public record GitSourceConfig(
         String repoUrl, String directory, String branch,
         String token, GitForgeType forge, String[] filemasks, String[] excludeFilemasks,
-        String apiBaseUrl
+        String apiBaseUrl, GitHttpConfig http
 ) implements FileSourceConfig {
 
     public GitSourceConfig(String repoUrl, String directory, String branch,
                            String token, GitForgeType forge) {
-        this(repoUrl, directory, branch, token, forge, null, null, null);
+        this(repoUrl, directory, branch, token, forge, null, null, null, null);
+    }
+
+    public GitSourceConfig(String repoUrl, String directory, String branch,
+                           String token, GitForgeType forge, String[] filemasks, String[] excludeFilemasks,
+                           String apiBaseUrl) {
+        this(repoUrl, directory, branch, token, forge, filemasks, excludeFilemasks, apiBaseUrl, null);
+    }
+
+    /**
+     * Returns a copy of this config with the given HTTP tuning.
+     */
+    public GitSourceConfig withHttp(GitHttpConfig http) {
+        return new GitSourceConfig(repoUrl, directory, branch, token, forge, filemasks, excludeFilemasks,
+                apiBaseUrl, http);
     }
 
     // -------------------------------------------------------------------------
@@ -1,11 +1,13 @@
 package org.csa.truffle.source.map;
 
+import org.csa.truffle.source.FileChangeListener;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.PathFilter;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,23 +18,24 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>Call {@link #put(String, String)} to add or overwrite a file and
  * {@link #remove(String)} to delete one; neither call automatically fires
  * the change listener, allowing callers to batch mutations.
- * Call {@link #triggerChange()} to explicitly push a reload notification.
+ * Call {@link #triggerChange()} to explicitly push a reload notification; it reports the
+ * names put or removed since the previous notification as the changed paths.
  *
  * <p>Timestamps are recorded at each {@link #put} call so {@code FileLoader}
  * can detect files efficiently.
  */
 public class MapFileSource implements FileSource {
 
-    private record Entry(String content, Instant modifiedAt) {}
+    /** {@code bytes} is set for files put as bytes, {@code content} otherwise. */
+    private record Entry(String content, byte[] bytes, Instant modifiedAt) {}
 
     private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
-    private final String[] filemasks;
-    private final String[] excludeFilemasks;
-    private volatile Runnable changeListener;
+    private final PathFilter filter;
+    private final Set<String> pendingChanges = ConcurrentHashMap.newKeySet();
+    private volatile FileChangeListener changeListener;
 
     public MapFileSource(MapFileSourceConfig config) {
-        this.filemasks = config.filemasks();
-        this.excludeFilemasks = config.excludeFilemasks();
+        this.filter = PathFilter.of(config);
     }
 
     /**
@@ -40,7 +43,16 @@ public class MapFileSource implements FileSource {
      * Does <em>not</em> auto-trigger the change listener.
      */
     public void put(String name, String content) {
-        map.put(name, new Entry(content, Instant.now()));
+        map.put(name, new Entry(content, null, Instant.now()));
+        pendingChanges.add(name);
+    }
+
+    /**
+     * Adds or overwrites a binary file, e.g. a WebAssembly module; see {@link #put(String, String)}.
+     */
+    public void put(String name, byte[] content) {
+        map.put(name, new Entry(null, content.clone(), Instant.now()));
+        pendingChanges.add(name);
     }
 
     /**
@@ -49,31 +61,31 @@ public class MapFileSource implements FileSource {
      */
     public void remove(String name) {
         map.remove(name);
+        pendingChanges.add(name);
     }
 
     /**
      * Fires the registered change listener (no-op if none has been registered).
-     * Allows callers to batch multiple mutations before notifying.
+     * Allows callers to batch multiple mutations before notifying. The listener receives the
+     * names mutated since the previous call, or {@code null} if there were none.
      */
     public void triggerChange() {
-        Runnable listener = changeListener;
-        if (listener != null) listener.run();
+        Set<String> changed = new HashSet<>(pendingChanges);
+        pendingChanges.removeAll(changed);
+        FileChangeListener listener = changeListener;
+        if (listener != null) listener.onChanged(changed.isEmpty() ? null : changed);
     }
 
     @Override
     public Map<String, Optional<Instant>> listFiles() {
-        PathMatcher[] matchers = buildMatchers(filemasks);
-        PathMatcher[] excludeMatchers = buildMatchers(excludeFilemasks);
         // snapshot to avoid ConcurrentModificationException
         List<Map.Entry<String, Entry>> snapshot = new ArrayList<>(map.entrySet());
         snapshot.sort(Map.Entry.comparingByKey());
 
         LinkedHashMap<String, Optional<Instant>> result = new LinkedHashMap<>();
         for (Map.Entry<String, Entry> e : snapshot) {
-            String name = e.getKey();
-            if (matchesAnyExclude(name, excludeMatchers)) continue;
-            if (matchesMasks(name, matchers)) {
-                result.put(name, Optional.of(e.getValue().modifiedAt()));
+            if (filter.accepts(e.getKey())) {
+                result.put(e.getKey(), Optional.of(e.getValue().modifiedAt()));
             }
         }
         return result;
@@ -83,47 +95,34 @@ public class MapFileSource implements FileSource {
     public String readFile(String name) throws IOException {
         Entry entry = map.get(name);
         if (entry == null) throw new IOException("File not found: " + name);
-        return entry.content();
+        return entry.bytes() != null ? new String(entry.bytes(), StandardCharsets.UTF_8) : entry.content();
     }
 
     @Override
-    public void setChangeListener(Runnable onChanged) {
-        this.changeListener = onChanged;
+    public byte[] readFileBytes(String name) throws IOException {
+        Entry entry = map.get(name);
+        if (entry == null) throw new IOException("File not found: " + name);
+        return entry.bytes() != null ? entry.bytes().clone() : entry.content().getBytes(StandardCharsets.UTF_8);
     }
 
-    // -------------------------------------------------------------------------
-    // Helpers (copied from ResourceSource — package-private there)
-    // -------------------------------------------------------------------------
-
-    static PathMatcher[] buildMatchers(String[] filemasks) {
-        if (filemasks == null || filemasks.length == 0) return null;
-        PathMatcher[] matchers = new PathMatcher[filemasks.length];
-        for (int i = 0; i < filemasks.length; i++) {
-            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + filemasks[i]);
-        }
-        return matchers;
+    /**
+     * Streams the stored bytes without copying them.
+     */
+    @Override
+    public InputStream openStream(String name) throws IOException {
+        Entry entry = map.get(name);
+        if (entry == null) throw new IOException("File not found: " + name);
+        return new ByteArrayInputStream(
+                entry.bytes() != null ? entry.bytes() : entry.content().getBytes(StandardCharsets.UTF_8));
     }
 
-    static boolean matchesMasks(String name, PathMatcher[] matchers) {
-        if (matchers == null) return true;
-        Path filename = Path.of(name).getFileName();
-        if (filename == null) return false;
-        for (PathMatcher matcher : matchers) {
-            if (matcher.matches(filename)) return true;
-        }
-        return false;
+    @Override
+    public void setChangeListener(Runnable onChanged) {
+        setChangeListener((Set<String> changedPaths) -> onChanged.run());
     }
 
-    /**
-     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
-     */
-    static boolean matchesAnyExclude(String relativePath, PathMatcher[] excludeMatchers) {
-        if (excludeMatchers == null) return false;
-        for (Path component : Path.of(relativePath)) {
-            for (PathMatcher matcher : excludeMatchers) {
-                if (matcher.matches(component)) return true;
-            }
-        }
-        return false;
+    @Override
+    public void setChangeListener(FileChangeListener onChanged) {
+        this.changeListener = onChanged;
     }
 }
@@ -2,6 +2,7 @@ package org.csa.truffle.source.resource;
 
 import org.apache.commons.io.IOUtils;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.PathFilter;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,10 +12,12 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarFile;
 import java.util.stream.Stream;
 
@@ -23,25 +26,37 @@ import java.util.stream.Stream;
  * All regular files under {@code directory} are returned in alphabetical order,
  * with files matching any {@code excludeFilemasks} pattern (matched against each path component)
  * excluded, and files that do not match any of {@code filemasks} excluded.
+ *
+ * <p>Classpath resources do not change at runtime, so the listing is computed once, on the first
+ * successful {@link #listFiles()}, and each file is read once. Later polls return the same
+ * immutable listing and the same {@code String} instances without touching the JAR, which also
+ * makes {@code FileLoader}'s content comparison an identity check.
  */
 public class ResourceSource implements FileSource {
 
     private final String directory;
-    private final String[] filemasks;
-    private final String[] excludeFilemasks;
+    private final PathFilter filter;
+    private volatile Map<String, Optional<Instant>> listing; // null until the first listFiles()
+    private final Map<String, String> contents = new ConcurrentHashMap<>();
 
     public ResourceSource(ResourceSourceConfig config) {
         this.directory = config.directory();
-        this.filemasks = config.filemasks();
-        this.excludeFilemasks = config.excludeFilemasks();
+        this.filter = PathFilter.of(config);
     }
 
     @Override
     public Map<String, Optional<Instant>> listFiles() throws IOException {
+        Map<String, Optional<Instant>> cached = listing;
+        if (cached == null) {
+            cached = Collections.unmodifiableMap(scan());
+            listing = cached;
+        }
+        return cached;
+    }
+
+    private Map<String, Optional<Instant>> scan() throws IOException {
         URL dirUrl = getClass().getClassLoader().getResource(directory);
         if (dirUrl == null) throw new IOException("Classpath directory not found: " + directory);
-        PathMatcher[] matchers = buildMatchers(filemasks);
-        PathMatcher[] excludeMatchers = buildMatchers(excludeFilemasks);
 
         List<String> names;
         String protocol = dirUrl.getProtocol();
@@ -57,8 +72,7 @@ public class ResourceSource implements FileSource {
                 names = walk
                         .filter(Files::isRegularFile)
                         .map(p -> dirPath.relativize(p).toString().replace('\\', '/'))
-                        .filter(rel -> !matchesAnyExclude(rel, excludeMatchers))
-                        .filter(rel -> matchesMasks(rel, matchers))
+                        .filter(filter::accepts)
                         .sorted()
                         .toList();
             }
@@ -75,8 +89,7 @@ public class ResourceSource implements FileSource {
                         .filter(e -> fp.isEmpty() || e.getName().startsWith(fp))
                         .map(e -> fp.isEmpty() ? e.getName() : e.getName().substring(fp.length()))
                         .filter(rel -> !rel.isEmpty())
-                        .filter(rel -> !matchesAnyExclude(rel, excludeMatchers))
-                        .filter(rel -> matchesMasks(rel, matchers))
+                        .filter(filter::accepts)
                         .sorted()
                         .collect(java.util.stream.Collectors.toList());
             }
@@ -94,51 +107,40 @@ public class ResourceSource implements FileSource {
 
     @Override
     public String readFile(String name) throws IOException {
-        return readResource(directory + "/" + name);
-    }
-
-    private String readResource(String path) throws IOException {
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream(path)) {
-            if (is == null) throw new IOException("Resource not found: " + path);
-            return IOUtils.toString(is, StandardCharsets.UTF_8);
-        }
-    }
-
-    // -------------------------------------------------------------------------
-    // Shared helpers
-    // -------------------------------------------------------------------------
-
-    static PathMatcher[] buildMatchers(String[] filemasks) {
-        if (filemasks == null || filemasks.length == 0) return null;
-        PathMatcher[] matchers = new PathMatcher[filemasks.length];
-        for (int i = 0; i < filemasks.length; i++) {
-            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + filemasks[i]);
+        String content = contents.get(name);
+        if (content == null) {
+            content = readResource(directory + "/" + name);
+            String previous = contents.putIfAbsent(name, content);
+            if (previous != null) content = previous;
         }
-        return matchers;
+        return content;
     }
 
-    static boolean matchesMasks(String relativePath, PathMatcher[] matchers) {
-        if (matchers == null) return true;
-        Path filename = Path.of(relativePath).getFileName();
-        if (filename == null) return false;
-        for (PathMatcher matcher : matchers) {
-            if (matcher.matches(filename)) return true;
+    /**
+     * Reads the resource on every call; only text files are cached.
+     */
+    @Override
+    public byte[] readFileBytes(String name) throws IOException {
+        try (InputStream is = openStream(name)) {
+            return is.readAllBytes();
         }
-        return false;
     }
 
     /**
-     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
-     * This allows patterns like {@code "venv"} to exclude entire subtrees, and patterns like
-     * {@code "flink_types.py"} to exclude a specific filename at any depth.
+     * Opens the resource; never cached.
      */
-    static boolean matchesAnyExclude(String relativePath, PathMatcher[] excludeMatchers) {
-        if (excludeMatchers == null) return false;
-        for (Path component : Path.of(relativePath)) {
-            for (PathMatcher matcher : excludeMatchers) {
-                if (matcher.matches(component)) return true;
-            }
+    @Override
+    public InputStream openStream(String name) throws IOException {
+        String path = directory + "/" + name;
+        InputStream is = getClass().getClassLoader().getResourceAsStream(path);
+        if (is == null) throw new IOException("Resource not found: " + path);
+        return is;
+    }
+
+    private String readResource(String path) throws IOException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream(path)) {
+            if (is == null) throw new IOException("Resource not found: " + path);
+            return IOUtils.toString(is, StandardCharsets.UTF_8);
         }
-        return false;
     }
 }
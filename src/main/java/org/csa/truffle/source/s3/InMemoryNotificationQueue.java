@@ -0,0 +1,30 @@
+package org.csa.truffle.source.s3;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process {@link S3NotificationQueue}; events are published with {@link #publish}.
+ * Useful for tests or when notifications are received by other means.
+ */
+public class InMemoryNotificationQueue implements S3NotificationQueue {
+
+    private final LinkedBlockingQueue<S3ObjectEvent> events = new LinkedBlockingQueue<>();
+
+    public void publish(S3ObjectEvent event) {
+        events.add(event);
+    }
+
+    @Override
+    public List<S3ObjectEvent> receive(Duration maxWait) throws InterruptedException {
+        S3ObjectEvent first = events.poll(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) return List.of();
+        List<S3ObjectEvent> batch = new ArrayList<>();
+        batch.add(first);
+        events.drainTo(batch);
+        return batch;
+    }
+}
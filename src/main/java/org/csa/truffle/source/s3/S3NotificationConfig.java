@@ -0,0 +1,30 @@
+package org.csa.truffle.source.s3;
+
+import java.io.Serializable;
+import java.time.Duration;
+
+/**
+ * Push mode for {@link S3Source}: bucket notifications are consumed from an SQS queue and patch
+ * the cached listing, so {@link S3Source#listFiles()} only lists the bucket for reconciliation.
+ *
+ * <p>The bucket must publish {@code s3:ObjectCreated:*} and {@code s3:ObjectRemoved:*} events to
+ * the queue, directly or through an SNS topic.
+ *
+ * @param queueUrl          URL of the SQS queue receiving the bucket notifications
+ * @param queueEndpointUrl  custom SQS endpoint (e.g. ElasticMQ, LocalStack); {@code null} = AWS SQS
+ * @param reconcileInterval how long the cached listing is served before the bucket is listed again,
+ *                          catching lost or undelivered notifications
+ * @param pollWait          long-poll wait of a single receive; SQS caps it at 20 seconds
+ */
+public record S3NotificationConfig(
+        String queueUrl, String queueEndpointUrl,
+        Duration reconcileInterval, Duration pollWait
+) implements Serializable {
+
+    /**
+     * AWS SQS queue, reconciling every 10 minutes with 20-second long polls.
+     */
+    public static S3NotificationConfig forQueue(String queueUrl) {
+        return new S3NotificationConfig(queueUrl, null, Duration.ofMinutes(10), Duration.ofSeconds(20));
+    }
+}
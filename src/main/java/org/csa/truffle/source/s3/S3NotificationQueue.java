@@ -0,0 +1,28 @@
+package org.csa.truffle.source.s3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Delivers S3 bucket notifications to {@link S3Source} in push mode.
+ * Implementations: {@link SqsNotificationQueue} (SQS, or SNS fanned out to SQS) and
+ * {@link InMemoryNotificationQueue} (a local stand-in for tests).
+ */
+public interface S3NotificationQueue extends Closeable {
+
+    /**
+     * Waits up to {@code maxWait} for notifications and returns them in arrival order;
+     * returns an empty list if none arrived. Returned events are consumed and will not be
+     * delivered again.
+     */
+    List<S3ObjectEvent> receive(Duration maxWait) throws IOException, InterruptedException;
+
+    /**
+     * Releases any resources held (e.g. the SQS client). No-op by default.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
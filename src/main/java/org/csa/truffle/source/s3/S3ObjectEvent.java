@@ -0,0 +1,46 @@
+package org.csa.truffle.source.s3;
+
+import java.time.Instant;
+
+/**
+ * A single S3 bucket notification, reduced to what {@link S3Source} needs to patch its listing.
+ *
+ * @param key       full object key, URL-decoded
+ * @param kind      whether the object was created/overwritten or removed
+ * @param eTag      quoted ETag of the new object version, as returned by {@code ListObjectsV2};
+ *                  {@code null} for removals
+ * @param eventTime time the event occurred; used as the object's modification time
+ * @param sequencer per-key ordering token; {@code null} when the queue does not provide one
+ */
+public record S3ObjectEvent(String key, Kind kind, String eTag, Instant eventTime, String sequencer) {
+
+    public enum Kind {
+        CREATED, REMOVED
+    }
+
+    public static S3ObjectEvent created(String key, String eTag, Instant eventTime) {
+        return new S3ObjectEvent(key, Kind.CREATED, eTag, eventTime, null);
+    }
+
+    public static S3ObjectEvent removed(String key, Instant eventTime) {
+        return new S3ObjectEvent(key, Kind.REMOVED, null, eventTime, null);
+    }
+
+    /**
+     * Returns {@code true} if this event is older than an event for the same key carrying
+     * {@code otherSequencer}. Sequencers of different lengths are compared after right-padding
+     * the shorter one with zeros, as documented for S3 event notifications.
+     * Events without a sequencer are never considered stale.
+     */
+    boolean isOlderThan(String otherSequencer) {
+        if (sequencer == null || otherSequencer == null) return false;
+        int length = Math.max(sequencer.length(), otherSequencer.length());
+        String a = padRight(sequencer.toUpperCase(), length);
+        String b = padRight(otherSequencer.toUpperCase(), length);
+        return a.compareTo(b) < 0;
+    }
+
+    private static String padRight(String s, int length) {
+        return s.length() >= length ? s : s + "0".repeat(length - s.length());
+    }
+}
@@ -1,28 +1,43 @@
 package org.csa.truffle.source.s3;
 
 import org.apache.commons.lang3.StringUtils;
+import org.csa.truffle.source.FileChangeListener;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.PathFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3ClientBuilder;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * {@link FileSource} that auto-discovers files from an S3-compatible object store
@@ -33,6 +48,19 @@ import java.util.TreeMap;
  * any of {@code filemasks} are excluded.
  * Results are sorted alphabetically by relative key.
  *
+ * <p>The ETag of every listed object is remembered. A read is skipped entirely when the listed
+ * ETag equals the one of the copy already fetched, and otherwise sent with {@code If-None-Match}
+ * so an unchanged object is answered with {@code 304 Not Modified} instead of its body.
+ * With {@link S3SourceConfig#maxConcurrency()} above 1, {@link #readFiles} fetches objects in
+ * parallel through an {@link S3AsyncClient}, with at most that many requests in flight.
+ *
+ * <p><b>Push mode.</b> With {@link S3SourceConfig#notifications()} set (or an explicit
+ * {@link S3NotificationQueue}), {@link #setChangeListener} starts a thread that consumes bucket
+ * notifications. Each notification patches the cached listing and the change listener is invoked,
+ * so the following {@link #listFiles()} is answered without an S3 request and only the changed
+ * objects are read. The bucket is listed in full only once per reconcile interval, or after
+ * the queue failed, to catch lost notifications.
+ *
  * <p><b>AWS example:</b>
  * <pre>
  *   new S3Source(S3Client.create(), "my-bucket", "", new String[]{"*.py"});
@@ -46,13 +74,37 @@ import java.util.TreeMap;
 public class S3Source implements FileSource {
 
     private static final Logger log = LoggerFactory.getLogger(S3Source.class);
+    private static final Duration RECEIVE_RETRY_DELAY = Duration.ofSeconds(5);
 
     private final S3Client s3;
-    private final boolean ownsClient; // true when this instance built the client
+    private final S3AsyncClient s3Async; // nullable; used by readFiles when maxConcurrency > 1
+    private final boolean ownsClient; // true when this instance built the clients
     private final String bucket;
     private final String prefix;         // never ends with '/', may be empty
-    private final String[] filemasks;    // nullable
-    private final String[] excludeFilemasks; // nullable
+    private final PathFilter filter;
+    private final int maxConcurrency;
+
+    private final S3NotificationQueue queue; // nullable; push mode when set
+    private final boolean ownsQueue;
+    private final Duration reconcileInterval;
+    private final Duration pollWait;
+    private volatile FileChangeListener changeListener;
+    private volatile boolean closed;
+    private volatile Thread notificationThread;
+
+    /** Guards the push-mode listing state below. */
+    private final Object indexLock = new Object();
+    private TreeMap<String, Optional<Instant>> index;  // null until the first full listing
+    private Instant nextReconcileAt;
+    private List<S3ObjectEvent> eventsDuringListing;    // non-null while a full listing is in progress
+    private final Map<String, String> sequencers = new HashMap<>();
+
+    /** ETag per relative key, as of the last {@link #listFiles()}. */
+    private final Map<String, String> listedETags = new ConcurrentHashMap<>();
+    /** Last fetched copy per relative key; the content is shared with the caller, not duplicated. */
+    private final Map<String, CachedObject> fetched = new ConcurrentHashMap<>();
+
+    private record CachedObject(String eTag, String content) {}
 
     /**
      * Constructs an {@code S3Source} from a {@link S3SourceConfig}, building and
@@ -63,11 +115,23 @@ public class S3Source implements FileSource {
      *   <li>{@code accessKeyId} + {@code secretKey} — uses static credentials instead of
      *       the default credential chain</li>
      * </ul>
-     * Call {@link #close()} (or use try-with-resources) to release the client.
+     * An {@link S3AsyncClient} with the same settings is built as well when
+     * {@code maxConcurrency} is above 1.
+     * Call {@link #close()} (or use try-with-resources) to release the clients.
      */
     public S3Source(S3SourceConfig config) {
-        this(buildClient(config), true, config.bucket(), config.prefix(),
-                config.filemasks(), config.excludeFilemasks());
+        this(buildClient(config), config.maxConcurrency() > 1 ? buildAsyncClient(config) : null,
+                config.notifications() != null ? SqsNotificationQueue.create(config) : null, true, config);
+    }
+
+    /**
+     * Constructs an {@code S3Source} in push mode, consuming notifications from {@code queue}
+     * instead of the SQS queue named in the config. The S3 clients are built and owned as in
+     * {@link #S3Source(S3SourceConfig)}; the queue is <em>not</em> closed when this instance is closed.
+     */
+    public S3Source(S3SourceConfig config, S3NotificationQueue queue) {
+        this(buildClient(config), config.maxConcurrency() > 1 ? buildAsyncClient(config) : null,
+                queue, true, false, config);
     }
 
     /**
@@ -76,20 +140,50 @@ public class S3Source implements FileSource {
      * Intended for testing only (package-private).
      */
     S3Source(S3Client s3, S3SourceConfig config) {
-        this(s3, false, config.bucket(), config.prefix(), config.filemasks(), config.excludeFilemasks());
+        this(s3, null, null, false, false, config);
+    }
+
+    /**
+     * Constructs an {@code S3Source} with pre-built synchronous and asynchronous clients.
+     * Neither client is closed when this instance is closed.
+     * Intended for testing only (package-private).
+     */
+    S3Source(S3Client s3, S3AsyncClient s3Async, S3SourceConfig config) {
+        this(s3, s3Async, null, false, false, config);
     }
 
-    private S3Source(S3Client s3, boolean ownsClient, String bucket, String prefix,
-                     String[] filemasks, String[] excludeFilemasks) {
+    /**
+     * Constructs an {@code S3Source} in push mode with a pre-built {@link S3Client} and queue.
+     * Neither is closed when this instance is closed.
+     * Intended for testing only (package-private).
+     */
+    S3Source(S3Client s3, S3NotificationQueue queue, S3SourceConfig config) {
+        this(s3, null, queue, false, false, config);
+    }
+
+    private S3Source(S3Client s3, S3AsyncClient s3Async, S3NotificationQueue queue, boolean owns,
+                     S3SourceConfig config) {
+        this(s3, s3Async, queue, owns, owns, config);
+    }
+
+    private S3Source(S3Client s3, S3AsyncClient s3Async, S3NotificationQueue queue,
+                     boolean ownsClient, boolean ownsQueue, S3SourceConfig config) {
         this.s3 = s3;
+        this.s3Async = s3Async;
         this.ownsClient = ownsClient;
-        this.bucket = bucket;
-        this.prefix = StringUtils.stripEnd(prefix, "/");
-        this.filemasks = filemasks;
-        this.excludeFilemasks = excludeFilemasks;
+        this.queue = queue;
+        this.ownsQueue = ownsQueue;
+        S3NotificationConfig notifications = config.notifications() != null
+                ? config.notifications() : S3NotificationConfig.forQueue(null);
+        this.reconcileInterval = notifications.reconcileInterval();
+        this.pollWait = notifications.pollWait();
+        this.bucket = config.bucket();
+        this.prefix = StringUtils.stripEnd(config.prefix(), "/");
+        this.filter = PathFilter.of(config);
+        this.maxConcurrency = Math.max(1, config.maxConcurrency());
         log.info("Initialized: bucket={}, prefix={}, filemasks={}",
                 bucket, this.prefix.isEmpty() ? "(root)" : this.prefix,
-                filemasks != null ? java.util.Arrays.toString(filemasks) : "null");
+                config.filemasks() != null ? java.util.Arrays.toString(config.filemasks()) : "null");
     }
 
     private static S3Client buildClient(S3SourceConfig config) {
@@ -104,13 +198,57 @@ public class S3Source implements FileSource {
         return b.build();
     }
 
+    private static S3AsyncClient buildAsyncClient(S3SourceConfig config) {
+        S3AsyncClientBuilder b = S3AsyncClient.builder();
+        if (config.region() != null)
+            b.region(Region.of(config.region()));
+        if (config.endpointUrl() != null)
+            b.endpointOverride(URI.create(config.endpointUrl())).forcePathStyle(true);
+        if (config.accessKeyId() != null && config.secretKey() != null)
+            b.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(config.accessKeyId(), config.secretKey())));
+        return b.build();
+    }
+
     @Override
     public Map<String, Optional<Instant>> listFiles() throws IOException {
-        PathMatcher[] matchers = buildMatchers(filemasks);
-        PathMatcher[] excludeMatchers = buildMatchers(excludeFilemasks);
+        if (notificationThread == null) {
+            return listBucket();
+        }
+        synchronized (indexLock) {
+            if (index != null && Instant.now().isBefore(nextReconcileAt)) {
+                return new LinkedHashMap<>(index);
+            }
+            eventsDuringListing = new ArrayList<>();
+        }
+        Instant startedAt = Instant.now();
+        Map<String, Optional<Instant>> listed;
+        try {
+            listed = listBucket();
+        } catch (IOException | RuntimeException e) {
+            synchronized (indexLock) {
+                eventsDuringListing = null;
+            }
+            throw e;
+        }
+        synchronized (indexLock) {
+            // the listing may predate notifications consumed while it ran; re-apply them on top
+            index = new TreeMap<>(listed);
+            sequencers.keySet().retainAll(index.keySet());
+            List<S3ObjectEvent> replay = eventsDuringListing;
+            eventsDuringListing = null;
+            replay.forEach(this::applyEvent);
+            nextReconcileAt = startedAt.plus(reconcileInterval);
+            log.debug("Reconciled listing of s3://{}/{}: {} object(s)", bucket, prefix, index.size());
+            return new LinkedHashMap<>(index);
+        }
+    }
+
+    private Map<String, Optional<Instant>> listBucket() throws IOException {
         String searchPrefix = prefix.isEmpty() ? "" : prefix + "/";
 
         TreeMap<String, Optional<Instant>> sorted = new TreeMap<>();
+        Map<String, String> eTags = new LinkedHashMap<>();
         try {
             ListObjectsV2Iterable pages = s3.listObjectsV2Paginator(
                     ListObjectsV2Request.builder().bucket(bucket).prefix(searchPrefix).build());
@@ -119,14 +257,17 @@ public class S3Source implements FileSource {
                     if (obj.key().endsWith("/")) continue; // skip directory markers
                     String rel = obj.key().substring(searchPrefix.length());
                     if (rel.isEmpty()) continue;
-                    if (matchesAnyExclude(rel, excludeMatchers)) continue;
-                    if (!matchesMasks(rel, matchers)) continue;
+                    if (!filter.accepts(rel)) continue;
                     sorted.put(rel, Optional.ofNullable(obj.lastModified()));
+                    if (obj.eTag() != null) eTags.put(rel, obj.eTag());
                 }
             }
         } catch (S3Exception e) {
             throw new IOException("S3 error listing objects: " + e.getMessage(), e);
         }
+        listedETags.clear();
+        listedETags.putAll(eTags);
+        fetched.keySet().retainAll(sorted.keySet()); // forget deleted objects
         return new LinkedHashMap<>(sorted);
     }
 
@@ -135,57 +276,259 @@ public class S3Source implements FileSource {
         return getObject(name);
     }
 
-    private String getObject(String name) throws IOException {
-        String key = prefix.isEmpty() ? name : prefix + "/" + name;
+    /**
+     * Fetches the object unconditionally; only text objects are kept for ETag revalidation.
+     */
+    @Override
+    public byte[] readFileBytes(String name) throws IOException {
+        String key = key(name);
         try {
-            ResponseBytes<GetObjectResponse> resp = s3.getObjectAsBytes(
-                    GetObjectRequest.builder().bucket(bucket).key(key).build());
-            return resp.asUtf8String();
+            return s3.getObjectAsBytes(request(key, null)).asByteArray();
         } catch (S3Exception e) {
             throw new IOException(
                     "S3 error fetching s3://" + bucket + "/" + key + ": " + e.getMessage(), e);
         }
     }
 
-    /** Closes the {@link S3Client} when this instance built it via {@link #S3Source(S3SourceConfig)}. */
+    /**
+     * Streams the object body from the open response; nothing is cached.
+     */
     @Override
-    public void close() {
-        if (ownsClient) s3.close();
+    public InputStream openStream(String name) throws IOException {
+        String key = key(name);
+        try {
+            return s3.getObject(request(key, null));
+        } catch (S3Exception e) {
+            throw new IOException(
+                    "S3 error fetching s3://" + bucket + "/" + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the given objects, in parallel through the {@link S3AsyncClient} when
+     * {@code maxConcurrency} is above 1. The result preserves the order of {@code names};
+     * the first failure is rethrown once all requests have completed or been abandoned.
+     */
+    @Override
+    public Map<String, String> readFiles(Collection<String> names) throws IOException {
+        if (s3Async == null || maxConcurrency <= 1 || names.size() <= 1) {
+            return FileSource.super.readFiles(names);
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        try {
+            for (String name : names) {
+                CachedObject cached = fetched.get(name);
+                if (isCurrent(name, cached)) {
+                    futures.put(name, CompletableFuture.completedFuture(cached.content()));
+                    continue;
+                }
+                permits.acquire();
+                String key = key(name);
+                CompletableFuture<ResponseBytes<GetObjectResponse>> response;
+                try {
+                    response = s3Async.getObject(request(key, cached), AsyncResponseTransformer.toBytes());
+                } catch (RuntimeException e) {
+                    // rejected before a future existed (e.g. invalid request, closed client)
+                    permits.release();
+                    futures.values().forEach(f -> f.cancel(true));
+                    throw new IOException("S3 error fetching s3://" + bucket + "/" + key + ": " + e.getMessage(), e);
+                }
+                CompletableFuture<String> future = response
+                        .handle((resp, err) -> {
+                            if (err == null) return remember(name, resp);
+                            S3Exception s3e = unwrapS3Exception(err);
+                            if (cached != null && s3e != null && s3e.statusCode() == 304) return cached.content();
+                            throw err instanceof CompletionException ce ? ce : new CompletionException(err);
+                        })
+                        .whenComplete((content, err) -> permits.release());
+                futures.put(name, future);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.values().forEach(f -> f.cancel(true));
+            throw new IOException("Interrupted while fetching objects from s3://" + bucket, e);
+        }
+
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<String>> entry : futures.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(f -> f.cancel(true));
+                throw new IOException("Interrupted while fetching objects from s3://" + bucket, e);
+            } catch (ExecutionException e) {
+                futures.values().forEach(f -> f.cancel(true));
+                throw new IOException("S3 error fetching s3://" + bucket + "/" + key(entry.getKey())
+                        + ": " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return result;
+    }
+
+    private String getObject(String name) throws IOException {
+        CachedObject cached = fetched.get(name);
+        if (isCurrent(name, cached)) {
+            return cached.content();
+        }
+        String key = key(name);
+        try {
+            return remember(name, s3.getObjectAsBytes(request(key, cached)));
+        } catch (S3Exception e) {
+            if (cached != null && e.statusCode() == 304) {
+                return cached.content();
+            }
+            throw new IOException(
+                    "S3 error fetching s3://" + bucket + "/" + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** {@code true} when the last listing reports the same ETag as the copy fetched earlier. */
+    private boolean isCurrent(String name, CachedObject cached) {
+        return cached != null && cached.eTag().equals(listedETags.get(name));
+    }
+
+    private String key(String name) {
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    private GetObjectRequest request(String key, CachedObject cached) {
+        GetObjectRequest.Builder b = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (cached != null) b.ifNoneMatch(cached.eTag());
+        return b.build();
+    }
+
+    private String remember(String name, ResponseBytes<GetObjectResponse> resp) {
+        String content = resp.asUtf8String();
+        GetObjectResponse response = resp.response();
+        if (response != null && response.eTag() != null) {
+            fetched.put(name, new CachedObject(response.eTag(), content));
+        } else {
+            fetched.remove(name);
+        }
+        return content;
+    }
+
+    private static S3Exception unwrapS3Exception(Throwable t) {
+        while (t != null) {
+            if (t instanceof S3Exception e) return e;
+            t = t.getCause();
+        }
+        return null;
     }
 
     // -------------------------------------------------------------------------
-    // Shared helpers
+    // Push mode
     // -------------------------------------------------------------------------
 
-    static PathMatcher[] buildMatchers(String[] filemasks) {
-        if (filemasks == null || filemasks.length == 0) return null;
-        PathMatcher[] matchers = new PathMatcher[filemasks.length];
-        for (int i = 0; i < filemasks.length; i++) {
-            matchers[i] = FileSystems.getDefault().getPathMatcher("glob:" + filemasks[i]);
+    /**
+     * In push mode, stores the callback and starts consuming bucket notifications; the callback
+     * is invoked with the changed keys after each batch of notifications that changed the listing.
+     * A no-op for pull-only sources.
+     */
+    @Override
+    public void setChangeListener(Runnable onChanged) {
+        setChangeListener((Set<String> changedPaths) -> onChanged.run());
+    }
+
+    @Override
+    public synchronized void setChangeListener(FileChangeListener onChanged) {
+        if (queue == null || notificationThread != null) return; // idempotent
+        this.changeListener = onChanged;
+        notificationThread = new Thread(this::notificationLoop, "S3Source-notifications");
+        notificationThread.setDaemon(true);
+        notificationThread.start();
+        log.info("Consuming bucket notifications for s3://{}/{}", bucket, prefix);
+    }
+
+    private void notificationLoop() {
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            List<S3ObjectEvent> events;
+            try {
+                events = queue.receive(pollWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (closed) return;
+                log.warn("Receiving bucket notifications failed; forcing a full listing: {}", e.getMessage());
+                invalidateListing();
+                try {
+                    Thread.sleep(RECEIVE_RETRY_DELAY.toMillis());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+
+            Set<String> changedPaths = new HashSet<>();
+            synchronized (indexLock) {
+                for (S3ObjectEvent event : events) {
+                    if (eventsDuringListing != null) eventsDuringListing.add(event);
+                    String rel = applyEvent(event);
+                    if (rel != null) changedPaths.add(rel);
+                }
+            }
+            if (!changedPaths.isEmpty()) {
+                log.info("Bucket notification(s) received for s3://{}/{}; invoking reload callback", bucket, prefix);
+                FileChangeListener listener = changeListener;
+                if (listener != null) listener.onChanged(changedPaths);
+            }
+        }
+    }
+
+    /**
+     * Patches the cached listing with one notification. Returns the relative key if it affects a
+     * listed (or now listed) object, otherwise {@code null}. Caller must hold {@link #indexLock}.
+     */
+    private String applyEvent(S3ObjectEvent event) {
+        String searchPrefix = prefix.isEmpty() ? "" : prefix + "/";
+        String key = event.key();
+        if (!key.startsWith(searchPrefix) || key.endsWith("/")) return null;
+        String rel = key.substring(searchPrefix.length());
+        if (rel.isEmpty()) return null;
+        if (!filter.accepts(rel)) return null;
+
+        if (event.isOlderThan(sequencers.get(rel))) {
+            log.debug("Ignoring out-of-order notification for {}", key);
+            return null;
+        }
+        if (event.sequencer() != null) sequencers.put(rel, event.sequencer());
+
+        if (event.kind() == S3ObjectEvent.Kind.REMOVED) {
+            listedETags.remove(rel);
+            fetched.remove(rel);
+            return index != null && index.remove(rel) != null ? rel : null;
         }
-        return matchers;
+        if (event.eTag() != null) {
+            listedETags.put(rel, event.eTag());
+        } else {
+            listedETags.remove(rel);
+        }
+        if (index != null) index.put(rel, Optional.ofNullable(event.eventTime()));
+        return rel;
     }
 
-    static boolean matchesMasks(String relativePath, PathMatcher[] matchers) {
-        if (matchers == null) return true;
-        Path filename = Path.of(relativePath).getFileName();
-        if (filename == null) return false;
-        for (PathMatcher matcher : matchers) {
-            if (matcher.matches(filename)) return true;
+    private void invalidateListing() {
+        synchronized (indexLock) {
+            index = null;
         }
-        return false;
     }
 
     /**
-     * Returns {@code true} if any exclude pattern matches any component of {@code relativePath}.
+     * Stops consuming notifications and closes the S3 clients and queue when this instance
+     * built them via {@link #S3Source(S3SourceConfig)}.
      */
-    static boolean matchesAnyExclude(String relativePath, PathMatcher[] excludeMatchers) {
-        if (excludeMatchers == null) return false;
-        for (Path component : Path.of(relativePath)) {
-            for (PathMatcher matcher : excludeMatchers) {
-                if (matcher.matches(component)) return true;
-            }
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (notificationThread != null) notificationThread.interrupt();
+        if (ownsQueue && queue != null) queue.close();
+        if (ownsClient) {
+            s3.close();
+            if (s3Async != null) s3Async.close();
         }
-        return false;
     }
 }
@@ -12,18 +12,58 @@ import org.csa.truffle.source.FileSourceConfig;
  * @param filemasks        glob patterns matched against the filename; {@code null} or empty means no filter
  * @param excludeFilemasks glob patterns matched against each path component; a file is excluded if any
  *                         pattern matches any component; {@code null} means no exclusions
+ * @param maxConcurrency   objects fetched in parallel by {@link S3Source#readFiles} through an
+ *                         {@code S3AsyncClient}; {@code 0} or {@code 1} fetches sequentially with the
+ *                         synchronous client
+ * @param notifications    push mode: consume bucket notifications from SQS and list the bucket only for
+ *                         reconciliation; {@code null} = pull-only
  */
 public record S3SourceConfig(
         String bucket, String prefix,
         String region, String endpointUrl,
         String accessKeyId, String secretKey,
-        String[] filemasks, String[] excludeFilemasks
+        String[] filemasks, String[] excludeFilemasks,
+        int maxConcurrency,
+        S3NotificationConfig notifications
 ) implements FileSourceConfig {
 
+    public S3SourceConfig(String bucket, String prefix,
+                          String region, String endpointUrl,
+                          String accessKeyId, String secretKey,
+                          String[] filemasks, String[] excludeFilemasks,
+                          int maxConcurrency) {
+        this(bucket, prefix, region, endpointUrl, accessKeyId, secretKey, filemasks, excludeFilemasks,
+                maxConcurrency, null);
+    }
+
+    public S3SourceConfig(String bucket, String prefix,
+                          String region, String endpointUrl,
+                          String accessKeyId, String secretKey,
+                          String[] filemasks, String[] excludeFilemasks) {
+        this(bucket, prefix, region, endpointUrl, accessKeyId, secretKey, filemasks, excludeFilemasks, 0);
+    }
+
     public S3SourceConfig(String bucket, String prefix) {
         this(bucket, prefix, null, null, null, null, null, null);
     }
 
+    /**
+     * Returns a copy of this config that fetches up to {@code maxConcurrency} objects in parallel.
+     */
+    public S3SourceConfig withMaxConcurrency(int maxConcurrency) {
+        return new S3SourceConfig(bucket, prefix, region, endpointUrl, accessKeyId, secretKey,
+                filemasks, excludeFilemasks, maxConcurrency, notifications);
+    }
+
+    /**
+     * Returns a copy of this config in push mode, consuming bucket notifications as described by
+     * {@code notifications}.
+     */
+    public S3SourceConfig withNotifications(S3NotificationConfig notifications) {
+        return new S3SourceConfig(bucket, prefix, region, endpointUrl, accessKeyId, secretKey,
+                filemasks, excludeFilemasks, maxConcurrency, notifications);
+    }
+
     /**
      * AWS S3 with the default credential chain.
      */
@@ -0,0 +1,159 @@
+package org.csa.truffle.source.s3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link S3NotificationQueue} backed by an SQS queue receiving S3 event notifications,
+ * either directly or wrapped in an SNS envelope.
+ *
+ * <p>Messages are long-polled and deleted once parsed. Messages that carry no object events
+ * (e.g. the {@code s3:TestEvent} sent when notifications are configured) are deleted and ignored.
+ */
+public class SqsNotificationQueue implements S3NotificationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(SqsNotificationQueue.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_MESSAGES = 10;        // SQS limit per receive
+    private static final int MAX_WAIT_SECONDS = 20;    // SQS long-poll limit
+
+    private final SqsClient sqs;
+    private final boolean ownsClient;
+    private final String queueUrl;
+
+    /**
+     * Creates a queue reader with a pre-built {@link SqsClient}, which is <em>not</em> closed
+     * when this instance is closed.
+     */
+    public SqsNotificationQueue(SqsClient sqs, String queueUrl) {
+        this(sqs, false, queueUrl);
+    }
+
+    private SqsNotificationQueue(SqsClient sqs, boolean ownsClient, String queueUrl) {
+        this.sqs = sqs;
+        this.ownsClient = ownsClient;
+        this.queueUrl = queueUrl;
+    }
+
+    /**
+     * Builds and owns an {@link SqsClient} using the region and credentials of {@code config}
+     * and the queue endpoint of its {@link S3SourceConfig#notifications()}.
+     */
+    static SqsNotificationQueue create(S3SourceConfig config) {
+        SqsClientBuilder b = SqsClient.builder();
+        if (config.region() != null)
+            b.region(Region.of(config.region()));
+        if (config.notifications().queueEndpointUrl() != null)
+            b.endpointOverride(URI.create(config.notifications().queueEndpointUrl()));
+        if (config.accessKeyId() != null && config.secretKey() != null)
+            b.credentialsProvider(StaticCredentialsProvider.create(
+                    AwsBasicCredentials.create(config.accessKeyId(), config.secretKey())));
+        return new SqsNotificationQueue(b.build(), true, config.notifications().queueUrl());
+    }
+
+    @Override
+    public List<S3ObjectEvent> receive(Duration maxWait) throws IOException {
+        int waitSeconds = Math.clamp(maxWait.toSeconds(), 0, MAX_WAIT_SECONDS);
+        List<S3ObjectEvent> events = new ArrayList<>();
+        try {
+            ReceiveMessageResponse response = sqs.receiveMessage(r -> r
+                    .queueUrl(queueUrl)
+                    .maxNumberOfMessages(MAX_MESSAGES)
+                    .waitTimeSeconds(waitSeconds));
+            if (!response.hasMessages() || response.messages().isEmpty()) return events;
+
+            List<DeleteMessageBatchRequestEntry> processed = new ArrayList<>();
+            for (Message message : response.messages()) {
+                try {
+                    events.addAll(parse(message.body()));
+                } catch (IOException e) {
+                    log.warn("Ignoring unparseable notification {}: {}", message.messageId(), e.getMessage());
+                }
+                processed.add(DeleteMessageBatchRequestEntry.builder()
+                        .id(Integer.toString(processed.size()))
+                        .receiptHandle(message.receiptHandle())
+                        .build());
+            }
+            sqs.deleteMessageBatch(r -> r.queueUrl(queueUrl).entries(processed));
+        } catch (SdkException e) {
+            throw new IOException("SQS error receiving from " + queueUrl + ": " + e.getMessage(), e);
+        }
+        return events;
+    }
+
+    /**
+     * Parses an S3 event notification message body, unwrapping an SNS envelope if present.
+     * Returns an empty list for messages without object events.
+     */
+    static List<S3ObjectEvent> parse(String body) throws IOException {
+        JsonNode root = MAPPER.readTree(body);
+        JsonNode snsMessage = root.get("Message");
+        if (snsMessage != null && snsMessage.isTextual()) {
+            root = MAPPER.readTree(snsMessage.asText());
+        }
+        JsonNode records = root.path("Records");
+        if (!records.isArray()) return List.of();
+
+        List<S3ObjectEvent> events = new ArrayList<>();
+        for (JsonNode record : records) {
+            String eventName = record.path("eventName").asText("");
+            S3ObjectEvent.Kind kind;
+            if (eventName.startsWith("ObjectCreated")) {
+                kind = S3ObjectEvent.Kind.CREATED;
+            } else if (eventName.startsWith("ObjectRemoved")) {
+                kind = S3ObjectEvent.Kind.REMOVED;
+            } else {
+                continue;
+            }
+            JsonNode object = record.path("s3").path("object");
+            String key = URLDecoder.decode(object.path("key").asText(""), StandardCharsets.UTF_8);
+            if (key.isEmpty()) continue;
+            String eTag = kind == S3ObjectEvent.Kind.CREATED ? quote(object.path("eTag").asText(null)) : null;
+            events.add(new S3ObjectEvent(key, kind, eTag,
+                    parseTime(record.path("eventTime").asText(null)),
+                    object.path("sequencer").asText(null)));
+        }
+        return events;
+    }
+
+    /** Notifications carry bare ETags while {@code ListObjectsV2} returns them quoted. */
+    private static String quote(String eTag) {
+        if (eTag == null || eTag.isEmpty() || eTag.startsWith("\"")) return eTag;
+        return "\"" + eTag + "\"";
+    }
+
+    private static Instant parseTime(String eventTime) {
+        if (eventTime == null) return Instant.now();
+        try {
+            return Instant.parse(eventTime);
+        } catch (DateTimeParseException e) {
+            return Instant.now();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsClient) sqs.close();
+    }
+}
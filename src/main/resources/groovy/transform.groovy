@@ -0,0 +1,56 @@
+import org.apache.flink.util.Collector
+
+// Sales transform logic — Groovy implementation; fully typed so it also compiles with @CompileStatic
+
+/**
+ * Parses a raw sales CSV line and emits an enriched CSV string via out.collect(),
+ * which is the Flink Collector<String> passed in from Java.
+ * Lines that are blank, headers, or malformed are silently dropped.
+ *
+ * Input  fields (6): transactionId, customerId, product, quantity, unitPrice, date
+ * Output fields (8): transactionId, customerId, product, quantity, unitPrice,
+ *                    totalPrice, category, date
+ */
+void processElement(String line, Collector<String> out) {
+    if (line.isBlank() || line.startsWith('transactionId')) {
+        return
+    }
+
+    String[] f = line.split(',', -1)
+    if (f.length != 6) {
+        return
+    }
+
+    try {
+        String transactionId = f[0].trim()
+        String customerId = f[1].trim()
+        String product = f[2].trim()
+        int quantity = Integer.parseInt(f[3].trim())
+        double unitPrice = Double.parseDouble(f[4].trim())
+        String date = f[5].trim()
+
+        double totalPrice = quantity * unitPrice
+
+        String category
+        if (totalPrice < 100.0d) {
+            category = 'small'
+        } else if (totalPrice < 500.0d) {
+            category = 'medium'
+        } else {
+            category = 'large'
+        }
+
+        out.collect(String.join(',',
+                transactionId,
+                customerId,
+                product,
+                String.valueOf(quantity),
+                String.format(Locale.US, '%.2f', unitPrice),
+                String.format(Locale.US, '%.2f', totalPrice),
+                category,
+                date))
+
+    } catch (NumberFormatException ignored) {
+        // Drop records with unparseable numeric fields
+    }
+}
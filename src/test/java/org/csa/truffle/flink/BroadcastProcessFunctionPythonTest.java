@@ -0,0 +1,173 @@
+package org.csa.truffle.flink;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.functions.windowing.AllWindowFunction;
+import org.apache.flink.streaming.api.windowing.assigners.TumblingEventTimeWindows;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.streaming.util.BroadcastOperatorTestHarness;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.ProcessFunctionTestHarnesses;
+import org.apache.flink.util.Collector;
+import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
+import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.resource.ResourceSource;
+import org.csa.truffle.source.resource.ResourceSourceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastProcessFunctionPythonTest {
+
+    private static final String[] CSV_RESOURCES = {"data/sales_q1.csv", "data/sales_q2.csv", "data/sales_q3.csv"};
+
+    private List<String> loadAllLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String r : CSV_RESOURCES) {
+            try (InputStream is = getClass().getClassLoader().getResourceAsStream(r)) {
+                lines.addAll(IOUtils.readLines(is, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+
+    /** The scripts {@link ProcessFunctionPython}'s default constructor loads. */
+    private static final ResourceSourceConfig BUNDLED = new ResourceSourceConfig(
+            "python", new String[]{"*.py"}, new String[]{"flink_types.py", "venv"});
+
+    private static ScriptSnapshot bundledScripts() throws Exception {
+        FileSource source = new ResourceSource(BUNDLED);
+        Map<String, String> contents = source.readFiles(source.listFiles().keySet());
+        return ScriptSnapshot.of(contents, Instant.now());
+    }
+
+    private static BroadcastOperatorTestHarness<String, ScriptSnapshot, String> harness() throws Exception {
+        return ProcessFunctionTestHarnesses.forBroadcastProcessFunction(
+                new BroadcastProcessFunctionPython(), BroadcastProcessFunctionPython.SNAPSHOT_STATE);
+    }
+
+    @Test
+    void broadcastScripts_produceSameOutputAsJava() throws Exception {
+        List<String> input = loadAllLines();
+        List<String> python;
+        try (BroadcastOperatorTestHarness<String, ScriptSnapshot, String> h = harness()) {
+            h.processBroadcastElement(bundledScripts(), 0L);
+            for (String line : input) {
+                h.processElement(line, 0L);
+            }
+            python = new ArrayList<>(h.extractOutputValues());
+        }
+
+        List<String> java = new ArrayList<>();
+        try (OneInputStreamOperatorTestHarness<String, String> h =
+                     ProcessFunctionTestHarnesses.forProcessFunction(new ProcessFunctionJava())) {
+            for (String line : input) {
+                h.processElement(line, 0L);
+            }
+            java.addAll(h.extractOutputValues());
+        }
+        Collections.sort(java);
+        Collections.sort(python);
+        assertEquals(java, python);
+    }
+
+    @Test
+    void recordsBeforeFirstSnapshot_areBufferedThenProcessed() throws Exception {
+        List<String> input = loadAllLines();
+        try (BroadcastOperatorTestHarness<String, ScriptSnapshot, String> h = harness()) {
+            for (String line : input) {
+                h.processElement(line, 0L);
+            }
+            assertTrue(h.extractOutputValues().isEmpty(), "nothing can be processed without scripts");
+
+            h.processBroadcastElement(bundledScripts(), 0L);
+            assertEquals(20, h.extractOutputValues().size());
+        }
+    }
+
+    @Test
+    void recordsBeyondMaxPending_failTheTask() throws Exception {
+        try (BroadcastOperatorTestHarness<String, ScriptSnapshot, String> h =
+                     ProcessFunctionTestHarnesses.forBroadcastProcessFunction(
+                             new BroadcastProcessFunctionPython(PolyglotAccessConfig.HOST, 2),
+                             BroadcastProcessFunctionPython.SNAPSHOT_STATE)) {
+            h.processElement("a", 0L);
+            h.processElement("b", 0L);
+            Exception e = assertThrows(Exception.class, () -> h.processElement("c", 0L));
+            assertTrue(e.getMessage().contains("No script snapshot"), e.getMessage());
+        }
+    }
+
+    /**
+     * Runs {@link BroadcastProcessFunctionPython#process} on a local MiniCluster. The output goes through
+     * an event-time window, which only fires if the script stream does not hold back the watermark.
+     */
+    @Test
+    @Timeout(120)
+    void process_onMiniCluster_matchesJavaAndAdvancesEventTime() throws Exception {
+        List<String> input = loadAllLines();
+        List<String> java = new ArrayList<>();
+        try (OneInputStreamOperatorTestHarness<String, String> h =
+                     ProcessFunctionTestHarnesses.forProcessFunction(new ProcessFunctionJava())) {
+            for (String line : input) {
+                h.processElement(line, 0L);
+            }
+            java.addAll(h.extractOutputValues());
+        }
+        Collections.sort(java);
+
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        DataStream<String> lines = env.fromData(input)
+                .assignTimestampsAndWatermarks(WatermarkStrategy.<String>forMonotonousTimestamps()
+                        .withTimestampAssigner((line, timestamp) -> 0L));
+        List<String> windows = BroadcastProcessFunctionPython.process(lines, BUNDLED, Duration.ofMillis(100))
+                .windowAll(TumblingEventTimeWindows.of(Duration.ofMinutes(1)))
+                .apply(new AllWindowFunction<String, String, TimeWindow>() {
+                    @Override
+                    public void apply(TimeWindow window, Iterable<String> rows, Collector<String> out) {
+                        List<String> sorted = new ArrayList<>();
+                        rows.forEach(sorted::add);
+                        Collections.sort(sorted);
+                        out.collect(String.join("\n", sorted));
+                    }
+                })
+                .executeAndCollect(1);
+
+        assertEquals(List.of(String.join("\n", java)), windows);
+    }
+
+    @Test
+    void brokenSnapshot_keepsPreviousVersion() throws Exception {
+        List<String> input = loadAllLines();
+        try (BroadcastOperatorTestHarness<String, ScriptSnapshot, String> h = harness()) {
+            h.processBroadcastElement(bundledScripts(), 0L);
+            h.processBroadcastElement(ScriptSnapshot.of(Map.of("broken.py", "def process_element(:"), Instant.now()), 0L);
+            for (String line : input) {
+                h.processElement(line, 0L);
+            }
+            assertEquals(20, h.extractOutputValues().size());
+        }
+    }
+
+    @Test
+    void snapshotVersion_dependsOnContentOnly() {
+        Instant now = Instant.now();
+        assertEquals(ScriptSnapshot.of(Map.of("a.py", "x"), now).version(),
+                ScriptSnapshot.of(Map.of("a.py", "x"), now.plusSeconds(1)).version());
+        assertNotEquals(ScriptSnapshot.of(Map.of("a.py", "x"), now).version(),
+                ScriptSnapshot.of(Map.of("a.py", "y"), now).version());
+    }
+}
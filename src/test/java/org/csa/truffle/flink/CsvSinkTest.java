@@ -0,0 +1,89 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.api.common.serialization.BulkWriter;
+import org.apache.flink.core.fs.local.LocalDataOutputStream;
+import org.apache.flink.streaming.api.functions.sink.filesystem.PartFileInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static PartFileInfo<String> part(long createdAt, long size) {
+        return new PartFileInfo<>() {
+            @Override
+            public String getBucketId() {
+                return "";
+            }
+
+            @Override
+            public long getCreationTime() {
+                return createdAt;
+            }
+
+            @Override
+            public long getSize() {
+                return size;
+            }
+
+            @Override
+            public long getLastUpdateTime() {
+                return createdAt;
+            }
+        };
+    }
+
+    @Test
+    void headerWriter_writesHeaderThenLines() throws Exception {
+        Path file = tempDir.resolve("part-0.csv");
+        try (LocalDataOutputStream out = new LocalDataOutputStream(file.toFile())) {
+            BulkWriter<String> writer = new CsvSink.HeaderWriterFactory("h1,h2").create(out);
+            writer.addElement("a,1");
+            writer.addElement("b,2");
+            writer.finish();
+        }
+        assertEquals(List.of("h1,h2", "a,1", "b,2"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void headerWriter_nullHeader_writesLinesOnly() throws Exception {
+        Path file = tempDir.resolve("part-0.csv");
+        try (LocalDataOutputStream out = new LocalDataOutputStream(file.toFile())) {
+            BulkWriter<String> writer = new CsvSink.HeaderWriterFactory(null).create(out);
+            writer.addElement("a,1");
+            writer.finish();
+        }
+        assertEquals(List.of("a,1"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rollingPolicy_rollsOnSizeTimeAndCheckpoint() throws Exception {
+        CsvSink.SizeOrTimeRollingPolicy policy = new CsvSink.SizeOrTimeRollingPolicy(100, Duration.ofSeconds(10));
+
+        assertFalse(policy.shouldRollOnEvent(part(0, 99), "x"));
+        assertTrue(policy.shouldRollOnEvent(part(0, 100), "x"));
+        assertFalse(policy.shouldRollOnProcessingTime(part(1_000, 0), 10_999));
+        assertTrue(policy.shouldRollOnProcessingTime(part(1_000, 0), 11_000));
+        assertTrue(policy.shouldRollOnCheckpoint(part(0, 0)));
+    }
+
+    @Test
+    void config_defaultsAndCopies() {
+        CsvSinkConfig config = new CsvSinkConfig("h");
+        assertEquals(128L * 1024 * 1024, config.maxPartBytes());
+        assertEquals(Duration.ofMinutes(15), config.rolloverInterval());
+        assertEquals(1024, config.withMaxPartBytes(1024).maxPartBytes());
+        assertEquals(Duration.ofSeconds(5), config.withRolloverInterval(Duration.ofSeconds(5)).rolloverInterval());
+        assertEquals("h", config.withMaxPartBytes(1024).header());
+    }
+}
@@ -2,12 +2,15 @@ package org.csa.truffle.flink;
 
 import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
 import org.apache.flink.streaming.util.ProcessFunctionTestHarnesses;
+import org.csa.truffle.scheduler.SchedulerConfig;
+import org.csa.truffle.source.resource.ResourceSourceConfig;
 import org.junit.jupiter.api.Test;
 
 import org.apache.commons.io.IOUtils;
 
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -56,6 +59,41 @@ class ProcessFunctionEquivalenceTest {
         assertEquals(out1, out2, "java and python must produce identical transformed output");
     }
 
+    @Test
+    void javaAndGroovyProduceIdenticalOutput() throws Exception {
+        List<String> input = loadAllLines();
+
+        List<String> java = new ArrayList<>(runThroughHarness(new ProcessFunctionJava(), input));
+        List<String> dynamic = new ArrayList<>(runThroughHarness(new ProcessFunctionGroovy(false), input));
+        List<String> statik = new ArrayList<>(runThroughHarness(new ProcessFunctionGroovy(true), input));
+
+        assertFalse(dynamic.isEmpty(), "groovy produced no output");
+
+        Collections.sort(java);
+        Collections.sort(dynamic);
+        Collections.sort(statik);
+        assertEquals(java, dynamic, "java and groovy must produce identical transformed output");
+        assertEquals(java, statik, "java and statically compiled groovy must produce identical transformed output");
+    }
+
+    @Test
+    void javaAndScriptFunctionProduceIdenticalOutputOnEitherEngine() throws Exception {
+        List<String> input = loadAllLines();
+        SchedulerConfig scheduler = new SchedulerConfig(Duration.ofMinutes(5));
+
+        List<String> java = new ArrayList<>(runThroughHarness(new ProcessFunctionJava(), input));
+        List<String> python = new ArrayList<>(runThroughHarness(new ProcessFunctionScript(new ResourceSourceConfig(
+                "python", new String[]{"*.py"}, new String[]{"flink_types.py", "venv"}), scheduler), input));
+        List<String> groovy = new ArrayList<>(runThroughHarness(new ProcessFunctionScript(new ResourceSourceConfig(
+                "groovy", new String[]{"*.groovy"}, new String[]{}), scheduler), input));
+
+        Collections.sort(java);
+        Collections.sort(python);
+        Collections.sort(groovy);
+        assertEquals(java, python, "java and python via ProcessFunctionScript must produce identical output");
+        assertEquals(java, groovy, "java and groovy via ProcessFunctionScript must produce identical output");
+    }
+
     @Test
     void outputHasExpectedRecordCount() throws Exception {
         List<String> out = runThroughHarness(new ProcessFunctionJava(), loadAllLines());
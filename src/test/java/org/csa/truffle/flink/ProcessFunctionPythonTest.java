@@ -0,0 +1,83 @@
+package org.csa.truffle.flink;
+
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.api.operators.ProcessOperator;
+import org.apache.flink.streaming.util.AbstractStreamOperatorTestHarness;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.csa.truffle.scheduler.SchedulerConfig;
+import org.csa.truffle.source.file.FileSystemSourceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessFunctionPythonTest {
+
+    private static final int MAX_PARALLELISM = 128;
+
+    @TempDir
+    Path tempDir;
+
+    private void writeScript(String version) throws Exception {
+        Files.writeString(tempDir.resolve("transform.py"),
+                "def process_element(line, out):\n    out.collect('" + version + ":' + line)\n");
+    }
+
+    private OneInputStreamOperatorTestHarness<String, String> harness(int parallelism, int subtask) throws Exception {
+        ProcessFunctionPython fn = new ProcessFunctionPython(
+                new FileSystemSourceConfig(tempDir.toString(), false), new SchedulerConfig(Duration.ofMinutes(5)));
+        return new OneInputStreamOperatorTestHarness<>(new ProcessOperator<>(fn), MAX_PARALLELISM, parallelism, subtask);
+    }
+
+    @Test
+    void restoreIntoHigherParallelism_everySubtaskRunsCheckpointedScripts() throws Exception {
+        writeScript("v1");
+        OperatorSubtaskState snapshot;
+        try (OneInputStreamOperatorTestHarness<String, String> h = harness(1, 0)) {
+            h.open();
+            h.processElement("a", 0L);
+            assertEquals(List.of("v1:a"), h.extractOutputValues());
+            snapshot = h.snapshot(1L, 0L);
+        }
+
+        // the source moves on while the job is down
+        writeScript("v2");
+
+        for (int subtask = 0; subtask < 3; subtask++) {
+            OperatorSubtaskState repartitioned = AbstractStreamOperatorTestHarness.repartitionOperatorState(
+                    snapshot, MAX_PARALLELISM, 1, 3, subtask);
+            try (OneInputStreamOperatorTestHarness<String, String> h = harness(3, subtask)) {
+                h.initializeState(repartitioned);
+                h.open();
+                h.processElement("b", 0L);
+                assertEquals(List.of("v1:b"), h.extractOutputValues(), "subtask " + subtask);
+            }
+        }
+    }
+
+    @Test
+    void onlyFirstSubtaskSnapshotsScripts() throws Exception {
+        writeScript("v1");
+        OperatorSubtaskState fromSecond;
+        try (OneInputStreamOperatorTestHarness<String, String> h = harness(2, 1)) {
+            h.open();
+            fromSecond = h.snapshot(1L, 0L);
+        }
+
+        // nothing restored: the subtask loads the current source
+        writeScript("v2");
+        OperatorSubtaskState repartitioned = AbstractStreamOperatorTestHarness.repartitionOperatorState(
+                fromSecond, MAX_PARALLELISM, 2, 1, 0);
+        try (OneInputStreamOperatorTestHarness<String, String> h = harness(1, 0)) {
+            h.initializeState(repartitioned);
+            h.open();
+            h.processElement("c", 0L);
+            assertEquals(List.of("v2:c"), h.extractOutputValues());
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.csa.truffle.flink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruffleJobTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void streamingTransform_matchesInMemoryTransform() throws Exception {
+        List<String> expected = new ArrayList<>(
+                TruffleJob.runTransform(TruffleJob.loadCsvLines(), new ProcessFunctionJava()));
+
+        Path output = tempDir.resolve("out").resolve("sales_transformed.csv");
+        long rows = TruffleJob.runTransform(TruffleJob.csvResourcePaths(), new ProcessFunctionJava(), 2, output);
+
+        List<String> written = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertTrue(written.get(0).startsWith("transactionId,"), "header must be first");
+        List<String> actual = new ArrayList<>(written.subList(1, written.size()));
+
+        assertEquals(expected.size(), rows);
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void sinkTransform_writesPartFilesWithHeader() throws Exception {
+        List<String> expected = new ArrayList<>(
+                TruffleJob.runTransform(TruffleJob.loadCsvLines(), new ProcessFunctionJava()));
+
+        Path outputDir = tempDir.resolve("sales_transformed");
+        TruffleJob.runTransform(TruffleJob.csvResourcePaths(), new ProcessFunctionJava(), 2, outputDir,
+                new CsvSinkConfig(TruffleJob.OUTPUT_HEADER));
+
+        List<Path> parts;
+        try (Stream<Path> files = Files.list(outputDir)) {
+            parts = files.filter(f -> f.getFileName().toString().startsWith("part-")).toList();
+        }
+        assertFalse(parts.isEmpty(), "no committed part files");
+
+        List<String> actual = new ArrayList<>();
+        for (Path part : parts) {
+            List<String> lines = Files.readAllLines(part, StandardCharsets.UTF_8);
+            assertEquals(TruffleJob.OUTPUT_HEADER, lines.get(0), "every part file starts with the header");
+            actual.addAll(lines.subList(1, lines.size()));
+        }
+        Collections.sort(expected);
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void writeOutput_writesHeaderThenLines() throws Exception {
+        Path output = tempDir.resolve("a").resolve("b.csv");
+        long rows = TruffleJob.writeOutput(output, List.of("r1", "r2").iterator());
+
+        assertEquals(2, rows);
+        assertEquals(List.of("transactionId,customerId,product,quantity,unitPrice,totalPrice,category,date", "r1", "r2"),
+                Files.readAllLines(output, StandardCharsets.UTF_8));
+    }
+}
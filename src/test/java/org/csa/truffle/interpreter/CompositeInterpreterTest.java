@@ -0,0 +1,104 @@
+package org.csa.truffle.interpreter;
+
+import org.csa.truffle.interpreter.groovy.GroovyCallable;
+import org.csa.truffle.interpreter.groovy.GroovyEngine;
+import org.csa.truffle.interpreter.groovy.GroovyInterpreter;
+import org.csa.truffle.interpreter.polyglot.PolyglotEngine;
+import org.csa.truffle.interpreter.polyglot.PolyglotFunction;
+import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
+import org.csa.truffle.interpreter.polyglot.TruffleLanguage;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeInterpreterTest {
+
+    private static CompositeInterpreter mixed() {
+        return new CompositeInterpreter(List.of(new PolyglotEngine(), new GroovyEngine()));
+    }
+
+    @Test
+    void filesOfDifferentEngines_loadedInIndexOrder() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.py", "def fn(x): return x + 1");
+        files.put("b.groovy", "def fn(x) { x + 2 }");
+        files.put("c.js", "function fn(x) { return x + 3; }");
+        try (CompositeInterpreter interp = mixed()) {
+            interp.addContexts(files);
+            assertEquals(List.of("a.py", "b.groovy", "c.js"), interp.getContexts());
+            assertInstanceOf(PolyglotInterpreter.class, interp.getInterpreter("a.py"));
+            assertInstanceOf(GroovyInterpreter.class, interp.getInterpreter("b.groovy"));
+            assertSame(interp.getInterpreter("a.py"), interp.getInterpreter("c.js"));
+        }
+    }
+
+    @Test
+    void getFunction_returnsEngineFunctionTypes() throws Exception {
+        try (CompositeInterpreter interp = mixed()) {
+            interp.addContext("a.py", "def fn(x): return x * 2");
+            interp.addContext("b.groovy", "def fn(x) { x * 3 }");
+
+            ScriptFunction python = interp.getFunction("a.py", "fn");
+            ScriptFunction groovy = interp.getFunction("b.groovy", "fn");
+            assertInstanceOf(PolyglotFunction.class, python);
+            assertInstanceOf(GroovyCallable.class, groovy);
+            assertEquals(4, ((PolyglotFunction) python).call(2).asInt());
+            assertEquals(6, groovy.call(2));
+        }
+    }
+
+    @Test
+    void hasMember_andMemberNames_delegate() throws Exception {
+        try (CompositeInterpreter interp = mixed()) {
+            interp.addContext("a.groovy", "def fn() { 1 }");
+            assertTrue(interp.hasMember("a.groovy", "fn"));
+            assertFalse(interp.hasMember("a.groovy", "other"));
+            assertEquals(Set.of("fn"), interp.getMemberNames("a.groovy"));
+        }
+    }
+
+    @Test
+    void unknownExtension_rejectedBeforeLoading() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.groovy", "def fn() { 1 }");
+        files.put("b.txt", "hello");
+        try (CompositeInterpreter interp = mixed()) {
+            assertThrows(IllegalArgumentException.class, () -> interp.addContexts(files));
+            assertTrue(interp.getContexts().isEmpty());
+        }
+    }
+
+    @Test
+    void engineFor_firstEngineClaimingExtensionWins() {
+        GroovyEngine first = new GroovyEngine(true);
+        CompositeInterpreter interp = new CompositeInterpreter(List.of(first, new GroovyEngine(false)));
+        assertSame(first, interp.engineFor("X.GROOVY"));
+    }
+
+    @Test
+    void removeContext_removesFromEngineInterpreter() throws Exception {
+        try (CompositeInterpreter interp = mixed()) {
+            interp.addContexts(Map.of("a.groovy", "def fn() { 1 }"));
+            ScriptInterpreter groovy = interp.getInterpreter("a.groovy");
+            interp.removeContext("a.groovy");
+            assertFalse(interp.hasContext("a.groovy"));
+            assertFalse(groovy.hasContext("a.groovy"));
+            assertThrows(NoSuchElementException.class, () -> interp.getFunction("a.groovy", "fn"));
+        }
+    }
+
+    @Test
+    void truffleLanguage_forFileName_byExtension() {
+        assertEquals(Optional.of(TruffleLanguage.PYTHON), TruffleLanguage.forFileName("dir/a.py"));
+        assertEquals(Optional.of(TruffleLanguage.JS), TruffleLanguage.forFileName("A.JS"));
+        assertEquals(Optional.of(TruffleLanguage.WASM), TruffleLanguage.forFileName("m.wasm"));
+        assertEquals(Optional.empty(), TruffleLanguage.forFileName("b.groovy"));
+    }
+}
@@ -0,0 +1,105 @@
+package org.csa.truffle.interpreter.groovy;
+
+import groovy.lang.Script;
+import org.apache.flink.util.Collector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of calling a Groovy {@code processElement(String, Collector)}:
+ * <ul>
+ *   <li>{@code invokeMethod} — the previous path, dispatch through Groovy's meta-object protocol;</li>
+ *   <li>{@code callVarargs} — {@link GroovyCallable#call(Object...)} on the bound method handle;</li>
+ *   <li>{@code callFixedArity} — {@link GroovyCallable#call2}, as used by {@code ProcessFunctionGroovy}.</li>
+ * </ul>
+ * Run with {@code mvn test-compile exec:exec@bench}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroovyCallableBenchmark {
+
+    private static final String SCRIPT = """
+            import org.apache.flink.util.Collector
+
+            void processElement(String line, Collector<String> out) {
+                String[] f = line.split(',', -1)
+                if (f.length == 6) {
+                    out.collect(f[0] + ',' + (Integer.parseInt(f[3]) * Double.parseDouble(f[4])))
+                }
+            }
+            """;
+
+    private static final String LINE = "T1,C1,Widget,3,40.50,2024-01-01";
+
+    @Param({"false", "true"})
+    public boolean compileStatic;
+
+    private GroovyInterpreter interpreter;
+    private Script script;
+    private GroovyCallable callable;
+    private BlackholeCollector out;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        interpreter = new GroovyInterpreter(compileStatic);
+        interpreter.addContext("bench.groovy", SCRIPT);
+        script = interpreter.getContext("bench.groovy").script();
+        callable = interpreter.getMember("bench.groovy", "processElement");
+        out = new BlackholeCollector(blackhole);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        interpreter.close();
+    }
+
+    @Benchmark
+    public Object invokeMethod() {
+        return script.invokeMethod("processElement", new Object[]{LINE, out});
+    }
+
+    @Benchmark
+    public Object callVarargs() {
+        return callable.call(LINE, out);
+    }
+
+    @Benchmark
+    public Object callFixedArity() {
+        return callable.call2(LINE, out);
+    }
+
+    static final class BlackholeCollector implements Collector<String> {
+        private final Blackhole blackhole;
+
+        BlackholeCollector(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void collect(String record) {
+            blackhole.consume(record);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.csa.truffle.interpreter.groovy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroovyClassCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    /** A closure and a superclass declared after its subclass, i.e. several classes that refer to each other. */
+    private static final String SCRIPT = """
+            class Loud extends Base { String shout(String s) { tag(s.toUpperCase()) } }
+            class Base { String tag(String s) { '<' + s + '>' } }
+            def fn(List<String> xs) { xs.collect { new Loud().shout(it) }.join(',') }
+            """;
+
+    private GroovyClassCache cache() {
+        return new GroovyClassCache(new GroovyClassCacheConfig(cacheDir.toString()));
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            return walk.filter(p -> p.toString().endsWith(".classes")).toList();
+        }
+    }
+
+    private static void load(GroovyClassCache cache, String name, String content) {
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext(name, content);
+        }
+    }
+
+    @Test
+    void coldStart_compilesAndStores() throws Exception {
+        GroovyClassCache cache = cache();
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext("a.groovy", SCRIPT);
+            assertEquals("<A>,<B>", interp.execute("a.groovy", "fn", List.of("a", "b")));
+        }
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, entries().size());
+    }
+
+    @Test
+    void warmStart_definesClassesWithoutCompiling() {
+        load(cache(), "a.groovy", SCRIPT);
+
+        GroovyClassCache cache = cache();
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext("a.groovy", SCRIPT);
+            assertEquals(1, cache.getHits());
+            assertEquals(0, cache.getMisses());
+            assertEquals("<X>,<Y>", interp.execute("a.groovy", "fn", List.of("x", "y")));
+        }
+    }
+
+    @Test
+    void warmStart_addContexts_usesCache() {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.groovy", "def fn() { 1 }");
+        files.put("b.groovy", "def fn() { 2 }");
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache())) {
+            interp.addContexts(files);
+        }
+
+        GroovyClassCache cache = cache();
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContexts(files);
+            assertEquals(2, cache.getHits());
+            assertEquals(Map.of("a.groovy", 1, "b.groovy", 2), interp.executeAll("fn"));
+        }
+    }
+
+    @Test
+    void changedContent_orName_orCompileMode_misses() throws Exception {
+        load(cache(), "a.groovy", "def fn() { 1 }");
+
+        GroovyClassCache cache = cache();
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext("a.groovy", "def fn() { 2 }");
+            interp.addContext("b.groovy", "def fn() { 1 }");
+        }
+        try (GroovyInterpreter interp = new GroovyInterpreter(true, cache)) {
+            interp.addContext("a.groovy", "def fn() { 1 }");
+        }
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(4, entries().size());
+    }
+
+    @Test
+    void changedClasspathJar_misses() throws Exception {
+        Path jar = Files.createDirectories(cacheDir.resolve("lib")).resolve("lib.jar");
+        writeJar(jar, "v1");
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, previous)) {
+            thread.setContextClassLoader(loader);
+            GroovyClassCache cache = cache();
+            load(cache, "a.groovy", SCRIPT);
+            load(cache, "a.groovy", SCRIPT);
+            assertEquals(1, cache.getHits());
+
+            writeJar(jar, "v2, rebuilt");
+            load(cache, "a.groovy", SCRIPT);
+            assertEquals(1, cache.getHits());
+            assertEquals(2, cache.getMisses());
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    void sameJarUnderAnotherName_hits() throws Exception {
+        Path lib = Files.createDirectories(cacheDir.resolve("lib"));
+        Path jar = lib.resolve("lib-1.jar");
+        writeJar(jar, "v1");
+        Path reuploaded = lib.resolve("lib-2.jar");
+        Files.copy(jar, reuploaded);
+        Files.setLastModifiedTime(reuploaded, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 60_000));
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        GroovyClassCache cache = cache();
+        try {
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, previous)) {
+                thread.setContextClassLoader(loader);
+                load(cache, "a.groovy", SCRIPT);
+            }
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{reuploaded.toUri().toURL()}, previous)) {
+                thread.setContextClassLoader(loader);
+                load(cache, "a.groovy", SCRIPT);
+            }
+            assertEquals(1, cache.getHits());
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static void writeJar(Path jar, String version) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("version.txt"));
+            out.write(version.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+    }
+
+    @Test
+    void corruptEntry_isDeletedAndRecompiled() throws Exception {
+        load(cache(), "a.groovy", SCRIPT);
+        Path entry = entries().get(0);
+        byte[] bytes = Files.readAllBytes(entry);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(entry, bytes);
+
+        GroovyClassCache cache = cache();
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext("a.groovy", SCRIPT);
+            assertEquals("<A>", interp.execute("a.groovy", "fn", List.of("a")));
+        }
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // rewritten intact
+        GroovyClassCache again = cache();
+        load(again, "a.groovy", SCRIPT);
+        assertEquals(1, again.getHits());
+    }
+
+    @Test
+    void truncatedEntry_isDeletedAndRecompiled() throws Exception {
+        load(cache(), "a.groovy", SCRIPT);
+        Path entry = entries().get(0);
+        Files.write(entry, new byte[]{1, 2, 3});
+
+        GroovyClassCache cache = cache();
+        load(cache, "a.groovy", SCRIPT);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void overMaxBytes_evictsLeastRecentlyUsed() throws Exception {
+        load(cache(), "a.groovy", "def fn() { 1 }");
+        Path old = entries().get(0);
+        long size = Files.size(old);
+        Files.setLastModifiedTime(old, FileTime.fromMillis(0));
+
+        // room for one entry
+        load(new GroovyClassCache(new GroovyClassCacheConfig(cacheDir.toString(), size + size / 2)),
+                "b.groovy", "def fn() { 1 }");
+        List<Path> remaining = entries();
+        assertEquals(1, remaining.size());
+        assertNotEquals(old, remaining.get(0));
+    }
+
+    @Test
+    void unwritableCacheDir_stillLoads() throws Exception {
+        Path file = Files.createFile(cacheDir.resolve("not-a-dir"));
+        GroovyClassCache cache = new GroovyClassCache(new GroovyClassCacheConfig(file.toString()));
+        try (GroovyInterpreter interp = new GroovyInterpreter(false, cache)) {
+            interp.addContext("a.groovy", "def fn() { 42 }");
+            assertEquals(42, interp.execute("a.groovy", "fn"));
+        }
+    }
+}
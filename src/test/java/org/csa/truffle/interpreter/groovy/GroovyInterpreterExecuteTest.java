@@ -135,4 +135,62 @@ class GroovyInterpreterExecuteTest {
             assertEquals(List.of("has:x"), col.output);
         }
     }
+
+    @Test
+    void fixedArityCall_matchesVarargsCall() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", "def fn(x, out) { out.collect('a:' + x); x.size() }"))) {
+            TestCollector col = new TestCollector();
+            GroovyCallable fn = interp.getMember("a.groovy", "fn");
+            assertEquals(5, fn.call2("hello", col));
+            assertEquals(5, fn.call("hello", col));
+            assertEquals(List.of("a:hello", "a:hello"), col.output);
+        }
+    }
+
+    @Test
+    void defaultParameters_dispatchByArgumentCount() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", "def fn(x, y = 'd') { x + y }"))) {
+            GroovyCallable fn = interp.getMember("a.groovy", "fn");
+            assertEquals("ad", fn.call1("a"));
+            assertEquals("ab", fn.call2("a", "b"));
+        }
+    }
+
+    @Test
+    void wrongArgumentCount_reportedByGroovy() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", "def fn(x) { x }"))) {
+            assertThrows(groovy.lang.MissingMethodException.class,
+                    () -> interp.getMember("a.groovy", "fn").call2("a", "b"));
+        }
+    }
+
+    @Test
+    void scriptException_propagatesUnwrapped() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", "def fn() { throw new IOException('boom') }"))) {
+            Exception e = assertThrows(Exception.class, () -> interp.getMember("a.groovy", "fn").call0());
+            assertInstanceOf(java.io.IOException.class, e);
+        }
+    }
+
+    @Test
+    void typedParameter_argumentCoercedLikeGroovy() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy",
+                "String greet(String s) { 'hi ' + s }\nint len(String s) { s == null ? -1 : s.length() }"))) {
+            Object gstring = new org.codehaus.groovy.runtime.GStringImpl(new Object[]{"you"}, new String[]{"there ", ""});
+            assertEquals("hi there you", interp.getMember("a.groovy", "greet").call1(gstring));
+            assertEquals("hi there you", interp.getMember("a.groovy", "greet").call(gstring));
+            assertEquals(-1, interp.getMember("a.groovy", "len").call1(null));
+        }
+    }
+
+    @Test
+    void typedParameter_classCastInBody_propagatesWithoutRetry() {
+        String script = "@groovy.transform.Field int calls = 0\n"
+                + "def fn(String s) { calls++; (Integer) (Object) s }\n"
+                + "int callCount() { calls }";
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", script))) {
+            assertThrows(ClassCastException.class, () -> interp.getMember("a.groovy", "fn").call1("x"));
+            assertEquals(1, interp.getMember("a.groovy", "callCount").call0());
+        }
+    }
 }
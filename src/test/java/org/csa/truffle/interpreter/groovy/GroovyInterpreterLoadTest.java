@@ -2,10 +2,14 @@ package org.csa.truffle.interpreter.groovy;
 
 import org.junit.jupiter.api.Test;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,11 +92,83 @@ class GroovyInterpreterLoadTest {
     }
 
     @Test
-    void addContext_duplicateId_throwsIllegalArgumentException() {
+    void addContext_sameContent_keepsContext() {
         try (GroovyInterpreter interp = new GroovyInterpreter()) {
             interp.addContext("a.groovy", "def fn() { 1 }");
-            assertThrows(IllegalArgumentException.class,
-                    () -> interp.addContext("a.groovy", "def fn() { 2 }"));
+            GroovyScriptContext first = interp.getContext("a.groovy");
+            interp.addContext("a.groovy", "def fn() { 1 }");
+            assertSame(first, interp.getContext("a.groovy"));
+        }
+    }
+
+    @Test
+    void addContext_changedContent_replacesOnlyThatContext() {
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            interp.addContext("a.groovy", "def fn() { 1 }");
+            interp.addContext("b.groovy", "def fn() { 2 }");
+            GroovyScriptContext b = interp.getContext("b.groovy");
+            Class<?> oldClass = interp.getContext("a.groovy").script().getClass();
+
+            interp.addContext("a.groovy", "def fn() { 10 }");
+
+            assertEquals(10, interp.execute("a.groovy", "fn"));
+            assertNotSame(oldClass, interp.getContext("a.groovy").script().getClass());
+            assertNotSame(oldClass.getClassLoader(), interp.getContext("a.groovy").script().getClass().getClassLoader());
+            assertSame(b, interp.getContext("b.groovy"));
+            assertEquals(List.of("a.groovy", "b.groovy"), interp.getContexts());
+        }
+    }
+
+    @Test
+    void addContext_brokenChange_keepsPreviousVersion() {
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            interp.addContext("a.groovy", "def fn() { 1 }");
+            assertThrows(RuntimeException.class, () -> interp.addContext("a.groovy", "def fn( {"));
+            assertEquals(1, interp.execute("a.groovy", "fn"));
+        }
+    }
+
+    @Test
+    void applyContents_unchangedScriptKeepsClass() throws Exception {
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            LinkedHashMap<String, String> first = new LinkedHashMap<>();
+            first.put("a.groovy", "def fn() { 1 }");
+            first.put("c.groovy", "def fn() { 3 }");
+            first.put("d.groovy", "def fn() { 4 }");
+            interp.applyContents(first);
+            Class<?> aClass = interp.getContext("a.groovy").script().getClass();
+            Class<?> cClass = interp.getContext("c.groovy").script().getClass();
+
+            LinkedHashMap<String, String> second = new LinkedHashMap<>();
+            second.put("a.groovy", "def fn() { 1 }");
+            second.put("b.groovy", "def fn() { 2 }");
+            second.put("c.groovy", "def fn() { 30 }");
+            Map<String, Duration> compiled = interp.applyContents(second);
+
+            assertEquals(Set.of("b.groovy", "c.groovy"), compiled.keySet());
+            assertSame(aClass, interp.getContext("a.groovy").script().getClass());
+            assertNotSame(cClass, interp.getContext("c.groovy").script().getClass());
+            assertEquals(30, interp.execute("c.groovy", "fn"));
+            assertEquals(List.of("a.groovy", "b.groovy", "c.groovy"), interp.getContexts());
+        }
+    }
+
+    @Test
+    void applyContents_compileFailure_removesNothing() throws Exception {
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            interp.applyContents(Map.of("a.groovy", "def fn() { 1 }", "b.groovy", "def fn() { 2 }"));
+            assertThrows(RuntimeException.class, () -> interp.applyContents(Map.of("a.groovy", "def fn( {")));
+            assertEquals(Set.of("a.groovy", "b.groovy"), Set.copyOf(interp.getContexts()));
+            assertEquals(1, interp.execute("a.groovy", "fn"));
+        }
+    }
+
+    @Test
+    void removeContext_dropsContext() {
+        try (GroovyInterpreter interp = build(Map.of("a.groovy", "def fn() { 1 }"))) {
+            interp.removeContext("a.groovy");
+            assertFalse(interp.hasContext("a.groovy"));
+            assertThrows(NoSuchElementException.class, () -> interp.removeContext("a.groovy"));
         }
     }
 
@@ -132,4 +208,110 @@ class GroovyInterpreterLoadTest {
         assertEquals(List.of("c.groovy"), interp.getContexts());
         interp.close();
     }
+
+    @Test
+    void compileStatic_typedScript_loadsAndRuns() {
+        try (GroovyInterpreter interp = new GroovyInterpreter(true)) {
+            interp.addContext("a.groovy", "int twice(int x) { x * 2 }");
+            assertTrue(interp.isCompileStatic());
+            assertEquals(42, interp.execute("a.groovy", "twice", 21));
+        }
+    }
+
+    @Test
+    void compileStatic_typeError_failsOnLoad() {
+        String unresolved = "String fn(String s) { s.noSuchMethod() }";
+        try (GroovyInterpreter dynamic = new GroovyInterpreter()) {
+            assertDoesNotThrow(() -> dynamic.addContext("a.groovy", unresolved));
+        }
+        try (GroovyInterpreter statik = new GroovyInterpreter(true)) {
+            assertThrows(RuntimeException.class, () -> statik.addContext("a.groovy", unresolved));
+            assertFalse(statik.hasContext("a.groovy"));
+        }
+    }
+
+    @Test
+    void compileStatic_survivesReset() {
+        try (GroovyInterpreter interp = new GroovyInterpreter(true)) {
+            interp.reset();
+            assertThrows(RuntimeException.class, () -> interp.addContext("a.groovy", "def fn(String s) { s.nope() }"));
+        }
+    }
+
+    @Test
+    void addContexts_compilesAllAndKeepsIndexOrder() {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        for (int i = 0; i < 16; i++) {
+            files.put("s" + i + ".groovy", "binding.setVariable('order', (binding.hasVariable('order') ? order : '') + '" + i + ",')\n"
+                    + "def fn() { " + i + " }");
+        }
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            Map<String, java.time.Duration> times = interp.addContexts(files);
+            assertEquals(List.copyOf(files.keySet()), List.copyOf(times.keySet()));
+            assertEquals(List.copyOf(files.keySet()), interp.getContexts());
+            assertEquals(7, interp.execute("s7.groovy", "fn"));
+            // bodies ran one at a time, in index order
+            assertEquals("0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,",
+                    interp.getContext("s0.groovy").script().getBinding().getVariable("order"));
+        }
+    }
+
+    @Test
+    void close_endsCompileThreads() throws Exception {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        // compile threads inherit the submitting thread's context loader: marks this interpreter's threads
+        ClassLoader marker = new URLClassLoader(new URL[0], previous);
+        thread.setContextClassLoader(marker);
+        try {
+            GroovyInterpreter interp = new GroovyInterpreter();
+            interp.addContexts(Map.of("a.groovy", "def fn() { 1 }", "b.groovy", "def fn() { 2 }"));
+            assertTrue(compileThreads(marker) > 0);
+
+            interp.close();
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (compileThreads(marker) > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, compileThreads(marker));
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private static long compileThreads(ClassLoader contextLoader) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("GroovyInterpreter-compile") && t.getContextClassLoader() == contextLoader)
+                .count();
+    }
+
+    @Test
+    void addContexts_skipsUnchangedScripts() {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.groovy", "def fn() { 1 }");
+        files.put("b.groovy", "def fn() { 2 }");
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            interp.addContexts(files);
+            GroovyScriptContext a = interp.getContext("a.groovy");
+
+            files.put("b.groovy", "def fn() { 20 }");
+            Map<String, java.time.Duration> times = interp.addContexts(files);
+
+            assertEquals(Set.of("b.groovy"), times.keySet());
+            assertSame(a, interp.getContext("a.groovy"));
+            assertEquals(20, interp.execute("b.groovy", "fn"));
+        }
+    }
+
+    @Test
+    void addContexts_compileFailure_installsNothing() {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.groovy", "def fn() { 1 }");
+        files.put("broken.groovy", "def fn( {");
+        files.put("c.groovy", "def fn() { 3 }");
+        try (GroovyInterpreter interp = new GroovyInterpreter()) {
+            assertThrows(RuntimeException.class, () -> interp.addContexts(files));
+            assertTrue(interp.getContexts().isEmpty());
+        }
+    }
 }
@@ -107,6 +107,18 @@ class PolyglotInterpreterPythonLoadTest {
         }
     }
 
+    @Test
+    void addContext_changedContentFailsToEvaluate_keepsPreviousVersion() throws Exception {
+        try (PolyglotInterpreter interp = new PolyglotInterpreter()) {
+            interp.addContext(TruffleLanguage.PYTHON, "a.py", "x = 1");
+            assertThrows(Exception.class, () -> interp.addContext(TruffleLanguage.PYTHON, "a.py", "x = ("));
+            assertEquals(1, interp.getMember("a.py", "x").asInt());
+
+            interp.closeReplaced(); // nothing was replaced
+            assertEquals(1, interp.getMember("a.py", "x").asInt());
+        }
+    }
+
     @Test
     void removeContext_removesContext() throws Exception {
         PolyglotInterpreter interp = new PolyglotInterpreter();
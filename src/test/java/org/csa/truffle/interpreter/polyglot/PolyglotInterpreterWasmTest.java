@@ -0,0 +1,77 @@
+package org.csa.truffle.interpreter.polyglot;
+
+import org.csa.truffle.source.BinaryContent;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolyglotInterpreterWasmTest {
+
+    /**
+     * Module exporting {@code add(i32, i32) -> i32} and {@code process_element(f64, f64) -> f64} (product).
+     */
+    private static final byte[] MODULE = bytes(
+            0x00, 0x61, 0x73, 0x6d, 0x01, 0x00, 0x00, 0x00,
+            // type section: (i32, i32) -> i32, (f64, f64) -> f64
+            0x01, 0x0d, 0x02, 0x60, 0x02, 0x7f, 0x7f, 0x01, 0x7f, 0x60, 0x02, 0x7c, 0x7c, 0x01, 0x7c,
+            // function section: types of functions 0 and 1
+            0x03, 0x03, 0x02, 0x00, 0x01,
+            // export section: "add" -> 0, "process_element" -> 1
+            0x07, 0x19, 0x02, 0x03, 'a', 'd', 'd', 0x00, 0x00,
+            0x0f, 'p', 'r', 'o', 'c', 'e', 's', 's', '_', 'e', 'l', 'e', 'm', 'e', 'n', 't', 0x00, 0x01,
+            // code section: local.get 0, local.get 1, i32.add / f64.mul
+            0x0a, 0x11, 0x02,
+            0x07, 0x00, 0x20, 0x00, 0x20, 0x01, 0x6a, 0x0b,
+            0x07, 0x00, 0x20, 0x00, 0x20, 0x01, 0xa2, 0x0b);
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    void addContext_byExtension_exportsAreMembers() throws Exception {
+        try (PolyglotInterpreter interp = new PolyglotInterpreter()) {
+            interp.addContext("kernel.wasm", BinaryContent.encode(MODULE));
+            assertEquals(TruffleLanguage.WASM, interp.getContext("kernel.wasm").language());
+            assertEquals(Set.of("add", "process_element"), interp.getMemberNames("kernel.wasm"));
+        }
+    }
+
+    @Test
+    void getFunction_typedNumericCalls() throws Exception {
+        try (PolyglotInterpreter interp = new PolyglotInterpreter()) {
+            interp.addContext("kernel.wasm", BinaryContent.encode(MODULE));
+            assertEquals(5, interp.getFunction("kernel.wasm", "add").callInt(2, 3));
+            assertEquals(5L, interp.getFunction("kernel.wasm", "add").callLong(2L, 3L));
+            assertEquals(7.5, interp.getFunction("kernel.wasm", "process_element").callDouble(2.5, 3.0));
+        }
+    }
+
+    @Test
+    void sharedContextConfig_moduleStillInstantiatedOnItsOwn() throws Exception {
+        PolyglotAccessConfig shared = PolyglotAccessConfig.HOST.withSharedContext(true);
+        try (PolyglotInterpreter interp = new PolyglotInterpreter(shared)) {
+            interp.addContext("a.wasm", BinaryContent.encode(MODULE));
+            interp.addContext("b.wasm", BinaryContent.encode(MODULE));
+            assertFalse(interp.getContext("a.wasm").isShared());
+            assertEquals(3, interp.getFunction("b.wasm", "add").callInt(1, 2));
+        }
+    }
+
+    @Test
+    void invalidModule_throwsAndKeepsNothing() {
+        try (PolyglotInterpreter interp = new PolyglotInterpreter()) {
+            assertThrows(Exception.class,
+                    () -> interp.addContext("bad.wasm", BinaryContent.encode(bytes(0x00, 0x61, 0x73))));
+            assertFalse(interp.hasContext("bad.wasm"));
+            assertThrows(NoSuchElementException.class, () -> interp.getFunction("bad.wasm", "add"));
+        }
+    }
+}
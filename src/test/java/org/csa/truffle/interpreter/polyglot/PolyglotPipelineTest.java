@@ -0,0 +1,122 @@
+package org.csa.truffle.interpreter.polyglot;
+
+import org.apache.flink.util.Collector;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolyglotPipelineTest {
+
+    static class TestCollector implements Collector<String> {
+        final List<String> output = new ArrayList<>();
+        @Override public void collect(String v) { output.add(v); }
+        @Override public void close() {}
+    }
+
+    private static PolyglotInterpreter build(PolyglotAccessConfig config, Map<String, String> files) throws Exception {
+        PolyglotInterpreter interp = new PolyglotInterpreter(config);
+        for (Map.Entry<String, String> e : files.entrySet()) {
+            interp.addContext(TruffleLanguage.PYTHON, e.getKey(), e.getValue());
+        }
+        return interp;
+    }
+
+    private static PolyglotInterpreter shared(Map<String, String> files) throws Exception {
+        return build(PolyglotAccessConfig.HOST.withSharedContext(true), files);
+    }
+
+    @Test
+    void stages_passLanguageValuesInOrder() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("1_parse.py", "def process_element(x, out): out.collect({'v': x, 'n': len(x)})");
+        files.put("2_format.py", "def process_element(d, out): out.collect(d['v'].upper() + ':' + str(d['n']))");
+        try (PolyglotInterpreter interp = shared(files)) {
+            TestCollector col = new TestCollector();
+            interp.pipeline("process_element").process("hello", col);
+            assertEquals(List.of("HELLO:5"), col.output);
+        }
+    }
+
+    @Test
+    void stages_canFilterAndFanOut() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("split.py", "def process_element(x, out):\n    for p in x.split(','):\n        out.collect(p)");
+        files.put("filter.py", "def process_element(x, out):\n    if x != 'b':\n        out.collect(x)");
+        try (PolyglotInterpreter interp = shared(files)) {
+            TestCollector col = new TestCollector();
+            interp.pipeline("process_element").process("a,b,c", col);
+            assertEquals(List.of("a", "c"), col.output);
+        }
+    }
+
+    @Test
+    void sourcesWithoutMember_areNotStages() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("helpers.py", "def shout(x): return x.upper()");
+        files.put("stage.py", "from helpers import shout\ndef process_element(x, out): out.collect(shout(x))");
+        try (PolyglotInterpreter interp = shared(files)) {
+            PolyglotPipeline pipeline = interp.pipeline("process_element");
+            assertEquals(List.of("stage.py"), pipeline.getStages());
+
+            TestCollector col = new TestCollector();
+            pipeline.process("hi", col);
+            assertEquals(List.of("HI"), col.output);
+        }
+    }
+
+    @Test
+    void stages_keepTheirOwnHelpersOfTheSameName() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("1_a.py", "def fmt(x): return x + '-a'\ndef process_element(x, out): out.collect(fmt(x))");
+        files.put("2_b.py", "def fmt(x): return x + '-b'\ndef process_element(x, out): out.collect(fmt(x))");
+        try (PolyglotInterpreter interp = shared(files)) {
+            TestCollector col = new TestCollector();
+            interp.pipeline("process_element").process("in", col);
+            assertEquals(List.of("in-a-b"), col.output);
+        }
+    }
+
+    @Test
+    void removedStage_canNoLongerBeImported() throws Exception {
+        try (PolyglotInterpreter interp = shared(Map.of("helpers.py", "def shout(x): return x.upper()"))) {
+            interp.removeContext("helpers.py");
+            assertThrows(Exception.class, () -> interp.addContext(TruffleLanguage.PYTHON, "stage.py",
+                    "from helpers import shout\ndef process_element(x, out): out.collect(shout(x))"));
+        }
+    }
+
+    @Test
+    void moduleName_stripsExtensionAndUsesDots() {
+        assertEquals("helpers", PolyglotInterpreter.moduleName("helpers.py"));
+        assertEquals("pkg.stage", PolyglotInterpreter.moduleName("pkg/stage.py"));
+        assertEquals("1_parse", PolyglotInterpreter.moduleName("1_parse.py"));
+    }
+
+    @Test
+    void pipeline_isCachedUntilContextsChange() throws Exception {
+        try (PolyglotInterpreter interp = shared(Map.of("a.py", "def process_element(x, out): out.collect(x)"))) {
+            PolyglotPipeline first = interp.pipeline("process_element");
+            assertSame(first, interp.pipeline("process_element"));
+
+            interp.addContext(TruffleLanguage.PYTHON, "b.py", "def process_element(x, out): out.collect(x + '!')");
+            PolyglotPipeline second = interp.pipeline("process_element");
+            assertNotSame(first, second);
+            assertEquals(List.of("a.py", "b.py"), second.getStages());
+        }
+    }
+
+    @Test
+    void separateContexts_rejected() throws Exception {
+        LinkedHashMap<String, String> files = new LinkedHashMap<>();
+        files.put("a.py", "def process_element(x, out): out.collect(x)");
+        files.put("b.py", "def process_element(x, out): out.collect(x)");
+        try (PolyglotInterpreter interp = build(PolyglotAccessConfig.HOST, files)) {
+            assertThrows(IllegalArgumentException.class, () -> interp.pipeline("process_element"));
+        }
+    }
+}
@@ -2,13 +2,25 @@ package org.csa.truffle.loader;
 
 import org.csa.truffle.loader.result.ChangeStatus;
 import org.csa.truffle.loader.result.LoadResult;
+import org.csa.truffle.loader.result.FileInfo;
+import org.csa.truffle.source.BinaryContent;
 import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.map.MapFileSource;
+import org.csa.truffle.source.map.MapFileSourceConfig;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,6 +82,55 @@ class FileLoaderTest {
         }
     }
 
+    /**
+     * {@link MapFileSource} that counts full listings and single-file reads.
+     */
+    static class CountingMapSource extends MapFileSource {
+        final AtomicInteger listings = new AtomicInteger();
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger byteReads = new AtomicInteger();
+        final AtomicInteger streams = new AtomicInteger();
+
+        CountingMapSource() {
+            super(new MapFileSourceConfig());
+        }
+
+        @Override
+        public Map<String, Optional<Instant>> listFiles() {
+            listings.incrementAndGet();
+            return super.listFiles();
+        }
+
+        @Override
+        public Map<String, Optional<Instant>> statFiles(Collection<String> names) throws IOException {
+            // stat without counting a listing
+            Map<String, Optional<Instant>> all = super.listFiles();
+            Map<String, Optional<Instant>> stats = new LinkedHashMap<>();
+            for (String name : names) {
+                if (all.containsKey(name)) stats.put(name, all.get(name));
+            }
+            return stats;
+        }
+
+        @Override
+        public String readFile(String name) throws IOException {
+            reads.incrementAndGet();
+            return super.readFile(name);
+        }
+
+        @Override
+        public byte[] readFileBytes(String name) throws IOException {
+            byteReads.incrementAndGet();
+            return super.readFileBytes(name);
+        }
+
+        @Override
+        public InputStream openStream(String name) throws IOException {
+            streams.incrementAndGet();
+            return super.openStream(name);
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Case 1: file present in v1 but not v2 (removed on reload)
     // -------------------------------------------------------------------------
@@ -361,4 +422,236 @@ class FileLoaderTest {
             assertTrue(loader.getStatus().getLoadedFiles().contains("file_only_in_v2.py"));
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Partial reload of changed paths
+    // -------------------------------------------------------------------------
+
+    @Test
+    void partialReload_readsOnlyChangedPaths() throws Exception {
+        CountingMapSource src = new CountingMapSource();
+        src.put("a.py", "a1");
+        src.put("c.py", "c1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            src.triggerChange(); // drain the puts above
+            int reads = src.reads.get();
+
+            src.put("c.py", "c2");
+            src.triggerChange();
+
+            assertEquals(1, src.listings.get());
+            assertEquals(reads + 1, src.reads.get());
+            assertEquals(List.of("a.py", "c.py"), List.copyOf(loader.getFileContents().keySet()));
+            assertEquals("c2", loader.getFileContents().get("c.py"));
+        }
+    }
+
+    @Test
+    void partialReload_changedPathWithSameModTime_isReread() throws Exception {
+        Instant coarse = Instant.parse("2026-01-01T00:00:00Z");
+        CountingMapSource src = new CountingMapSource() {
+            @Override
+            public Map<String, Optional<Instant>> statFiles(Collection<String> names) throws IOException {
+                // a file system with coarse timestamps: two writes within one tick
+                Map<String, Optional<Instant>> stats = new LinkedHashMap<>();
+                super.statFiles(names).keySet().forEach(name -> stats.put(name, Optional.of(coarse)));
+                return stats;
+            }
+        };
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            loader.load(Set.of("a.py"));
+            src.put("a.py", "a2");
+
+            LoadResult result = loader.load(Set.of("a.py"));
+
+            assertTrue(result.changed());
+            assertEquals("a2", result.contents().get("a.py"));
+        }
+    }
+
+        @Test
+    void partialReload_addedPathTakesListingPosition() throws Exception {
+        CountingMapSource src = new CountingMapSource() {
+            @Override
+            public Map<String, Optional<Instant>> listFiles() {
+                // a source listing in other than alphabetical order
+                List<Map.Entry<String, Optional<Instant>>> entries = new ArrayList<>(super.listFiles().entrySet());
+                Collections.reverse(entries);
+                Map<String, Optional<Instant>> reversed = new LinkedHashMap<>();
+                entries.forEach(e -> reversed.put(e.getKey(), e.getValue()));
+                return reversed;
+            }
+        };
+        src.put("a.py", "a1");
+        src.put("c.py", "c1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            src.triggerChange(); // drain the puts above
+            int reads = src.reads.get();
+
+            src.put("b.py", "b1");
+            src.triggerChange();
+
+            assertEquals(2, src.listings.get(), "an added path lists the source");
+            assertEquals(reads + 1, src.reads.get(), "cached files are not re-read");
+            assertEquals(List.of("c.py", "b.py", "a.py"), List.copyOf(loader.getFileContents().keySet()));
+        }
+    }
+
+    @Test
+    void partialReload_reportsChangesAndRemovals() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "a1");
+        src.put("b.py", "b1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            src.put("a.py", "a2");
+            src.remove("b.py");
+
+            LoadResult result = loader.load(Set.of("a.py", "b.py"));
+
+            assertTrue(result.success());
+            assertTrue(result.changed());
+            Map<String, ChangeStatus> statuses = new HashMap<>();
+            for (FileInfo info : result.files()) statuses.put(info.filePath(), info.status());
+            assertEquals(Map.of("a.py", ChangeStatus.MODIFIED, "b.py", ChangeStatus.REMOVED), statuses);
+            assertEquals(Map.of("a.py", "a2"), result.contents());
+        }
+    }
+
+    @Test
+    void partialReload_unchangedPathKeepsSnapshot() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            LoadResult first = loader.load();
+            src.put("a.py", "a1"); // touched, same content
+
+            LoadResult second = loader.load(Set.of("a.py"));
+
+            assertFalse(second.changed());
+            assertSame(first.contents(), second.contents());
+        }
+    }
+
+    @Test
+    void partialReload_unknownPathsFallBackToFullLoad() throws Exception {
+        CountingMapSource src = new CountingMapSource();
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            loader.load((Set<String>) null);
+            assertEquals(2, src.listings.get());
+        }
+    }
+
+    @Test
+    void prime_unchangedSourceKeepsPrimedSnapshot() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            Map<String, String> primed = loader.prime(Map.of("a.py", "a1"));
+
+            LoadResult result = loader.load();
+
+            assertFalse(result.changed());
+            assertSame(primed, result.contents());
+        }
+    }
+
+    @Test
+    void prime_changedSourceReportsChange() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "a2");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.prime(Map.of("a.py", "a1"));
+
+            LoadResult result = loader.load();
+
+            assertTrue(result.changed());
+            assertEquals(Map.of("a.py", "a2"), result.contents());
+        }
+    }
+
+    @Test
+    void prime_ignoredOnceLoaded() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            assertNull(loader.prime(Map.of("a.py", "other")));
+            assertEquals("a1", loader.getFileContents().get("a.py"));
+        }
+    }
+
+    @Test
+    void load_binaryFile_readAsBytesAndRoundTrips() throws Exception {
+        byte[] module = {0x00, 0x61, 0x73, 0x6d, (byte) 0xa2, (byte) 0xff, (byte) 0xc3};
+        CountingMapSource src = new CountingMapSource();
+        src.put("kernel.wasm", module);
+        src.put("a.py", "a1");
+        try (FileLoader loader = new FileLoader(src)) {
+            LoadResult result = loader.load();
+
+            assertTrue(result.success());
+            assertArrayEquals(module, BinaryContent.decode(result.contents().get("kernel.wasm")));
+            assertEquals("a1", result.contents().get("a.py"));
+            assertEquals(1, src.reads.get()); // only the text file goes through readFile
+        }
+    }
+
+    @Test
+    void load_binaryFileReReadUnchanged_keepsCachedContent() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x01});
+        try (FileLoader loader = new FileLoader(src)) {
+            String first = loader.load().contents().get("kernel.wasm");
+
+            // same bytes again: cached content kept
+            src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x01});
+            LoadResult same = loader.load(true);
+            assertFalse(same.changed());
+            assertSame(first, same.contents().get("kernel.wasm"));
+
+            src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x02});
+            LoadResult modified = loader.load(true);
+            assertTrue(modified.changed());
+            assertEquals(0x02, BinaryContent.decode(modified.contents().get("kernel.wasm"))[4]);
+        }
+    }
+
+    @Test
+    void load_binaryFile_isComparedWhileStreamedAndDownloadedOnce() throws Exception {
+        CountingMapSource src = new CountingMapSource();
+        src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x01});
+        try (FileLoader loader = new FileLoader(src)) {
+            loader.load();
+            // a new binary has nothing to compare against: read once, not streamed
+            assertEquals(1, src.byteReads.get());
+            assertEquals(0, src.streams.get());
+
+            src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x01});
+            assertFalse(loader.load(true).changed());
+            assertEquals(1, src.byteReads.get());
+            assertEquals(1, src.streams.get());
+
+            // a changed binary is taken from the stream it was compared on, not read again
+            src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73, 0x6d, 0x02, 0x03});
+            LoadResult longer = loader.load(true);
+            assertTrue(longer.changed());
+            assertArrayEquals(new byte[]{0x00, 0x61, 0x73, 0x6d, 0x02, 0x03},
+                    BinaryContent.decode(longer.contents().get("kernel.wasm")));
+            assertEquals(1, src.byteReads.get());
+            assertEquals(2, src.streams.get());
+
+            src.put("kernel.wasm", new byte[]{0x00, 0x61, 0x73});
+            LoadResult truncated = loader.load(true);
+            assertTrue(truncated.changed());
+            assertArrayEquals(new byte[]{0x00, 0x61, 0x73}, BinaryContent.decode(truncated.contents().get("kernel.wasm")));
+            assertEquals(1, src.byteReads.get());
+        }
+    }
 }
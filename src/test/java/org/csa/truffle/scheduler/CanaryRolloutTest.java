@@ -0,0 +1,204 @@
+package org.csa.truffle.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanaryRolloutTest {
+
+    /** Every record is shadowed; decide after 10; generous latency limit so timing noise never rejects. */
+    private static final RolloutConfig CONFIG = new RolloutConfig(1.0, 10, 0.05, 0.1, 1_000);
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** A generation emitting a fixed number of outputs per record, optionally failing. */
+    static final class Generation implements AutoCloseable {
+        final String name;
+        final int outputs;
+        final boolean failing;
+        int slowCalls;
+        boolean closed;
+
+        Generation(String name, int outputs, boolean failing) {
+            this.name = name;
+            this.outputs = outputs;
+            this.failing = failing;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /** Emitted outputs, tagged with the generation that produced them. */
+    private final List<String> emitted = new ArrayList<>();
+
+    private CanaryRollout.Outcome run(Generation generation, boolean shadow) {
+        assertFalse(generation.closed, "ran a closed generation");
+        if (generation.failing) return new CanaryRollout.Outcome(0, 1);
+        if (generation.slowCalls > 0) {
+            generation.slowCalls--;
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!shadow) {
+            for (int i = 0; i < generation.outputs; i++) emitted.add(generation.name);
+        }
+        return new CanaryRollout.Outcome(generation.outputs, 0);
+    }
+
+    private void processRecords(CanaryRollout<Generation> rollout, int records) {
+        for (int i = 0; i < records; i++) {
+            rollout.process(this::run);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    void candidateRunsInShadowUntilDecided() {
+        Generation v1 = new Generation("v1", 1, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(new Generation("v2", 1, false));
+
+        processRecords(rollout, 5);
+
+        assertTrue(rollout.hasCandidate());
+        assertSame(v1, rollout.current());
+        assertEquals(List.of("v1", "v1", "v1", "v1", "v1"), emitted, "shadow outputs must not be emitted");
+    }
+
+    @Test
+    void equivalentCandidate_isPromoted_previousKeptAsLastKnownGood() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(v2);
+
+        processRecords(rollout, 10);
+
+        assertSame(v2, rollout.current());
+        assertEquals(1, rollout.getPromotions());
+        assertTrue(rollout.hasLastKnownGood());
+        assertFalse(v1.closed, "last known good must stay open");
+    }
+
+    @Test
+    void failingCandidate_isRolledBack() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, true);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(v2);
+
+        processRecords(rollout, 10);
+
+        assertSame(v1, rollout.current());
+        assertFalse(rollout.hasCandidate());
+        assertEquals(1, rollout.getRejections());
+        assertTrue(v2.closed);
+    }
+
+    @Test
+    void slowFirstCalls_withoutWarmup_areRolledBack() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        v2.slowCalls = 5;
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(new RolloutConfig(1.0, 10, 0.05, 0.1, 100), v1);
+        rollout.offer(v2);
+
+        processRecords(rollout, 10);
+
+        assertSame(v1, rollout.current());
+        assertEquals(1, rollout.getRejections());
+    }
+
+    @Test
+    void slowFirstCalls_withinWarmup_candidateIsStillPromoted() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        v2.slowCalls = 5;
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(new RolloutConfig(1.0, 10, 0.05, 0.1, 100, 5), v1);
+        rollout.offer(v2);
+
+        processRecords(rollout, 14);
+        assertTrue(rollout.hasCandidate(), "warm-up records do not count towards minSamples");
+
+        processRecords(rollout, 1);
+        assertSame(v2, rollout.current());
+        assertEquals(0, rollout.getRejections());
+    }
+
+    @Test
+    void candidateWithDifferentOutputCount_isRolledBack() {
+        Generation v1 = new Generation("v1", 2, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(new Generation("v2", 1, false));
+
+        processRecords(rollout, 10);
+
+        assertSame(v1, rollout.current());
+        assertEquals(1, rollout.getRejections());
+    }
+
+    @Test
+    void newerOffer_supersedesCandidateInShadow() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        Generation v3 = new Generation("v3", 1, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(v2);
+        processRecords(rollout, 5);
+
+        rollout.offer(v3);
+        processRecords(rollout, 9);
+        assertTrue(v2.closed);
+        assertSame(v1, rollout.current(), "comparison restarts for the newer generation");
+
+        processRecords(rollout, 1);
+        assertSame(v3, rollout.current());
+    }
+
+    @Test
+    void rollback_restoresLastKnownGood() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        assertFalse(rollout.rollback(), "nothing to roll back to yet");
+
+        rollout.offer(v2);
+        processRecords(rollout, 10);
+        assertTrue(rollout.rollback());
+
+        assertSame(v1, rollout.current());
+        assertTrue(v2.closed);
+        assertFalse(rollout.hasLastKnownGood());
+    }
+
+    @Test
+    void close_closesAllGenerations() {
+        Generation v1 = new Generation("v1", 1, false);
+        Generation v2 = new Generation("v2", 1, false);
+        Generation v3 = new Generation("v3", 1, false);
+        CanaryRollout<Generation> rollout = new CanaryRollout<>(CONFIG, v1);
+        rollout.offer(v2);
+        processRecords(rollout, 10);
+        rollout.offer(v3);
+
+        rollout.close();
+
+        assertTrue(v1.closed);
+        assertTrue(v2.closed);
+        assertTrue(v3.closed);
+    }
+}
@@ -1,13 +1,27 @@
 package org.csa.truffle.scheduler;
 
+import org.csa.truffle.interpreter.CompositeInterpreter;
+import org.csa.truffle.interpreter.ScriptInterpreter;
+import org.csa.truffle.interpreter.groovy.GroovyEngine;
+import org.csa.truffle.interpreter.groovy.GroovyInterpreter;
 import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
+import org.csa.truffle.interpreter.polyglot.PolyglotEngine;
+import org.csa.truffle.source.map.MapFileSource;
+import org.csa.truffle.source.map.MapFileSourceConfig;
 import org.csa.truffle.loader.SwitchableFileSource;
 import org.csa.truffle.source.resource.ResourceSourceConfig;
+import org.graalvm.polyglot.Value;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -156,4 +170,147 @@ class ScheduledReloaderTest {
             assertEquals(1, count.get(), "callback not fired again on unchanged source");
         }
     }
+
+    @Test
+    void adaptivePolling_backsOffWhileQuiet_andSpeedsUpAfterChange() throws Exception {
+        SwitchableFileSource src = new SwitchableFileSource("python_hr_v1");
+        SchedulerConfig cfg = new SchedulerConfig(Duration.ofMillis(160))
+                .withAdaptivePolling(new AdaptivePollingConfig(Duration.ofMillis(20), 0));
+        AtomicReference<ScheduledReloader> ref = new AtomicReference<>();
+        AtomicReference<Duration> intervalAfterChange = new AtomicReference<>();
+        CountDownLatch changed = new CountDownLatch(2); // initial load + switch
+        try (ScheduledReloader reloader = new ScheduledReloader(src, cfg, PolyglotAccessConfig.HOST, (status, interp) -> {
+            ScheduledReloader self = ref.get();
+            if (self != null) intervalAfterChange.set(self.getPollInterval());
+            changed.countDown();
+        })) {
+            ref.set(reloader);
+            reloader.start();
+            assertEquals(Duration.ofMillis(20), reloader.getPollInterval(), "initial load is a change");
+            assertNotNull(reloader.getNextPollAt());
+            assertEquals(Duration.ofMillis(20), reloader.getStatus().getPollInterval());
+            assertNotNull(reloader.getStatus().getNextPollAt());
+
+            Thread.sleep(500); // 20 + 40 + 80 + 160 ms of quiet polls
+            assertEquals(Duration.ofMillis(160), reloader.getPollInterval());
+            assertEquals(Duration.ofMillis(160), reloader.getStatus().getPollInterval());
+
+            src.switchTo("python_hr_v2");
+            assertTrue(changed.await(2, TimeUnit.SECONDS), "change not picked up");
+            assertEquals(Duration.ofMillis(20), intervalAfterChange.get());
+        }
+    }
+
+    @Test
+    void fixedPolling_keepsInterval() throws Exception {
+        try (ScheduledReloader reloader = new ScheduledReloader(
+                new ResourceSourceConfig("python_hr_v1"), INTERVAL, PolyglotAccessConfig.HOST, (status, interp) -> {
+        })) {
+            reloader.start();
+            Thread.sleep(150);
+            assertEquals(INTERVAL.interval(), reloader.getPollInterval());
+            assertEquals(INTERVAL.interval(), reloader.getStatus().getPollInterval());
+            assertNotNull(reloader.getStatus().getNextPollAt());
+        }
+    }
+
+    @Test
+    void startFromRestored_buildsInterpreterWithoutSourceFetch() throws Exception {
+        SwitchableFileSource src = new SwitchableFileSource("nonexistent_python_dir"); // every fetch fails
+        Map<String, String> restored = Map.of("restored.py", "def process_element(line, out):\n    out.collect(line)\n");
+        AtomicInteger count = new AtomicInteger();
+        try (ScheduledReloader reloader = new ScheduledReloader(src, new SchedulerConfig(Duration.ofMinutes(5)),
+                PolyglotAccessConfig.HOST, (status, interp) -> count.incrementAndGet())) {
+            reloader.start(restored);
+            assertEquals(1, count.get(), "callback fires once for the restored scripts");
+            assertEquals(restored, reloader.getAppliedContents());
+            assertDoesNotThrow(reloader::checkForFatalError);
+        }
+    }
+
+    @Test
+    void engines_buildInterpreterPerExtension() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "def process_element(line, out):\n    out.collect(line)\n");
+        src.put("b.groovy", "def processElement(line, out) { out.collect(line) }");
+        AtomicReference<ScriptInterpreter> built = new AtomicReference<>();
+        try (ScheduledReloader reloader = new ScheduledReloader(src, new SchedulerConfig(Duration.ofMinutes(5)),
+                List.of(new PolyglotEngine(), new GroovyEngine()), (status, interp) -> built.set(interp))) {
+            reloader.start();
+            assertNotNull(built.get());
+            assertTrue(built.get().hasMember("a.py", "process_element"));
+            assertTrue(built.get().hasMember("b.groovy", "processElement"));
+        }
+    }
+
+    @Test
+    void engines_reloadKeepsInterpreterAndUnchangedClasses() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.groovy", "def processElement(line, out) { out.collect(line) }");
+        src.put("b.groovy", "def processElement(line, out) { out.collect('b') }");
+        AtomicReference<ScriptInterpreter> built = new AtomicReference<>();
+        AtomicReference<CountDownLatch> reloaded = new AtomicReference<>(new CountDownLatch(1));
+        try (ScheduledReloader reloader = new ScheduledReloader(src, new SchedulerConfig(Duration.ofMinutes(5)),
+                List.of(new GroovyEngine()), (status, interp) -> {
+            built.set(interp);
+            reloaded.get().countDown();
+        })) {
+            reloader.start();
+            ScriptInterpreter first = built.get();
+            GroovyInterpreter groovy = (GroovyInterpreter) ((CompositeInterpreter) first).getInterpreter("a.groovy");
+            Class<?> aClass = groovy.getContext("a.groovy").script().getClass();
+
+            reloaded.set(new CountDownLatch(1));
+            src.put("b.groovy", "def processElement(line, out) { out.collect('b2') }");
+            src.put("c.groovy", "def processElement(line, out) { out.collect('c') }");
+            src.triggerChange();
+            assertTrue(reloaded.get().await(5, TimeUnit.SECONDS), "reload expected");
+
+            assertSame(first, built.get(), "the interpreter is updated in place");
+            assertSame(aClass, groovy.getContext("a.groovy").script().getClass(),
+                    "an unchanged script keeps its class");
+            assertEquals(List.of("a.groovy", "b.groovy", "c.groovy"), built.get().getContexts());
+
+            reloaded.set(new CountDownLatch(1));
+            src.remove("b.groovy");
+            src.triggerChange();
+            assertTrue(reloaded.get().await(5, TimeUnit.SECONDS), "reload expected");
+            assertEquals(List.of("a.groovy", "c.groovy"), built.get().getContexts());
+            assertSame(aClass, groovy.getContext("a.groovy").script().getClass());
+        }
+    }
+
+    @Test
+    void engines_brokenPythonEdit_keepsPreviousVersion() throws Exception {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.py", "def transform(x):\n    return 'v1:' + x\n");
+        AtomicReference<ScriptInterpreter> built = new AtomicReference<>();
+        AtomicReference<CountDownLatch> reloaded = new AtomicReference<>(new CountDownLatch(1));
+        try (ScheduledReloader reloader = new ScheduledReloader(src, new SchedulerConfig(Duration.ofMinutes(5)),
+                List.of(new PolyglotEngine()), (status, interp) -> {
+            built.set(interp);
+            reloaded.get().countDown();
+        })) {
+            reloader.start();
+
+            reloaded.set(new CountDownLatch(1));
+            src.put("a.py", "def transform(x)\n    return 'v2:' + x\n"); // syntax error
+            src.triggerChange();
+            assertTrue(reloaded.get().await(5, TimeUnit.SECONDS), "callback expected after a failed reload");
+
+            assertEquals(List.of("a.py"), built.get().getContexts());
+            Value result = (Value) built.get().getFunction("a.py", "transform").call("x");
+            assertEquals("v1:x", result.asString());
+        }
+    }
+
+    @Test
+    void engines_unknownExtension_failsStart() {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("a.txt", "hello");
+        try (ScheduledReloader reloader = new ScheduledReloader(src, new SchedulerConfig(Duration.ofMinutes(5)),
+                List.of(new GroovyEngine()), (status, interp) -> fail("no interpreter expected"))) {
+            assertThrows(IOException.class, reloader::start);
+        }
+    }
 }
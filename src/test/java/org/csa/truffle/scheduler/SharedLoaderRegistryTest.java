@@ -0,0 +1,85 @@
+package org.csa.truffle.scheduler;
+
+import org.csa.truffle.interpreter.polyglot.PolyglotAccessConfig;
+import org.csa.truffle.interpreter.polyglot.PolyglotInterpreter;
+import org.csa.truffle.source.resource.ResourceSourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedLoaderRegistryTest {
+
+    private static final SchedulerConfig SHARED =
+            new SchedulerConfig(Duration.ofMillis(50)).withShareLoader(true);
+
+    /** A fresh config instance each time, as after Flink deserialization (distinct filemask arrays). */
+    private static ResourceSourceConfig config() {
+        return new ResourceSourceConfig("python_hr_v1", new String[]{"*.py"}, null);
+    }
+
+    @Test
+    void equalConfigs_shareOneLoader() throws Exception {
+        int before = SharedLoaderRegistry.size();
+        AtomicReference<PolyglotInterpreter> first = new AtomicReference<>();
+        AtomicReference<PolyglotInterpreter> second = new AtomicReference<>();
+
+        try (ScheduledReloader a = new ScheduledReloader(config(), SHARED, PolyglotAccessConfig.HOST,
+                (status, interp) -> first.set(interp));
+             ScheduledReloader b = new ScheduledReloader(config(), SHARED, PolyglotAccessConfig.HOST,
+                     (status, interp) -> second.set(interp))) {
+            a.start();
+            b.start();
+
+            assertTrue(a.isSharedLoader());
+            assertEquals(before + 1, SharedLoaderRegistry.size());
+            assertSame(a.getStatus(), b.getStatus(), "both reloaders observe the same loader");
+
+            // each subtask still gets its own interpreter
+            assertNotNull(first.get());
+            assertNotNull(second.get());
+            assertNotSame(first.get(), second.get());
+            assertEquals(first.get().getContexts(), second.get().getContexts());
+        } finally {
+            if (first.get() != null) first.get().close();
+            if (second.get() != null) second.get().close();
+        }
+        assertEquals(before, SharedLoaderRegistry.size(), "loader closed when the last user closes");
+    }
+
+    @Test
+    void closingOneUser_keepsLoaderForOthers() throws Exception {
+        int before = SharedLoaderRegistry.size();
+        ScheduledReloader a = new ScheduledReloader(config(), SHARED, PolyglotAccessConfig.HOST, (s, i) -> {
+        });
+        ScheduledReloader b = new ScheduledReloader(config(), SHARED, PolyglotAccessConfig.HOST, (s, i) -> {
+        });
+        a.start();
+        b.start();
+
+        a.close();
+        a.close(); // idempotent: must not release twice
+        assertEquals(before + 1, SharedLoaderRegistry.size());
+
+        var checked = b.getStatus().getLastCheckedAt();
+        Thread.sleep(200);
+        assertTrue(b.getStatus().getLastCheckedAt().isAfter(checked), "shared loader keeps polling");
+
+        b.close();
+        assertEquals(before, SharedLoaderRegistry.size());
+    }
+
+    @Test
+    void shareLoaderDisabled_usesPrivateLoader() throws Exception {
+        int before = SharedLoaderRegistry.size();
+        try (ScheduledReloader a = new ScheduledReloader(config(), new SchedulerConfig(Duration.ofMillis(50)),
+                PolyglotAccessConfig.HOST, (s, i) -> {
+        })) {
+            a.start();
+            assertFalse(a.isSharedLoader());
+            assertEquals(before, SharedLoaderRegistry.size());
+        }
+    }
+}
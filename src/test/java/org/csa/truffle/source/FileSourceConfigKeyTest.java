@@ -0,0 +1,33 @@
+package org.csa.truffle.source;
+
+import org.csa.truffle.source.file.FileSystemSourceConfig;
+import org.csa.truffle.source.resource.ResourceSourceConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSourceConfigKeyTest {
+
+    @Test
+    void equalArrays_produceEqualKeys() {
+        FileSourceConfig a = new ResourceSourceConfig("python", new String[]{"*.py"}, new String[]{"venv"});
+        FileSourceConfig b = new ResourceSourceConfig("python", new String[]{"*.py"}, new String[]{"venv"});
+        assertNotEquals(a, b, "records compare arrays by reference");
+        assertEquals(FileSourceConfigKey.of(a), FileSourceConfigKey.of(b));
+        assertEquals(FileSourceConfigKey.of(a).hashCode(), FileSourceConfigKey.of(b).hashCode());
+    }
+
+    @Test
+    void differentComponents_produceDifferentKeys() {
+        assertNotEquals(
+                FileSourceConfigKey.of(new ResourceSourceConfig("python", new String[]{"*.py"}, null)),
+                FileSourceConfigKey.of(new ResourceSourceConfig("python", new String[]{"*.js"}, null)));
+    }
+
+    @Test
+    void differentConfigTypes_produceDifferentKeys() {
+        assertNotEquals(
+                FileSourceConfigKey.of(new ResourceSourceConfig("python")),
+                FileSourceConfigKey.of(new FileSystemSourceConfig("python", false)));
+    }
+}
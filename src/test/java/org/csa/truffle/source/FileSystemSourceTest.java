@@ -6,13 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -112,6 +116,80 @@ class FileSystemSourceTest {
         assertThrows(IOException.class, () -> src.readFile("no_such.py"));
     }
 
+    @Test
+    void openStream_returnsRawBytes() throws IOException {
+        byte[] module = {0x00, 0x61, 0x73, 0x6d, (byte) 0xa2, (byte) 0xff};
+        Files.write(tempDir.resolve("kernel.wasm"), module);
+        FileSystemSource src = new FileSystemSource(new FileSystemSourceConfig(tempDir.toString(), false));
+        try (InputStream in = src.openStream("kernel.wasm")) {
+            assertArrayEquals(module, in.readAllBytes());
+        }
+        assertArrayEquals(module, src.readFileBytes("kernel.wasm"));
+        assertThrows(IOException.class, () -> src.openStream("no_such.wasm"));
+    }
+
+    // -------------------------------------------------------------------------
+    // Memory-mapped reads
+    // -------------------------------------------------------------------------
+
+    private FileSystemSource mappedSource() {
+        return new FileSystemSource(new FileSystemSourceConfig(tempDir.toString(), false).withMemoryMap(true));
+    }
+
+    @Test
+    void memoryMap_readFile_returnsContent() throws IOException {
+        writePy("transform.py", "def process_element(line, out): pass  # ✓");
+        assertEquals("def process_element(line, out): pass  # ✓", mappedSource().readFile("transform.py"));
+    }
+
+    @Test
+    void memoryMap_unchangedContent_returnsSameInstance() throws IOException {
+        writePy("a.py", "x = 1");
+        FileSystemSource src = mappedSource();
+        String first = src.readFile("a.py");
+
+        writePy("a.py", "x = 1"); // rewritten, same bytes
+
+        assertSame(first, src.readFile("a.py"));
+    }
+
+    @Test
+    void memoryMap_changedContent_isDecodedAgain() throws IOException {
+        writePy("a.py", "x = 1");
+        FileSystemSource src = mappedSource();
+        src.readFile("a.py");
+
+        writePy("a.py", "x = 2");
+
+        assertEquals("x = 2", src.readFile("a.py"));
+    }
+
+    @Test
+    void memoryMap_emptyFile() throws IOException {
+        writePy("empty.py", "");
+        assertEquals("", mappedSource().readFile("empty.py"));
+    }
+
+    @Test
+    void memoryMap_malformedUtf8_throws() throws IOException {
+        Files.write(tempDir.resolve("bad.py"), new byte[]{'x', (byte) 0xC3, (byte) 0x28});
+        assertThrows(IOException.class, () -> mappedSource().readFile("bad.py"));
+    }
+
+    @Test
+    void statFiles_statsOnlyNamedExistingFiles() throws IOException {
+        writePy("a.py", "");
+        writePy("sub/b.py", "");
+        writePy("notes.txt", "");
+        FileSystemSource src = new FileSystemSource(
+                new FileSystemSourceConfig(tempDir.toString(), false, new String[]{"*.py"}, null));
+
+        Map<String, Optional<Instant>> stats = src.statFiles(List.of("sub/b.py", "gone.py", "notes.txt", "a.py"));
+
+        assertEquals(List.of("sub/b.py", "a.py"), List.copyOf(stats.keySet()));
+        assertEquals(src.listFiles().get("a.py"), stats.get("a.py"));
+    }
+
     // -------------------------------------------------------------------------
     // Watch mode
     // -------------------------------------------------------------------------
@@ -153,6 +231,84 @@ class FileSystemSourceTest {
         }
     }
 
+    @Test
+    void watch_true_listenerReceivesChangedPaths() throws Exception {
+        writePy("sub/a.py", "v1");
+        writePy("b.py", "v1");
+
+        List<Set<String>> notified = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        try (FileSystemSource src = new FileSystemSource(new FileSystemSourceConfig(tempDir.toString(), true, new String[]{"*.py"}, null))) {
+            src.setChangeListener((Set<String> paths) -> {
+                notified.add(paths);
+                latch.countDown();
+            });
+            Thread.sleep(50);
+            writePy("sub/a.py", "v2");
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "listener not called after subdir .py change");
+        }
+        assertEquals(Set.of("sub/a.py"), notified.get(0));
+    }
+
+    @Test
+    void watch_true_burstAcrossDirectoriesCoalescedIntoOneCall() throws Exception {
+        for (int i = 0; i < 10; i++) writePy("d" + (i % 3) + "/f" + i + ".py", "v1");
+
+        List<Set<String>> notified = new CopyOnWriteArrayList<>();
+        FileSystemSourceConfig config = new FileSystemSourceConfig(tempDir.toString(), true, new String[]{"*.py"}, null)
+                .withDebounce(Duration.ofMillis(300), Duration.ofSeconds(5));
+        try (FileSystemSource src = new FileSystemSource(config)) {
+            src.setChangeListener((Set<String> paths) -> notified.add(paths));
+            Thread.sleep(50);
+            for (int i = 0; i < 10; i++) writePy("d" + (i % 3) + "/f" + i + ".py", "v2");
+            Thread.sleep(1500);
+        }
+
+        assertEquals(1, notified.size(), "expected one reload for the burst: " + notified);
+        assertEquals(10, notified.get(0).size());
+        assertTrue(notified.get(0).contains("d1/f4.py"));
+    }
+
+    @Test
+    void watch_true_maxWaitBoundsDelayUnderContinuousChanges() throws Exception {
+        writePy("a.py", "v0");
+
+        CountDownLatch latch = new CountDownLatch(1);
+        FileSystemSourceConfig config = new FileSystemSourceConfig(tempDir.toString(), true, new String[]{"*.py"}, null)
+                .withDebounce(Duration.ofMillis(400), Duration.ofMillis(600));
+        try (FileSystemSource src = new FileSystemSource(config)) {
+            src.setChangeListener(latch::countDown);
+            Thread.sleep(50);
+            // keep writing more often than the quiet period, for longer than the max wait
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(3000);
+            int i = 0;
+            while (latch.getCount() > 0 && System.nanoTime() < until) {
+                writePy("a.py", "v" + ++i);
+                Thread.sleep(100);
+            }
+            assertEquals(0, latch.getCount(), "listener not called while changes kept arriving");
+        }
+    }
+
+    @Test
+    void watch_true_excludedPathsIgnored() throws Exception {
+        writePy("venv/lib.py", "v1");
+        writePy("a.py", "v1");
+
+        CountDownLatch latch = new CountDownLatch(1);
+        FileSystemSourceConfig config = new FileSystemSourceConfig(tempDir.toString(), true, new String[]{"*.py"},
+                new String[]{"venv", "skip_*.py"});
+        try (FileSystemSource src = new FileSystemSource(config)) {
+            src.setChangeListener(latch::countDown);
+            Thread.sleep(50);
+            writePy("venv/lib.py", "v2");
+            writePy("venv/new/mod.py", "v1");
+            writePy("skip_me.py", "v1");
+            assertFalse(latch.await(500, TimeUnit.MILLISECONDS),
+                    "listener should not be called for excluded paths");
+        }
+    }
+
     @Test
     void watch_true_unrelatedFileIgnored() throws Exception {
         writePy("a.py", "v1");
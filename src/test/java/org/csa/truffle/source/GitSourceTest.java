@@ -1,13 +1,17 @@
 package org.csa.truffle.source;
 
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import org.csa.truffle.source.git.GitForgeType;
+import org.csa.truffle.source.git.GitHttpConfig;
 import org.csa.truffle.source.git.GitSource;
 import org.csa.truffle.source.git.GitSourceConfig;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +56,18 @@ class GitSourceTest {
                 token, GitForgeType.GITEA, null, null, apiBase));
     }
 
+    /** Short backoffs so retry tests run quickly. */
+    private static final GitHttpConfig FAST_RETRY = new GitHttpConfig(
+            Duration.ofSeconds(2), Duration.ofSeconds(5),
+            2, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(2),
+            4, true);
+
+    private GitSource gitlabSourceWith(GitHttpConfig http) {
+        String apiBase = base() + "/api/v4/projects/owner%2Frepo";
+        return new GitSource(new GitSourceConfig(base() + "/owner/repo", "python", "main",
+                null, GitForgeType.GITLAB, null, null, apiBase, http));
+    }
+
     private void stubFile(String name, String body) {
         wireMock.stubFor(get(urlEqualTo("/owner/repo/-/raw/main/python/" + name))
                 .willReturn(aResponse().withStatus(200).withBody(body)));
@@ -187,6 +203,18 @@ class GitSourceTest {
                 .withoutHeader("Authorization"));
     }
 
+    @Test
+    void openStream_streamsRawBytes() throws IOException {
+        byte[] body = {0x00, 0x61, 0x73, 0x6d, (byte) 0xff};
+        wireMock.stubFor(get(urlEqualTo("/owner/repo/-/raw/main/python/kernel.wasm"))
+                .willReturn(aResponse().withStatus(200).withBody(body)));
+        GitSource src = gitlabSource(null);
+        try (InputStream in = src.openStream("kernel.wasm")) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+        wireMock.verify(getRequestedFor(urlEqualTo("/owner/repo/-/raw/main/python/kernel.wasm")));
+    }
+
     // -------------------------------------------------------------------------
     // Error handling
     // -------------------------------------------------------------------------
@@ -214,4 +242,116 @@ class GitSourceTest {
         GitSource src = gitlabSource(null);
         assertThrows(IOException.class, () -> src.readFile("transform.py"));
     }
+
+    @Test
+    void openStream_throwsOnHttpError() {
+        wireMock.stubFor(get(urlEqualTo("/owner/repo/-/raw/main/python/kernel.wasm"))
+                .willReturn(aResponse().withStatus(404)));
+        GitSource src = gitlabSource(null);
+        assertThrows(IOException.class, () -> src.openStream("kernel.wasm"));
+    }
+
+    // -------------------------------------------------------------------------
+    // Retries and rate limits
+    // -------------------------------------------------------------------------
+
+    @Test
+    void readFile_retriesOn503ThenSucceeds() throws IOException {
+        String url = "/owner/repo/-/raw/main/python/transform.py";
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("retry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("retry")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("body")));
+
+        GitSource src = gitlabSourceWith(FAST_RETRY);
+        assertEquals("body", src.readFile("transform.py"));
+        wireMock.verify(2, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void readFile_honoursRetryAfterOn429() throws IOException {
+        String url = "/owner/repo/-/raw/main/python/transform.py";
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("429")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "0"))
+                .willSetStateTo("allowed"));
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("429")
+                .whenScenarioStateIs("allowed")
+                .willReturn(aResponse().withStatus(200).withBody("body")));
+
+        GitSource src = gitlabSourceWith(FAST_RETRY);
+        assertEquals("body", src.readFile("transform.py"));
+        wireMock.verify(2, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void readFile_backoffLongerThanMaxRateLimitWait_isNotARateLimit() throws IOException {
+        String url = "/owner/repo/-/raw/main/python/transform.py";
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("5xx")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        wireMock.stubFor(get(urlEqualTo(url)).inScenario("5xx")
+                .whenScenarioStateIs("recovered")
+                .willReturn(aResponse().withStatus(200).withBody("body")));
+        GitHttpConfig noRateLimitWait = new GitHttpConfig(
+                Duration.ofSeconds(2), Duration.ofSeconds(5),
+                2, Duration.ofMillis(50), Duration.ofMillis(50), Duration.ZERO,
+                4, true);
+
+        GitSource src = gitlabSourceWith(noRateLimitWait);
+        assertEquals("body", src.readFile("transform.py"));
+        assertEquals("body", src.readFile("transform.py"), "a server error must not block later requests");
+        wireMock.verify(3, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void readFile_givesUpAfterMaxRetries() {
+        String url = "/owner/repo/-/raw/main/python/transform.py";
+        wireMock.stubFor(get(urlEqualTo(url)).willReturn(aResponse().withStatus(502)));
+
+        GitSource src = gitlabSourceWith(FAST_RETRY);
+        assertThrows(IOException.class, () -> src.readFile("transform.py"));
+        wireMock.verify(1 + FAST_RETRY.maxRetries(), getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void readFile_failsFastWhenRateLimitResetIsTooFarAway() {
+        String url = "/owner/repo/-/raw/main/python/transform.py";
+        long reset = Instant.now().plus(Duration.ofHours(1)).getEpochSecond();
+        wireMock.stubFor(get(urlEqualTo(url)).willReturn(aResponse().withStatus(403)
+                .withHeader("X-RateLimit-Remaining", "0")
+                .withHeader("X-RateLimit-Reset", String.valueOf(reset))));
+
+        GitSource src = gitlabSourceWith(FAST_RETRY);
+        assertThrows(IOException.class, () -> src.readFile("transform.py"));
+        // the second call must not hit the forge while the rate limit is in effect
+        assertThrows(IOException.class, () -> src.readFile("transform.py"));
+        wireMock.verify(1, getRequestedFor(urlEqualTo(url)));
+    }
+
+    @Test
+    void readFiles_fetchesAllFilesInRequestedOrder() throws IOException {
+        stubFile("a.py", "A");
+        stubFile("b.py", "B");
+        stubFile("c.py", "C");
+        try (GitSource src = gitlabSourceWith(FAST_RETRY)) {
+            Map<String, String> contents = src.readFiles(List.of("c.py", "a.py", "b.py"));
+            assertEquals(List.of("c.py", "a.py", "b.py"), List.copyOf(contents.keySet()));
+            assertEquals(List.of("C", "A", "B"), List.copyOf(contents.values()));
+        }
+    }
+
+    @Test
+    void readFiles_propagatesFetchError() {
+        stubFile("a.py", "A");
+        wireMock.stubFor(get(urlEqualTo("/owner/repo/-/raw/main/python/missing.py"))
+                .willReturn(aResponse().withStatus(404)));
+        try (GitSource src = gitlabSourceWith(FAST_RETRY)) {
+            assertThrows(IOException.class, () -> src.readFiles(List.of("a.py", "missing.py")));
+        }
+    }
 }
@@ -7,9 +7,15 @@ import org.csa.truffle.source.map.MapFileSourceConfig;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -114,6 +120,22 @@ class MapFileSourceTest {
         assertEquals(1, count.get());
     }
 
+    @Test
+    void triggerChange_reportsNamesMutatedSinceLastTrigger() {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        List<Set<String>> notified = new ArrayList<>();
+        src.setChangeListener((Set<String> paths) -> notified.add(paths));
+
+        src.put("a.py", "a");
+        src.put("b.py", "b");
+        src.triggerChange();
+        src.remove("a.py");
+        src.triggerChange();
+        src.triggerChange();
+
+        assertEquals(Arrays.asList(Set.of("a.py", "b.py"), Set.of("a.py"), null), notified);
+    }
+
     @Test
     void triggerChange_noListener_doesNotThrow() {
         MapFileSource src = new MapFileSource(new MapFileSourceConfig());
@@ -143,6 +165,33 @@ class MapFileSourceTest {
         assertEquals(0, count.get());
     }
 
+    @Test
+    void readFileBytes_returnsBytesPutAsBytes() throws IOException {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        byte[] module = {0x00, 0x61, 0x73, 0x6d, (byte) 0xff};
+        src.put("kernel.wasm", module);
+        module[4] = 0; // put() copies
+        assertArrayEquals(new byte[]{0x00, 0x61, 0x73, 0x6d, (byte) 0xff}, src.readFileBytes("kernel.wasm"));
+        assertTrue(src.listFiles().containsKey("kernel.wasm"));
+    }
+
+    @Test
+    void openStream_returnsStoredBytes() throws IOException {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("kernel.wasm", new byte[]{0x00, 0x61, (byte) 0xff});
+        try (InputStream in = src.openStream("kernel.wasm")) {
+            assertArrayEquals(new byte[]{0x00, 0x61, (byte) 0xff}, in.readAllBytes());
+        }
+        assertThrows(IOException.class, () -> src.openStream("missing.wasm"));
+    }
+
+    @Test
+    void readFileBytes_textFile_returnsUtf8() throws IOException {
+        MapFileSource src = new MapFileSource(new MapFileSourceConfig());
+        src.put("script.py", "é");
+        assertArrayEquals("é".getBytes(StandardCharsets.UTF_8), src.readFileBytes("script.py"));
+    }
+
     @Test
     void integration_withFileLoader() throws Exception {
         MapFileSource src = new MapFileSource(new MapFileSourceConfig(new String[]{"*.py"}, null));
@@ -0,0 +1,108 @@
+package org.csa.truffle.source;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFilterTest {
+
+    private static final List<String> PATHS = List.of(
+            "main.py", "lib/util.py", "venv/lib/site.py", "a/venv/b.py", "test_main.py", "tests/test_x.py",
+            "readme.md", "py", ".py", "flink_types.py", "pkg/flink_types.py", "a//b.py", "a/b.py/", "x.pyc",
+            "data/file.json", "Main.PY");
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /** The PathMatcher-per-component evaluation the sources used before PathFilter. */
+    private static boolean reference(String path, String[] masks, String[] excludes) {
+        Path p = Path.of(path);
+        if (excludes != null) {
+            for (Path component : p) {
+                for (String glob : excludes) {
+                    if (matcher(glob).matches(component)) return false;
+                }
+            }
+        }
+        if (masks == null || masks.length == 0) return true;
+        Path filename = p.getFileName();
+        if (filename == null) return false;
+        for (String glob : masks) {
+            if (matcher(glob).matches(filename)) return true;
+        }
+        return false;
+    }
+
+    private static PathMatcher matcher(String glob) {
+        return FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    }
+
+    private static void assertSameAsReference(String[] masks, String[] excludes) {
+        PathFilter filter = PathFilter.of(masks, excludes);
+        for (String path : PATHS) {
+            assertEquals(reference(path, masks, excludes), filter.accepts(path),
+                    "path '" + path + "' with masks " + List.of(masks != null ? masks : new String[0])
+                            + " excludes " + List.of(excludes != null ? excludes : new String[0]));
+            // second call is served from the decision cache, where there is one
+            assertEquals(reference(path, masks, excludes), filter.accepts(path));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    void noPatterns_acceptsEverything() {
+        assertSame(PathFilter.ACCEPT_ALL, PathFilter.of(null, new String[0]));
+        assertTrue(PathFilter.ACCEPT_ALL.accepts("any/path.txt"));
+    }
+
+    @Test
+    void suffixAndLiteralPatterns_matchLikePathMatcher() {
+        assertSameAsReference(new String[]{"*.py"}, null);
+        assertSameAsReference(new String[]{"*.py", "*.json"}, new String[]{"venv"});
+        assertSameAsReference(null, new String[]{"flink_types.py"});
+        assertSameAsReference(new String[]{"main.py"}, null);
+    }
+
+    @Test
+    void prefixPatterns_matchLikePathMatcher() {
+        assertSameAsReference(new String[]{"test_*"}, null);
+        assertSameAsReference(new String[]{"*.py"}, new String[]{"test*"});
+    }
+
+    @Test
+    void generalGlobs_fallBackToPathMatcher() {
+        assertSameAsReference(new String[]{"*.{py,json}"}, null);
+        assertSameAsReference(new String[]{"?ain.py", "[rR]eadme.*"}, new String[]{"v*v"});
+        assertSameAsReference(new String[]{"**"}, new String[]{"*"});
+        assertSameAsReference(new String[]{"*"}, null);
+    }
+
+    @Test
+    void masksMatchFilenameOnly() {
+        PathFilter filter = PathFilter.of(new String[]{"lib"}, null);
+        assertFalse(filter.accepts("lib/util.py"));
+        assertTrue(filter.accepts("src/lib"));
+    }
+
+    @Test
+    void excludesMatchAnyComponent() {
+        PathFilter filter = PathFilter.of(null, new String[]{"venv"});
+        assertTrue(filter.isExcluded("venv"));
+        assertTrue(filter.isExcluded("a/venv/b.py"));
+        assertFalse(filter.isExcluded("a/venvs/b.py"));
+    }
+
+    @Test
+    void invalidGlob_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PathFilter.of(new String[]{"[a"}, null));
+    }
+}
@@ -5,6 +5,8 @@ import org.csa.truffle.source.resource.ResourceSourceConfig;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +55,15 @@ class ResourceSourceTest {
         assertTrue(content.contains("v1_only"), "expected v1_only marker in file content");
     }
 
+    @Test
+    void openStream_returnsResourceBytes() throws IOException {
+        ResourceSource src = new ResourceSource(new ResourceSourceConfig(DIR));
+        try (InputStream in = src.openStream("file_only_in_v1.py")) {
+            String content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(src.readFile("file_only_in_v1.py"), content);
+        }
+    }
+
     @Test
     void listFiles_throwsOnMissingDirectory() {
         ResourceSource src = new ResourceSource(new ResourceSourceConfig("no_such_directory"));
@@ -65,6 +76,12 @@ class ResourceSourceTest {
         assertThrows(IOException.class, () -> src.readFile("no_such_file.py"));
     }
 
+    @Test
+    void openStream_throwsOnMissingFile() {
+        ResourceSource src = new ResourceSource(new ResourceSourceConfig(DIR));
+        assertThrows(IOException.class, () -> src.openStream("no_such_file.py"));
+    }
+
     @Test
     void listFiles_excludeFilemaskExcludesFile() throws IOException {
         // python_hr_v1 has: file_in_both_changed.py, file_in_both_unchanged.py, file_only_in_v1.py
@@ -74,4 +91,18 @@ class ResourceSourceTest {
         assertTrue(files.containsKey("file_in_both_changed.py"));
         assertTrue(files.containsKey("file_only_in_v1.py"));
     }
+
+    @Test
+    void listFiles_repeatedPollsReturnCachedListing() throws IOException {
+        ResourceSource src = new ResourceSource(new ResourceSourceConfig(DIR));
+        Map<String, Optional<Instant>> first = src.listFiles();
+        assertSame(first, src.listFiles());
+        assertThrows(UnsupportedOperationException.class, () -> first.remove("file_only_in_v1.py"));
+    }
+
+    @Test
+    void readFile_repeatedReadsReturnCachedContent() throws IOException {
+        ResourceSource src = new ResourceSource(new ResourceSourceConfig(DIR));
+        assertSame(src.readFile("file_only_in_v1.py"), src.readFile("file_only_in_v1.py"));
+    }
 }
@@ -0,0 +1,299 @@
+package org.csa.truffle.source.cache;
+
+import org.csa.truffle.source.FileSource;
+import org.csa.truffle.source.map.MapFileSource;
+import org.csa.truffle.source.map.MapFileSourceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingFileSourceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private final MapFileSource remote = new MapFileSource(new MapFileSourceConfig());
+
+    // -------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------
+
+    /**
+     * Delegates to {@link #remote}, counts reads, and can be switched offline.
+     * Not closed by the caching source under test so the map survives "restarts".
+     */
+    class RemoteSource implements FileSource {
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger byteReads = new AtomicInteger();
+        volatile boolean offline;
+        /** Lists every file without a modification time, as Git and classpath sources do. */
+        volatile boolean untimed;
+
+        @Override
+        public Map<String, Optional<Instant>> listFiles() throws IOException {
+            if (offline) throw new IOException("remote unreachable");
+            Map<String, Optional<Instant>> listing = remote.listFiles();
+            if (!untimed) return listing;
+            Map<String, Optional<Instant>> untimedListing = new LinkedHashMap<>();
+            listing.keySet().forEach(name -> untimedListing.put(name, Optional.empty()));
+            return untimedListing;
+        }
+
+        @Override
+        public String readFile(String name) throws IOException {
+            if (offline) throw new IOException("remote unreachable");
+            reads.incrementAndGet();
+            return remote.readFile(name);
+        }
+
+        @Override
+        public byte[] readFileBytes(String name) throws IOException {
+            if (offline) throw new IOException("remote unreachable");
+            byteReads.incrementAndGet();
+            return remote.readFileBytes(name);
+        }
+    }
+
+    private CachingFileSourceConfig config(long maxBytes, Duration maxStaleness) {
+        return new CachingFileSourceConfig(new MapFileSourceConfig(), cacheDir.toString(), maxBytes, maxStaleness);
+    }
+
+    private CachingFileSource caching(RemoteSource delegate) {
+        return new CachingFileSource(delegate, config(0, Duration.ofHours(1)));
+    }
+
+    /** Lists and reads everything, as {@code FileLoader} does on its first load. */
+    private static Map<String, String> loadAll(FileSource source) throws IOException {
+        return source.readFiles(source.listFiles().keySet());
+    }
+
+    private long blobCount() throws IOException {
+        try (Stream<Path> walk = Files.walk(cacheDir.resolve("blobs"))) {
+            return walk.filter(Files::isRegularFile).count();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Tests
+    // -------------------------------------------------------------------------
+
+    @Test
+    void readFiles_fetchesOnceThenServesFromDisk() throws IOException {
+        remote.put("a.py", "a1");
+        remote.put("b.py", "b1");
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource src = caching(delegate);
+
+        assertEquals(Map.of("a.py", "a1", "b.py", "b1"), loadAll(src));
+        assertEquals(Map.of("a.py", "a1", "b.py", "b1"), loadAll(src));
+
+        assertEquals(2, delegate.reads.get());
+        assertEquals(2, blobCount());
+    }
+
+    @Test
+    void identicalContentSharesOneBlob() throws IOException {
+        remote.put("a.py", "same");
+        remote.put("b.py", "same");
+
+        loadAll(caching(new RemoteSource()));
+
+        assertEquals(1, blobCount());
+    }
+
+    @Test
+    void modifiedFileIsFetchedAgain() throws IOException {
+        remote.put("a.py", "a1");
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource src = caching(delegate);
+        loadAll(src);
+
+        remote.put("a.py", "a2");
+
+        assertEquals(Map.of("a.py", "a2"), loadAll(src));
+        assertEquals(2, delegate.reads.get());
+    }
+
+    @Test
+    void restart_servesColdStartFromDisk() throws Exception {
+        remote.put("a.py", "a1");
+        remote.put("b.py", "b1");
+        loadAll(caching(new RemoteSource()));
+
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource restarted = caching(delegate);
+
+        assertEquals(Map.of("a.py", "a1", "b.py", "b1"), loadAll(restarted));
+        assertEquals(0, delegate.reads.get());
+    }
+
+    @Test
+    void restart_remoteUnreachable_servesRecentSnapshot() throws Exception {
+        remote.put("a.py", "a1");
+        loadAll(caching(new RemoteSource()));
+
+        RemoteSource delegate = new RemoteSource();
+        delegate.offline = true;
+        CachingFileSource restarted = caching(delegate);
+
+        assertEquals(Map.of("a.py", "a1"), loadAll(restarted));
+        // after revalidation failed, later polls fall back to the snapshot as well
+        Thread.sleep(200);
+        assertEquals(List.of("a.py"), List.copyOf(restarted.listFiles().keySet()));
+    }
+
+    @Test
+    void restart_remoteUnreachable_staleSnapshotFails() throws Exception {
+        remote.put("a.py", "a1");
+        loadAll(new CachingFileSource(new RemoteSource(), config(0, Duration.ofMillis(50))));
+        Thread.sleep(100);
+
+        RemoteSource delegate = new RemoteSource();
+        delegate.offline = true;
+        CachingFileSource restarted = new CachingFileSource(delegate, config(0, Duration.ofMillis(50)));
+
+        assertThrows(IOException.class, restarted::listFiles);
+    }
+
+    @Test
+    void restart_revalidationFindsChanges_notifiesListener() throws Exception {
+        remote.put("a.py", "a1");
+        loadAll(caching(new RemoteSource()));
+        remote.put("a.py", "a2");
+        remote.put("c.py", "c1");
+
+        CountDownLatch changed = new CountDownLatch(1);
+        CachingFileSource restarted = caching(new RemoteSource());
+        restarted.setChangeListener(changed::countDown);
+
+        assertEquals(List.of("a.py"), List.copyOf(restarted.listFiles().keySet())); // snapshot
+        assertTrue(changed.await(5, TimeUnit.SECONDS), "listener not called after revalidation");
+        assertEquals(Map.of("a.py", "a2", "c.py", "c1"), loadAll(restarted));
+    }
+
+    @Test
+    void corruptBlobIsRefetched() throws IOException {
+        remote.put("a.py", "a1");
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource src = caching(delegate);
+        loadAll(src);
+
+        Path blob = cacheDir.resolve("blobs").resolve(CachingFileSource.sha256("a1".getBytes()).substring(0, 2))
+                .resolve(CachingFileSource.sha256("a1".getBytes()));
+        Files.writeString(blob, "garbage");
+
+        assertEquals(Map.of("a.py", "a1"), loadAll(src));
+        assertEquals(2, delegate.reads.get());
+    }
+
+    @Test
+    void eviction_removesUnreferencedBlobsAboveLimit() throws IOException {
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource src = new CachingFileSource(delegate, config(100, Duration.ofHours(1)));
+        for (int i = 0; i < 10; i++) {
+            remote.put("a.py", ("version " + i + " ").repeat(4)); // ~40 bytes
+            loadAll(src);
+        }
+
+        assertTrue(blobCount() <= 3, "blobs: " + blobCount());
+        assertEquals(Map.of("a.py", "version 9 ".repeat(4)), loadAll(src));
+    }
+
+    @Test
+    void binaryFile_cachedAsBytesAndStreamedFromDisk() throws IOException {
+        byte[] wasm = {0x00, 0x61, 0x73, 0x6d, (byte) 0xff};
+        remote.put("kernel.wasm", wasm);
+        RemoteSource delegate = new RemoteSource();
+        CachingFileSource src = caching(delegate);
+        src.listFiles();
+
+        assertArrayEquals(wasm, src.readFileBytes("kernel.wasm"));
+        assertArrayEquals(wasm, src.readFileBytes("kernel.wasm"));
+        try (InputStream in = src.openStream("kernel.wasm")) {
+            assertArrayEquals(wasm, in.readAllBytes());
+        }
+
+        assertEquals(1, delegate.byteReads.get());
+        Path blob = cacheDir.resolve("blobs").resolve(CachingFileSource.sha256(wasm).substring(0, 2))
+                .resolve(CachingFileSource.sha256(wasm));
+        assertArrayEquals(wasm, Files.readAllBytes(blob));
+    }
+
+    @Test
+    void restart_remoteUnreachable_servesCachedBinary() throws Exception {
+        byte[] wasm = {0x00, 0x61, 0x73, 0x6d, (byte) 0xff};
+        remote.put("kernel.wasm", wasm);
+        CachingFileSource first = caching(new RemoteSource());
+        first.listFiles();
+        first.readFileBytes("kernel.wasm");
+
+        RemoteSource delegate = new RemoteSource();
+        delegate.offline = true;
+        CachingFileSource restarted = caching(delegate);
+
+        assertEquals(List.of("kernel.wasm"), List.copyOf(restarted.listFiles().keySet()));
+        Thread.sleep(200); // revalidation fails; reads fall back to the snapshot
+        assertArrayEquals(wasm, restarted.readFileBytes("kernel.wasm"));
+        try (InputStream in = restarted.openStream("kernel.wasm")) {
+            assertArrayEquals(wasm, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void restart_untimedSource_servesFromDiskAndRevalidatesByContent() throws Exception {
+        remote.put("a.py", "a1");
+        remote.put("b.py", "b1");
+        RemoteSource first = new RemoteSource();
+        first.untimed = true;
+        loadAll(caching(first));
+
+        RemoteSource delegate = new RemoteSource();
+        delegate.untimed = true;
+        CachingFileSource restarted = caching(delegate);
+        CountDownLatch changed = new CountDownLatch(1);
+        restarted.setChangeListener(changed::countDown);
+
+        assertEquals(Map.of("a.py", "a1", "b.py", "b1"), loadAll(restarted));
+        // revalidation fetches each file once and finds the same content
+        assertFalse(changed.await(500, TimeUnit.MILLISECONDS), "unchanged content must not notify");
+        assertEquals(2, delegate.reads.get());
+        // verified since the last listing: still served from disk
+        assertEquals(Map.of("a.py", "a1", "b.py", "b1"), restarted.readFiles(List.of("a.py", "b.py")));
+        assertEquals(2, delegate.reads.get());
+    }
+
+    @Test
+    void restart_untimedSource_changedContentNotifiesListener() throws Exception {
+        remote.put("a.py", "a1");
+        RemoteSource first = new RemoteSource();
+        first.untimed = true;
+        loadAll(caching(first));
+        remote.put("a.py", "a2");
+
+        RemoteSource delegate = new RemoteSource();
+        delegate.untimed = true;
+        CachingFileSource restarted = caching(delegate);
+        CountDownLatch changed = new CountDownLatch(1);
+        restarted.setChangeListener(changed::countDown);
+
+        assertEquals(List.of("a.py"), List.copyOf(restarted.listFiles().keySet())); // snapshot
+        assertTrue(changed.await(5, TimeUnit.SECONDS), "listener not called after revalidation");
+        assertEquals(Map.of("a.py", "a2"), loadAll(restarted));
+    }
+}
@@ -2,16 +2,30 @@ package org.csa.truffle.source.s3;
 
 import org.junit.jupiter.api.Test;
 import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
 import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -38,6 +52,18 @@ class S3SourceTest {
                 .thenReturn(bytes);
     }
 
+    /**
+     * Creates a {@code ResponseBytes} with the given UTF-8 content whose response carries {@code eTag}.
+     */
+    private static ResponseBytes<GetObjectResponse> bytes(String content, String eTag) {
+        return ResponseBytes.fromByteArray(GetObjectResponse.builder().eTag(eTag).build(),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static S3Object s3obj(String key, String eTag) {
+        return S3Object.builder().key(key).lastModified(Instant.parse("2024-01-01T00:00:00Z")).eTag(eTag).build();
+    }
+
     /**
      * Creates an S3Object with the given key and last-modified time.
      */
@@ -239,4 +265,285 @@ class S3SourceTest {
         S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
         assertThrows(IOException.class, () -> src.readFile("transform.py"));
     }
+
+    // -------------------------------------------------------------------------
+    // openStream
+    // -------------------------------------------------------------------------
+
+    @Test
+    void openStream_streamsObjectBytes() throws IOException {
+        byte[] body = {0x00, 0x61, 0x73, 0x6d, (byte) 0xff};
+        S3Client s3 = mock(S3Client.class);
+        when(s3.getObject(any(GetObjectRequest.class))).thenReturn(new ResponseInputStream<>(
+                GetObjectResponse.builder().build(), AbortableInputStream.create(new ByteArrayInputStream(body))));
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, "scripts"));
+        try (InputStream in = src.openStream("kernel.wasm")) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+        verify(s3).getObject(argThat((GetObjectRequest r) ->
+                r != null && BUCKET.equals(r.bucket()) && "scripts/kernel.wasm".equals(r.key())));
+        verify(s3, never()).getObjectAsBytes(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void openStream_throwsIoExceptionOnS3Error() {
+        S3Client s3 = mock(S3Client.class);
+        when(s3.getObject(any(GetObjectRequest.class)))
+                .thenThrow(S3Exception.builder().message("NoSuchKey").build());
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
+        assertThrows(IOException.class, () -> src.openStream("kernel.wasm"));
+    }
+
+    // -------------------------------------------------------------------------
+    // Conditional reads
+    // -------------------------------------------------------------------------
+
+    @Test
+    void readFile_sameListedETag_skipsRequest() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("transform.py", "\"e1\""));
+        ResponseBytes<GetObjectResponse> v1 = bytes("v1", "\"e1\"");
+        when(s3.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(v1);
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
+        src.listFiles();
+        assertEquals("v1", src.readFile("transform.py"));
+        src.listFiles();
+        assertEquals("v1", src.readFile("transform.py"));
+
+        verify(s3, times(1)).getObjectAsBytes(any(GetObjectRequest.class));
+    }
+
+    @Test
+    void readFile_changedListedETag_sendsIfNoneMatch() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("transform.py", "\"e1\""));
+        ResponseBytes<GetObjectResponse> v1 = bytes("v1", "\"e1\"");
+        ResponseBytes<GetObjectResponse> v2 = bytes("v2", "\"e2\"");
+        when(s3.getObjectAsBytes(any(GetObjectRequest.class))).thenReturn(v1, v2);
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
+        src.listFiles();
+        src.readFile("transform.py");
+        stubList(s3, s3obj("transform.py", "\"e2\""));
+        src.listFiles();
+
+        assertEquals("v2", src.readFile("transform.py"));
+        verify(s3).getObjectAsBytes(argThat((GetObjectRequest r) ->
+                r != null && "\"e1\"".equals(r.ifNoneMatch())));
+    }
+
+    @Test
+    void readFile_notModified_returnsCachedContent() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("transform.py", "\"e1\""));
+        ResponseBytes<GetObjectResponse> v1 = bytes("v1", "\"e1\"");
+        when(s3.getObjectAsBytes(any(GetObjectRequest.class)))
+                .thenReturn(v1)
+                .thenThrow(S3Exception.builder().statusCode(304).message("Not Modified").build());
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
+        src.listFiles();
+        src.readFile("transform.py");
+        // re-uploaded under a new ETag, but the server still reports the object as not modified
+        stubList(s3, s3obj("transform.py", "\"e1-copy\""));
+        src.listFiles();
+
+        assertEquals("v1", src.readFile("transform.py"));
+        verify(s3, times(2)).getObjectAsBytes(any(GetObjectRequest.class));
+    }
+
+    // -------------------------------------------------------------------------
+    // Parallel readFiles
+    // -------------------------------------------------------------------------
+
+    @Test
+    void readFiles_async_preservesOrder() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        S3AsyncClient s3Async = mock(S3AsyncClient.class);
+        when(s3Async.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenAnswer(inv -> {
+                    GetObjectRequest r = inv.getArgument(0);
+                    return CompletableFuture.completedFuture(bytes("body of " + r.key(), "\"" + r.key() + "\""));
+                });
+
+        S3Source src = new S3Source(s3, s3Async, new S3SourceConfig(BUCKET, "scripts").withMaxConcurrency(4));
+        Map<String, String> contents = src.readFiles(List.of("c.py", "a.py", "b.py"));
+
+        assertEquals(List.of("c.py", "a.py", "b.py"), List.copyOf(contents.keySet()));
+        assertEquals("body of scripts/a.py", contents.get("a.py"));
+        verifyNoInteractions(s3);
+    }
+
+    @Test
+    void readFiles_async_boundsConcurrency() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        S3AsyncClient s3Async = mock(S3AsyncClient.class);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(s3Async.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenAnswer(inv -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        inFlight.decrementAndGet();
+                        return bytes("x", "\"e\"");
+                    });
+                });
+
+        S3Source src = new S3Source(s3, s3Async, new S3SourceConfig(BUCKET, "").withMaxConcurrency(2));
+        src.readFiles(List.of("1.py", "2.py", "3.py", "4.py", "5.py", "6.py"));
+
+        assertTrue(maxInFlight.get() <= 2, "max in flight: " + maxInFlight.get());
+    }
+
+    @Test
+    void readFiles_async_propagatesErrors() {
+        S3Client s3 = mock(S3Client.class);
+        S3AsyncClient s3Async = mock(S3AsyncClient.class);
+        when(s3Async.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(CompletableFuture.failedFuture(S3Exception.builder().statusCode(404).message("NoSuchKey").build()));
+
+        S3Source src = new S3Source(s3, s3Async, new S3SourceConfig(BUCKET, "").withMaxConcurrency(4));
+        assertThrows(IOException.class, () -> src.readFiles(List.of("a.py", "b.py")));
+    }
+
+    @Test
+    void readFiles_async_synchronousFailureCancelsInFlightRequests() {
+        S3Client s3 = mock(S3Client.class);
+        S3AsyncClient s3Async = mock(S3AsyncClient.class);
+        CompletableFuture<ResponseBytes<GetObjectResponse>> first = new CompletableFuture<>();
+        when(s3Async.getObject(any(GetObjectRequest.class), any(AsyncResponseTransformer.class)))
+                .thenReturn(first)
+                .thenThrow(new IllegalStateException("Client is closed"));
+
+        S3Source src = new S3Source(s3, s3Async, new S3SourceConfig(BUCKET, "").withMaxConcurrency(4));
+        IOException e = assertThrows(IOException.class, () -> src.readFiles(List.of("a.py", "b.py")));
+        assertTrue(e.getMessage().contains("Client is closed"), e.getMessage());
+        assertTrue(first.isCancelled());
+    }
+
+    // -------------------------------------------------------------------------
+    // Push mode
+    // -------------------------------------------------------------------------
+
+    private static final S3NotificationConfig PUSH =
+            new S3NotificationConfig(null, null, Duration.ofHours(1), Duration.ofMillis(50));
+
+    private static void awaitChange(Semaphore changes) throws InterruptedException {
+        assertTrue(changes.tryAcquire(5, TimeUnit.SECONDS), "change listener not invoked");
+    }
+
+    @Test
+    void pushMode_notificationsPatchListingWithoutS3Requests() throws Exception {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("scripts/a.py"));
+        InMemoryNotificationQueue queue = new InMemoryNotificationQueue();
+        Semaphore changes = new Semaphore(0);
+
+        List<Set<String>> notified = new CopyOnWriteArrayList<>();
+
+        try (S3Source src = new S3Source(s3, queue, new S3SourceConfig(BUCKET, "scripts").withNotifications(PUSH))) {
+            src.setChangeListener((Set<String> paths) -> {
+                notified.add(paths);
+                changes.release();
+            });
+            assertEquals(List.of("a.py"), List.copyOf(src.listFiles().keySet()));
+
+            Instant t = Instant.parse("2024-02-01T00:00:00Z");
+            queue.publish(S3ObjectEvent.created("scripts/b.py", "\"b1\"", t));
+            awaitChange(changes);
+            Map<String, Optional<Instant>> files = src.listFiles();
+            assertEquals(List.of("a.py", "b.py"), List.copyOf(files.keySet()));
+            assertEquals(Optional.of(t), files.get("b.py"));
+
+            queue.publish(S3ObjectEvent.removed("scripts/a.py", t));
+            awaitChange(changes);
+            assertEquals(List.of("b.py"), List.copyOf(src.listFiles().keySet()));
+        }
+        assertEquals(List.of(Set.of("b.py"), Set.of("a.py")), notified);
+        verify(s3, times(1)).listObjectsV2Paginator(any(ListObjectsV2Request.class));
+    }
+
+    @Test
+    void pushMode_ignoresNotificationsOutsidePrefixAndMasks() throws Exception {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("scripts/a.py"));
+        InMemoryNotificationQueue queue = new InMemoryNotificationQueue();
+        Semaphore changes = new Semaphore(0);
+        S3SourceConfig config = new S3SourceConfig(BUCKET, "scripts", null, null, null, null,
+                new String[]{"*.py"}, null).withNotifications(PUSH);
+
+        try (S3Source src = new S3Source(s3, queue, config)) {
+            src.setChangeListener(() -> changes.release());
+            src.listFiles();
+
+            Instant t = Instant.parse("2024-02-01T00:00:00Z");
+            queue.publish(S3ObjectEvent.created("other/x.py", "\"x\"", t));
+            queue.publish(S3ObjectEvent.created("scripts/notes.txt", "\"n\"", t));
+            queue.publish(S3ObjectEvent.created("scripts/c.py", "\"c\"", t));
+            awaitChange(changes);
+
+            assertEquals(List.of("a.py", "c.py"), List.copyOf(src.listFiles().keySet()));
+        }
+    }
+
+    @Test
+    void pushMode_ignoresOutOfOrderNotifications() throws Exception {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3);
+        InMemoryNotificationQueue queue = new InMemoryNotificationQueue();
+        Semaphore changes = new Semaphore(0);
+
+        try (S3Source src = new S3Source(s3, queue, new S3SourceConfig(BUCKET, "").withNotifications(PUSH))) {
+            src.setChangeListener(() -> changes.release());
+            src.listFiles();
+
+            Instant t = Instant.parse("2024-02-01T00:00:00Z");
+            queue.publish(new S3ObjectEvent("a.py", S3ObjectEvent.Kind.CREATED, "\"a\"", t, "0055AED6DCD90281E6"));
+            awaitChange(changes);
+            // an older removal delivered late must not drop the object
+            queue.publish(new S3ObjectEvent("a.py", S3ObjectEvent.Kind.REMOVED, null, t, "0055AED6DCD90281E5"));
+            queue.publish(S3ObjectEvent.created("b.py", "\"b\"", t));
+            awaitChange(changes);
+
+            assertEquals(List.of("a.py", "b.py"), List.copyOf(src.listFiles().keySet()));
+        }
+    }
+
+    @Test
+    void pushMode_reconcilesWithFullListing() throws Exception {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("a.py"));
+        InMemoryNotificationQueue queue = new InMemoryNotificationQueue();
+        S3NotificationConfig reconcileAlways =
+                new S3NotificationConfig(null, null, Duration.ZERO, Duration.ofMillis(50));
+
+        try (S3Source src = new S3Source(s3, queue, new S3SourceConfig(BUCKET, "").withNotifications(reconcileAlways))) {
+            src.setChangeListener(() -> { });
+            src.listFiles();
+            stubList(s3, s3obj("a.py"), s3obj("missed.py"));
+
+            assertEquals(List.of("a.py", "missed.py"), List.copyOf(src.listFiles().keySet()));
+        }
+    }
+
+    @Test
+    void pullMode_setChangeListenerIsNoOp() throws IOException {
+        S3Client s3 = mock(S3Client.class);
+        stubList(s3, s3obj("a.py"));
+
+        S3Source src = new S3Source(s3, new S3SourceConfig(BUCKET, ""));
+        src.setChangeListener(() -> fail("pull-only source must not notify"));
+        src.listFiles();
+        src.listFiles();
+
+        verify(s3, times(2)).listObjectsV2Paginator(any(ListObjectsV2Request.class));
+    }
 }
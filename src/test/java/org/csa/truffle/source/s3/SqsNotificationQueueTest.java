@@ -0,0 +1,78 @@
+package org.csa.truffle.source.s3;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqsNotificationQueueTest {
+
+    private static final String PUT = """
+            {"Records":[{"eventVersion":"2.1","eventSource":"aws:s3","eventTime":"2024-03-01T10:15:30.123Z",
+              "eventName":"ObjectCreated:Put",
+              "s3":{"bucket":{"name":"my-bucket"},
+                    "object":{"key":"scripts/my+transform%281%29.py","size":42,
+                              "eTag":"d41d8cd98f00b204e9800998ecf8427e","sequencer":"0055AED6DCD90281E5"}}}]}
+            """;
+
+    @Test
+    void parse_objectCreated() throws IOException {
+        List<S3ObjectEvent> events = SqsNotificationQueue.parse(PUT);
+
+        assertEquals(1, events.size());
+        S3ObjectEvent event = events.get(0);
+        assertEquals(S3ObjectEvent.Kind.CREATED, event.kind());
+        assertEquals("scripts/my transform(1).py", event.key());
+        assertEquals("\"d41d8cd98f00b204e9800998ecf8427e\"", event.eTag());
+        assertEquals(Instant.parse("2024-03-01T10:15:30.123Z"), event.eventTime());
+        assertEquals("0055AED6DCD90281E5", event.sequencer());
+    }
+
+    @Test
+    void parse_objectRemoved() throws IOException {
+        List<S3ObjectEvent> events = SqsNotificationQueue.parse("""
+                {"Records":[{"eventTime":"2024-03-01T10:15:30Z","eventName":"ObjectRemoved:Delete",
+                  "s3":{"object":{"key":"scripts/a.py","sequencer":"0055AED6DCD90281E6"}}}]}
+                """);
+
+        assertEquals(1, events.size());
+        assertEquals(S3ObjectEvent.Kind.REMOVED, events.get(0).kind());
+        assertNull(events.get(0).eTag());
+    }
+
+    @Test
+    void parse_unwrapsSnsEnvelope() throws IOException {
+        String sns = "{\"Type\":\"Notification\",\"Message\":" + quoteJson(PUT) + "}";
+
+        List<S3ObjectEvent> events = SqsNotificationQueue.parse(sns);
+
+        assertEquals(1, events.size());
+        assertEquals("scripts/my transform(1).py", events.get(0).key());
+    }
+
+    @Test
+    void parse_testEventYieldsNoEvents() throws IOException {
+        assertTrue(SqsNotificationQueue.parse(
+                "{\"Service\":\"Amazon S3\",\"Event\":\"s3:TestEvent\",\"Bucket\":\"my-bucket\"}").isEmpty());
+    }
+
+    @Test
+    void parse_invalidJsonThrows() {
+        assertThrows(IOException.class, () -> SqsNotificationQueue.parse("not json"));
+    }
+
+    @Test
+    void isOlderThan_comparesPaddedSequencers() {
+        S3ObjectEvent event = new S3ObjectEvent("k", S3ObjectEvent.Kind.CREATED, null, Instant.EPOCH, "0055AED6DCD9028");
+        assertTrue(event.isOlderThan("0055AED6DCD90281E5"));
+        assertFalse(event.isOlderThan("0055AED6DCD90280"));
+        assertFalse(event.isOlderThan(null));
+    }
+
+    private static String quoteJson(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}